@@ -0,0 +1,175 @@
+package org.example.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.EagleBankApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP throughput of the AccountController read endpoints with platform-thread and virtual-thread Tomcat
+ * The full application runs on a random port; 256 client threads exceed Tomcat's 200 platform threads,
+ * while the Hikari pool (10 connections) bounds both modes. Any non-2xx response fails the run, so a 503
+ * from the connection-pool limiter shows up as an error rather than as inflated throughput
+ * The virtual mode needs a Java 21 runtime and a build with the java21 profile:
+ * ./mvnw -Pjava21,benchmark test-compile exec:exec -Djmh.include=AccountEndpointLoadBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@Threads(256)
+public class AccountEndpointLoadBenchmark {
+
+    private static final int ACCOUNTS = 10;
+    private static final int TRANSACTIONS_PER_ACCOUNT = 50;
+
+    @Param({"platform", "virtual"})
+    private String threadMode;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private ObjectMapper objectMapper;
+    private String baseUrl;
+    private String authorization;
+    private List<String> accountNumbers;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        boolean virtual = "virtual".equals(threadMode);
+        if (virtual && !isVirtualThreadModeAvailable()) {
+            throw new IllegalStateException("threadMode=virtual needs a Java 21 runtime and a build with -Pjava21");
+        }
+
+        context = new SpringApplicationBuilder(EagleBankApplication.class)
+                .properties(
+                        "server.port=0",
+                        "threads.virtual.enabled=" + virtual,
+                        // the limiter should queue, not reject, under this load
+                        "threads.virtual.acquire-timeout-ms=30000",
+                        "spring.datasource.url=jdbc:h2:mem:load;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "logging.level.org.example=WARN",
+                        "logging.level.org.hibernate.SQL=WARN",
+                        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                        "logging.level.org.springframework.security=WARN")
+                .run();
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        objectMapper = new ObjectMapper();
+        seed();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int listAccounts() throws Exception {
+        return get("/v1/accounts");
+    }
+
+    @Benchmark
+    public int fetchAccount() throws Exception {
+        return get("/v1/accounts/" + randomAccountNumber());
+    }
+
+    @Benchmark
+    public int listTransactions() throws Exception {
+        return get("/v1/accounts/" + randomAccountNumber() + "/transactions");
+    }
+
+    private void seed() throws Exception {
+        send("POST", "/v1/users", """
+                {"name": "Load Test", "email": "load@example.com", "password": "loadTestPassword1",
+                 "phoneNumber": "+447700900000",
+                 "address": {"line1": "1 High Street", "town": "London", "county": "Greater London", "postcode": "SW1A 1AA"}}
+                """);
+        JsonNode login = send("POST", "/v1/auth/login",
+                "{\"email\": \"load@example.com\", \"password\": \"loadTestPassword1\"}");
+        authorization = "Bearer " + login.get("token").asText();
+
+        accountNumbers = new ArrayList<>(ACCOUNTS);
+        for (int a = 0; a < ACCOUNTS; a++) {
+            JsonNode account = send("POST", "/v1/accounts",
+                    "{\"name\": \"Account " + a + "\", \"accountType\": \"personal\"}");
+            String accountNumber = account.get("accountNumber").asText();
+            accountNumbers.add(accountNumber);
+            for (int t = 0; t < TRANSACTIONS_PER_ACCOUNT; t++) {
+                send("POST", "/v1/accounts/" + accountNumber + "/transactions",
+                        "{\"amount\": 10.00, \"currency\": \"GBP\", \"type\": \"deposit\"}");
+            }
+        }
+    }
+
+    private JsonNode send(String method, String path, String body) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body));
+        if (authorization != null) {
+            request.header("Authorization", authorization);
+        }
+        HttpResponse<String> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException(method + " " + path + " returned " + response.statusCode() + ": " + response.body());
+        }
+        return objectMapper.readTree(response.body());
+    }
+
+    private int get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", authorization)
+                .GET()
+                .build();
+        HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET " + path + " returned " + response.statusCode());
+        }
+        return response.body().length;
+    }
+
+    private String randomAccountNumber() {
+        return accountNumbers.get(ThreadLocalRandom.current().nextInt(ACCOUNTS));
+    }
+
+    private static boolean isVirtualThreadModeAvailable() {
+        if (Runtime.version().feature() < 21) {
+            return false;
+        }
+        try {
+            Class.forName("org.example.config.VirtualThreadConfig");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.example.benchmark;
+
+import jakarta.servlet.ServletException;
+import org.example.security.JwtAuthenticationFilter;
+import org.example.security.JwtPrincipal;
+import org.example.security.JwtService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of JWT authentication: token generation, verification with and without
+ * the verified-token cache, the pre-cache three-parse path, and a full pass through JwtAuthenticationFilter
+ * Run with -prof gc to track allocation per request
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthenticationBenchmark {
+
+    private static final String SECRET = "mySecretKey1234567890abcdefghijklmnopqrstuvwxyz";
+    private static final String USER_ID = "usr-AbC123dEf456";
+
+    private JwtService jwtService;
+    private JwtAuthenticationFilter filter;
+    private String token;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(SECRET, 86_400_000L, 10_000);
+        filter = new JwtAuthenticationFilter(jwtService);
+        token = jwtService.generateToken(USER_ID);
+
+        request = new MockHttpServletRequest("GET", "/v1/accounts");
+        request.addHeader("Authorization", "Bearer " + token);
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(USER_ID);
+    }
+
+    /**
+     * One parse and HMAC verification, i.e. the cost of a cache miss
+     */
+    @Benchmark
+    public String verifyUncached() {
+        return jwtService.extractUserId(token);
+    }
+
+    /**
+     * What the filter did per request before validateToken: three parses and verifications
+     */
+    @Benchmark
+    public boolean verifyThreeParses() {
+        String userId = jwtService.extractUserId(token);
+        return jwtService.isTokenValid(token, userId);
+    }
+
+    @Benchmark
+    public Optional<JwtPrincipal> validateTokenCached() {
+        return jwtService.validateToken(token);
+    }
+
+    @Benchmark
+    public Authentication filterRequest() throws ServletException, IOException {
+        SecurityContextHolder.clearContext();
+        filter.doFilter(request, response, new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
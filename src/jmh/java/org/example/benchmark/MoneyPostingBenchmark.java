@@ -0,0 +1,95 @@
+package org.example.benchmark;
+
+import org.example.entity.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares balance postings on long minor units (as done by TransactionService),
+ * on the Money value type, on Double (the previous representation) and on BigDecimal
+ * Run with -prof gc to compare allocation rates
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyPostingBenchmark {
+
+    private static final int POSTINGS = 1024;
+
+    private long[] minorAmounts;
+    private Money[] moneyAmounts;
+    private double[] doubleAmounts;
+    private BigDecimal[] decimalAmounts;
+    private boolean[] withdrawals;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        minorAmounts = new long[POSTINGS];
+        moneyAmounts = new Money[POSTINGS];
+        doubleAmounts = new double[POSTINGS];
+        decimalAmounts = new BigDecimal[POSTINGS];
+        withdrawals = new boolean[POSTINGS];
+        for (int i = 0; i < POSTINGS; i++) {
+            long pence = random.nextLong(1, 1_000_001);
+            minorAmounts[i] = pence;
+            moneyAmounts[i] = Money.ofMinor(pence);
+            doubleAmounts[i] = pence / 100.0;
+            decimalAmounts[i] = BigDecimal.valueOf(pence, 2);
+            withdrawals[i] = random.nextInt(3) == 0;
+        }
+    }
+
+    @Benchmark
+    public long minorUnits() {
+        long balance = 0;
+        for (int i = 0; i < POSTINGS; i++) {
+            balance = withdrawals[i]
+                    ? Math.subtractExact(balance, minorAmounts[i])
+                    : Math.addExact(balance, minorAmounts[i]);
+        }
+        return balance;
+    }
+
+    @Benchmark
+    public Money moneyValue() {
+        Money balance = Money.ZERO;
+        for (int i = 0; i < POSTINGS; i++) {
+            balance = withdrawals[i] ? balance.minus(moneyAmounts[i]) : balance.plus(moneyAmounts[i]);
+        }
+        return balance;
+    }
+
+    @Benchmark
+    public double doubleValue() {
+        double balance = 0.0;
+        for (int i = 0; i < POSTINGS; i++) {
+            balance = withdrawals[i] ? balance - doubleAmounts[i] : balance + doubleAmounts[i];
+        }
+        return balance;
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        BigDecimal balance = BigDecimal.ZERO;
+        for (int i = 0; i < POSTINGS; i++) {
+            balance = withdrawals[i] ? balance.subtract(decimalAmounts[i]) : balance.add(decimalAmounts[i]);
+        }
+        return balance;
+    }
+}
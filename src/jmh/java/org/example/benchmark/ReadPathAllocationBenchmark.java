@@ -0,0 +1,172 @@
+package org.example.benchmark;
+
+import jakarta.persistence.EntityManager;
+import org.example.EagleBankApplication;
+import org.example.entity.Transaction;
+import org.example.mapper.AccountMapper;
+import org.example.mapper.TransactionMapper;
+import org.example.model.BankAccountResponse;
+import org.example.model.TransactionResponse;
+import org.example.repository.AccountRepository;
+import org.example.repository.TransactionRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the listAccounts and listAccountTransactions read paths with managed entities vs projections
+ * Each call runs in a read-only transaction and maps to the API response, as the services do;
+ * compare gc.alloc.rate.norm (bytes per call) from the GC profiler alongside the latency
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class ReadPathAllocationBenchmark {
+
+    private static final int USERS = 1_000;
+    private static final int ACCOUNTS_PER_USER = 5;
+    private static final int TRANSACTIONS_PER_ACCOUNT = 50;
+    private static final int PAGE_SIZE = 20;
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2020, 1, 1, 0, 0);
+    // The entity listing the service used before projections; kept here as the baseline
+    private static final String TRANSACTION_PAGE_QUERY = "SELECT t FROM Transaction t " +
+            "WHERE t.account.accountNumber = :accountNumber ORDER BY t.createdTimestamp DESC, t.id DESC";
+
+    private ConfigurableApplicationContext context;
+    private AccountRepository accountRepository;
+    private TransactionRepository transactionRepository;
+    private AccountMapper accountMapper;
+    private TransactionMapper transactionMapper;
+    private EntityManager entityManager;
+    private TransactionTemplate readOnlyTransaction;
+    private Pageable page;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(EagleBankApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:readpaths;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "logging.level.org.example=WARN",
+                        "logging.level.org.hibernate.SQL=WARN",
+                        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                        "logging.level.org.springframework.security=WARN")
+                .run();
+        accountRepository = context.getBean(AccountRepository.class);
+        transactionRepository = context.getBean(TransactionRepository.class);
+        accountMapper = context.getBean(AccountMapper.class);
+        transactionMapper = context.getBean(TransactionMapper.class);
+        entityManager = context.getBean(EntityManager.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+        page = PageRequest.of(0, PAGE_SIZE + 1);
+        random = new SplittableRandom(42);
+
+        seed(context.getBean(JdbcTemplate.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BankAccountResponse> listAccountsWithEntities() {
+        String userId = randomUserId();
+        return readOnlyTransaction.execute(status -> accountMapper.toResponseList(accountRepository.findByUser_Id(userId)));
+    }
+
+    @Benchmark
+    public List<BankAccountResponse> listAccountsWithProjections() {
+        String userId = randomUserId();
+        return readOnlyTransaction.execute(status -> accountMapper.fromViews(accountRepository.findViewsByUserId(userId)));
+    }
+
+    @Benchmark
+    public List<TransactionResponse> listTransactionsWithEntities() {
+        String accountNumber = randomAccountNumber();
+        return readOnlyTransaction.execute(status ->
+                transactionMapper.toResponseList(entityManager.createQuery(TRANSACTION_PAGE_QUERY, Transaction.class)
+                        .setParameter("accountNumber", accountNumber)
+                        .setMaxResults(PAGE_SIZE + 1)
+                        .getResultList()));
+    }
+
+    @Benchmark
+    public List<TransactionResponse> listTransactionsWithProjections() {
+        int account = random.nextInt(USERS * ACCOUNTS_PER_USER);
+        String userId = "usr-" + account / ACCOUNTS_PER_USER;
+        return readOnlyTransaction.execute(status -> transactionMapper.fromViews(
+                transactionRepository.findViewPageByAccountNumber(accountNumber(account), page), userId));
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        Timestamp now = Timestamp.valueOf(EPOCH);
+
+        List<Object[]> users = new ArrayList<>(USERS);
+        List<Object[]> accounts = new ArrayList<>(USERS * ACCOUNTS_PER_USER);
+        List<Object[]> transactions = new ArrayList<>(USERS * ACCOUNTS_PER_USER * TRANSACTIONS_PER_ACCOUNT);
+        for (int u = 0; u < USERS; u++) {
+            users.add(new Object[]{"usr-" + u, "user" + u + "@example.com", "hash", "User " + u, "+447700900000",
+                    "1 High Street", "London", "Greater London", "SW1A 1AA", now, now});
+            for (int a = 0; a < ACCOUNTS_PER_USER; a++) {
+                int account = u * ACCOUNTS_PER_USER + a;
+                accounts.add(new Object[]{accountNumber(account), "Account " + a, now, now, "usr-" + u});
+                for (int t = 0; t < TRANSACTIONS_PER_ACCOUNT; t++) {
+                    transactions.add(new Object[]{"tan-" + account + "x" + t, 1_000L + t,
+                            Timestamp.valueOf(EPOCH.plusSeconds(t)), accountNumber(account)});
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (user_id, email, password_hash, name, phone_number, " +
+                "address_line1, address_town, address_county, address_postcode, created_timestamp, updated_timestamp) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", users);
+        jdbcTemplate.batchUpdate("INSERT INTO accounts (account_number, account_type, balance, currency, sort_code, " +
+                "name, created_timestamp, updated_timestamp, version, user_id) " +
+                "VALUES (?, 'PERSONAL', 0, 'GBP', '_10_10_10', ?, ?, ?, 0, ?)", accounts);
+        jdbcTemplate.batchUpdate("INSERT INTO transactions (id, amount, type, currency, reference, created_timestamp, " +
+                "account_number) VALUES (?, ?, 'DEPOSIT', 'GBP', 'Salary', ?, ?)", transactions);
+    }
+
+    private String randomAccountNumber() {
+        return accountNumber(random.nextInt(USERS * ACCOUNTS_PER_USER));
+    }
+
+    private String randomUserId() {
+        return "usr-" + random.nextInt(USERS);
+    }
+
+    private static String accountNumber(int index) {
+        return String.format("01%06d", index);
+    }
+}
@@ -0,0 +1,189 @@
+package org.example.benchmark;
+
+import org.example.EagleBankApplication;
+import org.example.entity.Account;
+import org.example.repository.AccountRepository;
+import org.example.repository.TransactionRepository;
+import org.example.repository.TransactionView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the transaction listing and account lookup queries against 1M seeded transactions in H2
+ * Setup fails the run if H2's query plan for any of them does not use the declared indexes
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class TransactionRepositoryBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionRepositoryBenchmark.class);
+
+    private static final int USERS = 1_000;
+    private static final int ACCOUNTS_PER_USER = 5;
+    private static final int TRANSACTIONS_PER_ACCOUNT = 200; // 1,000,000 transactions in total
+    private static final int PAGE_SIZE = 20;
+    private static final int BATCH_SIZE = 10_000;
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+    private ConfigurableApplicationContext context;
+    private TransactionRepository transactionRepository;
+    private AccountRepository accountRepository;
+    private Pageable page;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(EagleBankApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "logging.level.org.example=WARN",
+                        "logging.level.org.example.benchmark=INFO",
+                        "logging.level.org.hibernate.SQL=WARN",
+                        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                        "logging.level.org.springframework.security=WARN")
+                .run();
+        transactionRepository = context.getBean(TransactionRepository.class);
+        accountRepository = context.getBean(AccountRepository.class);
+        page = PageRequest.of(0, PAGE_SIZE + 1);
+        random = new SplittableRandom(42);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        seed(jdbcTemplate);
+        jdbcTemplate.execute("ANALYZE");
+
+        assertIndexUsed(jdbcTemplate, "idx_transactions_account_created",
+                "SELECT * FROM transactions WHERE account_number = '01000000' " +
+                "ORDER BY created_timestamp DESC, id DESC LIMIT 21");
+        assertIndexUsed(jdbcTemplate, "idx_transactions_account_created",
+                "SELECT * FROM transactions WHERE account_number = '01000000' " +
+                "AND (created_timestamp < TIMESTAMP '2020-01-01 00:01:40' " +
+                "OR (created_timestamp = TIMESTAMP '2020-01-01 00:01:40' AND id < 'tan-0')) " +
+                "ORDER BY created_timestamp DESC, id DESC LIMIT 21");
+        assertIndexUsed(jdbcTemplate, "idx_accounts_user_id",
+                "SELECT * FROM accounts WHERE user_id = 'usr-0'");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<TransactionView> listFirstPage() {
+        return transactionRepository.findViewPageByAccountNumber(randomAccountNumber(), page);
+    }
+
+    @Benchmark
+    public List<TransactionView> listPageAfterCursor() {
+        int account = random.nextInt(USERS * ACCOUNTS_PER_USER);
+        int position = random.nextInt(TRANSACTIONS_PER_ACCOUNT);
+        return transactionRepository.findViewPageByAccountNumberAfter(accountNumber(account),
+                EPOCH.plusSeconds(position), transactionId(account, position), page);
+    }
+
+    @Benchmark
+    public List<Account> findAccountsByUser() {
+        return accountRepository.findByUser_Id(randomUserId());
+    }
+
+    @Benchmark
+    public boolean existsAccountForUser() {
+        return accountRepository.existsByUserId(randomUserId());
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        Timestamp now = Timestamp.valueOf(EPOCH);
+
+        List<Object[]> users = new ArrayList<>(USERS);
+        List<Object[]> accounts = new ArrayList<>(USERS * ACCOUNTS_PER_USER);
+        for (int u = 0; u < USERS; u++) {
+            users.add(new Object[]{"usr-" + u, "user" + u + "@example.com", "hash", "User " + u, "+447700900000",
+                    "1 High Street", "London", "Greater London", "SW1A 1AA", now, now});
+            for (int a = 0; a < ACCOUNTS_PER_USER; a++) {
+                accounts.add(new Object[]{accountNumber(u * ACCOUNTS_PER_USER + a), "Account " + a, now, now, "usr-" + u});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (user_id, email, password_hash, name, phone_number, " +
+                "address_line1, address_town, address_county, address_postcode, created_timestamp, updated_timestamp) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", users);
+        jdbcTemplate.batchUpdate("INSERT INTO accounts (account_number, account_type, balance, currency, sort_code, " +
+                "name, created_timestamp, updated_timestamp, version, user_id) " +
+                "VALUES (?, 'PERSONAL', 0, 'GBP', '_10_10_10', ?, ?, ?, 0, ?)", accounts);
+
+        // Interleave accounts so each account's rows are spread across the table, as they are in production
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        int accountCount = USERS * ACCOUNTS_PER_USER;
+        for (int t = 0; t < TRANSACTIONS_PER_ACCOUNT; t++) {
+            Timestamp createdTimestamp = Timestamp.valueOf(EPOCH.plusSeconds(t));
+            for (int a = 0; a < accountCount; a++) {
+                batch.add(new Object[]{transactionId(a, t), 1_000L + t, createdTimestamp, accountNumber(a)});
+                if (batch.size() == BATCH_SIZE) {
+                    insertTransactions(jdbcTemplate, batch);
+                    batch.clear();
+                }
+            }
+        }
+        insertTransactions(jdbcTemplate, batch);
+    }
+
+    private static void insertTransactions(JdbcTemplate jdbcTemplate, List<Object[]> batch) {
+        jdbcTemplate.batchUpdate("INSERT INTO transactions (id, amount, type, currency, created_timestamp, account_number) " +
+                "VALUES (?, ?, 'DEPOSIT', 'GBP', ?, ?)", batch);
+    }
+
+    private static void assertIndexUsed(JdbcTemplate jdbcTemplate, String index, String sql) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+        log.info("Plan using {}: {}", index, plan);
+        if (plan == null || !plan.toUpperCase().contains(index.toUpperCase())) {
+            throw new IllegalStateException("Expected index " + index + " to be used, plan was: " + plan);
+        }
+    }
+
+    private String randomAccountNumber() {
+        return accountNumber(random.nextInt(USERS * ACCOUNTS_PER_USER));
+    }
+
+    private String randomUserId() {
+        return "usr-" + random.nextInt(USERS);
+    }
+
+    private static String accountNumber(int index) {
+        return String.format("01%06d", index);
+    }
+
+    private static String transactionId(int account, int sequence) {
+        return "tan-" + account + "x" + sequence;
+    }
+}
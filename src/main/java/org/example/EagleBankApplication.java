@@ -2,8 +2,10 @@ package org.example;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling // Purges expired idempotency keys
 public class EagleBankApplication {
     public static void main(String[] args) {
         SpringApplication.run(EagleBankApplication.class, args);
@@ -0,0 +1,19 @@
+package org.example.config;
+
+/**
+ * Point-in-time connection hold statistics of one endpoint
+ *
+ * @param endpoint        HTTP method and path pattern, or "none" for work outside a request
+ * @param connections     number of connections borrowed and returned since startup
+ * @param totalHoldNanos  total time those connections were held
+ * @param maxHoldNanos    longest single hold
+ */
+public record ConnectionHoldStats(String endpoint,
+                                  long connections,
+                                  long totalHoldNanos,
+                                  long maxHoldNanos) {
+
+    public long meanHoldNanos() {
+        return connections == 0 ? 0 : totalHoldNanos / connections;
+    }
+}
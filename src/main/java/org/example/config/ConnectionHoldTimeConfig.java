@@ -0,0 +1,49 @@
+package org.example.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Connection hold-time instrumentation of the application DataSource
+ * With open-session-in-view disabled a request holds a connection only while a service transaction runs;
+ * the recorder shows per endpoint how long that is, so long holds can be found before they exhaust the pool
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.connection-hold.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class ConnectionHoldTimeConfig {
+
+    private static final String DATA_SOURCE_BEAN_NAME = "dataSource";
+
+    @Bean
+    public ConnectionHoldTimeRecorder connectionHoldTimeRecorder(
+            @Value("${datasource.connection-hold.warn-threshold:PT1S}") Duration warnThreshold) {
+        return new ConnectionHoldTimeRecorder(warnThreshold);
+    }
+
+    /**
+     * Static, like every BeanPostProcessor, so that it is registered before the DataSource is created
+     */
+    @Bean
+    public static BeanPostProcessor connectionHoldTimeDataSourcePostProcessor(ObjectProvider<ConnectionHoldTimeRecorder> recorder) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (DATA_SOURCE_BEAN_NAME.equals(beanName) && bean instanceof DataSource dataSource
+                        && !(bean instanceof ConnectionHoldTimeDataSource)) {
+                    log.info("Recording connection hold times of DataSource {}", beanName);
+                    return new ConnectionHoldTimeDataSource(dataSource, recorder.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
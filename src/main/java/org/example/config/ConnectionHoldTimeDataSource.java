@@ -0,0 +1,63 @@
+package org.example.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * DataSource that measures how long each borrowed connection is held, from getConnection until close,
+ * and reports it to a ConnectionHoldTimeRecorder under the endpoint that borrowed it
+ */
+public class ConnectionHoldTimeDataSource extends DelegatingDataSource {
+
+    private final ConnectionHoldTimeRecorder recorder;
+
+    public ConnectionHoldTimeDataSource(DataSource targetDataSource, ConnectionHoldTimeRecorder recorder) {
+        super(targetDataSource);
+        this.recorder = recorder;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return track(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return track(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection track(Connection connection) {
+        String endpoint = ConnectionHoldTimeRecorder.currentEndpoint();
+        long acquiredAt = System.nanoTime();
+        AtomicBoolean returned = new AtomicBoolean();
+
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "close":
+                            // Record once even if the pool's connection is closed again
+                            if (returned.compareAndSet(false, true)) {
+                                recorder.record(endpoint, System.nanoTime() - acquiredAt);
+                            }
+                            break;
+                        default:
+                            break;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
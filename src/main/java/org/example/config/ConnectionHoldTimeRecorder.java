@@ -0,0 +1,122 @@
+package org.example.config;
+
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulates how long JDBC connections are held, per endpoint
+ * The endpoint is the HTTP method and matched path pattern of the request that borrowed the connection,
+ * e.g. "POST /v1/accounts/{accountNumber}/transactions"; connections borrowed outside a request (startup,
+ * scheduled jobs, async export writers) are grouped under "none". Holds longer than the warn threshold are logged.
+ * Once bound to a MeterRegistry each endpoint is published as db.connection.hold (and .max), tagged by endpoint
+ */
+@Slf4j
+public class ConnectionHoldTimeRecorder implements MeterBinder {
+
+    static final String NO_REQUEST = "none";
+    static final String UNMAPPED = "unmapped";
+
+    private final long warnThresholdNanos;
+    private final ConcurrentMap<String, Accumulator> byEndpoint = new ConcurrentHashMap<>();
+    private volatile MeterRegistry meterRegistry;
+
+    public ConnectionHoldTimeRecorder(Duration warnThreshold) {
+        this.warnThresholdNanos = warnThreshold.toNanos();
+    }
+
+    /**
+     * Endpoint of the request being handled on the current thread
+     */
+    public static String currentEndpoint() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return NO_REQUEST;
+        }
+        HttpServletRequest request = servletAttributes.getRequest();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        // Raw URIs would give one entry per account number, so requests not matched to a handler share one
+        return request.getMethod() + " " + (pattern != null ? pattern : UNMAPPED);
+    }
+
+    /**
+     * Endpoints already seen are registered now, endpoints seen later on their first connection
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        meterRegistry = registry;
+        byEndpoint.forEach((endpoint, accumulator) -> accumulator.register(registry, endpoint));
+    }
+
+    public void record(String endpoint, long holdNanos) {
+        byEndpoint.computeIfAbsent(endpoint, this::newAccumulator).add(holdNanos);
+
+        if (holdNanos > warnThresholdNanos) {
+            log.warn("{} held a database connection for {} ms", endpoint, TimeUnit.NANOSECONDS.toMillis(holdNanos));
+        }
+    }
+
+    /**
+     * Hold times per endpoint since startup, ordered by endpoint
+     */
+    public List<ConnectionHoldStats> snapshot() {
+        return byEndpoint.entrySet().stream()
+                .map(entry -> entry.getValue().toStats(entry.getKey()))
+                .sorted(Comparator.comparing(ConnectionHoldStats::endpoint))
+                .toList();
+    }
+
+    private Accumulator newAccumulator(String endpoint) {
+        Accumulator accumulator = new Accumulator();
+        MeterRegistry registry = meterRegistry;
+        if (registry != null) {
+            accumulator.register(registry, endpoint);
+        }
+        return accumulator;
+    }
+
+    private static final class Accumulator {
+
+        private final LongAdder connections = new LongAdder();
+        private final LongAdder totalHoldNanos = new LongAdder();
+        private final LongAccumulator maxHoldNanos = new LongAccumulator(Math::max, 0);
+
+        void add(long holdNanos) {
+            connections.increment();
+            totalHoldNanos.add(holdNanos);
+            maxHoldNanos.accumulate(holdNanos);
+        }
+
+        void register(MeterRegistry registry, String endpoint) {
+            FunctionTimer.builder("db.connection.hold", this, a -> a.connections.sum(), a -> a.totalHoldNanos.sum(),
+                            TimeUnit.NANOSECONDS)
+                    .description("Time JDBC connections were held, per endpoint that borrowed them")
+                    .tag("endpoint", endpoint)
+                    .register(registry);
+            TimeGauge.builder("db.connection.hold.max", this, TimeUnit.NANOSECONDS, a -> a.maxHoldNanos.get())
+                    .description("Longest single connection hold since startup, per endpoint")
+                    .tag("endpoint", endpoint)
+                    .register(registry);
+        }
+
+        ConnectionHoldStats toStats(String endpoint) {
+            return new ConnectionHoldStats(endpoint, connections.sum(), totalHoldNanos.sum(), maxHoldNanos.get());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.config;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Readiness of the connection pool, reported as the "connectionPool" health component
+ * Goes OUT_OF_SERVICE while more threads wait for a connection than the threshold allows, so the
+ * load balancer stops routing new requests to an instance whose pool is saturated until it drains
+ */
+@Component
+@Slf4j
+public class ConnectionPoolHealthIndicator implements HealthIndicator {
+
+    private final DataSource dataSource;
+    private final int maxPendingAcquisitions;
+
+    public ConnectionPoolHealthIndicator(DataSource dataSource,
+                                         @Value("${datasource.pool.readiness.max-pending:10}") int maxPendingAcquisitions) {
+        this.dataSource = dataSource;
+        this.maxPendingAcquisitions = maxPendingAcquisitions;
+    }
+
+    @Override
+    public Health health() {
+        HikariDataSource hikariDataSource = DataSourceUnwrapper.unwrap(dataSource, HikariConfigMXBean.class, HikariDataSource.class);
+        if (hikariDataSource == null) {
+            return Health.unknown().withDetail("reason", "DataSource is not a Hikari pool").build();
+        }
+        HikariPoolMXBean pool = hikariDataSource.getHikariPoolMXBean();
+        if (pool == null) {
+            return Health.unknown().withDetail("reason", "Pool not started").build();
+        }
+
+        int pending = pool.getThreadsAwaitingConnection();
+        Status status = pending > maxPendingAcquisitions ? Status.OUT_OF_SERVICE : Status.UP;
+        if (status == Status.OUT_OF_SERVICE) {
+            log.warn("Connection pool saturated: {} threads waiting for a connection (threshold {})",
+                     pending, maxPendingAcquisitions);
+        }
+
+        return Health.status(status)
+                .withDetail("active", pool.getActiveConnections())
+                .withDetail("idle", pool.getIdleConnections())
+                .withDetail("total", pool.getTotalConnections())
+                .withDetail("max", hikariDataSource.getMaximumPoolSize())
+                .withDetail("pending", pending)
+                .withDetail("maxPending", maxPendingAcquisitions)
+                .build();
+    }
+}
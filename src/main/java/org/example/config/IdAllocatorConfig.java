@@ -0,0 +1,69 @@
+package org.example.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.example.service.AccountNumberRegistry;
+import org.example.service.IdAllocator;
+import org.example.service.OccupancyCheckedIdAllocator;
+import org.example.service.SequenceBlockIdAllocator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.support.incrementer.H2SequenceMaxValueIncrementer;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * ID allocators for transactions and accounts, backed by the block sequences in schema.sql
+ * Replace the incrementer (e.g. PostgresSequenceMaxValueIncrementer) when moving off H2,
+ * or declare another IdAllocator bean with the same name to change the scheme entirely.
+ * When accounts are sharded the sequences stay on the global database, so IDs are unique across shards
+ */
+@Configuration
+public class IdAllocatorConfig {
+
+    @Bean
+    public IdAllocator transactionIdAllocator(DataSource dataSource,
+                                              @Qualifier("globalDataSource") ObjectProvider<DataSource> globalDataSource,
+                                              @Value("${ids.transaction.block-size:1000}") int blockSize) {
+        return new SequenceBlockIdAllocator("transaction-id",
+                new H2SequenceMaxValueIncrementer(globalDataSource.getIfAvailable(() -> dataSource), "transaction_id_blocks"),
+                blockSize, Long.MAX_VALUE, value -> "tan-" + Long.toString(value, Character.MAX_RADIX));
+    }
+
+    /**
+     * Numbers are claimed from the free bits of the occupancy bitmap, block by block. Blocks never wrap around and
+     * numbers of deleted accounts are retired, so 1,000,000 numbers can be issued over the bank's lifetime and
+     * allocation fails once the sequence passes the end of the space (ids.remaining.capacity tracks how close that is).
+     * Numbers rise, so a new customer's number says roughly how many accounts came before it
+     */
+    @Bean
+    public IdAllocator accountNumberAllocator(DataSource dataSource,
+                                              @Qualifier("globalDataSource") ObjectProvider<DataSource> globalDataSource,
+                                              AccountNumberRegistry accountNumberRegistry,
+                                              @Value("${ids.account-number.block-size:100}") int blockSize) {
+        return new OccupancyCheckedIdAllocator(
+                new H2SequenceMaxValueIncrementer(globalDataSource.getIfAvailable(() -> dataSource), "account_number_blocks"),
+                blockSize, accountNumberRegistry);
+    }
+
+    @Bean
+    public IdAllocatorMetrics idAllocatorMetrics(List<IdAllocator> allocators) {
+        return new IdAllocatorMetrics(allocators);
+    }
+
+    @Bean
+    public MeterBinder accountNumberOccupancyMetrics(AccountNumberRegistry accountNumberRegistry) {
+        return registry -> {
+            Gauge.builder("account.numbers.occupied", accountNumberRegistry, AccountNumberRegistry::occupiedCount)
+                    .description("Account numbers in use, out of 1,000,000")
+                    .register(registry);
+            Gauge.builder("account.numbers.occupancy", accountNumberRegistry, AccountNumberRegistry::occupancyRatio)
+                    .description("Share of the account number space in use, between 0 and 1")
+                    .register(registry);
+        };
+    }
+}
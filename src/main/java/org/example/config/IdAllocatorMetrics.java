@@ -0,0 +1,42 @@
+package org.example.config;
+
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.example.service.IdAllocator;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes IdAllocator stats per allocator (tag "allocator"): block refills as a timer of their database
+ * round-trips, and the IDs left in the current block and in the whole ID space as gauges.
+ * Alert on ids.remaining.capacity well before it reaches zero; allocation fails once it does
+ */
+@RequiredArgsConstructor
+public class IdAllocatorMetrics implements MeterBinder {
+
+    private final List<IdAllocator> allocators;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (IdAllocator allocator : allocators) {
+            String name = allocator.stats().name();
+            FunctionTimer.builder("ids.block.refills", allocator,
+                            a -> a.stats().blockRefills(), a -> a.stats().totalRefillNanos(), TimeUnit.NANOSECONDS)
+                    .description("Time spent reserving ID blocks from the database sequence")
+                    .tag("allocator", name)
+                    .register(registry);
+            Gauge.builder("ids.block.remaining", allocator, a -> a.stats().remainingInBlock())
+                    .description("IDs left in the current block before the next refill")
+                    .tag("allocator", name)
+                    .register(registry);
+            Gauge.builder("ids.remaining.capacity", allocator, a -> a.stats().remainingCapacity())
+                    .description("IDs left in the whole ID space")
+                    .tag("allocator", name)
+                    .register(registry);
+        }
+    }
+}
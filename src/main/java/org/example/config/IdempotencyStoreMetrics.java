@@ -0,0 +1,40 @@
+package org.example.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.example.service.IdempotencyStore;
+import org.example.service.IdempotencyStoreStats;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes IdempotencyStore lookups as idempotency.lookups, tagged by result (cache_hit, table_hit, miss),
+ * and the number of keys held in memory. The table's key count needs a query per shard, so it stays in stats()
+ */
+@Component
+@RequiredArgsConstructor
+public class IdempotencyStoreMetrics implements MeterBinder {
+
+    private final IdempotencyStore idempotencyStore;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        lookups(registry, "cache_hit", IdempotencyStoreStats::cacheHits);
+        lookups(registry, "table_hit", IdempotencyStoreStats::tableHits);
+        lookups(registry, "miss", IdempotencyStoreStats::misses);
+        Gauge.builder("idempotency.keys.cached", idempotencyStore, store -> store.lookupStats().cachedKeys())
+                .description("Idempotency keys held in the in-memory cache")
+                .register(registry);
+    }
+
+    private void lookups(MeterRegistry registry, String result, ToDoubleFunction<IdempotencyStoreStats> count) {
+        FunctionCounter.builder("idempotency.lookups", idempotencyStore, store -> count.applyAsDouble(store.lookupStats()))
+                .description("Keyed transaction requests by whether the key was a replay and where it was found")
+                .tag("result", result)
+                .register(registry);
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.config;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Adds an "operation" tag to http.server.requests: the name of the controller method that handled the request
+ * Controller methods implement the generated API interfaces, so the name is the OpenAPI operationId
+ * (createTransaction, listAccountTransaction, loginUser, ...); requests that never reached a handler get "none"
+ */
+@Component
+public class OperationServerRequestObservationConvention extends DefaultServerRequestObservationConvention {
+
+    static final String OPERATION = "operation";
+    static final String NONE = "none";
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+        return super.getLowCardinalityKeyValues(context).and(operation(context));
+    }
+
+    private KeyValue operation(ServerRequestObservationContext context) {
+        if (context.getCarrier() != null
+                && context.getCarrier().getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handlerMethod) {
+            return KeyValue.of(OPERATION, handlerMethod.getMethod().getName());
+        }
+        return KeyValue.of(OPERATION, NONE);
+    }
+}
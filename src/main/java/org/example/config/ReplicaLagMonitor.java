@@ -0,0 +1,103 @@
+package org.example.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Decides whether the read replica is fresh enough to serve reads
+ * Every heartbeat interval the current time is written to replication_heartbeat on the primary and read back
+ * from the replica; the age of the replica's copy is the replication lag. The replica is used only while
+ * that lag is within maxLag, so reads routed to it are at most maxLag (plus one interval) stale.
+ * Both timestamps come from this JVM's clock, so database clock skew does not affect the measurement
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private static final int HEARTBEAT_ID = 1;
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final Duration maxLag;
+    private final Clock clock;
+
+    // Unknown until the first check, so reads start on the primary
+    private volatile Duration lag;
+    private volatile boolean replicaUsable;
+
+    public ReplicaLagMonitor(DataSource primaryDataSource, DataSource replicaDataSource, Duration maxLag, Clock clock) {
+        this.primary = new JdbcTemplate(primaryDataSource);
+        this.replica = new JdbcTemplate(replicaDataSource);
+        this.maxLag = maxLag;
+        this.clock = clock;
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.heartbeat-interval:PT1S}")
+    public void heartbeat() {
+        beat();
+        check();
+    }
+
+    void beat() {
+        Timestamp now = Timestamp.from(clock.instant());
+        try {
+            if (primary.update("UPDATE replication_heartbeat SET beat_at = ? WHERE id = ?", now, HEARTBEAT_ID) == 0) {
+                primary.update("INSERT INTO replication_heartbeat (id, beat_at) VALUES (?, ?)", HEARTBEAT_ID, now);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not write the replication heartbeat to the primary: {}", e.getMessage());
+        }
+    }
+
+    void check() {
+        try {
+            Timestamp beatAt = replica.query("SELECT beat_at FROM replication_heartbeat WHERE id = ?",
+                    rs -> rs.next() ? rs.getTimestamp(1) : null, HEARTBEAT_ID);
+            if (beatAt == null) {
+                update(null, "no heartbeat has been replicated yet");
+                return;
+            }
+            Duration measured = Duration.between(beatAt.toInstant(), clock.instant());
+            update(measured, measured.compareTo(maxLag) > 0 ? "replication lag " + measured.toMillis() + " ms" : null);
+        } catch (DataAccessException e) {
+            update(null, "replica unreachable: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Takes the replica out of rotation until the next successful check, e.g. after a failed connection attempt
+     */
+    public void markUnavailable(Exception cause) {
+        update(lag, "replica unreachable: " + cause.getMessage());
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    /**
+     * Most recently measured lag, or null if it could not be measured
+     */
+    public Duration lag() {
+        return lag;
+    }
+
+    private synchronized void update(Duration measured, String unusableReason) {
+        boolean usable = unusableReason == null;
+        lag = measured;
+        if (usable != replicaUsable) {
+            if (usable) {
+                log.info("Routing read-only transactions to the replica (replication lag {} ms)", measured.toMillis());
+            } else {
+                log.warn("Routing read-only transactions to the primary: {}", unusableReason);
+            }
+        }
+        replicaUsable = usable;
+    }
+}
@@ -0,0 +1,20 @@
+package org.example.config;
+
+import java.time.Duration;
+
+/**
+ * Point-in-time statistics of a ReadReplicaRoutingDataSource
+ *
+ * @param replicaConnections   connections for read-only transactions served by the replica
+ * @param fallbackConnections  connections for read-only transactions served by the primary because the replica
+ *                             was lagging or unreachable
+ * @param primaryConnections   connections for read-write transactions and non-transactional work
+ * @param replicaUsable        whether read-only transactions are currently routed to the replica
+ * @param lag                  most recently measured replication lag, or null if it could not be measured
+ */
+public record ReplicaRoutingStats(long replicaConnections,
+                                  long fallbackConnections,
+                                  long primaryConnections,
+                                  boolean replicaUsable,
+                                  Duration lag) {
+}
@@ -0,0 +1,37 @@
+package org.example.config;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ObjectUtils;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+
+/**
+ * Gives each application context its own JCache CacheManager for the Hibernate second-level cache
+ * The caching provider hands out one CacheManager per URI, so with the default URI every context in the JVM
+ * (e.g. the cached test contexts) would share the "accounts" and "users" regions and read each other's entities.
+ * A URI that is neither a file nor a classpath resource makes Caffeine configure the regions from application.conf
+ * as before; Hibernate does not close a CacheManager it is handed, so the context closes it
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    static final String CACHE_MANAGER_PROPERTY = "hibernate.javax.cache.cache_manager";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager(ApplicationContext applicationContext) {
+        URI uri = URI.create("urn:eagle-bank:second-level-cache:" + ObjectUtils.getIdentityHexString(applicationContext));
+        return Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(uri, applicationContext.getClassLoader());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheManagerCustomizer(CacheManager secondLevelCacheManager) {
+        return properties -> properties.put(CACHE_MANAGER_PROPERTY, secondLevelCacheManager);
+    }
+}
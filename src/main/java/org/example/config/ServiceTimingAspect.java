@@ -0,0 +1,71 @@
+package org.example.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.example.exception.AccountNotFoundException;
+import org.example.exception.IdempotencyKeyReusedException;
+import org.example.exception.InsufficientFundsException;
+import org.example.exception.TransactionNotFoundException;
+import org.example.exception.UserHasAssociatedAccountsException;
+import org.example.exception.UserNotFoundException;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every public method of TransactionService, AccountService and UserService as service.operations,
+ * tagged by service, method and outcome, so time spent in the service layer can be told apart from the
+ * rest of the request and slow failures from slow successes
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ServiceTimingAspect {
+
+    static final String TIMER_NAME = "service.operations";
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("execution(public * org.example.service.TransactionService.*(..))"
+            + " || execution(public * org.example.service.AccountService.*(..))"
+            + " || execution(public * org.example.service.UserService.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "SUCCESS";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            outcome = outcome(e);
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(TIMER_NAME)
+                    .description("Service method execution time")
+                    .tag("service", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    static String outcome(Throwable e) {
+        if (e instanceof InsufficientFundsException) {
+            return "INSUFFICIENT_FUNDS";
+        }
+        if (e instanceof UserNotFoundException || e instanceof AccountNotFoundException
+                || e instanceof TransactionNotFoundException) {
+            return "NOT_FOUND";
+        }
+        if (e instanceof AccessDeniedException) {
+            return "FORBIDDEN";
+        }
+        if (e instanceof ConcurrencyFailureException || e instanceof UserHasAssociatedAccountsException
+                || e instanceof IdempotencyKeyReusedException) {
+            return "CONFLICT";
+        }
+        return "ERROR";
+    }
+}
@@ -0,0 +1,43 @@
+package org.example.config;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.example.service.ShardContext;
+import org.example.service.ShardDirectory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Binds the account's shard around service methods with an @AccountShardKey parameter
+ * Runs before the transaction interceptor, so a @Transactional method's transaction opens on that shard;
+ * the previous binding is restored afterwards, so nested calls for the same account keep working
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class ShardRoutingAspect {
+
+    private final ShardDirectory shardDirectory;
+
+    @Around("execution(* org.example.service..*.*(@org.example.service.AccountShardKey (*), ..))")
+    public Object routeByFirstArgument(ProceedingJoinPoint joinPoint) throws Throwable {
+        return route(joinPoint, 0);
+    }
+
+    @Around("execution(* org.example.service..*.*(*, @org.example.service.AccountShardKey (*), ..))")
+    public Object routeBySecondArgument(ProceedingJoinPoint joinPoint) throws Throwable {
+        return route(joinPoint, 1);
+    }
+
+    private Object route(ProceedingJoinPoint joinPoint, int argumentIndex) throws Throwable {
+        String accountNumber = (String) joinPoint.getArgs()[argumentIndex];
+        Integer previous = ShardContext.bind(shardDirectory.shardOf(accountNumber));
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package org.example.config;
+
+import org.example.service.ShardContext;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends each connection to the shard bound in ShardContext, or to the global database when none is bound
+ * Transactions bind their connection when they begin, so the shard must be bound before that: at service entry
+ * (ShardRoutingAspect) or through ShardRouter. Closes the shard pools it created on shutdown
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    private static final String GLOBAL = "global";
+
+    private final List<DataSource> shards;
+
+    public ShardRoutingDataSource(DataSource global, List<DataSource> shards) {
+        this.shards = List.copyOf(shards);
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(GLOBAL, global);
+        for (int shard = 0; shard < shards.size(); shard++) {
+            targets.put(shard, shards.get(shard));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(global);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Integer shard = ShardContext.current();
+        return shard != null ? shard : GLOBAL;
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        for (DataSource shard : shards) {
+            if (shard instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
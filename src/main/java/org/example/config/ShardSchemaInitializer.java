@@ -0,0 +1,41 @@
+package org.example.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.service.ShardContext;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * Creates the mapped tables on every shard, as spring.jpa.hibernate.ddl-auto does on the global database
+ * Users stay on the global database, so the accounts -> users foreign key is dropped on the shards.
+ * Runs as the bean is initialized, before anything (e.g. AccountNumberRegistry) reads from the shards
+ */
+@Slf4j
+public class ShardSchemaInitializer implements InitializingBean {
+
+    private final SessionFactory sessionFactory;
+    private final DataSource dataSource;
+    private final int shardCount;
+
+    public ShardSchemaInitializer(SessionFactory sessionFactory, DataSource dataSource, int shardCount) {
+        this.sessionFactory = sessionFactory;
+        this.dataSource = dataSource;
+        this.shardCount = shardCount;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        for (int shard = 0; shard < shardCount; shard++) {
+            ShardContext.callOn(shard, () -> {
+                sessionFactory.getSchemaManager().exportMappedObjects(true);
+                jdbcTemplate.execute("ALTER TABLE accounts DROP CONSTRAINT IF EXISTS fk_account_user");
+                return null;
+            });
+            log.info("Created the schema on shard {}", shard);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package org.example.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.service.DirectoryShardRouter;
+import org.example.service.ShardDirectory;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Accounts, their transactions and idempotency keys partitioned over several databases, enabled with sharding.enabled
+ * The global database (spring.datasource) keeps users, the account -> shard directory and the ID sequences;
+ * sharding.shard-urls lists the shard databases. One routing DataSource keeps the bean name "dataSource", so
+ * JPA, SQL init and the connection hold-time instrumentation apply unchanged; the shard is chosen per thread
+ * (ShardContext). Not combined with datasource.replica.enabled, which replaces the same DataSource
+ */
+@Configuration
+@ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource globalDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(@Qualifier("globalDataSource") DataSource globalDataSource,
+                                                         DataSourceProperties properties,
+                                                         ObjectProvider<MeterRegistry> meterRegistry,
+                                                         @Value("${sharding.shard-urls}") List<String> shardUrls,
+                                                         @Value("${sharding.maximum-pool-size:10}") int maximumPoolSize) {
+        // Shards share the global database's credentials
+        List<DataSource> shards = new ArrayList<>();
+        for (String url : shardUrls) {
+            HikariDataSource shard = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(url)
+                    .username(properties.determineUsername())
+                    .password(properties.determinePassword())
+                    .build();
+            shard.setPoolName("eagle-bank-shard-" + shards.size() + "-pool");
+            shard.setMaximumPoolSize(maximumPoolSize);
+            meterRegistry.ifAvailable(shard::setMetricRegistry);
+            shards.add(shard);
+        }
+        return new ShardRoutingDataSource(globalDataSource, shards);
+    }
+
+    /**
+     * Lazy, so that the outer transaction of a fan-out, whose work all happens on the shards, does not
+     * also hold a global connection
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    @Bean
+    public ShardDirectory shardDirectory(@Qualifier("globalDataSource") DataSource globalDataSource,
+                                         ShardRoutingDataSource shardRoutingDataSource,
+                                         @Value("${sharding.directory-cache.max-size:100000}") long cacheMaxSize) {
+        return new ShardDirectory(globalDataSource, shardRoutingDataSource.shardCount(), cacheMaxSize);
+    }
+
+    /**
+     * The fan-out pool is not a bean of its own, so it does not displace Boot's applicationTaskExecutor
+     */
+    @Bean(destroyMethod = "shutdown")
+    public DirectoryShardRouter directoryShardRouter(ShardDirectory shardDirectory,
+                                                     PlatformTransactionManager transactionManager,
+                                                     @Value("${sharding.fan-out-threads:0}") int threads) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("shard-fan-out-");
+        threadFactory.setDaemon(true);
+        ExecutorService fanOutExecutor = Executors.newFixedThreadPool(
+                threads > 0 ? threads : shardDirectory.shardCount(), threadFactory);
+        return new DirectoryShardRouter(shardDirectory, transactionManager, fanOutExecutor);
+    }
+
+    @Bean
+    public ShardRoutingAspect shardRoutingAspect(ShardDirectory shardDirectory) {
+        return new ShardRoutingAspect(shardDirectory);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "sharding.create-schema", havingValue = "true")
+    public ShardSchemaInitializer shardSchemaInitializer(EntityManagerFactory entityManagerFactory,
+                                                         DataSource dataSource,
+                                                         ShardRoutingDataSource shardRoutingDataSource) {
+        return new ShardSchemaInitializer(entityManagerFactory.unwrap(SessionFactory.class), dataSource,
+                shardRoutingDataSource.shardCount());
+    }
+}
@@ -0,0 +1,50 @@
+package org.example.config;
+
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.example.service.TransactionSequencer;
+import org.example.service.TransactionSequencer.StripeMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * Publishes TransactionSequencer stripe metrics summed over the stripes, plus the deepest queue and longest wait
+ * of any one stripe, so a hot stripe shows up without a time series per stripe
+ */
+@Component
+@RequiredArgsConstructor
+public class TransactionSequencerMetrics implements MeterBinder {
+
+    private final TransactionSequencer transactionSequencer;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionTimer.builder("sequencer.wait", transactionSequencer,
+                        sequencer -> sum(sequencer, StripeMetrics::acquisitions),
+                        sequencer -> sum(sequencer, StripeMetrics::totalWaitNanos), TimeUnit.NANOSECONDS)
+                .description("Time writes waited for their account's stripe")
+                .register(registry);
+        TimeGauge.builder("sequencer.wait.max", transactionSequencer, TimeUnit.NANOSECONDS,
+                        sequencer -> sequencer.getStripeMetrics().stream().mapToLong(StripeMetrics::maxWaitNanos).max().orElse(0))
+                .description("Longest single wait for a stripe since startup")
+                .register(registry);
+        Gauge.builder("sequencer.queue.depth", transactionSequencer,
+                        sequencer -> sum(sequencer, StripeMetrics::queueDepth))
+                .description("Writes currently waiting for a stripe")
+                .register(registry);
+        Gauge.builder("sequencer.queue.depth.max", transactionSequencer,
+                        sequencer -> sequencer.getStripeMetrics().stream().mapToInt(StripeMetrics::queueDepth).max().orElse(0))
+                .description("Writes currently waiting for the busiest stripe")
+                .register(registry);
+    }
+
+    private static long sum(TransactionSequencer sequencer, ToLongFunction<StripeMetrics> metric) {
+        return sequencer.getStripeMetrics().stream().mapToLong(metric).sum();
+    }
+}
@@ -6,12 +6,20 @@ import org.example.api.AccountApi;
 import org.example.api.TransactionApi;
 import org.example.model.*;
 import org.example.service.AccountService;
+import org.example.service.TransactionBatchService;
+import org.example.service.TransactionExportService;
+import org.example.service.TransactionSequencer;
 import org.example.service.TransactionService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 
 
@@ -27,6 +35,9 @@ public class AccountController extends BaseController implements AccountApi, Tra
 
     private final AccountService accountService;
     private final TransactionService transactionService;
+    private final TransactionSequencer transactionSequencer;
+    private final TransactionExportService transactionExportService;
+    private final TransactionBatchService transactionBatchService;
 
     // ============= ACCOUNT OPERATIONS =============
 
@@ -91,31 +102,72 @@ public class AccountController extends BaseController implements AccountApi, Tra
     @Override
     public ResponseEntity<TransactionResponse> createTransaction(
             String accountNumber,
-            CreateTransactionRequest createTransactionRequest) {
+            CreateTransactionRequest createTransactionRequest,
+            String idempotencyKey) {
         String authenticatedUserId = getCurrentUserId();
         if (authenticatedUserId == null) {
             throw new org.springframework.security.core.AuthenticationException("User not authenticated") {};
         }
 
-        TransactionResponse transaction = transactionService.createTransaction(
-            accountNumber, createTransactionRequest, authenticatedUserId
+        TransactionResponse transaction = transactionSequencer.execute(accountNumber, () ->
+            transactionService.createTransaction(accountNumber, createTransactionRequest, authenticatedUserId, idempotencyKey)
         );
 
         return new ResponseEntity<>(transaction, HttpStatus.CREATED);
     }
 
     @Override
-    public ResponseEntity<ListTransactionsResponse> listAccountTransaction(String accountNumber) {
+    public ResponseEntity<TransactionBatchResponse> createTransactionBatch(
+            CreateTransactionBatchRequest createTransactionBatchRequest) {
         String authenticatedUserId = getCurrentUserId();
         if (authenticatedUserId == null) {
             throw new org.springframework.security.core.AuthenticationException("User not authenticated") {};
         }
 
-        ListTransactionsResponse response = transactionService.findByAccountNumber(accountNumber, authenticatedUserId);
+        // Checked before the service is entered: the generated model does not carry the spec's minItems/maxItems
+        TransactionBatchService.validateSize(createTransactionBatchRequest.getItems());
+
+        // Not routed through the sequencer: a batch spans accounts, which the ledger loads in a fixed order instead
+        TransactionBatchResponse response = transactionBatchService.createTransactions(
+            createTransactionBatchRequest.getItems(), authenticatedUserId
+        );
 
         return ResponseEntity.ok(response);
     }
 
+    @Override
+    public ResponseEntity<ListTransactionsResponse> listAccountTransaction(String accountNumber, Integer limit, String cursor) {
+        String authenticatedUserId = getCurrentUserId();
+        if (authenticatedUserId == null) {
+            throw new org.springframework.security.core.AuthenticationException("User not authenticated") {};
+        }
+
+        ListTransactionsResponse response = transactionService.findByAccountNumber(accountNumber, authenticatedUserId, limit, cursor);
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Export the full transaction history of an account as NDJSON (one transaction per line)
+     * Not part of the generated TransactionApi because the body is streamed rather than returned as a model
+     */
+    @GetMapping(value = "/v1/accounts/{accountNumber}/transactions/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAccountTransactions(@PathVariable String accountNumber) {
+        String authenticatedUserId = getCurrentUserId();
+        if (authenticatedUserId == null) {
+            throw new org.springframework.security.core.AuthenticationException("User not authenticated") {};
+        }
+
+        transactionExportService.validateExportAccess(accountNumber, authenticatedUserId);
+
+        StreamingResponseBody body = outputStream -> transactionExportService.exportTransactions(accountNumber, outputStream);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + accountNumber + "-transactions.ndjson\"")
+                .body(body);
+    }
+
     @Override
     public ResponseEntity<TransactionResponse> fetchAccountTransactionByID(
             String accountNumber,
@@ -4,13 +4,14 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.api.AuthApi;
 import org.example.entity.User;
+import org.example.exception.PasswordHashingUnavailableException;
 import org.example.model.LoginResponse;
 import org.example.model.LoginUserRequest;
 import org.example.security.JwtService;
+import org.example.security.PasswordHasher;
 import org.example.service.UserService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -27,7 +28,7 @@ import java.util.Optional;
 public class AuthController implements AuthApi {
 
     private final JwtService jwtService;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final UserService userService;
 
     @Override
@@ -53,8 +54,9 @@ public class AuthController implements AuthApi {
             if (userOptional.isPresent()) {
                 User user = userOptional.get();
 
-                if (passwordEncoder.matches(password, user.getPasswordHash())) {
+                if (passwordHasher.matches(password, user.getPasswordHash())) {
                     log.info("Authentication successful for user: {}", user.getId());
+                    upgradePasswordHashIfNeeded(user, password);
                     return user;
                 }
             }
@@ -63,7 +65,7 @@ public class AuthController implements AuthApi {
             throw new BadCredentialsException("Invalid email or password");
 
         } catch (Exception e) {
-            if (e instanceof BadCredentialsException) {
+            if (e instanceof BadCredentialsException || e instanceof PasswordHashingUnavailableException) {
                 throw e;
             }
 
@@ -71,4 +73,26 @@ public class AuthController implements AuthApi {
             throw new RuntimeException("Authentication error", e);
         }
     }
+
+    /**
+     * Re-hash the password in the background when the stored hash uses an older algorithm or strength
+     * A failed or skipped upgrade is harmless: it is retried on the next successful login
+     */
+    private void upgradePasswordHashIfNeeded(User user, String password) {
+        if (!passwordHasher.needsRehash(user.getPasswordHash())) {
+            return;
+        }
+
+        String userId = user.getId();
+        try {
+            passwordHasher.encodeAsync(password)
+                    .thenAccept(newHash -> userService.updatePasswordHash(userId, newHash))
+                    .exceptionally(e -> {
+                        log.warn("Could not upgrade password hash for user {}: {}", userId, e.getMessage());
+                        return null;
+                    });
+        } catch (PasswordHashingUnavailableException e) {
+            log.debug("Skipping password hash upgrade for user {}: {}", userId, e.getMessage());
+        }
+    }
 }
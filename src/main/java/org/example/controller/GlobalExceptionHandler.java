@@ -1,14 +1,18 @@
 package org.example.controller;
 
+import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
 import org.example.exception.AccountNotFoundException;
+import org.example.exception.IdempotencyKeyReusedException;
 import org.example.exception.InsufficientFundsException;
+import org.example.exception.PasswordHashingUnavailableException;
 import org.example.exception.TransactionNotFoundException;
 import org.example.exception.UserHasAssociatedAccountsException;
 import org.example.exception.UserNotFoundException;
 import org.example.model.BadRequestErrorResponse;
 import org.example.model.BadRequestErrorResponseDetailsInner;
 import org.example.model.ErrorResponse;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -68,6 +72,30 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(errorResponse);
     }
 
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<ErrorResponse> handleIdempotencyKeyReusedException(IdempotencyKeyReusedException e) {
+        log.warn("Idempotency key reused: {}", e.getMessage());
+        ErrorResponse errorResponse = new ErrorResponse();
+        errorResponse.setMessage(e.getMessage());
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(errorResponse);
+    }
+
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<ErrorResponse> handleConcurrencyFailureException(ConcurrencyFailureException e) {
+        log.warn("Concurrent update conflict: {}", e.getMessage());
+        ErrorResponse errorResponse = new ErrorResponse();
+        errorResponse.setMessage("The account is being updated by another request, please retry");
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+    }
+
+    @ExceptionHandler(PasswordHashingUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handlePasswordHashingUnavailableException(PasswordHashingUnavailableException e) {
+        log.warn("Password hashing unavailable: {}", e.getMessage());
+        ErrorResponse errorResponse = new ErrorResponse();
+        errorResponse.setMessage("Too many concurrent sign-in requests, please retry shortly");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
+    }
+
     @ExceptionHandler(AuthenticationException.class)
     public ResponseEntity<ErrorResponse> handleAuthenticationException(AuthenticationException e) {
         log.warn("Authentication failed: {}", e.getMessage());
@@ -129,6 +157,27 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(errorResponse);
     }
 
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<BadRequestErrorResponse> handleConstraintViolationException(ConstraintViolationException e) {
+        log.warn("Constraint violation: {}", e.getMessage());
+
+        BadRequestErrorResponse errorResponse = new BadRequestErrorResponse();
+        errorResponse.setMessage("Invalid details supplied");
+
+        List<BadRequestErrorResponseDetailsInner> details = new ArrayList<>();
+        e.getConstraintViolations().forEach(violation -> {
+            BadRequestErrorResponseDetailsInner detail = new BadRequestErrorResponseDetailsInner();
+            String path = violation.getPropertyPath().toString();
+            detail.setField(path.substring(path.lastIndexOf('.') + 1));
+            detail.setMessage(violation.getMessage());
+            detail.setType("VALIDATION_ERROR");
+            details.add(detail);
+        });
+
+        errorResponse.setDetails(details);
+        return ResponseEntity.badRequest().body(errorResponse);
+    }
+
     @ExceptionHandler(org.springframework.web.bind.MissingServletRequestParameterException.class)
     public ResponseEntity<BadRequestErrorResponse> handleMissingServletRequestParameterException(
             org.springframework.web.bind.MissingServletRequestParameterException e) {
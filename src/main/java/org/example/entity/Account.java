@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -17,8 +19,11 @@ import java.util.List;
  * Primary key is accountNumber with pattern ^01\d{6}$
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "accounts") // TTL and size in application.conf
 @Table(name = "accounts",
-       uniqueConstraints = @UniqueConstraint(columnNames = "account_number"))
+       uniqueConstraints = @UniqueConstraint(columnNames = "account_number"),
+       indexes = @Index(name = "idx_accounts_user_id", columnList = "user_id")) // findByUser_Id, existsByUserId
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -34,7 +39,7 @@ public class Account {
     private AccountType accountType;
 
     @Column(name = "balance", nullable = false)
-    private Double balance;
+    private Money balance; // Stored in minor units (pence)
 
     @Enumerated(EnumType.STRING)
     @Column(name = "currency", nullable = false)
@@ -55,25 +60,20 @@ public class Account {
     @Column(name = "updated_timestamp", nullable = false)
     private LocalDateTime updatedTimestamp;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version; // Optimistic locking for concurrent balance updates
+
     // JPA Relationships
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false, foreignKey = @ForeignKey(name = "fk_account_user"))
     private User user;
 
-    @OneToMany(mappedBy = "account", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    // Transactions are never removed through the account: deleting an account requires it to have none,
+    // and cascading REMOVE would make Hibernate load the whole collection just to cascade over it
+    @OneToMany(mappedBy = "account", cascade = {CascadeType.PERSIST, CascadeType.MERGE}, fetch = FetchType.LAZY)
     private List<Transaction> transactions = new ArrayList<>();
 
-    // Helper methods for managing bidirectional relationships
-    public void addTransaction(Transaction transaction) {
-        transactions.add(transaction);
-        transaction.setAccount(this);
-    }
-
-    public void removeTransaction(Transaction transaction) {
-        transactions.remove(transaction);
-        transaction.setAccount(null);
-    }
-
     // Convenience method to get user ID (for backward compatibility)
     public String getUserId() {
         return user != null ? user.getId() : null;
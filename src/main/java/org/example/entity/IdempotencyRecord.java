@@ -0,0 +1,75 @@
+package org.example.entity;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Idempotency key used to create a transaction, kept until it expires so a retried request can be answered
+ * with the transaction it created the first time
+ * Primary key is the key scoped to its user and account (userId:accountNumber:key): the row lives on the account's
+ * shard, where the table can only see that account's keys, so a key is unique per account rather than per user.
+ * The row is inserted in the database transaction that posts the transaction, which makes a concurrent duplicate
+ * fail on the primary key instead of posting twice
+ */
+@Entity
+@Table(name = "idempotency_keys",
+       indexes = @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at")) // Purge of expired keys
+@Data
+@NoArgsConstructor
+public class IdempotencyRecord implements Persistable<String> {
+
+    @Id
+    @Column(name = "scoped_key", nullable = false, length = 320)
+    private String scopedKey;
+
+    @Column(name = "request_fingerprint", nullable = false, length = 64)
+    private String requestFingerprint; // SHA-256 of the account number and request body
+
+    @Column(name = "account_number", nullable = false)
+    private String accountNumber;
+
+    @Column(name = "transaction_id", nullable = false)
+    private String transactionId;
+
+    @Column(name = "created_timestamp", nullable = false, updatable = false)
+    private LocalDateTime createdTimestamp;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient boolean persisted;
+
+    public static String scopedKey(String userId, String accountNumber, String idempotencyKey) {
+        return userId + ":" + accountNumber + ":" + idempotencyKey;
+    }
+
+    @Override
+    public String getId() {
+        return scopedKey;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostPersist
+    @PostLoad
+    void markPersisted() {
+        persisted = true;
+    }
+
+    public boolean isExpired(LocalDateTime now) {
+        return !expiresAt.isAfter(now);
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.entity;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * Exact monetary amount held as a whole number of minor units (pence for GBP)
+ * Balances and transaction amounts use this instead of Double so postings never drift;
+ * conversion to and from the API's decimal numbers happens only in the mappers.
+ * Serializable because Hibernate disassembles attribute values into the second-level cache as Serializable
+ */
+public record Money(long minorUnits) implements Comparable<Money>, Serializable {
+
+    public static final Money ZERO = new Money(0);
+
+    private static final int MINOR_UNITS_PER_MAJOR = 100;
+    private static final double FRACTION_TOLERANCE = 1e-6;
+
+    /**
+     * Create an amount from a number of minor units
+     */
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    /**
+     * Create an amount from a decimal number of major units, e.g. 10.99
+     * @throws IllegalArgumentException if the amount is not finite or has more than two decimal places
+     */
+    public static Money fromDecimal(double amount) {
+        return ofMinor(toMinorUnits(amount));
+    }
+
+    /**
+     * Convert a decimal number of major units to minor units without allocating
+     * @throws IllegalArgumentException if the amount is not finite or has more than two decimal places
+     */
+    public static long toMinorUnits(double amount) {
+        if (!Double.isFinite(amount)) {
+            throw new IllegalArgumentException("Amount must be a finite number");
+        }
+        double scaled = amount * MINOR_UNITS_PER_MAJOR;
+        long minorUnits = Math.round(scaled);
+        if (Math.abs(scaled - minorUnits) > FRACTION_TOLERANCE) {
+            throw new IllegalArgumentException("Amount must have at most two decimal places: " + amount);
+        }
+        return minorUnits;
+    }
+
+    /**
+     * Decimal number of major units, as exposed by the API
+     */
+    public double toDecimal() {
+        return (double) minorUnits / MINOR_UNITS_PER_MAJOR;
+    }
+
+    public Money plus(Money other) {
+        return ofMinor(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return ofMinor(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public boolean isZero() {
+        return minorUnits == 0;
+    }
+
+    public boolean isLessThan(Money other) {
+        return minorUnits < other.minorUnits;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return BigDecimal.valueOf(minorUnits, 2).toPlainString();
+    }
+}
@@ -1,32 +1,40 @@
 package org.example.entity;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 import lombok.ToString;
 import org.hibernate.annotations.CreationTimestamp;
+import org.springframework.data.domain.Persistable;
 
 import java.time.LocalDateTime;
 
 /**
  * Transaction entity representing financial transactions in the Eagle Bank system
  * Primary key is id with pattern ^tan-[A-Za-z0-9]+$
+ * Ids are assigned before saving, so the entity reports whether it is new itself and
+ * TransactionRepository.save persists it directly instead of merging with a select first
  */
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions",
+       indexes = @Index(name = "idx_transactions_account_created", // Listing, keyset paging and export by account
+                        columnList = "account_number, created_timestamp, id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @ToString(exclude = "account") // Prevent circular reference in toString
-public class Transaction {
+public class Transaction implements Persistable<String> {
 
     @Id
     @Column(name = "id", nullable = false)
     private String id; // Pattern: ^tan-[A-Za-z0-9]+$
 
     @Column(name = "amount", nullable = false)
-    private Double amount;
+    private Money amount; // Stored in minor units (pence)
 
     @Enumerated(EnumType.STRING)
     @Column(name = "type", nullable = false)
@@ -48,6 +56,22 @@ public class Transaction {
     @JoinColumn(name = "account_number", nullable = false, foreignKey = @ForeignKey(name = "fk_transaction_account"))
     private Account account;
 
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient boolean persisted;
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostPersist
+    @PostLoad
+    void markPersisted() {
+        persisted = true;
+    }
+
     // Convenience methods for backward compatibility
     public String getAccountNumber() {
         return account != null ? account.getAccountNumber() : null;
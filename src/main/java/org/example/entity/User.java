@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -17,6 +19,8 @@ import java.util.List;
  * Primary key is userId with pattern usr-[A-Za-z0-9]+
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users") // TTL and size in application.conf
 @Table(name = "users",
        uniqueConstraints = @UniqueConstraint(columnNames = "email"))
 @Data
@@ -53,7 +57,9 @@ public class User {
     private LocalDateTime updatedTimestamp;
 
     // JPA Relationships
-    @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    // Accounts are deleted on their own and a user can only be deleted without accounts, so REMOVE is not cascaded:
+    // it would make Hibernate load the whole collection just to cascade over it
+    @OneToMany(mappedBy = "user", cascade = {CascadeType.PERSIST, CascadeType.MERGE}, fetch = FetchType.LAZY)
     private List<Account> accounts = new ArrayList<>();
 
     // Helper methods for managing bidirectional relationship
@@ -61,9 +67,4 @@ public class User {
         accounts.add(account);
         account.setUser(this);
     }
-
-    public void removeAccount(Account account) {
-        accounts.remove(account);
-        account.setUser(null);
-    }
 }
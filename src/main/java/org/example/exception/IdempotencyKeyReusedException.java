@@ -0,0 +1,11 @@
+package org.example.exception;
+
+/**
+ * Exception thrown when an idempotency key is sent again with a request that differs from the one it was first used for
+ */
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+    public IdempotencyKeyReusedException(String idempotencyKey) {
+        super("Idempotency key " + idempotencyKey + " was already used for a different request");
+    }
+}
@@ -0,0 +1,11 @@
+package org.example.exception;
+
+/**
+ * Exception thrown when the password hashing executor is saturated or does not respond in time
+ */
+public class PasswordHashingUnavailableException extends RuntimeException {
+
+    public PasswordHashingUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
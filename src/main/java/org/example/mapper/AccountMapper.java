@@ -1,9 +1,11 @@
 package org.example.mapper;
 
 import org.example.entity.Account;
+import org.example.entity.Money;
 import org.example.model.BankAccountResponse;
 import org.example.model.CreateBankAccountRequest;
 import org.example.model.UpdateBankAccountRequest;
+import org.example.repository.AccountView;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
@@ -28,6 +30,7 @@ public interface AccountMapper {
     @Mapping(target = "transactions", ignore = true) // JPA relationship - managed by JPA
     @Mapping(target = "createdTimestamp", ignore = true)
     @Mapping(target = "updatedTimestamp", ignore = true)
+    @Mapping(target = "version", ignore = true)
     @Mapping(target = "currency", constant = "GBP")
     @Mapping(target = "sortCode", constant = "_10_10_10")
     Account toEntity(CreateBankAccountRequest createBankAccountRequest);
@@ -46,6 +49,16 @@ public interface AccountMapper {
      */
     List<BankAccountResponse> toResponseList(List<Account> accounts);
 
+    /**
+     * Map a read-only AccountView projection to BankAccountResponse
+     */
+    BankAccountResponse fromView(AccountView accountView);
+
+    /**
+     * Map list of AccountView projections to list of BankAccountResponse
+     */
+    List<BankAccountResponse> fromViews(List<AccountView> accountViews);
+
     /**
      * Update existing Account entity with UpdateBankAccountRequest data
      * Only updates non-null values from the request, ignores relationships and system fields
@@ -56,10 +69,21 @@ public interface AccountMapper {
     @Mapping(target = "transactions", ignore = true)
     @Mapping(target = "createdTimestamp", ignore = true)
     @Mapping(target = "updatedTimestamp", ignore = true)
+    @Mapping(target = "version", ignore = true)
     @Mapping(target = "currency", ignore = true)
     @Mapping(target = "sortCode", ignore = true)
     void updateEntityFromRequest(UpdateBankAccountRequest updateBankAccountRequest, @MappingTarget Account account);
 
+    /**
+     * Map Money in minor units to the decimal balance exposed by the API
+     */
+    default Double mapMoney(Money money) {
+        if (money == null) {
+            return null;
+        }
+        return money.toDecimal();
+    }
+
     /**
      * Map Account.AccountType to BankAccountResponse.AccountTypeEnum
      */
@@ -1,12 +1,15 @@
 package org.example.mapper;
 
+import org.example.entity.Money;
 import org.example.entity.Transaction;
 import org.example.model.CreateTransactionRequest;
 import org.example.model.TransactionResponse;
+import org.example.repository.TransactionView;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.NullValuePropertyMappingStrategy;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -36,11 +39,60 @@ public interface TransactionMapper {
     @Mapping(target = "currency", source = "currency")
     TransactionResponse toResponse(Transaction transaction);
 
+    /**
+     * Map Transaction entity to TransactionResponse with the owner's user ID passed in
+     * Used when the transaction only holds an uninitialized reference to its account, which would otherwise be loaded
+     */
+    @Mapping(target = "userId", source = "userId")
+    @Mapping(target = "type", source = "transaction.type")
+    @Mapping(target = "currency", source = "transaction.currency")
+    TransactionResponse toResponse(Transaction transaction, String userId);
+
     /**
      * Map list of Transaction entities to list of TransactionResponse
      */
     List<TransactionResponse> toResponseList(List<Transaction> transactions);
 
+    /**
+     * Map a read-only TransactionView projection to TransactionResponse
+     * The projection carries no account, so the owner's user ID is passed in after the ownership check
+     */
+    @Mapping(target = "userId", source = "userId")
+    @Mapping(target = "type", source = "transactionView.type")
+    @Mapping(target = "currency", source = "transactionView.currency")
+    TransactionResponse fromView(TransactionView transactionView, String userId);
+
+    /**
+     * Map list of TransactionView projections, all owned by the same user, to list of TransactionResponse
+     */
+    default List<TransactionResponse> fromViews(List<TransactionView> transactionViews, String userId) {
+        List<TransactionResponse> responses = new ArrayList<>(transactionViews.size());
+        for (TransactionView transactionView : transactionViews) {
+            responses.add(fromView(transactionView, userId));
+        }
+        return responses;
+    }
+
+    /**
+     * Map the decimal amount from the API to Money in minor units
+     */
+    default Money mapAmount(Double amount) {
+        if (amount == null) {
+            return null;
+        }
+        return Money.fromDecimal(amount);
+    }
+
+    /**
+     * Map Money in minor units to the decimal amount exposed by the API
+     */
+    default Double mapMoney(Money money) {
+        if (money == null) {
+            return null;
+        }
+        return money.toDecimal();
+    }
+
     /**
      * Map Transaction.TransactionType to TransactionResponse.TypeEnum
      */
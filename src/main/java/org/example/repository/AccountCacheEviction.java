@@ -0,0 +1,16 @@
+package org.example.repository;
+
+/**
+ * Second-level cache maintenance for accounts changed by native statements, which Hibernate cannot track per entity
+ * Mixed into AccountRepository
+ */
+public interface AccountCacheEviction {
+
+    /**
+     * Evict one account from the "accounts" cache region
+     * Evicts now and again when the surrounding transaction completes, so a concurrent read cannot put the
+     * balance from before the change back into the cache while the change is still uncommitted
+     * @param accountNumber the account number
+     */
+    void evictCachedAccount(String accountNumber);
+}
@@ -0,0 +1,32 @@
+package org.example.repository;
+
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.entity.Account;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * AccountCacheEviction over the JPA Cache of the entity manager factory
+ */
+class AccountCacheEvictionImpl implements AccountCacheEviction {
+
+    private final Cache cache;
+
+    AccountCacheEvictionImpl(EntityManagerFactory entityManagerFactory) {
+        this.cache = entityManagerFactory.getCache();
+    }
+
+    @Override
+    public void evictCachedAccount(String accountNumber) {
+        cache.evict(Account.class, accountNumber);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.evict(Account.class, accountNumber);
+                }
+            });
+        }
+    }
+}
@@ -1,13 +1,20 @@
 package org.example.repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.example.entity.Account;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository for Account entity operations
@@ -15,7 +22,7 @@ import java.util.Optional;
  * Updated to leverage JPA relationships instead of string foreign keys
  */
 @Repository
-public interface AccountRepository extends JpaRepository<Account, String> {
+public interface AccountRepository extends JpaRepository<Account, String>, AccountCacheEviction {
 
     /**
      * Find all accounts belonging to a specific user using JPA relationship
@@ -25,6 +32,16 @@ public interface AccountRepository extends JpaRepository<Account, String> {
     @Query("SELECT a FROM Account a WHERE a.user.id = :userId")
     List<Account> findByUserId(@Param("userId") String userId);
 
+    /**
+     * Find all accounts belonging to a specific user as read-only projections
+     * Used for: GET /v1/accounts
+     * @param userId the user ID
+     * @return the response columns of every account owned by the user
+     */
+    @Query("SELECT new org.example.repository.AccountView(a.accountNumber, a.sortCode, a.name, a.accountType, " +
+           "a.balance, a.currency, a.createdTimestamp, a.updatedTimestamp) FROM Account a WHERE a.user.id = :userId")
+    List<AccountView> findViewsByUserId(@Param("userId") String userId);
+
     /**
      * Alternative method using property expression (JPA will handle the relationship)
      * @param userId the user ID
@@ -34,10 +51,14 @@ public interface AccountRepository extends JpaRepository<Account, String> {
 
     /**
      * Find account by account number
+     * The account number is the primary key, so this is a lookup by id that is served from the
+     * second-level cache when the account is cached; the owner is available as an uninitialized proxy
      * @param accountNumber the account number
      * @return Optional containing account if found
      */
-    Optional<Account> findByAccountNumber(String accountNumber);
+    default Optional<Account> findByAccountNumber(String accountNumber) {
+        return findById(accountNumber);
+    }
 
     /**
      * Check if an account exists with the given account number (for uniqueness validation)
@@ -63,11 +84,57 @@ public interface AccountRepository extends JpaRepository<Account, String> {
 
     /**
      * Find accounts with their user information eagerly loaded
+     * Always queries the database; prefer findByAccountNumber when only the owner's ID is needed
      * @param accountNumber the account number
      * @return Optional containing account with user loaded
      */
     @Query("SELECT a FROM Account a JOIN FETCH a.user WHERE a.accountNumber = :accountNumber")
     Optional<Account> findByAccountNumberWithUser(@Param("accountNumber") String accountNumber);
 
+    /**
+     * Find account and take a row lock on it (SELECT ... FOR UPDATE) until the transaction ends
+     * Used by the pessimistic balance ledger mode to serialize postings to the same account
+     * @param accountNumber the account number
+     * @return Optional containing the locked account if found
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.accountNumber = :accountNumber")
+    Optional<Account> findByAccountNumberForUpdate(@Param("accountNumber") String accountNumber);
+
+    /**
+     * Withdraw from an account in a single statement, only if its balance covers the amount
+     * Used by BalanceLedger.withdraw instead of loading the account; the version is bumped so that
+     * concurrent optimistic postings still detect the change. The empty query space matches no table, so
+     * Hibernate invalidates no cache region at all (by default a native update clears every region);
+     * callers evict the debited account alone with evictCachedAccount
+     * @param accountNumber the account number
+     * @param amount the amount to withdraw in minor units (pence)
+     * @return 1 if the account was debited, 0 if it does not exist or its balance is insufficient
+     */
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = ""))
+    @Query(value = "UPDATE accounts SET balance = balance - :amount, version = version + 1, " +
+                   "updated_timestamp = LOCALTIMESTAMP WHERE account_number = :accountNumber AND balance >= :amount",
+           nativeQuery = true)
+    int debitIfSufficient(@Param("accountNumber") String accountNumber, @Param("amount") long amount);
+
+    /**
+     * Find the ID of the user owning an account, without loading the account
+     * Used by AccountAccessAuthorizer for ownership checks
+     * @param accountNumber the account number
+     * @return Optional containing the owner's user ID if the account exists
+     */
+    @Query("SELECT a.user.id FROM Account a WHERE a.accountNumber = :accountNumber")
+    Optional<String> findOwnerIdByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    /**
+     * Stream every account number, without loading the accounts
+     * Used to build the account number occupancy bitmap at startup; must be consumed inside a transaction
+     * @return stream of all account numbers
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT a.accountNumber FROM Account a")
+    Stream<String> streamAllAccountNumbers();
+
     // Note: findById(String accountNumber) and existsById(String accountNumber) are inherited from JpaRepository
 }
@@ -0,0 +1,20 @@
+package org.example.repository;
+
+import org.example.entity.Account;
+import org.example.entity.Money;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of the account columns exposed in BankAccountResponse
+ * Built by JPQL constructor expressions, so no entity, snapshot or user proxy is created
+ */
+public record AccountView(String accountNumber,
+                          Account.SortCode sortCode,
+                          String name,
+                          Account.AccountType accountType,
+                          Money balance,
+                          Account.Currency currency,
+                          LocalDateTime createdTimestamp,
+                          LocalDateTime updatedTimestamp) {
+}
@@ -1,11 +1,19 @@
 package org.example.repository;
 
+import jakarta.persistence.QueryHint;
 import org.example.entity.Transaction;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository for Transaction entity operations
@@ -22,6 +30,61 @@ public interface TransactionRepository extends JpaRepository<Transaction, String
      */
     List<Transaction> findByAccount_AccountNumberOrderByCreatedTimestampDesc(String accountNumber);
 
+    /**
+     * Check if an account has any transactions, without loading them (for account deletion validation)
+     * @param accountNumber the account number
+     * @return true if at least one transaction exists on the account
+     */
+    boolean existsByAccount_AccountNumber(String accountNumber);
+
+    /**
+     * Find the first page of transactions for a specific account, newest first, selecting only the response columns
+     * Used for: GET /v1/accounts/{accountId}/transactions without a cursor
+     * @param accountNumber the account number
+     * @param pageable page size (only the first page is requested)
+     * @return transaction views ordered by creation timestamp and id descending
+     */
+    @Query("SELECT new org.example.repository.TransactionView(t.id, t.amount, t.type, t.currency, t.reference, " +
+           "t.createdTimestamp) FROM Transaction t WHERE t.account.accountNumber = :accountNumber " +
+           "ORDER BY t.createdTimestamp DESC, t.id DESC")
+    List<TransactionView> findViewPageByAccountNumber(@Param("accountNumber") String accountNumber, Pageable pageable);
+
+    /**
+     * Find the page of transactions that follows a keyset position, newest first, selecting only the response columns
+     * Seeks on (createdTimestamp, id) so the cost does not grow with the page depth
+     * Used for: GET /v1/accounts/{accountId}/transactions?cursor=...
+     * @param accountNumber the account number
+     * @param createdTimestamp creation timestamp of the last transaction on the previous page
+     * @param id id of the last transaction on the previous page
+     * @param pageable page size (only the first page is requested)
+     * @return transaction views strictly older than the given position
+     */
+    @Query("SELECT new org.example.repository.TransactionView(t.id, t.amount, t.type, t.currency, t.reference, " +
+           "t.createdTimestamp) FROM Transaction t WHERE t.account.accountNumber = :accountNumber " +
+           "AND (t.createdTimestamp < :createdTimestamp OR (t.createdTimestamp = :createdTimestamp AND t.id < :id)) " +
+           "ORDER BY t.createdTimestamp DESC, t.id DESC")
+    List<TransactionView> findViewPageByAccountNumberAfter(@Param("accountNumber") String accountNumber,
+                                                           @Param("createdTimestamp") LocalDateTime createdTimestamp,
+                                                           @Param("id") String id,
+                                                           Pageable pageable);
+
+    /**
+     * Stream all transactions for a specific account, oldest first
+     * Rows are fetched from the cursor in batches instead of being materialized as a list;
+     * the stream must be consumed and closed inside a transaction
+     * Used for: GET /v1/accounts/{accountId}/transactions/export
+     * @param accountNumber the account number
+     * @return stream of transactions ordered by creation timestamp and id ascending
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT t FROM Transaction t WHERE t.account.accountNumber = :accountNumber " +
+           "ORDER BY t.createdTimestamp ASC, t.id ASC")
+    Stream<Transaction> streamByAccountNumber(@Param("accountNumber") String accountNumber);
+
     /**
      * Find a specific transaction by ID within a specific account
      * Used for: GET /v1/accounts/{accountId}/transactions/{transactionId}
@@ -30,4 +93,16 @@ public interface TransactionRepository extends JpaRepository<Transaction, String
      * @return Optional containing transaction if found on specified account
      */
     Optional<Transaction> findByIdAndAccount_AccountNumber(String id, String accountNumber);
+
+    /**
+     * Find a specific transaction within a specific account as a read-only projection
+     * Used for: GET /v1/accounts/{accountId}/transactions/{transactionId}
+     * @param id the transaction ID
+     * @param accountNumber the account number
+     * @return Optional containing the transaction view if found on specified account
+     */
+    @Query("SELECT new org.example.repository.TransactionView(t.id, t.amount, t.type, t.currency, t.reference, " +
+           "t.createdTimestamp) FROM Transaction t WHERE t.id = :id AND t.account.accountNumber = :accountNumber")
+    Optional<TransactionView> findViewByIdAndAccountNumber(@Param("id") String id,
+                                                           @Param("accountNumber") String accountNumber);
 }
@@ -0,0 +1,19 @@
+package org.example.repository;
+
+import org.example.entity.Money;
+import org.example.entity.Transaction;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of the transaction columns exposed in TransactionResponse
+ * Built by JPQL constructor expressions, so no entity, snapshot or account proxy is created;
+ * the owner's user ID is supplied by the caller after the ownership check
+ */
+public record TransactionView(String id,
+                              Money amount,
+                              Transaction.TransactionType type,
+                              Transaction.Currency currency,
+                              String reference,
+                              LocalDateTime createdTimestamp) {
+}
@@ -0,0 +1,71 @@
+package org.example.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.example.exception.AccountNotFoundException;
+import org.example.repository.AccountRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Decides whether a user may access an account without loading the Account entity
+ * Account ownership never changes, so accountNumber -> owner user ID is cached (bounded) and only evicted
+ * when the account is deleted. Misses are resolved with a single-column query; unknown accounts are not cached
+ */
+@Component
+@Slf4j
+public class AccountAccessAuthorizer {
+
+    private final AccountRepository accountRepository;
+    private final Cache<String, String> ownerByAccountNumber;
+
+    public AccountAccessAuthorizer(AccountRepository accountRepository,
+                                   @Value("${security.account-ownership-cache.max-size:100000}") long cacheMaxSize) {
+        this.accountRepository = accountRepository;
+        this.ownerByAccountNumber = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .build();
+    }
+
+    /**
+     * @throws AccountNotFoundException if the account does not exist
+     * @throws AccessDeniedException if the account belongs to another user
+     */
+    public void verifyOwner(String accountNumber, String userId) {
+        String ownerId = ownerByAccountNumber.get(accountNumber,
+                key -> accountRepository.findOwnerIdByAccountNumber(key).orElse(null));
+
+        if (ownerId == null) {
+            throw new AccountNotFoundException(accountNumber);
+        }
+        if (!ownerId.equals(userId)) {
+            log.warn("User {} attempted to access account {} owned by user {}", userId, accountNumber, ownerId);
+            throw new AccessDeniedException("Access denied to account");
+        }
+    }
+
+    /**
+     * Forget the owner of a deleted account
+     * Evicts now and again after commit, so a concurrent check cannot re-cache the owner before the delete is visible
+     */
+    public void evictAfterCommit(String accountNumber) {
+        ownerByAccountNumber.invalidate(accountNumber);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    ownerByAccountNumber.invalidate(accountNumber);
+                }
+            });
+        }
+    }
+
+    long cachedOwnerCount() {
+        ownerByAccountNumber.cleanUp();
+        return ownerByAccountNumber.estimatedSize();
+    }
+}
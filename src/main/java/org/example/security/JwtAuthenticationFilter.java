@@ -17,6 +17,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Optional;
 
 /**
  * JWT Authentication Filter that processes JWT tokens from requests
@@ -44,7 +45,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String userId;
 
         // Check if Authorization header exists and starts with "Bearer "
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
@@ -56,14 +56,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         jwt = authHeader.substring(7);
 
         try {
-            // Extract user ID from JWT token
-            userId = jwtService.extractUserId(jwt);
+            // Nothing to do if authentication is already set in SecurityContext
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
 
-            // If user ID exists and no authentication is set in SecurityContext
-            if (userId != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                // Parse and verify the token once (or take it from the verified-token cache)
+                Optional<JwtPrincipal> principal = jwtService.validateToken(jwt);
+
+                if (principal.isPresent()) {
+                    String userId = principal.get().userId();
 
-                // Validate the token
-                if (jwtService.isTokenValid(jwt, userId)) {
                     // Create authentication token
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userId,
@@ -79,7 +80,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
                     log.debug("Successfully authenticated user: {}", userId);
                 } else {
-                    log.warn("Invalid JWT token for user: {}", userId);
+                    log.warn("Invalid JWT token");
                 }
             }
         } catch (Exception e) {
@@ -0,0 +1,14 @@
+package org.example.security;
+
+import java.time.Instant;
+
+/**
+ * Result of a successful JWT verification
+ * Carries the user ID from the subject claim and the token's expiry so cached entries can be expired with the token
+ */
+public record JwtPrincipal(String userId, Instant expiresAt) {
+
+    public boolean isExpired() {
+        return !expiresAt.isAfter(Instant.now());
+    }
+}
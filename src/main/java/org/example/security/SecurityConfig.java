@@ -1,18 +1,28 @@
 package org.example.security;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Security Configuration for JWT Authentication
  * Configures Spring Security 6+ with JWT authentication
@@ -22,6 +32,8 @@ import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 @RequiredArgsConstructor
 public class SecurityConfig {
 
+    private static final String METRICS_ROLE = "METRICS";
+
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
 
     /**
@@ -55,6 +67,7 @@ public class SecurityConfig {
 
                 // Health check endpoints
                 .requestMatchers(new AntPathRequestMatcher("/actuator/health")).permitAll()
+                .requestMatchers(new AntPathRequestMatcher("/actuator/health/**")).permitAll()  // Liveness and readiness probes
 
                 // All other endpoints require authentication
                 .anyRequest().authenticated()
@@ -71,11 +84,53 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * Separate chain for the Prometheus scrape endpoint, which exposes latency, pool and lag data
+     * The scraper authenticates with HTTP Basic as security.prometheus.username; while no
+     * security.prometheus.password is configured the endpoint is closed to everyone
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain prometheusFilterChain(HttpSecurity http, PasswordEncoder passwordEncoder,
+                                                     @Value("${security.prometheus.username:prometheus}") String username,
+                                                     @Value("${security.prometheus.password:}") String password) throws Exception {
+        http
+            .securityMatcher(new AntPathRequestMatcher("/actuator/prometheus"))
+            .csrf(AbstractHttpConfigurer::disable)
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .httpBasic(Customizer.withDefaults());
+
+        if (password.isBlank()) {
+            http.authorizeHttpRequests(auth -> auth.anyRequest().denyAll());
+        } else {
+            http.userDetailsService(new InMemoryUserDetailsManager(User.withUsername(username)
+                        .password(passwordEncoder.encode(password))
+                        .roles(METRICS_ROLE)
+                        .build()))
+                .authorizeHttpRequests(auth -> auth.anyRequest().hasRole(METRICS_ROLE));
+        }
+        return http.build();
+    }
+
     /**
      * Password encoder bean for password hashing
+     * Hashes are stored with an {id} prefix so the algorithm or its strength can change without a migration;
+     * older hashes keep matching and are upgraded on the next successful login
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${security.password.encoding:bcrypt}") String encodingId,
+                                           @Value("${security.password.bcrypt-strength:10}") int bcryptStrength) {
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", new BCryptPasswordEncoder(bcryptStrength));
+        encoders.put("pbkdf2", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+
+        if (!encoders.containsKey(encodingId)) {
+            throw new IllegalArgumentException("Unsupported password encoding: " + encodingId);
+        }
+
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder(encodingId, encoders);
+        // Hashes created before the {id} prefix was introduced are plain BCrypt
+        passwordEncoder.setDefaultPasswordEncoderForMatches(encoders.get("bcrypt"));
+        return passwordEncoder;
     }
 }
@@ -0,0 +1,161 @@
+package org.example.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.repository.AccountRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * In-memory occupancy bitmap of the account number space 01000000-01999999 (one bit per number, 125 KB)
+ * Loaded from the database before the application starts serving requests and updated as numbers are claimed,
+ * so allocation can find a free number in memory, a 64-number word at a time, without a database round-trip.
+ * Deleting an account leaves its bit set: numbers are retired rather than handed to a new owner.
+ * Bits are set with compare-and-set, so concurrent allocations on this node never claim the same number
+ */
+@Component
+@Slf4j
+public class AccountNumberRegistry implements SmartInitializingSingleton {
+
+    static final int CAPACITY = 1_000_000;
+    private static final String PREFIX = "01";
+
+    private final AccountRepository accountRepository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicLongArray bits = new AtomicLongArray((CAPACITY + 63) / 64);
+    private final AtomicInteger occupied = new AtomicInteger();
+
+    public AccountNumberRegistry(AccountRepository accountRepository, ShardRouter shardRouter,
+                                 PlatformTransactionManager transactionManager) {
+        this.accountRepository = accountRepository;
+        this.shardRouter = shardRouter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long start = System.nanoTime();
+        // Account numbers are allocated globally, so every shard's numbers go into the one bitmap
+        transactionTemplate.executeWithoutResult(status -> shardRouter.onEveryShard(() -> {
+            try (Stream<String> accountNumbers = accountRepository.streamAllAccountNumbers()) {
+                accountNumbers.forEach(this::markAllocated);
+            }
+            return null;
+        }));
+        log.info("Loaded {} account numbers into the occupancy bitmap in {} ms ({}% of the space in use)",
+                 occupiedCount(), (System.nanoTime() - start) / 1_000_000, String.format("%.2f", occupancyRatio() * 100));
+    }
+
+    /**
+     * Claim an account number
+     * @return true if the number was free and is now marked allocated, false if it was already taken
+     */
+    public boolean markAllocated(String accountNumber) {
+        int index = indexOf(accountNumber);
+        if (index < 0) {
+            return true; // not in the managed space (e.g. legacy numbers), nothing to track
+        }
+
+        long mask = 1L << (index & 63);
+        int word = index >>> 6;
+        while (true) {
+            long current = bits.get(word);
+            if ((current & mask) != 0) {
+                return false;
+            }
+            if (bits.compareAndSet(word, current, current | mask)) {
+                occupied.incrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Claim the lowest free number in [fromIndex, toIndex), skipping fully occupied words without testing each bit
+     * @return index of the claimed number, or -1 if every number in the range is taken
+     */
+    int claimFirstFree(int fromIndex, int toIndex) {
+        int index = fromIndex;
+        while (index < toIndex) {
+            int word = index >>> 6;
+            long current = bits.get(word);
+            long free = ~current & (-1L << (index & 63));
+            if (free == 0) {
+                index = (word + 1) << 6;
+                continue;
+            }
+            int candidate = (word << 6) + Long.numberOfTrailingZeros(free);
+            if (candidate >= toIndex) {
+                return -1;
+            }
+            if (bits.compareAndSet(word, current, current | (1L << (candidate & 63)))) {
+                occupied.incrementAndGet();
+                return candidate;
+            }
+            // Another bit of the word changed under us, look at the word again from the same position
+        }
+        return -1;
+    }
+
+    static String accountNumberOf(int index) {
+        return PREFIX + String.format("%06d", index);
+    }
+
+    public boolean isAllocated(String accountNumber) {
+        int index = indexOf(accountNumber);
+        return index >= 0 && (bits.get(index >>> 6) & (1L << (index & 63))) != 0;
+    }
+
+    public int occupiedCount() {
+        return occupied.get();
+    }
+
+    /**
+     * Share of the account number space in use, between 0 and 1
+     */
+    public double occupancyRatio() {
+        return (double) occupied.get() / CAPACITY;
+    }
+
+    void release(String accountNumber) {
+        int index = indexOf(accountNumber);
+        if (index < 0) {
+            return;
+        }
+
+        long mask = 1L << (index & 63);
+        int word = index >>> 6;
+        while (true) {
+            long current = bits.get(word);
+            if ((current & mask) == 0) {
+                return;
+            }
+            if (bits.compareAndSet(word, current, current & ~mask)) {
+                occupied.decrementAndGet();
+                return;
+            }
+        }
+    }
+
+    private static int indexOf(String accountNumber) {
+        if (accountNumber == null || accountNumber.length() != 8 || !accountNumber.startsWith(PREFIX)) {
+            return -1;
+        }
+        int index = 0;
+        for (int i = PREFIX.length(); i < accountNumber.length(); i++) {
+            char c = accountNumber.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            index = index * 10 + (c - '0');
+        }
+        return index;
+    }
+}
@@ -3,7 +3,7 @@ package org.example.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.entity.Account;
-import org.example.entity.User;
+import org.example.entity.Money;
 import org.example.exception.AccountNotFoundException;
 import org.example.exception.UserNotFoundException;
 import org.example.mapper.AccountMapper;
@@ -12,13 +12,18 @@ import org.example.model.CreateBankAccountRequest;
 import org.example.model.ListBankAccountsResponse;
 import org.example.model.UpdateBankAccountRequest;
 import org.example.repository.AccountRepository;
+import org.example.repository.AccountView;
+import org.example.repository.TransactionRepository;
 import org.example.repository.UserRepository;
+import org.example.security.AccountAccessAuthorizer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.UUID;
 
 /**
  * Service class for Account management operations
@@ -32,36 +37,55 @@ public class AccountService {
 
     private final AccountRepository accountRepository;
     private final UserRepository userRepository;
+    private final TransactionRepository transactionRepository;
     private final AccountMapper accountMapper;
-
+    @Qualifier("accountNumberAllocator")
+    private final IdAllocator accountNumberAllocator;
+    private final AccountAccessAuthorizer accountAccessAuthorizer;
+    private final ShardRouter shardRouter;
+
+    /**
+     * Users and accounts may live in different databases (ShardRouter), so the user is checked first and the
+     * account is then saved in its own transaction on its shard
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public BankAccountResponse createAccount(String userId, CreateBankAccountRequest createBankAccountRequest) {
         log.info("Creating account for user: {}", userId);
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException(userId));
+        if (!userRepository.existsById(userId)) {
+            throw new UserNotFoundException(userId);
+        }
 
         Account account = accountMapper.toEntity(createBankAccountRequest);
 
-        account.setAccountNumber(generateUniqueAccountNumber());
-        account.setBalance(0.0);
+        String accountNumber = accountNumberAllocator.nextId();
+        account.setAccountNumber(accountNumber);
+        account.setBalance(Money.ZERO);
         account.setCurrency(Account.Currency.GBP);
         account.setSortCode(Account.SortCode._10_10_10);
 
-        user.addAccount(account);
-
-        User savedUser = userRepository.save(user);
-
-        Account savedAccount = savedUser.getAccounts().stream()
-                .filter(acc -> acc.getAccountNumber().equals(account.getAccountNumber()))
-                .findFirst()
-                .orElse(account);
+        boolean registered = false;
+        Account savedAccount;
+        try {
+            shardRouter.registerAccount(accountNumber);
+            registered = true;
+            savedAccount = shardRouter.onAccountShard(accountNumber, () -> {
+                // Persist the account on its own: adding it to user.getAccounts() and reading it back from there
+                // would load every account of the user. A reference is enough to set the owner's foreign key
+                account.setUser(userRepository.getReferenceById(userId));
+                return accountRepository.save(account);
+            });
+        } catch (RuntimeException e) {
+            releaseUnsavedAccountNumber(accountNumber, registered, e);
+            throw e;
+        }
 
         log.info("Successfully created account {} for user {}", savedAccount.getAccountNumber(), userId);
         return accountMapper.toResponse(savedAccount);
     }
 
     @Transactional(readOnly = true)
-    public BankAccountResponse findByAccountNumber(String accountNumber, String userId) {
+    public BankAccountResponse findByAccountNumber(@AccountShardKey String accountNumber, String userId) {
         log.info("Finding account {} for user {}", accountNumber, userId);
 
         Account account = accountRepository.findByAccountNumber(accountNumber)
@@ -76,8 +100,13 @@ public class AccountService {
     public ListBankAccountsResponse findAccountsByUserId(String userId) {
         log.info("Finding all accounts for user: {}", userId);
 
-        List<Account> accounts = accountRepository.findByUser_Id(userId);
-        List<BankAccountResponse> accountResponses = accountMapper.toResponseList(accounts);
+        // Read-only listing: select the response columns only instead of managed Account entities.
+        // A user's accounts may be on any shard, so every shard is queried (in parallel when sharded)
+        List<AccountView> accounts = shardRouter.onEveryShard(() -> accountRepository.findViewsByUserId(userId))
+                .stream()
+                .flatMap(List::stream)
+                .toList();
+        List<BankAccountResponse> accountResponses = accountMapper.fromViews(accounts);
 
         ListBankAccountsResponse response = new ListBankAccountsResponse();
         response.setAccounts(accountResponses);
@@ -86,7 +115,7 @@ public class AccountService {
         return response;
     }
 
-    public BankAccountResponse updateAccount(String accountNumber, String userId, UpdateBankAccountRequest updateBankAccountRequest) {
+    public BankAccountResponse updateAccount(@AccountShardKey String accountNumber, String userId, UpdateBankAccountRequest updateBankAccountRequest) {
         log.info("Updating account {} for user {}", accountNumber, userId);
 
         Account existingAccount = accountRepository.findByAccountNumber(accountNumber)
@@ -102,7 +131,7 @@ public class AccountService {
         return accountMapper.toResponse(updatedAccount);
     }
 
-    public void deleteAccount(String accountNumber, String userId) {
+    public void deleteAccount(@AccountShardKey String accountNumber, String userId) {
         log.info("Deleting account {} for user {}", accountNumber, userId);
 
         Account account = accountRepository.findByAccountNumber(accountNumber)
@@ -110,43 +139,42 @@ public class AccountService {
 
         validateAccountOwnership(account, userId);
 
-        if (!account.getTransactions().isEmpty()) {
-            log.warn("Cannot delete account {} as it has {} transactions", accountNumber, account.getTransactions().size());
+        if (transactionRepository.existsByAccount_AccountNumber(accountNumber)) {
+            log.warn("Cannot delete account {} as it has transactions", accountNumber);
             throw new IllegalStateException("Cannot delete account with existing transactions");
         }
 
-        if (account.getBalance() != 0.0) {
+        if (!account.getBalance().isZero()) {
             log.warn("Cannot delete account {} as it has non-zero balance: {}", accountNumber, account.getBalance());
             throw new IllegalStateException("Cannot delete account with non-zero balance");
         }
 
-        User user = account.getUser();
-        user.removeAccount(account);
-
-        userRepository.save(user);
+        // Removing the account from user.getAccounts() would load all of the user's accounts first
+        // The number stays marked as taken in the occupancy bitmap: it is retired, never handed to another owner
+        accountRepository.delete(account);
+        accountAccessAuthorizer.evictAfterCommit(accountNumber);
+        shardRouter.unregisterAccount(accountNumber);
 
         log.info("Successfully deleted account {} for user {}", accountNumber, userId);
     }
 
-    private String generateUniqueAccountNumber() {
-        String accountNumber;
-        int attempts = 0;
-        final int maxAttempts = 100;
-
-        do {
-            int randomNumber = (int) (Math.random() * 1000000);
-            accountNumber = String.format("01%06d", randomNumber);
-            attempts++;
-
-            if (attempts >= maxAttempts) {
-                String uuid = UUID.randomUUID().toString().replaceAll("-", "");
-                accountNumber = "01" + uuid.substring(0, 6).toUpperCase();
-                break;
+    /**
+     * Undo the allocation and directory entry of an account whose save failed, so the number is not lost
+     * A duplicate key means the number is already held by a stored account, so it is kept out of circulation
+     */
+    private void releaseUnsavedAccountNumber(String accountNumber, boolean registered, RuntimeException failure) {
+        if (failure instanceof DataIntegrityViolationException) {
+            log.error("Account number {} is already in use, not releasing it", accountNumber);
+            return;
+        }
+        try {
+            if (registered) {
+                shardRouter.unregisterAccount(accountNumber);
             }
-        } while (accountRepository.existsByAccountNumber(accountNumber));
-
-        log.debug("Generated unique account number: {} in {} attempts", accountNumber, attempts);
-        return accountNumber;
+            accountNumberAllocator.release(accountNumber);
+        } catch (RuntimeException e) {
+            failure.addSuppressed(e);
+        }
     }
 
     private void validateAccountOwnership(Account account, String userId) {
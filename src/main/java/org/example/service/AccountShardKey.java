@@ -0,0 +1,18 @@
+package org.example.service;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the account number parameter of a service method whose database work all belongs to that account
+ * When accounts are sharded the method runs with the account's shard bound (ShardRoutingAspect), so every
+ * transaction it opens goes to that shard; only the first or second parameter is recognized
+ */
+@Documented
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AccountShardKey {
+}
@@ -0,0 +1,158 @@
+package org.example.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.entity.Account;
+import org.example.entity.Money;
+import org.example.exception.AccountNotFoundException;
+import org.example.exception.InsufficientFundsException;
+import org.example.repository.AccountRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Balance update engine for postings against one account, or several accounts at once for batches
+ * Every attempt runs in its own database transaction so that conflicting postings can be retried.
+ * OPTIMISTIC mode relies on the Account version column, PESSIMISTIC mode locks the account row first.
+ * Withdrawals skip the load entirely and debit the account with a single conditional UPDATE in either mode.
+ */
+@Component
+@Slf4j
+public class BalanceLedger {
+
+    private static final long BASE_BACKOFF_MILLIS = 5;
+
+    private final AccountRepository accountRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final LockingMode lockingMode;
+    private final int maxAttempts;
+
+    public BalanceLedger(AccountRepository accountRepository,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${ledger.locking-mode:optimistic}") String lockingMode,
+                         @Value("${ledger.max-attempts:5}") int maxAttempts) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("ledger.max-attempts must be at least 1");
+        }
+        this.accountRepository = accountRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lockingMode = LockingMode.valueOf(lockingMode.trim().toUpperCase(Locale.ROOT));
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Load the account and apply a posting to it within a single database transaction
+     * Postings that lose a concurrent update race are retried up to ledger.max-attempts times
+     *
+     * @param accountNumber the account to post against
+     * @param posting       validates and mutates the loaded account, must be safe to run more than once
+     * @return the result of the posting
+     */
+    public <T> T post(String accountNumber, Function<Account, T> posting) {
+        return inTransaction("account " + accountNumber, () -> posting.apply(loadAccount(accountNumber)));
+    }
+
+    /**
+     * Load several accounts and apply postings to them within a single database transaction
+     * All accounts are loaded, in account number order, before the posting runs: pessimistic locks are always
+     * taken in the same order, so concurrent batches cannot deadlock, and no query flushes a half-applied batch.
+     * A conflict on any of the accounts retries the whole batch
+     *
+     * @param accountNumbers the accounts to post against
+     * @param posting        validates and mutates the accounts found, keyed by account number (unknown accounts
+     *                       are absent), must be safe to run more than once
+     * @return the result of the posting
+     */
+    public <T> T postAll(Collection<String> accountNumbers, Function<Map<String, Account>, T> posting) {
+        List<String> ordered = accountNumbers.stream().distinct().sorted().toList();
+        return inTransaction(ordered.size() + " accounts", () -> {
+            Map<String, Account> accounts = new HashMap<>();
+            for (String accountNumber : ordered) {
+                findAccount(accountNumber).ifPresent(account -> accounts.put(accountNumber, account));
+            }
+            return posting.apply(accounts);
+        });
+    }
+
+    /**
+     * Debit the account with one conditional UPDATE and apply a posting to it within the same database transaction
+     * The balance check and the debit happen atomically in the database, so concurrent withdrawals can never
+     * overdraw the account and no read of the account is needed unless the withdrawal is rejected
+     *
+     * @param accountNumber the account to debit
+     * @param amount        the amount to withdraw, must not be negative
+     * @param posting       records the withdrawal against an uninitialized reference to the debited account
+     * @return the result of the posting
+     * @throws InsufficientFundsException if the balance does not cover the amount
+     */
+    public <T> T withdraw(String accountNumber, Money amount, Function<Account, T> posting) {
+        if (amount.minorUnits() < 0) {
+            throw new IllegalArgumentException("Withdrawal amount must not be negative");
+        }
+        return inTransaction("account " + accountNumber, () -> {
+            if (accountRepository.debitIfSufficient(accountNumber, amount.minorUnits()) == 0) {
+                Account account = loadAccount(accountNumber); // tells a missing account apart and reports the balance
+                throw new InsufficientFundsException(accountNumber, amount.toDecimal(), account.getBalance().toDecimal());
+            }
+            accountRepository.evictCachedAccount(accountNumber);
+            return posting.apply(accountRepository.getReferenceById(accountNumber));
+        });
+    }
+
+    private <T> T inTransaction(String target, Supplier<T> work) {
+        int attempt = 1;
+        while (true) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    log.warn("Giving up posting to {} after {} attempts: {}", target, attempt, e.getMessage());
+                    throw e;
+                }
+                log.debug("Concurrent update on {} (attempt {}/{}), retrying", target, attempt, maxAttempts);
+                backOff(attempt);
+                attempt++;
+            }
+        }
+    }
+
+    public LockingMode getLockingMode() {
+        return lockingMode;
+    }
+
+    private Account loadAccount(String accountNumber) {
+        return findAccount(accountNumber).orElseThrow(() -> new AccountNotFoundException(accountNumber));
+    }
+
+    private Optional<Account> findAccount(String accountNumber) {
+        return lockingMode == LockingMode.PESSIMISTIC
+                ? accountRepository.findByAccountNumberForUpdate(accountNumber)
+                : accountRepository.findByAccountNumber(accountNumber);
+    }
+
+    private void backOff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1, BASE_BACKOFF_MILLIS * attempt + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying balance posting", e);
+        }
+    }
+
+    public enum LockingMode {
+        OPTIMISTIC,
+        PESSIMISTIC
+    }
+}
@@ -0,0 +1,113 @@
+package org.example.service;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * ShardRouter over several account databases, enabled with sharding.enabled (ShardingConfig)
+ * Shards are found in the ShardDirectory and selected by binding ShardContext, which ShardRoutingDataSource
+ * reads when a transaction opens its connection. Fan-out runs each shard on the executor, in parallel,
+ * so a cross-shard query takes as long as the slowest shard rather than the sum of all of them
+ */
+public class DirectoryShardRouter implements ShardRouter {
+
+    private final ShardDirectory shardDirectory;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final ExecutorService fanOutExecutor;
+
+    public DirectoryShardRouter(ShardDirectory shardDirectory, PlatformTransactionManager transactionManager,
+                                ExecutorService fanOutExecutor) {
+        this.shardDirectory = shardDirectory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.fanOutExecutor = fanOutExecutor;
+    }
+
+    @Override
+    public <T> T onAccountShard(String accountNumber, Supplier<T> work) {
+        return ShardContext.callOn(shardDirectory.shardOf(accountNumber), work);
+    }
+
+    @Override
+    public <T> List<T> onEveryShard(Supplier<T> work) {
+        // Each shard's transaction is read-only when the caller's is
+        TransactionTemplate template = TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                ? readOnlyTransactionTemplate
+                : transactionTemplate;
+        List<CompletableFuture<T>> results = IntStream.range(0, shardDirectory.shardCount())
+                .mapToObj(shard -> CompletableFuture.supplyAsync(
+                        () -> ShardContext.callOn(shard, () -> template.execute(status -> work.get())),
+                        fanOutExecutor))
+                .toList();
+        List<T> values = new ArrayList<>(results.size());
+        for (CompletableFuture<T> result : results) {
+            values.add(join(result));
+        }
+        return values;
+    }
+
+    @Override
+    public Collection<List<String>> groupByShard(Collection<String> accountNumbers) {
+        Map<Integer, List<String>> groups = new LinkedHashMap<>();
+        for (String accountNumber : accountNumbers) {
+            groups.computeIfAbsent(shardDirectory.shardOf(accountNumber), shard -> new ArrayList<>()).add(accountNumber);
+        }
+        return groups.values();
+    }
+
+    @Override
+    public void registerAccount(String accountNumber) {
+        shardDirectory.register(accountNumber);
+    }
+
+    @Override
+    public void unregisterAccount(String accountNumber) {
+        // A rolled back delete leaves the account on its shard, so the entry must outlive the transaction
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    shardDirectory.unregister(accountNumber);
+                }
+            });
+        } else {
+            shardDirectory.unregister(accountNumber);
+        }
+    }
+
+    public void shutdown() {
+        fanOutExecutor.shutdown();
+    }
+
+    /**
+     * Rethrow a shard's failure as thrown, e.g. a DataAccessException, rather than wrapped in CompletionException
+     */
+    private static <T> T join(CompletableFuture<T> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package org.example.service;
+
+/**
+ * Source of collision-free identifiers for new entities
+ * Implementations must be thread-safe and never hand out the same ID twice, so callers can skip existence checks
+ * (an ID handed back with release, which was never stored, may be issued again)
+ */
+public interface IdAllocator {
+
+    /**
+     * Allocate the next identifier
+     * @throws IllegalStateException if the identifier space is exhausted
+     */
+    String nextId();
+
+    /**
+     * Snapshot of block usage and refill cost, for logging and monitoring
+     */
+    IdAllocatorStats stats();
+
+    /**
+     * Hand back an ID whose entity was never stored, e.g. because its insert failed
+     * The default discards it: the ID is simply never used
+     */
+    default void release(String id) {
+    }
+}
@@ -0,0 +1,21 @@
+package org.example.service;
+
+/**
+ * Point-in-time statistics of an IdAllocator
+ *
+ * @param name               allocator name, e.g. "transaction-id"
+ * @param blockSize          number of IDs reserved per database round-trip
+ * @param blockRefills       number of blocks reserved since startup
+ * @param lastRefillNanos    duration of the most recent block reservation
+ * @param totalRefillNanos   total time spent reserving blocks since startup
+ * @param remainingInBlock   IDs left in the current block before the next refill
+ * @param remainingCapacity  IDs left in the whole ID space, counted from the current position
+ */
+public record IdAllocatorStats(String name,
+                               int blockSize,
+                               long blockRefills,
+                               long lastRefillNanos,
+                               long totalRefillNanos,
+                               long remainingInBlock,
+                               long remainingCapacity) {
+}
@@ -0,0 +1,215 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.entity.IdempotencyRecord;
+import org.example.entity.Money;
+import org.example.exception.IdempotencyKeyReusedException;
+import org.example.exception.TransactionNotFoundException;
+import org.example.mapper.TransactionMapper;
+import org.example.model.CreateTransactionRequest;
+import org.example.model.TransactionResponse;
+import org.example.repository.IdempotencyRecordRepository;
+import org.example.repository.TransactionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Idempotency keys of created transactions, so a retried request gets the original response instead of posting again
+ * Keys live in the idempotency_keys table for the configured TTL; recent keys and their responses are also kept
+ * in a bounded in-memory cache, so most replays are answered without a query. A key sent again with a different
+ * request is rejected rather than replayed
+ * Keys are scoped per user and account: the same key sent for two accounts names two independent requests
+ */
+@Component
+@Slf4j
+public class IdempotencyStore {
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionMapper transactionMapper;
+    private final ShardRouter shardRouter;
+    private final Duration ttl;
+    private final Cache<String, StoredResponse> recentKeys;
+
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder tableHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public IdempotencyStore(IdempotencyRecordRepository idempotencyRecordRepository,
+                            TransactionRepository transactionRepository,
+                            TransactionMapper transactionMapper,
+                            ShardRouter shardRouter,
+                            @Value("${idempotency.ttl:PT24H}") Duration ttl,
+                            @Value("${idempotency.cache.max-size:10000}") long cacheMaxSize) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionMapper = transactionMapper;
+        this.shardRouter = shardRouter;
+        this.ttl = ttl;
+        this.recentKeys = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new StoredResponseExpiry())
+                .build();
+    }
+
+    /**
+     * Fingerprint of a transaction request, used to tell a retry from a different request under the same key
+     */
+    public static String fingerprint(String accountNumber, CreateTransactionRequest request) {
+        String canonical = String.join("|", accountNumber, String.valueOf(request.getType()),
+                Long.toString(Money.toMinorUnits(request.getAmount())), String.valueOf(request.getCurrency()),
+                Objects.requireNonNullElse(request.getReference(), ""));
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Response of the transaction created earlier with this key, if the key is known and has not expired
+     * An expired key still in the table is deleted, so it can be used again
+     *
+     * @throws IdempotencyKeyReusedException if the key was used for a request with a different fingerprint
+     */
+    public Optional<TransactionResponse> findReplay(String userId, String accountNumber, String idempotencyKey,
+                                                    String requestFingerprint) {
+        String scopedKey = IdempotencyRecord.scopedKey(userId, accountNumber, idempotencyKey);
+
+        StoredResponse cached = recentKeys.getIfPresent(scopedKey);
+        if (cached != null) {
+            verifyFingerprint(idempotencyKey, cached.requestFingerprint(), requestFingerprint);
+            cacheHits.increment();
+            return Optional.of(cached.response());
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Optional<IdempotencyRecord> stored = idempotencyRecordRepository.findById(scopedKey);
+        if (stored.isEmpty() || stored.get().isExpired(now)) {
+            stored.ifPresent(idempotencyRecordRepository::delete);
+            misses.increment();
+            return Optional.empty();
+        }
+
+        IdempotencyRecord record = stored.get();
+        verifyFingerprint(idempotencyKey, record.getRequestFingerprint(), requestFingerprint);
+        TransactionResponse response = transactionRepository
+                .findViewByIdAndAccountNumber(record.getTransactionId(), record.getAccountNumber())
+                .map(view -> transactionMapper.fromView(view, userId))
+                .orElseThrow(() -> new TransactionNotFoundException(record.getTransactionId(), record.getAccountNumber()));
+
+        recentKeys.put(scopedKey, new StoredResponse(requestFingerprint, response, record.getExpiresAt()));
+        tableHits.increment();
+        return Optional.of(response);
+    }
+
+    /**
+     * Record the key of a transaction being created
+     * Must run in the database transaction that creates it: the insert is flushed immediately, so a concurrent
+     * request with the same key fails on the primary key before it posts anything
+     */
+    public void record(String userId, String accountNumber, String idempotencyKey, String requestFingerprint,
+                       String transactionId) {
+        LocalDateTime now = LocalDateTime.now();
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setScopedKey(IdempotencyRecord.scopedKey(userId, accountNumber, idempotencyKey));
+        record.setRequestFingerprint(requestFingerprint);
+        record.setAccountNumber(accountNumber);
+        record.setTransactionId(transactionId);
+        record.setCreatedTimestamp(now);
+        record.setExpiresAt(now.plus(ttl));
+        idempotencyRecordRepository.saveAndFlush(record);
+    }
+
+    /**
+     * Keep the response of a committed transaction in memory for replays of its key
+     */
+    public void remember(String userId, String accountNumber, String idempotencyKey, String requestFingerprint,
+                         TransactionResponse response) {
+        recentKeys.put(IdempotencyRecord.scopedKey(userId, accountNumber, idempotencyKey),
+                new StoredResponse(requestFingerprint, response, LocalDateTime.now().plus(ttl)));
+    }
+
+    /**
+     * Delete expired keys from the table, on every shard; the cache expires its entries by itself
+     */
+    @Scheduled(initialDelayString = "${idempotency.purge-interval:PT10M}",
+               fixedDelayString = "${idempotency.purge-interval:PT10M}")
+    @Transactional
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int purged = shardRouter.onEveryShard(() -> idempotencyRecordRepository.deleteExpired(now))
+                .stream()
+                .mapToInt(Integer::intValue)
+                .sum();
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    public IdempotencyStoreStats stats() {
+        long storedKeys = shardRouter.onEveryShard(idempotencyRecordRepository::count).stream()
+                .mapToLong(Long::longValue)
+                .sum();
+        return stats(storedKeys);
+    }
+
+    /**
+     * Like stats(), without counting the table (storedKeys is -1), so it is cheap enough for every metrics scrape
+     */
+    public IdempotencyStoreStats lookupStats() {
+        return stats(-1);
+    }
+
+    private IdempotencyStoreStats stats(long storedKeys) {
+        recentKeys.cleanUp();
+        return new IdempotencyStoreStats(cacheHits.sum(), tableHits.sum(), misses.sum(),
+                recentKeys.estimatedSize(), storedKeys);
+    }
+
+    private static void verifyFingerprint(String idempotencyKey, String storedFingerprint, String requestFingerprint) {
+        if (!storedFingerprint.equals(requestFingerprint)) {
+            throw new IdempotencyKeyReusedException(idempotencyKey);
+        }
+    }
+
+    private record StoredResponse(String requestFingerprint, TransactionResponse response, LocalDateTime expiresAt) {
+    }
+
+    /**
+     * Expires each cached entry together with the key it was stored for
+     */
+    private static final class StoredResponseExpiry implements Expiry<String, StoredResponse> {
+
+        @Override
+        public long expireAfterCreate(String key, StoredResponse stored, long currentTime) {
+            return Math.max(0, Duration.between(LocalDateTime.now(), stored.expiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, StoredResponse stored, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, stored, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, StoredResponse stored, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
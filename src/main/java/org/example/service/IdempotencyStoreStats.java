@@ -0,0 +1,25 @@
+package org.example.service;
+
+/**
+ * Point-in-time statistics of the IdempotencyStore
+ *
+ * @param cacheHits   replays answered from the in-memory cache of recent keys
+ * @param tableHits   replays answered from the idempotency_keys table after a cache miss
+ * @param misses      keyed requests whose key was not known yet, or had expired
+ * @param cachedKeys  keys currently held in memory
+ * @param storedKeys  keys currently held in the table, including expired keys not purged yet (-1 if not counted)
+ */
+public record IdempotencyStoreStats(long cacheHits,
+                                    long tableHits,
+                                    long misses,
+                                    long cachedKeys,
+                                    long storedKeys) {
+
+    /**
+     * Share of keyed requests that were replays, between 0 and 1 (0 before the first lookup)
+     */
+    public double hitRate() {
+        long lookups = cacheHits + tableHits + misses;
+        return lookups == 0 ? 0.0 : (double) (cacheHits + tableHits) / lookups;
+    }
+}
@@ -0,0 +1,131 @@
+package org.example.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.support.incrementer.DataFieldMaxValueIncrementer;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Account number allocator that hands out the free numbers of the AccountNumberRegistry bitmap
+ * Each database sequence value reserves the block [hi * blockSize, (hi + 1) * blockSize) of the account number space
+ * for this node; within a block, numbers already taken (created before block allocation, or imported) are skipped
+ * in memory. Blocks never wrap around, so a number is never issued twice, even after its account is deleted:
+ * caches keyed by account number (ownership, shard directory) on other nodes can never point at a new owner.
+ * Numbers of accounts that failed to save are handed back with release and issued again before the block continues.
+ * Allocation fails once the sequence has passed the end of the space
+ */
+@Slf4j
+public class OccupancyCheckedIdAllocator implements IdAllocator {
+
+    private static final String NAME = "account-number";
+
+    private final DataFieldMaxValueIncrementer blockSequence;
+    private final int blockSize;
+    private final long blockCount;
+    private final AccountNumberRegistry registry;
+
+    // ReentrantLock rather than synchronized: refills do JDBC I/O and must not pin virtual threads
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Deque<String> released = new ArrayDeque<>();
+    private int next;
+    private int blockEnd;
+    private long blockRefills;
+    private long lastRefillNanos;
+    private long totalRefillNanos;
+
+    /**
+     * @param blockSequence database sequence that hands out block numbers, starting at 0
+     * @param blockSize     number of account numbers per block
+     * @param registry      occupancy bitmap the numbers are claimed from
+     */
+    public OccupancyCheckedIdAllocator(DataFieldMaxValueIncrementer blockSequence, int blockSize,
+                                       AccountNumberRegistry registry) {
+        if (blockSize < 1 || blockSize > AccountNumberRegistry.CAPACITY) {
+            throw new IllegalArgumentException("Block size for " + NAME + " must be between 1 and "
+                    + AccountNumberRegistry.CAPACITY);
+        }
+        this.blockSequence = blockSequence;
+        this.blockSize = blockSize;
+        this.blockCount = (AccountNumberRegistry.CAPACITY + blockSize - 1) / blockSize;
+        this.registry = registry;
+    }
+
+    @Override
+    public String nextId() {
+        lock.lock();
+        try {
+            while (!released.isEmpty()) {
+                String accountNumber = released.poll();
+                if (registry.markAllocated(accountNumber)) {
+                    return accountNumber;
+                }
+            }
+            while (true) {
+                if (next >= blockEnd) {
+                    reserveBlock();
+                }
+                int claimed = registry.claimFirstFree(next, blockEnd);
+                if (claimed >= 0) {
+                    next = claimed + 1;
+                    return AccountNumberRegistry.accountNumberOf(claimed);
+                }
+                next = blockEnd;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Clear the number's bit and queue it for the next allocation on this node
+     * Only for numbers that never reached the database: no one can hold a cached reference to them
+     */
+    @Override
+    public void release(String accountNumber) {
+        lock.lock();
+        try {
+            registry.release(accountNumber);
+            released.add(accountNumber);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public IdAllocatorStats stats() {
+        lock.lock();
+        try {
+            long remainingCapacity = (blockRefills == 0 ? AccountNumberRegistry.CAPACITY : AccountNumberRegistry.CAPACITY - next)
+                    + released.size();
+            return new IdAllocatorStats(NAME, blockSize, blockRefills, lastRefillNanos, totalRefillNanos,
+                    blockEnd - next + released.size(), remainingCapacity);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void reserveBlock() {
+        long start = System.nanoTime();
+        long hi = blockSequence.nextLongValue();
+        if (hi < 0 || hi >= blockCount) {
+            throw new IllegalStateException("ID space for " + NAME + " is exhausted");
+        }
+        int first = (int) (hi * blockSize);
+
+        next = first;
+        blockEnd = Math.min(first + blockSize, AccountNumberRegistry.CAPACITY);
+        lastRefillNanos = System.nanoTime() - start;
+        totalRefillNanos += lastRefillNanos;
+        blockRefills++;
+
+        long remainingCapacity = AccountNumberRegistry.CAPACITY - first;
+        log.debug("Reserved {} block {} [{}, {}) in {} µs, {} numbers left in total", NAME, hi, first, blockEnd,
+                  TimeUnit.NANOSECONDS.toMicros(lastRefillNanos), remainingCapacity);
+        if (remainingCapacity < AccountNumberRegistry.CAPACITY / 10) {
+            log.warn("{} ID space is over 90% used: {} numbers left", NAME, remainingCapacity);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.example.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.support.incrementer.DataFieldMaxValueIncrementer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongFunction;
+
+/**
+ * Hi/lo IdAllocator: each database sequence value (hi) reserves the block [hi * blockSize, (hi + 1) * blockSize)
+ * IDs within the block are handed out from memory, so only one in blockSize allocations touches the database.
+ * Blocks are never shared between nodes; IDs left in a block when a node stops are skipped, not reused.
+ * The block size must not change once IDs have been issued from the sequence
+ */
+@Slf4j
+public class SequenceBlockIdAllocator implements IdAllocator {
+
+    private final String name;
+    private final DataFieldMaxValueIncrementer blockSequence;
+    private final int blockSize;
+    private final long limit;
+    private final LongFunction<String> format;
+
+    // ReentrantLock rather than synchronized: refills do JDBC I/O and must not pin virtual threads
+    private final ReentrantLock lock = new ReentrantLock();
+    private long next;
+    private long blockEnd;
+    private long blockRefills;
+    private long lastRefillNanos;
+    private long totalRefillNanos;
+
+    /**
+     * @param name          allocator name used in logs and stats
+     * @param blockSequence database sequence that hands out block numbers, starting at 0
+     * @param blockSize     number of IDs per block
+     * @param limit         exclusive upper bound of the values the ID format can represent
+     * @param format        turns an allocated value into the external ID
+     */
+    public SequenceBlockIdAllocator(String name, DataFieldMaxValueIncrementer blockSequence, int blockSize,
+                                    long limit, LongFunction<String> format) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size for " + name + " must be at least 1");
+        }
+        this.name = name;
+        this.blockSequence = blockSequence;
+        this.blockSize = blockSize;
+        this.limit = limit;
+        this.format = format;
+    }
+
+    @Override
+    public String nextId() {
+        long value;
+        lock.lock();
+        try {
+            if (next >= blockEnd) {
+                reserveBlock();
+            }
+            value = next++;
+        } finally {
+            lock.unlock();
+        }
+        return format.apply(value);
+    }
+
+    @Override
+    public IdAllocatorStats stats() {
+        lock.lock();
+        try {
+            long remainingInBlock = blockEnd - next;
+            long remainingCapacity = blockRefills == 0 ? limit : limit - next;
+            return new IdAllocatorStats(name, blockSize, blockRefills, lastRefillNanos, totalRefillNanos,
+                    remainingInBlock, remainingCapacity);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void reserveBlock() {
+        long start = System.nanoTime();
+        long hi = blockSequence.nextLongValue();
+        if (hi < 0 || hi > (limit - 1) / blockSize) {
+            throw new IllegalStateException("ID space for " + name + " is exhausted");
+        }
+        long first = hi * blockSize;
+
+        next = first;
+        blockEnd = first > limit - blockSize ? limit : first + blockSize;
+        lastRefillNanos = System.nanoTime() - start;
+        totalRefillNanos += lastRefillNanos;
+        blockRefills++;
+
+        long remainingCapacity = limit - first;
+        log.debug("Reserved {} block {} [{}, {}) in {} µs, {} IDs left in total", name, hi, first, blockEnd,
+                  TimeUnit.NANOSECONDS.toMicros(lastRefillNanos), remainingCapacity);
+        if (remainingCapacity < limit / 10) {
+            log.warn("{} ID space is over 90% used: {} IDs left", name, remainingCapacity);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.service;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * The shard the current thread's database work goes to, read by ShardRoutingDataSource
+ * Unbound means the global database. A transaction stays on the connection it started with, so rebinding
+ * to another shard while a transaction is active is rejected instead of silently writing to the wrong shard
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /**
+     * @return the bound shard, or null for the global database
+     */
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Bind a shard to the current thread
+     * @return the previous binding, to be passed to restore
+     * @throws IllegalStateException if a transaction is active on another shard
+     */
+    public static Integer bind(int shard) {
+        Integer previous = CURRENT.get();
+        if (previous != null && previous != shard && TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Cannot use shard " + shard + " inside a transaction on shard " + previous);
+        }
+        CURRENT.set(shard);
+        return previous;
+    }
+
+    public static void restore(Integer previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    public static <T> T callOn(int shard, Supplier<T> work) {
+        Integer previous = bind(shard);
+        try {
+            return work.get();
+        } finally {
+            restore(previous);
+        }
+    }
+}
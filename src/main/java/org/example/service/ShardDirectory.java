@@ -0,0 +1,83 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * Which shard holds each account, kept in the account_shards table of the global database
+ * New accounts are placed by a hash of the account number; once recorded, the directory entry is authoritative,
+ * so shards can be added later without moving existing accounts (only new accounts use the larger shard count).
+ * Entries are only ever inserted and deleted, never moved, so lookups are cached (bounded); unknown accounts are
+ * not cached. Account numbers are never reissued, so a cached entry of a deleted account can only route to a shard
+ * on which the account no longer exists
+ */
+@Slf4j
+public class ShardDirectory {
+
+    private final JdbcTemplate globalJdbcTemplate;
+    private final int shardCount;
+    private final Cache<String, Integer> shardByAccountNumber;
+
+    public ShardDirectory(DataSource globalDataSource, int shardCount, long cacheMaxSize) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.globalJdbcTemplate = new JdbcTemplate(globalDataSource);
+        this.shardCount = shardCount;
+        this.shardByAccountNumber = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .build();
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    /**
+     * @return the shard recorded for the account, or its hash placement if it has none (e.g. it does not exist)
+     */
+    public int shardOf(String accountNumber) {
+        Integer shard = shardByAccountNumber.get(accountNumber, key -> globalJdbcTemplate.query(
+                "SELECT shard_id FROM account_shards WHERE account_number = ?",
+                rs -> rs.next() ? rs.getInt(1) : null, key));
+        return shard != null ? shard : placement(accountNumber);
+    }
+
+    /**
+     * Record the shard of a new account
+     * @return the shard the account is placed on
+     * @throws DuplicateKeyException if the account number already has an entry
+     */
+    public int register(String accountNumber) {
+        int shard = placement(accountNumber);
+        try {
+            globalJdbcTemplate.update("INSERT INTO account_shards (account_number, shard_id) VALUES (?, ?)", accountNumber, shard);
+        } catch (DuplicateKeyException e) {
+            throw new DuplicateKeyException("Account " + accountNumber + " is already placed on a shard", e);
+        }
+        shardByAccountNumber.put(accountNumber, shard);
+        log.debug("Placed account {} on shard {}", accountNumber, shard);
+        return shard;
+    }
+
+    /**
+     * Remove the entry of a deleted account
+     */
+    public void unregister(String accountNumber) {
+        globalJdbcTemplate.update("DELETE FROM account_shards WHERE account_number = ?", accountNumber);
+        shardByAccountNumber.invalidate(accountNumber);
+        log.debug("Removed account {} from the shard directory", accountNumber);
+    }
+
+    /**
+     * String.hashCode is specified by the JLS, so placement is the same on every node and JVM
+     */
+    int placement(String accountNumber) {
+        return Math.floorMod(accountNumber.hashCode(), shardCount);
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Runs database work on the shard that holds an account, or on every shard
+ * With a single database (SingleDatabaseShardRouter) everything runs in place; with sharding enabled
+ * (DirectoryShardRouter) accounts and their transactions are spread over several databases
+ */
+public interface ShardRouter {
+
+    /**
+     * Run work with the account's shard bound, so transactions it opens go to that shard
+     * Must be called outside a transaction on another shard
+     */
+    <T> T onAccountShard(String accountNumber, Supplier<T> work);
+
+    /**
+     * Run work once per shard and collect the results, in shard order
+     * Each shard's run has its own transaction; with a single database work runs once in the caller's transaction
+     */
+    <T> List<T> onEveryShard(Supplier<T> work);
+
+    /**
+     * Group account numbers by the shard that holds them, for work that must stay within one transaction
+     */
+    Collection<List<String>> groupByShard(Collection<String> accountNumbers);
+
+    /**
+     * Decide and record the shard of a new account, before it is saved there
+     */
+    void registerAccount(String accountNumber);
+
+    /**
+     * Remove the shard record of a deleted account, once the surrounding transaction has committed
+     * Outside a transaction (e.g. an account whose save failed) the record is removed at once
+     */
+    void unregisterAccount(String accountNumber);
+}
@@ -0,0 +1,40 @@
+package org.example.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * ShardRouter for an unsharded deployment: one database holds every account, so work runs as is
+ */
+@Component
+@ConditionalOnProperty(name = "sharding.enabled", havingValue = "false", matchIfMissing = true)
+public class SingleDatabaseShardRouter implements ShardRouter {
+
+    @Override
+    public <T> T onAccountShard(String accountNumber, Supplier<T> work) {
+        return work.get();
+    }
+
+    @Override
+    public <T> List<T> onEveryShard(Supplier<T> work) {
+        return Collections.singletonList(work.get());
+    }
+
+    @Override
+    public Collection<List<String>> groupByShard(Collection<String> accountNumbers) {
+        return accountNumbers.isEmpty() ? List.of() : List.of(List.copyOf(accountNumbers));
+    }
+
+    @Override
+    public void registerAccount(String accountNumber) {
+    }
+
+    @Override
+    public void unregisterAccount(String accountNumber) {
+    }
+}
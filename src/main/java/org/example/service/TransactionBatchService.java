@@ -0,0 +1,165 @@
+package org.example.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.entity.Account;
+import org.example.entity.Money;
+import org.example.entity.Transaction;
+import org.example.exception.AccountNotFoundException;
+import org.example.exception.InsufficientFundsException;
+import org.example.mapper.TransactionMapper;
+import org.example.model.CreateTransactionRequest;
+import org.example.model.TransactionBatchItem;
+import org.example.model.TransactionBatchResponse;
+import org.example.model.TransactionBatchResult;
+import org.example.repository.TransactionRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service class for creating many transactions, across accounts, in one request
+ * The whole batch is one database transaction: every account is loaded once, its items are applied in request
+ * order against a running balance, and the inserts plus one balance update per account go out in a single
+ * flush, grouped into JDBC batches (hibernate.jdbc.batch_size with ordered inserts and updates).
+ * When accounts are sharded, a batch must stay on one shard: posting each shard in its own transaction would leave
+ * earlier shards committed when a later one fails, and a retry would post them twice
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionBatchService {
+
+    /**
+     * Upper bound on items per batch, as in the openapi spec (maxItems), whose bounds the generator does not enforce
+     */
+    public static final int MAX_ITEMS = 500;
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionMapper transactionMapper;
+    private final BalanceLedger balanceLedger;
+    private final ShardRouter shardRouter;
+    @Qualifier("transactionIdAllocator")
+    private final IdAllocator transactionIdAllocator;
+
+    /**
+     * Apply every item the user is allowed to and can afford; the others are rejected individually
+     * @return one result per item, in request order
+     * @throws IllegalArgumentException if the batch is empty, has more than MAX_ITEMS items or spans several shards
+     */
+    public TransactionBatchResponse createTransactions(List<TransactionBatchItem> items, String userId) {
+        validateSize(items);
+        log.info("Creating batch of {} transactions by user {}", items.size(), userId);
+
+        Map<String, List<Integer>> itemsByAccount = new LinkedHashMap<>();
+        for (int index = 0; index < items.size(); index++) {
+            itemsByAccount.computeIfAbsent(items.get(index).getAccountNumber(), accountNumber -> new ArrayList<>())
+                    .add(index);
+        }
+
+        Collection<List<String>> shards = shardRouter.groupByShard(itemsByAccount.keySet());
+        if (shards.size() > 1) {
+            log.warn("Rejecting batch by user {}: its {} accounts are held on {} shards", userId, itemsByAccount.size(), shards.size());
+            throw new IllegalArgumentException("These accounts cannot be posted in one batch, submit them in separate batches");
+        }
+        List<String> accountNumbers = shards.iterator().next();
+
+        List<TransactionBatchResult> results = shardRouter.onAccountShard(accountNumbers.get(0), () ->
+                balanceLedger.postAll(accountNumbers, accounts -> {
+                    TransactionBatchResult[] attemptResults = new TransactionBatchResult[items.size()];
+                    Transaction[] created = new Transaction[items.size()];
+
+                    for (String accountNumber : accountNumbers) {
+                        postToAccount(accounts.get(accountNumber), accountNumber, itemsByAccount.get(accountNumber),
+                                items, userId, attemptResults, created);
+                    }
+
+                    // One flush per transaction; the created transactions have their timestamps afterwards
+                    transactionRepository.flush();
+                    for (int index = 0; index < created.length; index++) {
+                        if (created[index] != null) {
+                            attemptResults[index].transaction(transactionMapper.toResponse(created[index]));
+                        }
+                    }
+                    return Arrays.asList(attemptResults);
+                }));
+
+        log.info("Created {} of {} batched transactions by user {}",
+                results.stream().filter(result -> result.getTransaction() != null).count(), items.size(), userId);
+        return new TransactionBatchResponse().results(results);
+    }
+
+    /**
+     * Reject a batch that is empty or larger than MAX_ITEMS
+     * @throws IllegalArgumentException if the size is out of bounds
+     */
+    public static void validateSize(List<TransactionBatchItem> items) {
+        if (items == null || items.isEmpty() || items.size() > MAX_ITEMS) {
+            throw new IllegalArgumentException("A batch must contain between 1 and " + MAX_ITEMS + " items");
+        }
+    }
+
+    private void postToAccount(Account account, String accountNumber, List<Integer> indexes, List<TransactionBatchItem> items,
+                               String userId, TransactionBatchResult[] results, Transaction[] created) {
+        if (account == null) {
+            reject(indexes, accountNumber, HttpStatus.NOT_FOUND, new AccountNotFoundException(accountNumber).getMessage(), results);
+            return;
+        }
+        if (!account.getUser().getId().equals(userId)) {
+            log.warn("User {} attempted to post a batch to account {} owned by user {}",
+                     userId, accountNumber, account.getUser().getId());
+            reject(indexes, accountNumber, HttpStatus.FORBIDDEN, "Access denied to account", results);
+            return;
+        }
+
+        long balance = account.getBalance().minorUnits();
+        for (int index : indexes) {
+            CreateTransactionRequest request = items.get(index).getTransaction();
+            long amount = Money.toMinorUnits(request.getAmount());
+
+            if (CreateTransactionRequest.TypeEnum.WITHDRAWAL.equals(request.getType())) {
+                if (balance < amount) {
+                    results[index] = result(index, accountNumber, HttpStatus.UNPROCESSABLE_ENTITY)
+                            .message(new InsufficientFundsException(accountNumber, request.getAmount(),
+                                    Money.ofMinor(balance).toDecimal()).getMessage());
+                    continue;
+                }
+                balance = Math.subtractExact(balance, amount);
+            } else {
+                balance = Math.addExact(balance, amount);
+            }
+
+            Transaction transaction = transactionMapper.toEntity(request);
+            transaction.setId(transactionIdAllocator.nextId());
+            transaction.setCurrency(Transaction.Currency.GBP);
+            transaction.setAccount(account);
+
+            created[index] = transactionRepository.save(transaction);
+            results[index] = result(index, accountNumber, HttpStatus.CREATED);
+        }
+
+        // A single balance UPDATE per account, however many of its items were applied
+        account.setBalance(Money.ofMinor(balance));
+    }
+
+    private static void reject(List<Integer> indexes, String accountNumber, HttpStatus status, String message,
+                               TransactionBatchResult[] results) {
+        for (int index : indexes) {
+            results[index] = result(index, accountNumber, status).message(message);
+        }
+    }
+
+    private static TransactionBatchResult result(int index, String accountNumber, HttpStatus status) {
+        return new TransactionBatchResult()
+                .index(index)
+                .accountNumber(accountNumber)
+                .status(status.value());
+    }
+}
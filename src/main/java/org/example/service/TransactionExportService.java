@@ -0,0 +1,86 @@
+package org.example.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.entity.Transaction;
+import org.example.mapper.TransactionMapper;
+import org.example.model.TransactionResponse;
+import org.example.repository.TransactionRepository;
+import org.example.security.AccountAccessAuthorizer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Service class for exporting the full transaction history of an account
+ * Streams rows from the database straight to the response as NDJSON so memory stays constant
+ * regardless of how many transactions the account has
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionExportService {
+
+    static final int FLUSH_INTERVAL = 500;
+
+    private final TransactionRepository transactionRepository;
+    private final AccountAccessAuthorizer accountAccessAuthorizer;
+    private final TransactionMapper transactionMapper;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Check that the account exists and belongs to the user before the response is committed,
+     * so failures are still reported with the usual status codes
+     */
+    @Transactional(readOnly = true)
+    public void validateExportAccess(@AccountShardKey String accountNumber, String userId) {
+        accountAccessAuthorizer.verifyOwner(accountNumber, userId);
+    }
+
+    /**
+     * Write every transaction of the account to the output stream, oldest first, one JSON object per line
+     * @return the number of transactions written
+     */
+    @Transactional(readOnly = true)
+    public long exportTransactions(@AccountShardKey String accountNumber, OutputStream outputStream) throws IOException {
+        log.info("Exporting transactions for account {}", accountNumber);
+
+        ObjectWriter writer = objectMapper.writerFor(TransactionResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long count = 0;
+
+        try (Stream<Transaction> transactions = transactionRepository.streamByAccountNumber(accountNumber);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null); // lines are separated explicitly below
+
+            Iterator<Transaction> iterator = transactions.iterator();
+            while (iterator.hasNext()) {
+                Transaction transaction = iterator.next();
+                writer.writeValue(generator, transactionMapper.toResponse(transaction));
+                generator.writeRaw('\n');
+
+                // Rows already written are not needed again; keep the persistence context from growing
+                entityManager.detach(transaction);
+
+                if (++count % FLUSH_INTERVAL == 0) {
+                    generator.flush();
+                }
+            }
+            generator.flush();
+        }
+
+        log.info("Exported {} transactions for account {}", count, accountNumber);
+        return count;
+    }
+}
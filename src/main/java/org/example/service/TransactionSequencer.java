@@ -0,0 +1,120 @@
+package org.example.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * In-JVM sequencer for transaction writes on single-node deployments
+ * Writes are routed to a lock stripe keyed by account number, so postings to the same account
+ * run one at a time without waiting on database locks while other accounts proceed in parallel.
+ * Must stay disabled (sequencer.enabled=false) when more than one instance serves traffic.
+ */
+@Component
+@Slf4j
+public class TransactionSequencer {
+
+    private final boolean enabled;
+    private final Stripe[] stripes;
+
+    public TransactionSequencer(@Value("${sequencer.enabled:false}") boolean enabled,
+                                @Value("${sequencer.stripes:64}") int stripeCount) {
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException("sequencer.stripes must be at least 1");
+        }
+        this.enabled = enabled;
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+        log.info("Transaction sequencer {} with {} stripes", enabled ? "enabled" : "disabled", stripeCount);
+    }
+
+    /**
+     * Run a write for an account on that account's stripe
+     * Runs the work directly on the calling thread when the sequencer is disabled
+     *
+     * @param accountNumber the account being written to
+     * @param work          the write to perform
+     * @return the result of the write
+     */
+    public <T> T execute(String accountNumber, Supplier<T> work) {
+        if (!enabled) {
+            return work.get();
+        }
+
+        Stripe stripe = stripes[stripeIndex(accountNumber)];
+        long waitStart = System.nanoTime();
+        stripe.waiting.incrementAndGet();
+        stripe.lock.lock();
+        try {
+            stripe.waiting.decrementAndGet();
+            stripe.recordWait(System.nanoTime() - waitStart);
+            return work.get();
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getStripeCount() {
+        return stripes.length;
+    }
+
+    /**
+     * Snapshot of queue depth and lock wait times for every stripe
+     *
+     * @return one entry per stripe, ordered by stripe index
+     */
+    public List<StripeMetrics> getStripeMetrics() {
+        List<StripeMetrics> metrics = new ArrayList<>(stripes.length);
+        for (int i = 0; i < stripes.length; i++) {
+            Stripe stripe = stripes[i];
+            metrics.add(new StripeMetrics(i, stripe.waiting.get(), stripe.acquisitions.sum(),
+                    stripe.totalWaitNanos.sum(), stripe.maxWaitNanos.get()));
+        }
+        return metrics;
+    }
+
+    int stripeIndex(String accountNumber) {
+        int hash = accountNumber.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), stripes.length);
+    }
+
+    /**
+     * Point-in-time metrics for a single stripe
+     *
+     * @param stripe         stripe index
+     * @param queueDepth     number of writes currently waiting for the stripe
+     * @param acquisitions   number of writes that have run on the stripe
+     * @param totalWaitNanos accumulated time writes spent waiting for the stripe
+     * @param maxWaitNanos   longest single wait observed on the stripe
+     */
+    public record StripeMetrics(int stripe, int queueDepth, long acquisitions, long totalWaitNanos, long maxWaitNanos) {
+    }
+
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock(true);
+        private final AtomicInteger waiting = new AtomicInteger();
+        private final LongAdder acquisitions = new LongAdder();
+        private final LongAdder totalWaitNanos = new LongAdder();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+
+        private void recordWait(long waitNanos) {
+            acquisitions.increment();
+            totalWaitNanos.add(waitNanos);
+            maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        }
+    }
+}
@@ -3,8 +3,8 @@ package org.example.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.entity.Account;
+import org.example.entity.Money;
 import org.example.entity.Transaction;
-import org.example.exception.AccountNotFoundException;
 import org.example.exception.InsufficientFundsException;
 import org.example.exception.TransactionNotFoundException;
 import org.example.mapper.TransactionMapper;
@@ -13,12 +13,20 @@ import org.example.model.ListTransactionsResponse;
 import org.example.model.TransactionResponse;
 import org.example.repository.AccountRepository;
 import org.example.repository.TransactionRepository;
+import org.example.repository.TransactionView;
+import org.example.security.AccountAccessAuthorizer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.UUID;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Service class for Transaction management operations
@@ -30,110 +38,175 @@ import java.util.UUID;
 @Transactional
 public class TransactionService {
 
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+
     private final TransactionRepository transactionRepository;
     private final AccountRepository accountRepository;
     private final TransactionMapper transactionMapper;
+    private final BalanceLedger balanceLedger;
+    private final AccountAccessAuthorizer accountAccessAuthorizer;
+    @Qualifier("transactionIdAllocator")
+    private final IdAllocator transactionIdAllocator;
+    private final IdempotencyStore idempotencyStore;
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // BalanceLedger opens a transaction per attempt
+    public TransactionResponse createTransaction(@AccountShardKey String accountNumber, CreateTransactionRequest createTransactionRequest, String userId) {
+        return createTransaction(accountNumber, createTransactionRequest, userId, null);
+    }
 
-    public TransactionResponse createTransaction(String accountNumber, CreateTransactionRequest createTransactionRequest, String userId) {
+    /**
+     * Create a transaction; when an idempotency key is given, a retry of the request that first used the key
+     * returns that request's transaction instead of posting again
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public TransactionResponse createTransaction(@AccountShardKey String accountNumber, CreateTransactionRequest createTransactionRequest,
+                                                 String userId, String idempotencyKey) {
         log.info("Creating transaction for account {} by user {}", accountNumber, userId);
 
-        Account account = accountRepository.findByAccountNumberWithUser(accountNumber)
-                .orElseThrow(() -> new AccountNotFoundException(accountNumber));
-
-        validateAccountAccess(account, userId);
-
-        double currentBalance = account.getBalance();
-
-        if (CreateTransactionRequest.TypeEnum.WITHDRAWAL.equals(createTransactionRequest.getType())) {
-            if (currentBalance < createTransactionRequest.getAmount()) {
-                throw new InsufficientFundsException(accountNumber, createTransactionRequest.getAmount(), currentBalance);
-            }
+        if (idempotencyKey == null) {
+            return post(accountNumber, createTransactionRequest, userId, transactionId -> {});
         }
 
-        Transaction transaction = transactionMapper.toEntity(createTransactionRequest);
-
-        transaction.setId(generateUniqueTransactionId());
-        transaction.setCurrency(Transaction.Currency.GBP);
-
-        account.addTransaction(transaction);
-
-        double newBalance = calculateNewBalance(currentBalance, createTransactionRequest.getAmount(), createTransactionRequest.getType());
-
-        account.setBalance(newBalance);
-
-        Account savedAccount = accountRepository.save(account);
-
-        Transaction savedTransaction = savedAccount.getTransactions().stream()
-                .filter(t -> t.getId().equals(transaction.getId()))
-                .findFirst()
-                .orElse(transaction);
+        String fingerprint = IdempotencyStore.fingerprint(accountNumber, createTransactionRequest);
+        Optional<TransactionResponse> replay = idempotencyStore.findReplay(userId, accountNumber, idempotencyKey, fingerprint);
+        if (replay.isPresent()) {
+            log.info("Replaying transaction {} for idempotency key {} of user {}", replay.get().getId(), idempotencyKey, userId);
+            return replay.get();
+        }
 
-        log.info("Successfully created transaction {} for account {} with new balance {}",
-                savedTransaction.getId(), accountNumber, newBalance);
+        TransactionResponse response;
+        try {
+            response = post(accountNumber, createTransactionRequest, userId, transactionId ->
+                    idempotencyStore.record(userId, accountNumber, idempotencyKey, fingerprint, transactionId));
+        } catch (DataIntegrityViolationException | InsufficientFundsException e) {
+            // A concurrent request with the same key recorded it first, or already spent the funds this retry needed
+            return idempotencyStore.findReplay(userId, accountNumber, idempotencyKey, fingerprint).orElseThrow(() -> e);
+        }
 
-        return transactionMapper.toResponse(savedTransaction);
+        idempotencyStore.remember(userId, accountNumber, idempotencyKey, fingerprint, response);
+        return response;
     }
 
     @Transactional(readOnly = true)
-    public ListTransactionsResponse findByAccountNumber(String accountNumber, String userId) {
+    public ListTransactionsResponse findByAccountNumber(@AccountShardKey String accountNumber, String userId, Integer limit, String cursor) {
         log.info("Finding transactions for account {} by user {}", accountNumber, userId);
 
-        Account account = accountRepository.findByAccountNumberWithUser(accountNumber)
-                .orElseThrow(() -> new AccountNotFoundException(accountNumber));
+        int pageSize = resolvePageSize(limit);
+        TransactionCursor after = cursor != null ? TransactionCursor.decode(cursor) : null;
 
-        validateAccountAccess(account, userId);
+        accountAccessAuthorizer.verifyOwner(accountNumber, userId);
+
+        // Fetch one extra row to find out whether another page follows without a count query
+        Pageable page = PageRequest.of(0, pageSize + 1);
+        List<TransactionView> transactions = after == null
+                ? transactionRepository.findViewPageByAccountNumber(accountNumber, page)
+                : transactionRepository.findViewPageByAccountNumberAfter(accountNumber, after.createdTimestamp(), after.id(), page);
+
+        boolean hasMore = transactions.size() > pageSize;
+        if (hasMore) {
+            transactions = transactions.subList(0, pageSize);
+        }
 
-        List<Transaction> transactions = transactionRepository.findByAccount_AccountNumberOrderByCreatedTimestampDesc(accountNumber);
-        List<TransactionResponse> transactionResponses = transactionMapper.toResponseList(transactions);
+        // The ownership check passed, so the caller is the owner of every transaction on the page
+        List<TransactionResponse> transactionResponses = transactionMapper.fromViews(transactions, userId);
 
         ListTransactionsResponse response = new ListTransactionsResponse();
         response.setTransactions(transactionResponses);
+        if (hasMore) {
+            TransactionView last = transactions.get(transactions.size() - 1);
+            response.setNextCursor(new TransactionCursor(last.createdTimestamp(), last.id()).encode());
+        }
 
         log.info("Found {} transactions for account {}", transactionResponses.size(), accountNumber);
         return response;
     }
 
     @Transactional(readOnly = true)
-    public TransactionResponse findByIdAndAccountNumber(String transactionId, String accountNumber, String userId) {
+    public TransactionResponse findByIdAndAccountNumber(String transactionId, @AccountShardKey String accountNumber, String userId) {
         log.info("Finding transaction {} for account {} by user {}", transactionId, accountNumber, userId);
 
-        Account account = accountRepository.findByAccountNumberWithUser(accountNumber)
-                .orElseThrow(() -> new AccountNotFoundException(accountNumber));
+        accountAccessAuthorizer.verifyOwner(accountNumber, userId);
 
-        validateAccountAccess(account, userId);
-
-        Transaction transaction = transactionRepository.findByIdAndAccount_AccountNumber(transactionId, accountNumber)
+        TransactionView transaction = transactionRepository.findViewByIdAndAccountNumber(transactionId, accountNumber)
                 .orElseThrow(() -> new TransactionNotFoundException(transactionId, accountNumber));
 
         log.info("Found transaction {} for account {}", transactionId, accountNumber);
-        return transactionMapper.toResponse(transaction);
+        return transactionMapper.fromView(transaction, userId);
+    }
+
+    /**
+     * @param recordKey called with the new transaction's ID before it is saved, in the posting's database transaction
+     */
+    private TransactionResponse post(String accountNumber, CreateTransactionRequest createTransactionRequest, String userId,
+                                     Consumer<String> recordKey) {
+        if (CreateTransactionRequest.TypeEnum.WITHDRAWAL.equals(createTransactionRequest.getType())) {
+            // Ownership comes from the cache and the balance check is part of the UPDATE, so nothing is read first
+            accountAccessAuthorizer.verifyOwner(accountNumber, userId);
+            Money amount = Money.fromDecimal(createTransactionRequest.getAmount());
+            return balanceLedger.withdraw(accountNumber, amount,
+                    account -> recordWithdrawal(account, createTransactionRequest, userId, recordKey));
+        }
+
+        return balanceLedger.post(accountNumber, account -> postDeposit(account, createTransactionRequest, userId, recordKey));
+    }
+
+    private TransactionResponse postDeposit(Account account, CreateTransactionRequest createTransactionRequest, String userId,
+                                            Consumer<String> recordKey) {
+        validateAccountAccess(account, userId);
+
+        long amount = Money.toMinorUnits(createTransactionRequest.getAmount());
+        Money newBalance = Money.ofMinor(Math.addExact(account.getBalance().minorUnits(), amount));
+
+        Transaction transaction = newTransaction(account, createTransactionRequest);
+        recordKey.accept(transaction.getId());
+
+        account.setBalance(newBalance);
+
+        Transaction savedTransaction = transactionRepository.save(transaction);
+        accountRepository.save(account);
+
+        log.info("Successfully created transaction {} for account {} with new balance {}",
+                savedTransaction.getId(), account.getAccountNumber(), newBalance);
+
+        return transactionMapper.toResponse(savedTransaction);
     }
 
-    private String generateUniqueTransactionId() {
-        String transactionId;
-        int attempts = 0;
-        final int maxAttempts = 100;
+    /**
+     * Record a withdrawal the ledger has already debited; the account is an uninitialized reference,
+     * so the response uses the verified owner instead of loading the account for its user ID
+     */
+    private TransactionResponse recordWithdrawal(Account account, CreateTransactionRequest createTransactionRequest, String userId,
+                                                 Consumer<String> recordKey) {
+        Transaction transaction = newTransaction(account, createTransactionRequest);
+        recordKey.accept(transaction.getId());
 
-        do {
-            String uuid = UUID.randomUUID().toString().replaceAll("-", "");
-            transactionId = "tan-" + uuid.substring(0, 12);
-            attempts++;
+        Transaction savedTransaction = transactionRepository.save(transaction);
 
-            if (attempts >= maxAttempts) {
-                transactionId = "tan-" + System.currentTimeMillis() + "-" + (int)(Math.random() * 1000);
-                break;
-            }
-        } while (transactionRepository.existsById(transactionId));
+        log.info("Successfully created transaction {} for account {}", savedTransaction.getId(), account.getAccountNumber());
 
-        log.debug("Generated unique transaction ID: {} in {} attempts", transactionId, attempts);
-        return transactionId;
+        return transactionMapper.toResponse(savedTransaction, userId);
     }
 
-    private double calculateNewBalance(double currentBalance, double transactionAmount, CreateTransactionRequest.TypeEnum transactionType) {
-        return switch (transactionType) {
-            case DEPOSIT -> currentBalance + transactionAmount;
-            case WITHDRAWAL -> currentBalance - transactionAmount;
-        };
+    private Transaction newTransaction(Account account, CreateTransactionRequest createTransactionRequest) {
+        Transaction transaction = transactionMapper.toEntity(createTransactionRequest);
+
+        transaction.setId(transactionIdAllocator.nextId());
+        transaction.setCurrency(Transaction.Currency.GBP);
+
+        // Reference the account without adding to account.getTransactions(), which would load its whole history
+        transaction.setAccount(account);
+        return transaction;
+    }
+
+    private int resolvePageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return limit;
     }
 
     private void validateAccountAccess(Account account, String userId) {
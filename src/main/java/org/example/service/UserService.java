@@ -11,8 +11,9 @@ import org.example.model.UpdateUserRequest;
 import org.example.model.UserResponse;
 import org.example.repository.UserRepository;
 import org.example.repository.AccountRepository;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.example.security.PasswordHasher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
@@ -31,8 +32,14 @@ public class UserService {
     private final UserRepository userRepository;
     private final AccountRepository accountRepository;
     private final UserMapper userMapper;
-    private final PasswordEncoder passwordEncoder;
-
+    private final PasswordHasher passwordHasher;
+    private final ShardRouter shardRouter;
+
+    /**
+     * Not transactional: hashing can wait on the bounded hashing pool, and no connection should be held meanwhile.
+     * The save runs in its own transaction once the hash is ready
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public UserResponse createUser(CreateUserRequest createUserRequest) {
         log.info("Creating user with email: {}", createUserRequest.getEmail());
 
@@ -40,7 +47,7 @@ public class UserService {
 
         user.setId(generateUserId());
 
-        user.setPasswordHash(passwordEncoder.encode(createUserRequest.getPassword()));
+        user.setPasswordHash(passwordHasher.encode(createUserRequest.getPassword()));
 
         User savedUser = userRepository.save(user);
 
@@ -79,7 +86,9 @@ public class UserService {
             throw new UserNotFoundException(userId);
         }
 
-        boolean hasAssociatedAccounts = accountRepository.existsByUserId(userId);
+        // Accounts may be on any shard
+        boolean hasAssociatedAccounts = shardRouter.onEveryShard(() -> accountRepository.existsByUserId(userId))
+                .contains(true);
         log.debug("User {} has associated accounts: {}", userId, hasAssociatedAccounts);
 
         if (hasAssociatedAccounts) {
@@ -91,6 +100,16 @@ public class UserService {
         log.info("Successfully deleted user with ID: {}", userId);
     }
 
+    public void updatePasswordHash(String userId, String passwordHash) {
+        log.info("Upgrading password hash for user: {}", userId);
+
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new UserNotFoundException(userId));
+
+        user.setPasswordHash(passwordHash);
+        userRepository.save(user);
+    }
+
     @Transactional(readOnly = true)
     public Optional<User> findByEmail(String email) {
         log.debug("Finding user by email for authentication: {}", email);
@@ -0,0 +1,9 @@
+-- Block sequences for SequenceBlockIdAllocator: each value reserves one block of IDs (hi/lo)
+CREATE SEQUENCE IF NOT EXISTS transaction_id_blocks START WITH 0 MINVALUE 0;
+CREATE SEQUENCE IF NOT EXISTS account_number_blocks START WITH 0 MINVALUE 0;
+
+-- Heartbeat written to the primary by ReplicaLagMonitor; its age as read from a replica is the replication lag
+CREATE TABLE IF NOT EXISTS replication_heartbeat (id INT PRIMARY KEY, beat_at TIMESTAMP NOT NULL);
+
+-- Account number -> shard directory, kept on the global database when accounts are sharded (ShardDirectory)
+CREATE TABLE IF NOT EXISTS account_shards (account_number VARCHAR(255) PRIMARY KEY, shard_id INT NOT NULL);
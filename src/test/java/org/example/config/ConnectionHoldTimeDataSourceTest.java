@@ -0,0 +1,74 @@
+package org.example.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class ConnectionHoldTimeDataSourceTest {
+
+    private final DataSource targetDataSource = mock(DataSource.class);
+    private final Connection targetConnection = mock(Connection.class);
+    private final ConnectionHoldTimeRecorder recorder = new ConnectionHoldTimeRecorder(Duration.ofSeconds(1));
+    private final ConnectionHoldTimeDataSource dataSource = new ConnectionHoldTimeDataSource(targetDataSource, recorder);
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void recordsHoldTimeUnderTheEndpointThatBorrowedTheConnection() throws Exception {
+        when(targetDataSource.getConnection()).thenReturn(targetConnection);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/accounts/01234567");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/v1/accounts/{accountNumber}");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        Connection connection = dataSource.getConnection();
+        RequestContextHolder.resetRequestAttributes(); // attributed when borrowed, not when returned
+        connection.close();
+        connection.close();
+
+        verify(targetConnection, times(2)).close();
+        assertThat(recorder.snapshot()).singleElement().satisfies(stats -> {
+            assertThat(stats.endpoint()).isEqualTo("GET /v1/accounts/{accountNumber}");
+            assertThat(stats.connections()).isEqualTo(1);
+            assertThat(stats.totalHoldNanos()).isNotNegative();
+        });
+    }
+
+    @Test
+    void delegatesOtherCallsAndRethrowsTheirExceptions() throws Exception {
+        when(targetDataSource.getConnection()).thenReturn(targetConnection);
+        when(targetConnection.getAutoCommit()).thenReturn(false);
+        doThrow(new SQLException("Connection is closed")).when(targetConnection).commit();
+
+        Connection connection = dataSource.getConnection();
+
+        assertThat(connection.getAutoCommit()).isFalse();
+        assertThatThrownBy(connection::commit).isInstanceOf(SQLException.class).hasMessage("Connection is closed");
+        assertThat(recorder.snapshot()).isEmpty();
+    }
+
+    @Test
+    void connectionProxyHasIdentityEquality() throws Exception {
+        when(targetDataSource.getConnection()).thenReturn(targetConnection);
+
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+
+        assertThat(first).isEqualTo(first).isNotEqualTo(second);
+        assertThat(first.hashCode()).isEqualTo(System.identityHashCode(first));
+    }
+}
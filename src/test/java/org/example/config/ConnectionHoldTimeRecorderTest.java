@@ -0,0 +1,73 @@
+package org.example.config;
+
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConnectionHoldTimeRecorderTest {
+
+    private final ConnectionHoldTimeRecorder recorder = new ConnectionHoldTimeRecorder(Duration.ofSeconds(1));
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void snapshotAggregatesHoldTimesPerEndpoint() {
+        recorder.record("GET /v1/accounts", 2_000);
+        recorder.record("GET /v1/accounts", 6_000);
+        recorder.record("DELETE /v1/users/{userId}", 1_000);
+
+        assertThat(recorder.snapshot()).containsExactly(
+                new ConnectionHoldStats("DELETE /v1/users/{userId}", 1, 1_000, 1_000),
+                new ConnectionHoldStats("GET /v1/accounts", 2, 8_000, 6_000));
+        assertThat(recorder.snapshot().get(1).meanHoldNanos()).isEqualTo(4_000);
+    }
+
+    @Test
+    void publishesEndpointsSeenBeforeAndAfterBinding() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        recorder.record("GET /v1/accounts", 2_000_000);
+
+        recorder.bindTo(meterRegistry);
+        recorder.record("GET /v1/accounts", 6_000_000);
+        recorder.record("POST /v1/users", 1_000_000);
+
+        FunctionTimer accounts = meterRegistry.get("db.connection.hold").tag("endpoint", "GET /v1/accounts").functionTimer();
+        assertThat(accounts.count()).isEqualTo(2);
+        assertThat(accounts.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(8.0);
+        assertThat(meterRegistry.get("db.connection.hold.max").tag("endpoint", "GET /v1/accounts").timeGauge()
+                .value(TimeUnit.MILLISECONDS)).isEqualTo(6.0);
+        assertThat(meterRegistry.get("db.connection.hold").tag("endpoint", "POST /v1/users").functionTimer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void currentEndpointUsesTheMatchedPathPatternRatherThanTheUri() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/v1/accounts/01234567/transactions");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/v1/accounts/{accountNumber}/transactions");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        assertThat(ConnectionHoldTimeRecorder.currentEndpoint()).isEqualTo("POST /v1/accounts/{accountNumber}/transactions");
+    }
+
+    @Test
+    void currentEndpointGroupsUnmappedRequestsAndWorkOutsideRequests() {
+        assertThat(ConnectionHoldTimeRecorder.currentEndpoint()).isEqualTo("none");
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest("GET", "/v1/unknown")));
+
+        assertThat(ConnectionHoldTimeRecorder.currentEndpoint()).isEqualTo("GET unmapped");
+    }
+}
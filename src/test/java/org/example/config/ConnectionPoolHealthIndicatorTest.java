@@ -0,0 +1,87 @@
+package org.example.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ConnectionPoolHealthIndicatorTest {
+
+    @Mock
+    private HikariDataSource hikariDataSource;
+
+    @Mock
+    private HikariPoolMXBean pool;
+
+    @Test
+    void upWithPoolDetailsWhileFewThreadsWait() {
+        stubPool(2);
+
+        Health health = new ConnectionPoolHealthIndicator(hikariDataSource, 2).health();
+
+        assertThat(health.getStatus()).isEqualTo(Status.UP);
+        assertThat(health.getDetails())
+                .containsEntry("active", 8)
+                .containsEntry("idle", 2)
+                .containsEntry("total", 10)
+                .containsEntry("max", 10)
+                .containsEntry("pending", 2)
+                .containsEntry("maxPending", 2);
+    }
+
+    @Test
+    void outOfServiceWhenPendingAcquisitionsExceedTheThreshold() {
+        stubPool(3);
+
+        Health health = new ConnectionPoolHealthIndicator(hikariDataSource, 2).health();
+
+        assertThat(health.getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+        assertThat(health.getDetails()).containsEntry("pending", 3);
+    }
+
+    @Test
+    void findsThePoolBehindAWrappingDataSource() {
+        stubPool(0);
+
+        Health health = new ConnectionPoolHealthIndicator(
+                new ConnectionHoldTimeDataSource(hikariDataSource, new ConnectionHoldTimeRecorder(Duration.ofSeconds(1))), 2)
+                .health();
+
+        assertThat(health.getStatus()).isEqualTo(Status.UP);
+    }
+
+    @Test
+    void unknownUntilThePoolHasStarted() {
+        when(hikariDataSource.getHikariPoolMXBean()).thenReturn(null);
+
+        assertThat(new ConnectionPoolHealthIndicator(hikariDataSource, 2).health().getStatus()).isEqualTo(Status.UNKNOWN);
+    }
+
+    @Test
+    void unknownForANonHikariDataSource() {
+        DataSource dataSource = mock(DataSource.class);
+
+        assertThat(new ConnectionPoolHealthIndicator(dataSource, 2).health().getStatus()).isEqualTo(Status.UNKNOWN);
+    }
+
+    private void stubPool(int pending) {
+        when(hikariDataSource.getHikariPoolMXBean()).thenReturn(pool);
+        when(hikariDataSource.getMaximumPoolSize()).thenReturn(10);
+        when(pool.getThreadsAwaitingConnection()).thenReturn(pending);
+        when(pool.getActiveConnections()).thenReturn(8);
+        when(pool.getIdleConnections()).thenReturn(2);
+        when(pool.getTotalConnections()).thenReturn(10);
+    }
+}
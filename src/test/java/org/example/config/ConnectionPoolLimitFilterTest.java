@@ -0,0 +1,137 @@
+package org.example.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ConnectionPoolLimitFilterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void passesRequestThroughAndReleasesPermit() throws Exception {
+        ConnectionPoolLimitFilter filter = new ConnectionPoolLimitFilter(2, 100, objectMapper);
+        FilterChain filterChain = mock(FilterChain.class);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/accounts");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, filterChain);
+
+        verify(filterChain).doFilter(request, response);
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(filter.availablePermits()).isEqualTo(2);
+    }
+
+    @Test
+    void releasesPermitWhenChainThrows() throws Exception {
+        ConnectionPoolLimitFilter filter = new ConnectionPoolLimitFilter(1, 100, objectMapper);
+        FilterChain filterChain = mock(FilterChain.class);
+        doThrow(new IllegalStateException("boom")).when(filterChain).doFilter(any(), any());
+
+        assertThatThrownBy(() -> filter.doFilter(new MockHttpServletRequest("GET", "/v1/accounts"),
+                new MockHttpServletResponse(), filterChain))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(filter.availablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    void holdsPermitUntilAsyncRequestCompletes() throws Exception {
+        ConnectionPoolLimitFilter filter = new ConnectionPoolLimitFilter(1, 50, objectMapper);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/accounts/01234567/transactions/export");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain asyncChain = (req, res) -> req.startAsync();
+
+        filter.doFilter(request, response, asyncChain);
+
+        // The handler has returned but the streaming writer still runs, so the permit stays taken
+        assertThat(filter.availablePermits()).isZero();
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/v1/accounts"), rejected, mock(FilterChain.class));
+        assertThat(rejected.getStatus()).isEqualTo(503);
+
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+
+        assertThat(filter.availablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    void releasesAsyncPermitOnceWhenTimeoutIsFollowedByCompletion() throws Exception {
+        ConnectionPoolLimitFilter filter = new ConnectionPoolLimitFilter(1, 50, objectMapper);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/accounts/01234567/transactions/export");
+        request.setAsyncSupported(true);
+        FilterChain asyncChain = (req, res) -> req.startAsync();
+
+        filter.doFilter(request, new MockHttpServletResponse(), asyncChain);
+
+        MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(new AsyncEvent(asyncContext));
+        }
+        asyncContext.complete();
+
+        assertThat(filter.availablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsWithServiceUnavailableWhenNoPermitFreesUpInTime() throws Exception {
+        ConnectionPoolLimitFilter filter = new ConnectionPoolLimitFilter(1, 50, objectMapper);
+        CountDownLatch inChain = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain blockingChain = (request, response) -> {
+            inChain.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> holder = executor.submit(() -> {
+                filter.doFilter(new MockHttpServletRequest("GET", "/v1/accounts"),
+                        new MockHttpServletResponse(), blockingChain);
+                return null;
+            });
+            assertThat(inChain.await(5, TimeUnit.SECONDS)).isTrue();
+
+            FilterChain filterChain = mock(FilterChain.class);
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest("GET", "/v1/accounts"), response, filterChain);
+
+            assertThat(response.getStatus()).isEqualTo(503);
+            assertThat(response.getContentAsString()).contains("The service is busy, please retry shortly");
+            verify(filterChain, never()).doFilter(any(), any());
+
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+            assertThat(filter.availablePermits()).isEqualTo(1);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void rejectsNonPositiveLimit() {
+        assertThatThrownBy(() -> new ConnectionPoolLimitFilter(0, 100, objectMapper))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.config;
+
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.service.IdAllocator;
+import org.example.service.IdAllocatorStats;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class IdAllocatorMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void publishesRefillTimeAndRemainingCapacityPerAllocator() {
+        IdAllocator allocator = mock(IdAllocator.class);
+        when(allocator.stats()).thenReturn(new IdAllocatorStats("account-number", 100, 3, 2_000_000, 6_000_000, 40, 999_740));
+
+        new IdAllocatorMetrics(List.of(allocator)).bindTo(meterRegistry);
+
+        FunctionTimer refills = meterRegistry.get("ids.block.refills").tag("allocator", "account-number").functionTimer();
+        assertThat(refills.count()).isEqualTo(3);
+        assertThat(refills.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(6.0);
+        assertThat(meterRegistry.get("ids.block.remaining").tag("allocator", "account-number").gauge().value())
+                .isEqualTo(40);
+        assertThat(meterRegistry.get("ids.remaining.capacity").tag("allocator", "account-number").gauge().value())
+                .isEqualTo(999_740);
+    }
+
+    @Test
+    void gaugesFollowTheAllocator() {
+        IdAllocator allocator = mock(IdAllocator.class);
+        when(allocator.stats()).thenReturn(
+                new IdAllocatorStats("transaction-id", 1000, 0, 0, 0, 0, Long.MAX_VALUE),
+                new IdAllocatorStats("transaction-id", 1000, 1, 500, 500, 999, Long.MAX_VALUE - 1));
+
+        new IdAllocatorMetrics(List.of(allocator)).bindTo(meterRegistry);
+
+        assertThat(meterRegistry.get("ids.block.remaining").tag("allocator", "transaction-id").gauge().value())
+                .isEqualTo(999);
+    }
+}
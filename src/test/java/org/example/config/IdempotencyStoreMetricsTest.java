@@ -0,0 +1,31 @@
+package org.example.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.service.IdempotencyStore;
+import org.example.service.IdempotencyStoreStats;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class IdempotencyStoreMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void publishesLookupsByResultAndCachedKeysWithoutCountingTheTable() {
+        IdempotencyStore idempotencyStore = mock(IdempotencyStore.class);
+        when(idempotencyStore.lookupStats()).thenReturn(new IdempotencyStoreStats(7, 2, 5, 9, -1));
+
+        new IdempotencyStoreMetrics(idempotencyStore).bindTo(meterRegistry);
+
+        assertThat(meterRegistry.get("idempotency.lookups").tag("result", "cache_hit").functionCounter().count())
+                .isEqualTo(7);
+        assertThat(meterRegistry.get("idempotency.lookups").tag("result", "table_hit").functionCounter().count())
+                .isEqualTo(2);
+        assertThat(meterRegistry.get("idempotency.lookups").tag("result", "miss").functionCounter().count())
+                .isEqualTo(5);
+        assertThat(meterRegistry.get("idempotency.keys.cached").gauge().value()).isEqualTo(9);
+        verify(idempotencyStore, never()).stats();
+    }
+}
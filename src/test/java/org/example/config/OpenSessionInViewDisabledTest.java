@@ -0,0 +1,107 @@
+package org.example.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Drives every user, account and transaction endpoint through the full stack with open-session-in-view off
+ * Any response built from a lazy association outside its service transaction would fail here, and each
+ * endpoint's connection holds show up in the ConnectionHoldTimeRecorder
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:osivdb",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+        "logging.level.org.springframework.security=WARN",
+        "logging.level.org.example=WARN"
+})
+class OpenSessionInViewDisabledTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private ConnectionHoldTimeRecorder connectionHoldTimeRecorder;
+
+    @Test
+    void openEntityManagerInViewIsNotRegistered() {
+        assertThat(applicationContext.getBeansOfType(OpenEntityManagerInViewInterceptor.class)).isEmpty();
+    }
+
+    @Test
+    void everyEndpointRespondsWithoutAnOpenSessionAndRecordsItsConnectionHolds() throws Exception {
+        JsonNode user = perform(post("/v1/users").content("""
+                {"name": "View Test", "email": "osiv@example.com", "password": "Passw0rd!", "phoneNumber": "+447123456789",
+                 "address": {"line1": "1 Test Street", "town": "London", "county": "Greater London", "postcode": "SW1A 1AA"}}
+                """), null, 201);
+        String userId = user.get("id").asText();
+        String token = perform(post("/v1/auth/login").content("""
+                {"email": "osiv@example.com", "password": "Passw0rd!"}
+                """), null, 200).get("token").asText();
+
+        perform(get("/v1/users/{userId}", userId), token, 200);
+        perform(patch("/v1/users/{userId}", userId).content("{\"name\": \"Renamed\"}"), token, 200);
+
+        String accountNumber = perform(post("/v1/accounts").content("""
+                {"name": "View Account", "accountType": "personal"}
+                """), token, 201).get("accountNumber").asText();
+        perform(get("/v1/accounts"), token, 200);
+        perform(get("/v1/accounts/{accountNumber}", accountNumber), token, 200);
+        perform(patch("/v1/accounts/{accountNumber}", accountNumber).content("{\"name\": \"Renamed\"}"), token, 200);
+
+        String transactionId = perform(post("/v1/accounts/{accountNumber}/transactions", accountNumber).content("""
+                {"amount": 25.00, "currency": "GBP", "type": "deposit"}
+                """), token, 201).get("id").asText();
+        perform(post("/v1/accounts/{accountNumber}/transactions", accountNumber).content("""
+                {"amount": 5.00, "currency": "GBP", "type": "withdrawal"}
+                """), token, 201);
+        JsonNode transactions = perform(get("/v1/accounts/{accountNumber}/transactions", accountNumber), token, 200);
+        perform(get("/v1/accounts/{accountNumber}/transactions/{transactionId}", accountNumber, transactionId), token, 200);
+
+        assertThat(transactions.get("transactions")).hasSize(2);
+        assertThat(perform(get("/v1/accounts/{accountNumber}", accountNumber), token, 200).get("balance").asDouble())
+                .isEqualTo(20.00);
+        assertThat(connectionHoldTimeRecorder.snapshot())
+                .extracting(ConnectionHoldStats::endpoint)
+                .contains("POST /v1/users", "GET /v1/users/{userId}", "GET /v1/accounts/{accountNumber}",
+                        "POST /v1/accounts/{accountNumber}/transactions",
+                        "GET /v1/accounts/{accountNumber}/transactions/{transactionId}");
+    }
+
+    private JsonNode perform(MockHttpServletRequestBuilder request, String token, int expectedStatus) throws Exception {
+        request.contentType(MediaType.APPLICATION_JSON);
+        if (token != null) {
+            request.header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        }
+        String body = mockMvc.perform(request)
+                .andExpect(status().is(expectedStatus))
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.config;
+
+import io.micrometer.common.KeyValue;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OperationServerRequestObservationConventionTest {
+
+    private final OperationServerRequestObservationConvention convention = new OperationServerRequestObservationConvention();
+
+    @Test
+    void tagsTheHandlerMethodNameAsTheOperation() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/v1/auth/login");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+                new HandlerMethod(new LoginHandler(), LoginHandler.class.getMethod("loginUser")));
+
+        ServerRequestObservationContext context = new ServerRequestObservationContext(request, new MockHttpServletResponse());
+
+        assertThat(convention.getLowCardinalityKeyValues(context))
+                .contains(KeyValue.of("operation", "loginUser"), KeyValue.of("method", "POST"));
+    }
+
+    @Test
+    void tagsRequestsWithoutAHandlerAsNone() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/accounts");
+
+        ServerRequestObservationContext context = new ServerRequestObservationContext(request, new MockHttpServletResponse());
+
+        assertThat(convention.getLowCardinalityKeyValues(context)).contains(KeyValue.of("operation", "none"));
+    }
+
+    static class LoginHandler {
+        public void loginUser() {
+        }
+    }
+}
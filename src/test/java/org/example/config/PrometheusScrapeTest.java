@@ -0,0 +1,70 @@
+package org.example.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The scrape endpoint carries per-operation request latency and per-method service latency, to the scraper only
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+// Tests replace the Prometheus registry with a simple one, and the scrape endpoint with it, unless asked not to
+@AutoConfigureObservability
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:prometheusdb",
+        "spring.jpa.show-sql=false",
+        "security.prometheus.username=scraper",
+        "security.prometheus.password=scrape-secret",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+        "logging.level.org.springframework.security=WARN",
+        "logging.level.org.example=WARN"
+})
+class PrometheusScrapeTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void scrapeIncludesOperationAndServiceHistograms() throws Exception {
+        mockMvc.perform(post("/v1/users").contentType(MediaType.APPLICATION_JSON).content("""
+                        {"name": "Metrics Test", "email": "metrics@example.com", "password": "Passw0rd!", "phoneNumber": "+447123456789",
+                         "address": {"line1": "1 Test Street", "town": "London", "county": "Greater London", "postcode": "SW1A 1AA"}}
+                        """))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/v1/auth/login").contentType(MediaType.APPLICATION_JSON).content("""
+                        {"email": "metrics@example.com", "password": "wrong"}
+                        """))
+                .andExpect(status().isUnauthorized());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus").with(httpBasic("scraper", "scrape-secret")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(scrape)
+                .containsPattern("http_server_requests_seconds_bucket\\{[^}]*operation=\"createUser\"")
+                .containsPattern("http_server_requests_seconds\\{[^}]*operation=\"loginUser\"[^}]*quantile=\"0.99\"")
+                .containsPattern("service_operations_seconds_bucket\\{[^}]*method=\"createUser\"[^}]*outcome=\"SUCCESS\"")
+                .contains("hikaricp_connections_pending");
+    }
+
+    @Test
+    void scrapeRequiresTheScraperCredentials() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/prometheus").with(httpBasic("scraper", "wrong")))
+                .andExpect(status().isUnauthorized());
+    }
+}
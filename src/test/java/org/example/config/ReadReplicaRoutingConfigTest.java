@@ -0,0 +1,99 @@
+package org.example.config;
+
+import org.example.model.CreateUserRequest;
+import org.example.model.CreateUserRequestAddress;
+import org.example.model.UserResponse;
+import org.example.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Full context with a second H2 database as the replica: schema and writes go to the primary, and read-only
+ * JPA transactions reach the replica only once a fresh heartbeat has been replicated to it
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routingprimarydb",
+        "datasource.replica.enabled=true",
+        "datasource.replica.url=jdbc:h2:mem:routingreplicadb",
+        "datasource.replica.heartbeat-interval=PT1H",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+        "logging.level.org.springframework.security=WARN",
+        "logging.level.org.example=WARN"
+})
+class ReadReplicaRoutingConfigTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Autowired
+    private ReadReplicaRoutingDataSource routingDataSource;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void readOnlyTransactionsFallBackUntilTheReplicaIsFreshThenUseIt() {
+        UserResponse user = userService.createUser(createUserRequest());
+
+        assertThat(replicaLagMonitor.isReplicaUsable()).isFalse();
+        assertThat(userService.findByEmail("routing@example.com")).isPresent(); // a query, so not served by the L2 cache
+        assertThat(routingDataSource.stats().fallbackConnections()).isPositive();
+
+        JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+        replica.execute("CREATE TABLE replication_heartbeat (id INT PRIMARY KEY, beat_at TIMESTAMP NOT NULL)");
+        replica.execute("CREATE TABLE replica_marker (id INT)");
+        replica.update("INSERT INTO replication_heartbeat (id, beat_at) VALUES (1, ?)", Timestamp.from(Instant.now()));
+        replicaLagMonitor.check();
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        assertThat(replicaLagMonitor.isReplicaUsable()).isTrue();
+        Integer replicaMarkers = readOnly.execute(status ->
+                jdbcTemplate.queryForObject("SELECT COUNT(*) FROM replica_marker", Integer.class));
+        assertThat(replicaMarkers).isZero();
+        assertThat(routingDataSource.stats().replicaConnections()).isEqualTo(1);
+        Integer primaryUsers = new TransactionTemplate(transactionManager).execute(status ->
+                jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE user_id = ?", Integer.class, user.getId()));
+        assertThat(primaryUsers).isEqualTo(1);
+    }
+
+    private static CreateUserRequest createUserRequest() {
+        return new CreateUserRequest()
+                .name("Routing Test")
+                .email("routing@example.com")
+                .password("Passw0rd!")
+                .phoneNumber("+447123456789")
+                .address(new CreateUserRequestAddress()
+                        .line1("1 Test Street")
+                        .town("London")
+                        .county("Greater London")
+                        .postcode("SW1A 1AA"));
+    }
+}
@@ -0,0 +1,200 @@
+package org.example.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routing between two H2 databases standing in for a primary and its replica; replication is simulated by
+ * copying the heartbeat row by hand
+ */
+class ReadReplicaRoutingDataSourceTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-01-01T12:00:00Z"));
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+    private SwitchableDataSource replicaDataSource;
+    private ReplicaLagMonitor lagMonitor;
+    private ReadReplicaRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primaryDataSource = h2("routing-primary");
+        replicaDataSource = new SwitchableDataSource(h2("routing-replica"));
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+        for (JdbcTemplate database : new JdbcTemplate[] {primary, replica}) {
+            database.execute("CREATE TABLE replication_heartbeat (id INT PRIMARY KEY, beat_at TIMESTAMP NOT NULL)");
+            database.execute("CREATE TABLE node (name VARCHAR(16))");
+        }
+        primary.update("INSERT INTO node VALUES ('primary')");
+        replica.update("INSERT INTO node VALUES ('replica')");
+
+        lagMonitor = new ReplicaLagMonitor(primaryDataSource, replicaDataSource, Duration.ofSeconds(5), clock);
+        routingDataSource = new ReadReplicaRoutingDataSource(primaryDataSource, replicaDataSource, lagMonitor);
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readWrite = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        readOnly = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        replicaDataSource.down = false;
+        primary.execute("DROP ALL OBJECTS");
+        replica.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void readOnlyTransactionsUseAFreshReplicaAndEverythingElseThePrimary() {
+        replicateHeartbeat();
+        clock.advance(Duration.ofSeconds(2));
+        lagMonitor.check();
+
+        assertThat(lagMonitor.lag()).isEqualTo(Duration.ofSeconds(2));
+        assertThat(nodeOf(readOnly)).isEqualTo("replica");
+        assertThat(nodeOf(readWrite)).isEqualTo("primary");
+        assertThat(node()).isEqualTo("primary");
+        assertThat(routingDataSource.stats()).satisfies(stats -> {
+            assertThat(stats.replicaConnections()).isEqualTo(1);
+            assertThat(stats.fallbackConnections()).isZero();
+            assertThat(stats.primaryConnections()).isPositive();
+            assertThat(stats.replicaUsable()).isTrue();
+        });
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWhileTheReplicaLags() {
+        replicateHeartbeat();
+        lagMonitor.check();
+        clock.advance(Duration.ofSeconds(6));
+        lagMonitor.beat(); // written to the primary but not yet replicated
+        lagMonitor.check();
+
+        assertThat(lagMonitor.isReplicaUsable()).isFalse();
+        assertThat(nodeOf(readOnly)).isEqualTo("primary");
+        assertThat(routingDataSource.stats().fallbackConnections()).isEqualTo(1);
+
+        replicateHeartbeat();
+        lagMonitor.check();
+
+        assertThat(nodeOf(readOnly)).isEqualTo("replica");
+    }
+
+    @Test
+    void readsStayOnThePrimaryUntilAHeartbeatHasBeenReplicated() {
+        lagMonitor.heartbeat();
+
+        assertThat(lagMonitor.isReplicaUsable()).isFalse();
+        assertThat(lagMonitor.lag()).isNull();
+        assertThat(nodeOf(readOnly)).isEqualTo("primary");
+    }
+
+    @Test
+    void aRefusedReplicaConnectionFallsBackToThePrimaryUntilTheNextCheck() {
+        replicateHeartbeat();
+        lagMonitor.check();
+        replicaDataSource.down = true;
+
+        assertThat(nodeOf(readOnly)).isEqualTo("primary");
+        assertThat(lagMonitor.isReplicaUsable()).isFalse();
+
+        lagMonitor.check();
+        assertThat(lagMonitor.isReplicaUsable()).isFalse();
+
+        replicaDataSource.down = false;
+        lagMonitor.check();
+        assertThat(nodeOf(readOnly)).isEqualTo("replica");
+    }
+
+    private String node() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    /**
+     * Node that serves a transaction of the template; typed, as execute(status -> ...) is ambiguous inside assertThat
+     */
+    private String nodeOf(TransactionTemplate template) {
+        String node = template.execute(status -> node());
+        return node;
+    }
+
+    private void replicateHeartbeat() {
+        lagMonitor.beat();
+        Timestamp beatAt = primary.queryForObject("SELECT beat_at FROM replication_heartbeat WHERE id = 1", Timestamp.class);
+        replica.update("DELETE FROM replication_heartbeat");
+        replica.update("INSERT INTO replication_heartbeat (id, beat_at) VALUES (1, ?)", beatAt);
+    }
+
+    private static DataSource h2(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+    private static class SwitchableDataSource extends DelegatingDataSource {
+
+        volatile boolean down;
+
+        SwitchableDataSource(DataSource targetDataSource) {
+            super(targetDataSource);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down) {
+                throw new SQLException("Connection refused");
+            }
+            return super.getConnection();
+        }
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
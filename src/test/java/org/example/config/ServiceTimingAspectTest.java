@@ -0,0 +1,80 @@
+package org.example.config;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.exception.InsufficientFundsException;
+import org.example.exception.UserNotFoundException;
+import org.example.model.UserResponse;
+import org.example.service.TransactionService;
+import org.example.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.security.access.AccessDeniedException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ServiceTimingAspectTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Test
+    void timesSuccessfulCallsPerServiceAndMethod() {
+        UserResponse response = new UserResponse();
+        when(userService.findById("usr-1")).thenReturn(response);
+
+        assertThat(proxy(userService).findById("usr-1")).isSameAs(response);
+
+        assertThat(timer("UserService", "findById", "SUCCESS").count()).isEqualTo(1);
+    }
+
+    @Test
+    void tagsFailuresWithTheirOutcomeAndRethrows() {
+        when(userService.findById("usr-1")).thenThrow(new UserNotFoundException("usr-1"));
+        when(transactionService.createTransaction("01000001", null, "usr-1"))
+                .thenThrow(new InsufficientFundsException("Insufficient funds"));
+
+        UserService timedUserService = proxy(userService);
+        TransactionService timedTransactionService = proxy(transactionService);
+
+        assertThatThrownBy(() -> timedUserService.findById("usr-1")).isInstanceOf(UserNotFoundException.class);
+        assertThatThrownBy(() -> timedTransactionService.createTransaction("01000001", null, "usr-1"))
+                .isInstanceOf(InsufficientFundsException.class);
+
+        assertThat(timer("UserService", "findById", "NOT_FOUND").count()).isEqualTo(1);
+        assertThat(timer("TransactionService", "createTransaction", "INSUFFICIENT_FUNDS").count()).isEqualTo(1);
+    }
+
+    @Test
+    void outcomeClassifiesExceptions() {
+        assertThat(ServiceTimingAspect.outcome(new AccessDeniedException("Access denied to account"))).isEqualTo("FORBIDDEN");
+        assertThat(ServiceTimingAspect.outcome(new OptimisticLockingFailureException("stale"))).isEqualTo("CONFLICT");
+        assertThat(ServiceTimingAspect.outcome(new IllegalStateException("boom"))).isEqualTo("ERROR");
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T proxy(T target) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new ServiceTimingAspect(meterRegistry));
+        return (T) factory.getProxy();
+    }
+
+    private Timer timer(String service, String method, String outcome) {
+        return meterRegistry.get(ServiceTimingAspect.TIMER_NAME)
+                .tags("service", service, "method", method, "outcome", outcome)
+                .timer();
+    }
+}
@@ -0,0 +1,152 @@
+package org.example.config;
+
+import org.example.exception.UserHasAssociatedAccountsException;
+import org.example.model.BankAccountResponse;
+import org.example.model.CreateBankAccountRequest;
+import org.example.model.CreateTransactionRequest;
+import org.example.model.CreateUserRequest;
+import org.example.model.CreateUserRequestAddress;
+import org.example.model.TransactionBatchItem;
+import org.example.model.TransactionBatchResult;
+import org.example.service.AccountService;
+import org.example.service.ShardDirectory;
+import org.example.service.TransactionBatchService;
+import org.example.service.TransactionService;
+import org.example.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Full context over a global H2 database and two H2 shards: accounts and their transactions are written to the
+ * shard the directory places them on, and per-user listings and checks see the accounts of every shard
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:shardglobaldb",
+        "sharding.enabled=true",
+        "sharding.shard-urls=jdbc:h2:mem:shard0db,jdbc:h2:mem:shard1db",
+        "sharding.create-schema=true",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+        "logging.level.org.springframework.security=WARN",
+        "logging.level.org.example=WARN"
+})
+class ShardingConfigTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionBatchService transactionBatchService;
+
+    @Autowired
+    private ShardDirectory shardDirectory;
+
+    @Autowired
+    @Qualifier("globalDataSource")
+    private DataSource globalDataSource;
+
+    @Test
+    void accountsAndTheirTransactionsLiveOnTheirShardAndUserWideWorkSpansAllShards() {
+        String userId = userService.createUser(createUserRequest()).getId();
+        List<String> accountNumbers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            accountNumbers.add(accountService.createAccount(userId, new CreateBankAccountRequest()
+                    .name("Shard Account " + i)
+                    .accountType(CreateBankAccountRequest.AccountTypeEnum.PERSONAL)).getAccountNumber());
+        }
+        for (String accountNumber : accountNumbers) {
+            transactionService.createTransaction(accountNumber, transaction(30.00, CreateTransactionRequest.TypeEnum.DEPOSIT), userId);
+            transactionService.createTransaction(accountNumber, transaction(10.00, CreateTransactionRequest.TypeEnum.WITHDRAWAL), userId);
+        }
+
+        List<JdbcTemplate> shards = List.of(shard("shard0db"), shard("shard1db"));
+        for (String accountNumber : accountNumbers) {
+            int shard = shardDirectory.shardOf(accountNumber);
+            assertThat(count(shards.get(shard), "accounts", accountNumber)).isEqualTo(1);
+            assertThat(count(shards.get(1 - shard), "accounts", accountNumber)).isZero();
+            assertThat(count(shards.get(shard), "transactions", accountNumber)).isEqualTo(2);
+            assertThat(transactionService.findByAccountNumber(accountNumber, userId, null, null).getTransactions()).hasSize(2);
+            assertThat(accountService.findByAccountNumber(accountNumber, userId).getBalance()).isEqualTo(20.00);
+        }
+        assertThat(accountNumbers).extracting(shardDirectory::shardOf).contains(0, 1);
+
+        JdbcTemplate global = new JdbcTemplate(globalDataSource);
+        assertThat(global.queryForObject("SELECT COUNT(*) FROM account_shards", Integer.class)).isEqualTo(4);
+        assertThat(global.queryForObject("SELECT COUNT(*) FROM accounts", Integer.class)).isZero();
+
+        assertThat(accountService.findAccountsByUserId(userId).getAccounts())
+                .extracting(BankAccountResponse::getAccountNumber)
+                .containsExactlyInAnyOrderElementsOf(accountNumbers);
+        List<String> sameShard = accountNumbers.stream()
+                .filter(accountNumber -> shardDirectory.shardOf(accountNumber) == shardDirectory.shardOf(accountNumbers.get(0)))
+                .toList();
+        assertThat(transactionBatchService.createTransactions(batch(sameShard), userId).getResults())
+                .extracting(TransactionBatchResult::getStatus)
+                .containsOnly(201);
+        assertThatThrownBy(() -> transactionBatchService.createTransactions(batch(accountNumbers), userId))
+                .isInstanceOf(IllegalArgumentException.class);
+        for (String accountNumber : accountNumbers) {
+            // The rejected batch posted nothing, on any shard
+            assertThat(count(shards.get(shardDirectory.shardOf(accountNumber)), "transactions", accountNumber))
+                    .isEqualTo(sameShard.contains(accountNumber) ? 3 : 2);
+        }
+        assertThatThrownBy(() -> userService.deleteUser(userId)).isInstanceOf(UserHasAssociatedAccountsException.class);
+    }
+
+    private static List<TransactionBatchItem> batch(List<String> accountNumbers) {
+        return accountNumbers.stream()
+                .map(accountNumber -> new TransactionBatchItem()
+                        .accountNumber(accountNumber)
+                        .transaction(transaction(5.00, CreateTransactionRequest.TypeEnum.DEPOSIT)))
+                .toList();
+    }
+
+    private static JdbcTemplate shard(String name) {
+        return new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:" + name, "sa", "password"));
+    }
+
+    private static int count(JdbcTemplate database, String table, String accountNumber) {
+        return database.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE account_number = ?",
+                Integer.class, accountNumber);
+    }
+
+    private static CreateTransactionRequest transaction(double amount, CreateTransactionRequest.TypeEnum type) {
+        return new CreateTransactionRequest()
+                .amount(amount)
+                .currency(CreateTransactionRequest.CurrencyEnum.GBP)
+                .type(type);
+    }
+
+    private static CreateUserRequest createUserRequest() {
+        return new CreateUserRequest()
+                .name("Sharding Test")
+                .email("sharding@example.com")
+                .password("Passw0rd!")
+                .phoneNumber("+447123456789")
+                .address(new CreateUserRequestAddress()
+                        .line1("1 Test Street")
+                        .town("London")
+                        .county("Greater London")
+                        .postcode("SW1A 1AA"));
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.config;
+
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.service.TransactionSequencer;
+import org.example.service.TransactionSequencer.StripeMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class TransactionSequencerMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void publishesWaitsSummedOverStripesAndTheBusiestStripe() {
+        TransactionSequencer sequencer = mock(TransactionSequencer.class);
+        when(sequencer.getStripeMetrics()).thenReturn(List.of(
+                new StripeMetrics(0, 3, 10, 4_000_000, 2_000_000),
+                new StripeMetrics(1, 1, 5, 1_000_000, 500_000)));
+
+        new TransactionSequencerMetrics(sequencer).bindTo(meterRegistry);
+
+        FunctionTimer waits = meterRegistry.get("sequencer.wait").functionTimer();
+        assertThat(waits.count()).isEqualTo(15);
+        assertThat(waits.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(5.0);
+        assertThat(meterRegistry.get("sequencer.wait.max").timeGauge().value(TimeUnit.MILLISECONDS)).isEqualTo(2.0);
+        assertThat(meterRegistry.get("sequencer.queue.depth").gauge().value()).isEqualTo(4);
+        assertThat(meterRegistry.get("sequencer.queue.depth.max").gauge().value()).isEqualTo(3);
+    }
+
+    @Test
+    void realSequencerCountsAcquisitions() {
+        TransactionSequencer sequencer = new TransactionSequencer(true, 4);
+        new TransactionSequencerMetrics(sequencer).bindTo(meterRegistry);
+
+        sequencer.execute("01234567", () -> null);
+        sequencer.execute("01234568", () -> null);
+
+        assertThat(meterRegistry.get("sequencer.wait").functionTimer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("sequencer.queue.depth").gauge().value()).isZero();
+    }
+}
@@ -3,8 +3,12 @@ package org.example.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.example.model.*;
 import org.example.service.AccountService;
+import org.example.service.TransactionBatchService;
+import org.example.service.TransactionExportService;
+import org.example.service.TransactionSequencer;
 import org.example.service.TransactionService;
 import org.example.exception.AccountNotFoundException;
+import org.example.exception.IdempotencyKeyReusedException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,11 +24,18 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -32,7 +43,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @WebMvcTest(controllers = AccountController.class,
     excludeAutoConfiguration = {SecurityAutoConfiguration.class, SecurityFilterAutoConfiguration.class},
     excludeFilters = @ComponentScan.Filter(type = FilterType.REGEX, pattern = "org\\.example\\.security\\..*"))
-@Import(GlobalExceptionHandler.class)
+@Import({GlobalExceptionHandler.class, TransactionSequencer.class})
 class AccountControllerTest {
 
     @Autowired
@@ -44,6 +55,12 @@ class AccountControllerTest {
     @MockBean
     private TransactionService transactionService;
 
+    @MockBean
+    private TransactionExportService transactionExportService;
+
+    @MockBean
+    private TransactionBatchService transactionBatchService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -383,7 +400,7 @@ class AccountControllerTest {
         String userId = "usr-1234567890";
         String accountNumber = "01234567";
         mockAuthenticatedUser(userId);
-        when(transactionService.createTransaction(eq(accountNumber), any(CreateTransactionRequest.class), eq(userId)))
+        when(transactionService.createTransaction(eq(accountNumber), any(CreateTransactionRequest.class), eq(userId), isNull()))
                 .thenReturn(transactionResponse);
 
         mockMvc.perform(post("/v1/accounts/{accountNumber}/transactions", accountNumber)
@@ -394,7 +411,7 @@ class AccountControllerTest {
                 .andExpect(jsonPath("$.amount").value(100.00))
                 .andExpect(jsonPath("$.type").value("deposit"));
 
-        verify(transactionService).createTransaction(eq(accountNumber), any(CreateTransactionRequest.class), eq(userId));
+        verify(transactionService).createTransaction(eq(accountNumber), any(CreateTransactionRequest.class), eq(userId), isNull());
     }
 
     @Test
@@ -417,7 +434,7 @@ class AccountControllerTest {
                 .reference("Test withdrawal")
                 .createdTimestamp(LocalDateTime.now());
 
-        when(transactionService.createTransaction(eq(accountNumber), any(CreateTransactionRequest.class), eq(userId)))
+        when(transactionService.createTransaction(eq(accountNumber), any(CreateTransactionRequest.class), eq(userId), isNull()))
                 .thenReturn(withdrawalResponse);
 
         mockMvc.perform(post("/v1/accounts/{accountNumber}/transactions", accountNumber)
@@ -428,7 +445,7 @@ class AccountControllerTest {
                 .andExpect(jsonPath("$.amount").value(50.00))
                 .andExpect(jsonPath("$.type").value("withdrawal"));
 
-        verify(transactionService).createTransaction(eq(accountNumber), any(CreateTransactionRequest.class), eq(userId));
+        verify(transactionService).createTransaction(eq(accountNumber), any(CreateTransactionRequest.class), eq(userId), isNull());
     }
 
     @Test
@@ -443,7 +460,7 @@ class AccountControllerTest {
                 .type(CreateTransactionRequest.TypeEnum.WITHDRAWAL)
                 .reference("Large withdrawal");
 
-        when(transactionService.createTransaction(eq(accountNumber), any(CreateTransactionRequest.class), eq(userId)))
+        when(transactionService.createTransaction(eq(accountNumber), any(CreateTransactionRequest.class), eq(userId), isNull()))
                 .thenThrow(new org.example.exception.InsufficientFundsException("Insufficient funds for withdrawal"));
 
         mockMvc.perform(post("/v1/accounts/{accountNumber}/transactions", accountNumber)
@@ -452,7 +469,7 @@ class AccountControllerTest {
                 .andExpect(status().isUnprocessableEntity())
                 .andExpect(jsonPath("$.message").value("Insufficient funds for withdrawal"));
 
-        verify(transactionService).createTransaction(eq(accountNumber), any(CreateTransactionRequest.class), eq(userId));
+        verify(transactionService).createTransaction(eq(accountNumber), any(CreateTransactionRequest.class), eq(userId), isNull());
     }
 
     @Test
@@ -461,7 +478,7 @@ class AccountControllerTest {
         String accountNumber = "01999999";
         mockAuthenticatedUser(userId);
 
-        when(transactionService.createTransaction(eq(accountNumber), any(CreateTransactionRequest.class), eq(userId)))
+        when(transactionService.createTransaction(eq(accountNumber), any(CreateTransactionRequest.class), eq(userId), isNull()))
                 .thenThrow(new AccountNotFoundException(accountNumber));
 
         mockMvc.perform(post("/v1/accounts/{accountNumber}/transactions", accountNumber)
@@ -469,7 +486,7 @@ class AccountControllerTest {
                         .content(objectMapper.writeValueAsString(createTransactionRequest)))
                 .andExpect(status().isNotFound());
 
-        verify(transactionService).createTransaction(eq(accountNumber), any(CreateTransactionRequest.class), eq(userId));
+        verify(transactionService).createTransaction(eq(accountNumber), any(CreateTransactionRequest.class), eq(userId), isNull());
     }
 
     @Test
@@ -478,7 +495,7 @@ class AccountControllerTest {
         String accountNumber = "01234567";
         mockAuthenticatedUser(userId);
 
-        when(transactionService.createTransaction(eq(accountNumber), any(CreateTransactionRequest.class), eq(userId)))
+        when(transactionService.createTransaction(eq(accountNumber), any(CreateTransactionRequest.class), eq(userId), isNull()))
                 .thenThrow(new org.springframework.security.access.AccessDeniedException("Access denied"));
 
         mockMvc.perform(post("/v1/accounts/{accountNumber}/transactions", accountNumber)
@@ -486,7 +503,113 @@ class AccountControllerTest {
                         .content(objectMapper.writeValueAsString(createTransactionRequest)))
                 .andExpect(status().isForbidden());
 
-        verify(transactionService).createTransaction(eq(accountNumber), any(CreateTransactionRequest.class), eq(userId));
+        verify(transactionService).createTransaction(eq(accountNumber), any(CreateTransactionRequest.class), eq(userId), isNull());
+    }
+
+    @Test
+    void createTransactionPassesIdempotencyKeyToService() throws Exception {
+        String userId = "usr-1234567890";
+        String accountNumber = "01234567";
+        mockAuthenticatedUser(userId);
+        when(transactionService.createTransaction(eq(accountNumber), any(CreateTransactionRequest.class), eq(userId), eq("retry-key-1")))
+                .thenReturn(transactionResponse);
+
+        mockMvc.perform(post("/v1/accounts/{accountNumber}/transactions", accountNumber)
+                        .header("Idempotency-Key", "retry-key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createTransactionRequest)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value("tan-1"));
+
+        verify(transactionService).createTransaction(eq(accountNumber), any(CreateTransactionRequest.class), eq(userId), eq("retry-key-1"));
+    }
+
+    @Test
+    void createTransactionWithReusedIdempotencyKeyReturnsUnprocessableEntity() throws Exception {
+        String userId = "usr-1234567890";
+        String accountNumber = "01234567";
+        mockAuthenticatedUser(userId);
+        when(transactionService.createTransaction(eq(accountNumber), any(CreateTransactionRequest.class), eq(userId), eq("retry-key-1")))
+                .thenThrow(new IdempotencyKeyReusedException("retry-key-1"));
+
+        mockMvc.perform(post("/v1/accounts/{accountNumber}/transactions", accountNumber)
+                        .header("Idempotency-Key", "retry-key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createTransactionRequest)))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.message").value("Idempotency key retry-key-1 was already used for a different request"));
+    }
+
+    @Test
+    void createTransactionWithOversizedIdempotencyKeyReturnsBadRequest() throws Exception {
+        mockAuthenticatedUser("usr-1234567890");
+
+        mockMvc.perform(post("/v1/accounts/{accountNumber}/transactions", "01234567")
+                        .header("Idempotency-Key", "k".repeat(256))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createTransactionRequest)))
+                .andExpect(status().isBadRequest());
+
+        verify(transactionService, never()).createTransaction(any(), any(), any(), any());
+    }
+
+    @Test
+    void createTransactionBatchReturnsResultForEveryItem() throws Exception {
+        String userId = "usr-1234567890";
+        mockAuthenticatedUser(userId);
+        CreateTransactionBatchRequest batchRequest = new CreateTransactionBatchRequest().items(List.of(
+                new TransactionBatchItem().accountNumber("01234567").transaction(createTransactionRequest),
+                new TransactionBatchItem().accountNumber("01999999").transaction(createTransactionRequest)));
+        TransactionBatchResponse batchResponse = new TransactionBatchResponse().results(List.of(
+                new TransactionBatchResult().index(0).accountNumber("01234567").status(201).transaction(transactionResponse),
+                new TransactionBatchResult().index(1).accountNumber("01999999").status(404)
+                        .message("Account not found with account number: 01999999")));
+        when(transactionBatchService.createTransactions(anyList(), eq(userId))).thenReturn(batchResponse);
+
+        mockMvc.perform(post("/v1/transactions/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batchRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results.length()").value(2))
+                .andExpect(jsonPath("$.results[0].status").value(201))
+                .andExpect(jsonPath("$.results[0].transaction.id").value("tan-1"))
+                .andExpect(jsonPath("$.results[1].status").value(404))
+                .andExpect(jsonPath("$.results[1].message").value("Account not found with account number: 01999999"));
+
+        verify(transactionBatchService).createTransactions(anyList(), eq(userId));
+    }
+
+    @Test
+    void createTransactionBatchRejectsEmptyAndOversizedBatches() throws Exception {
+        mockAuthenticatedUser("usr-1234567890");
+        TransactionBatchItem item = new TransactionBatchItem().accountNumber("01234567").transaction(createTransactionRequest);
+
+        mockMvc.perform(post("/v1/transactions/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateTransactionBatchRequest().items(List.of()))))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/v1/transactions/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new CreateTransactionBatchRequest().items(Collections.nCopies(501, item)))))
+                .andExpect(status().isBadRequest());
+
+        verify(transactionBatchService, never()).createTransactions(any(), any());
+    }
+
+    @Test
+    void createTransactionBatchValidatesEveryItem() throws Exception {
+        mockAuthenticatedUser("usr-1234567890");
+        CreateTransactionBatchRequest batchRequest = new CreateTransactionBatchRequest().items(List.of(
+                new TransactionBatchItem().accountNumber("01234567").transaction(createTransactionRequest),
+                new TransactionBatchItem().accountNumber("not-an-account").transaction(new CreateTransactionRequest())));
+
+        mockMvc.perform(post("/v1/transactions/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batchRequest)))
+                .andExpect(status().isBadRequest());
+
+        verify(transactionBatchService, never()).createTransactions(any(), any());
     }
 
     @Test
@@ -501,7 +624,7 @@ class AccountControllerTest {
                         .content(objectMapper.writeValueAsString(invalidRequest)))
                 .andExpect(status().isBadRequest());
 
-        verify(transactionService, never()).createTransaction(any(), any(), any());
+        verify(transactionService, never()).createTransaction(any(), any(), any(), any());
     }
 
     @Test
@@ -514,7 +637,7 @@ class AccountControllerTest {
                         .content(objectMapper.writeValueAsString(createTransactionRequest)))
                 .andExpect(status().isUnauthorized());
 
-        verify(transactionService, never()).createTransaction(any(), any(), any());
+        verify(transactionService, never()).createTransaction(any(), any(), any(), any());
     }
 
     @Test
@@ -522,7 +645,7 @@ class AccountControllerTest {
         String userId = "usr-1234567890";
         String accountNumber = "01234567";
         mockAuthenticatedUser(userId);
-        when(transactionService.findByAccountNumber(accountNumber, userId))
+        when(transactionService.findByAccountNumber(accountNumber, userId, 20, null))
                 .thenReturn(listTransactionsResponse);
 
         mockMvc.perform(get("/v1/accounts/{accountNumber}/transactions", accountNumber))
@@ -530,7 +653,87 @@ class AccountControllerTest {
                 .andExpect(jsonPath("$.transactions").isArray())
                 .andExpect(jsonPath("$.transactions[0].id").value("tan-1"));
 
-        verify(transactionService).findByAccountNumber(accountNumber, userId);
+        verify(transactionService).findByAccountNumber(accountNumber, userId, 20, null);
+    }
+
+    @Test
+    void listAccountTransactionPassesLimitAndCursorAndReturnsNextCursor() throws Exception {
+        String userId = "usr-1234567890";
+        String accountNumber = "01234567";
+        mockAuthenticatedUser(userId);
+        listTransactionsResponse.setNextCursor("next-page");
+        when(transactionService.findByAccountNumber(accountNumber, userId, 5, "this-page"))
+                .thenReturn(listTransactionsResponse);
+
+        mockMvc.perform(get("/v1/accounts/{accountNumber}/transactions", accountNumber)
+                        .param("limit", "5")
+                        .param("cursor", "this-page"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextCursor").value("next-page"));
+
+        verify(transactionService).findByAccountNumber(accountNumber, userId, 5, "this-page");
+    }
+
+    @Test
+    void listAccountTransactionWithInvalidCursorReturnsBadRequest() throws Exception {
+        String userId = "usr-1234567890";
+        String accountNumber = "01234567";
+        mockAuthenticatedUser(userId);
+        when(transactionService.findByAccountNumber(accountNumber, userId, 20, "garbage"))
+                .thenThrow(new IllegalArgumentException("Invalid cursor"));
+
+        mockMvc.perform(get("/v1/accounts/{accountNumber}/transactions", accountNumber)
+                        .param("cursor", "garbage"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportAccountTransactionsStreamsNdjson() throws Exception {
+        String userId = "usr-1234567890";
+        String accountNumber = "01234567";
+        mockAuthenticatedUser(userId);
+        when(transactionExportService.exportTransactions(eq(accountNumber), any(OutputStream.class)))
+                .thenAnswer(invocation -> {
+                    OutputStream outputStream = invocation.getArgument(1);
+                    outputStream.write("{\"id\":\"tan-1\"}\n".getBytes(StandardCharsets.UTF_8));
+                    return 1L;
+                });
+
+        MvcResult mvcResult = mockMvc.perform(get("/v1/accounts/{accountNumber}/transactions/export", accountNumber))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"01234567-transactions.ndjson\""))
+                .andExpect(content().string("{\"id\":\"tan-1\"}\n"));
+
+        verify(transactionExportService).validateExportAccess(accountNumber, userId);
+    }
+
+    @Test
+    void exportAccountTransactionsOnOtherUserAccountReturnsForbidden() throws Exception {
+        String userId = "usr-1234567890";
+        String accountNumber = "01234567";
+        mockAuthenticatedUser(userId);
+        doThrow(new org.springframework.security.access.AccessDeniedException("Access denied"))
+                .when(transactionExportService).validateExportAccess(accountNumber, userId);
+
+        mockMvc.perform(get("/v1/accounts/{accountNumber}/transactions/export", accountNumber))
+                .andExpect(status().isForbidden());
+
+        verify(transactionExportService, never()).exportTransactions(any(), any());
+    }
+
+    @Test
+    void exportAccountTransactionsWhenNotAuthenticatedReturnsUnauthorized() throws Exception {
+        mockUnauthenticatedUser();
+
+        mockMvc.perform(get("/v1/accounts/{accountNumber}/transactions/export", "01234567"))
+                .andExpect(status().isUnauthorized());
+
+        verify(transactionExportService, never()).validateExportAccess(any(), any());
     }
 
     @Test
@@ -539,13 +742,13 @@ class AccountControllerTest {
         String accountNumber = "01999999";
         mockAuthenticatedUser(userId);
 
-        when(transactionService.findByAccountNumber(accountNumber, userId))
+        when(transactionService.findByAccountNumber(accountNumber, userId, 20, null))
                 .thenThrow(new AccountNotFoundException(accountNumber));
 
         mockMvc.perform(get("/v1/accounts/{accountNumber}/transactions", accountNumber))
                 .andExpect(status().isNotFound());
 
-        verify(transactionService).findByAccountNumber(accountNumber, userId);
+        verify(transactionService).findByAccountNumber(accountNumber, userId, 20, null);
     }
 
     @Test
@@ -554,13 +757,13 @@ class AccountControllerTest {
         String accountNumber = "01234567";
         mockAuthenticatedUser(userId);
 
-        when(transactionService.findByAccountNumber(accountNumber, userId))
+        when(transactionService.findByAccountNumber(accountNumber, userId, 20, null))
                 .thenThrow(new org.springframework.security.access.AccessDeniedException("Access denied"));
 
         mockMvc.perform(get("/v1/accounts/{accountNumber}/transactions", accountNumber))
                 .andExpect(status().isForbidden());
 
-        verify(transactionService).findByAccountNumber(accountNumber, userId);
+        verify(transactionService).findByAccountNumber(accountNumber, userId, 20, null);
     }
 
     @Test
@@ -571,7 +774,7 @@ class AccountControllerTest {
         mockMvc.perform(get("/v1/accounts/{accountNumber}/transactions", accountNumber))
                 .andExpect(status().isUnauthorized());
 
-        verify(transactionService, never()).findByAccountNumber(any(), any());
+        verify(transactionService, never()).findByAccountNumber(any(), any(), any(), any());
     }
 
     @Test
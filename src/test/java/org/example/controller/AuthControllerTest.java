@@ -2,9 +2,11 @@ package org.example.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.example.entity.User;
+import org.example.exception.PasswordHashingUnavailableException;
 import org.example.model.LoginResponse;
 import org.example.model.LoginUserRequest;
 import org.example.security.JwtService;
+import org.example.security.PasswordHasher;
 import org.example.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,10 +20,10 @@ import org.springframework.context.annotation.FilterType;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -42,7 +44,7 @@ class AuthControllerTest {
     private JwtService jwtService;
 
     @MockBean
-    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
 
     @MockBean
     private UserService userService;
@@ -69,7 +71,7 @@ class AuthControllerTest {
     void loginUserSuccessfullyReturnsTokenAndUserId() throws Exception {
         String expectedToken = "eyJhbGciOiJIUzI1NiIsInR5cCI6IkpXVCJ9.test.token";
         when(userService.findByEmail("test@example.com")).thenReturn(Optional.of(validUser));
-        when(passwordEncoder.matches("validPassword123", validUser.getPasswordHash())).thenReturn(true);
+        when(passwordHasher.matches("validPassword123", validUser.getPasswordHash())).thenReturn(true);
         when(jwtService.generateToken(validUser.getId())).thenReturn(expectedToken);
 
         mockMvc.perform(post("/v1/auth/login")
@@ -80,7 +82,7 @@ class AuthControllerTest {
                 .andExpect(jsonPath("$.userId").value("usr-1234567890"));
 
         verify(userService).findByEmail("test@example.com");
-        verify(passwordEncoder).matches("validPassword123", validUser.getPasswordHash());
+        verify(passwordHasher).matches("validPassword123", validUser.getPasswordHash());
         verify(jwtService).generateToken(validUser.getId());
     }
 
@@ -99,14 +101,14 @@ class AuthControllerTest {
                 .andExpect(jsonPath("$.message").value("Invalid email or password"));
 
         verify(userService).findByEmail("nonexistent@example.com");
-        verify(passwordEncoder, never()).matches(any(), any());
+        verify(passwordHasher, never()).matches(any(), any());
         verify(jwtService, never()).generateToken(any());
     }
 
     @Test
     void loginUserWithInvalidPasswordReturnsUnauthorized() throws Exception {
         when(userService.findByEmail("test@example.com")).thenReturn(Optional.of(validUser));
-        when(passwordEncoder.matches("wrongPassword", validUser.getPasswordHash())).thenReturn(false);
+        when(passwordHasher.matches("wrongPassword", validUser.getPasswordHash())).thenReturn(false);
 
         LoginUserRequest invalidPasswordRequest = new LoginUserRequest()
                 .email("test@example.com")
@@ -119,7 +121,7 @@ class AuthControllerTest {
                 .andExpect(jsonPath("$.message").value("Invalid email or password"));
 
         verify(userService).findByEmail("test@example.com");
-        verify(passwordEncoder).matches("wrongPassword", validUser.getPasswordHash());
+        verify(passwordHasher).matches("wrongPassword", validUser.getPasswordHash());
         verify(jwtService, never()).generateToken(any());
     }
 
@@ -134,7 +136,7 @@ class AuthControllerTest {
                 .andExpect(status().isBadRequest());
 
         verify(userService, never()).findByEmail(any());
-        verify(passwordEncoder, never()).matches(any(), any());
+        verify(passwordHasher, never()).matches(any(), any());
         verify(jwtService, never()).generateToken(any());
     }
 
@@ -149,7 +151,7 @@ class AuthControllerTest {
                 .andExpect(status().isBadRequest());
 
         verify(userService, never()).findByEmail(any());
-        verify(passwordEncoder, never()).matches(any(), any());
+        verify(passwordHasher, never()).matches(any(), any());
         verify(jwtService, never()).generateToken(any());
     }
 
@@ -165,7 +167,7 @@ class AuthControllerTest {
                 .andExpect(status().isBadRequest());
 
         verify(userService, never()).findByEmail(any());
-        verify(passwordEncoder, never()).matches(any(), any());
+        verify(passwordHasher, never()).matches(any(), any());
         verify(jwtService, never()).generateToken(any());
     }
 
@@ -184,14 +186,14 @@ class AuthControllerTest {
                 .andExpect(jsonPath("$.message").value("Invalid email or password"));
 
         verify(userService).findByEmail("");
-        verify(passwordEncoder, never()).matches(any(), any());
+        verify(passwordHasher, never()).matches(any(), any());
         verify(jwtService, never()).generateToken(any());
     }
 
     @Test
     void loginUserWithEmptyPasswordReturnsUnauthorized() throws Exception {
         when(userService.findByEmail("test@example.com")).thenReturn(Optional.of(validUser));
-        when(passwordEncoder.matches("", validUser.getPasswordHash())).thenReturn(false);
+        when(passwordHasher.matches("", validUser.getPasswordHash())).thenReturn(false);
 
         LoginUserRequest emptyPasswordRequest = new LoginUserRequest()
                 .email("test@example.com")
@@ -204,7 +206,7 @@ class AuthControllerTest {
                 .andExpect(jsonPath("$.message").value("Invalid email or password"));
 
         verify(userService).findByEmail("test@example.com");
-        verify(passwordEncoder).matches("", validUser.getPasswordHash());
+        verify(passwordHasher).matches("", validUser.getPasswordHash());
         verify(jwtService, never()).generateToken(any());
     }
 
@@ -218,7 +220,7 @@ class AuthControllerTest {
                 .andExpect(status().isBadRequest());
 
         verify(userService, never()).findByEmail(any());
-        verify(passwordEncoder, never()).matches(any(), any());
+        verify(passwordHasher, never()).matches(any(), any());
         verify(jwtService, never()).generateToken(any());
     }
 
@@ -233,14 +235,14 @@ class AuthControllerTest {
                 .andExpect(jsonPath("$.message").value("An unexpected error occurred"));
 
         verify(userService).findByEmail("test@example.com");
-        verify(passwordEncoder, never()).matches(any(), any());
+        verify(passwordHasher, never()).matches(any(), any());
         verify(jwtService, never()).generateToken(any());
     }
 
     @Test
     void loginUserWhenJwtServiceThrowsExceptionReturnsInternalServerError() throws Exception {
         when(userService.findByEmail("test@example.com")).thenReturn(Optional.of(validUser));
-        when(passwordEncoder.matches("validPassword123", validUser.getPasswordHash())).thenReturn(true);
+        when(passwordHasher.matches("validPassword123", validUser.getPasswordHash())).thenReturn(true);
         when(jwtService.generateToken(validUser.getId())).thenThrow(new RuntimeException("JWT generation failed"));
 
         mockMvc.perform(post("/v1/auth/login")
@@ -250,7 +252,7 @@ class AuthControllerTest {
                 .andExpect(jsonPath("$.message").value("An unexpected error occurred"));
 
         verify(userService).findByEmail("test@example.com");
-        verify(passwordEncoder).matches("validPassword123", validUser.getPasswordHash());
+        verify(passwordHasher).matches("validPassword123", validUser.getPasswordHash());
         verify(jwtService).generateToken(validUser.getId());
     }
 
@@ -265,7 +267,7 @@ class AuthControllerTest {
                 .andExpect(jsonPath("$.message").value("Invalid email or password"));
 
         verify(userService).findByEmail("test@example.com");
-        verify(passwordEncoder, never()).matches(any(), any());
+        verify(passwordHasher, never()).matches(any(), any());
         verify(jwtService, never()).generateToken(any());
     }
 
@@ -279,7 +281,7 @@ class AuthControllerTest {
                 .password(complexPassword);
 
         when(userService.findByEmail("test@example.com")).thenReturn(Optional.of(validUser));
-        when(passwordEncoder.matches(complexPassword, validUser.getPasswordHash())).thenReturn(true);
+        when(passwordHasher.matches(complexPassword, validUser.getPasswordHash())).thenReturn(true);
         when(jwtService.generateToken(validUser.getId())).thenReturn(expectedToken);
 
         mockMvc.perform(post("/v1/auth/login")
@@ -290,7 +292,73 @@ class AuthControllerTest {
                 .andExpect(jsonPath("$.userId").value("usr-1234567890"));
 
         verify(userService).findByEmail("test@example.com");
-        verify(passwordEncoder).matches(complexPassword, validUser.getPasswordHash());
+        verify(passwordHasher).matches(complexPassword, validUser.getPasswordHash());
         verify(jwtService).generateToken(validUser.getId());
     }
+
+    @Test
+    void loginUserWithOutdatedHashUpgradesPasswordHash() throws Exception {
+        when(userService.findByEmail("test@example.com")).thenReturn(Optional.of(validUser));
+        when(passwordHasher.matches("validPassword123", validUser.getPasswordHash())).thenReturn(true);
+        when(passwordHasher.needsRehash(validUser.getPasswordHash())).thenReturn(true);
+        when(passwordHasher.encodeAsync("validPassword123"))
+                .thenReturn(CompletableFuture.completedFuture("{bcrypt}$2a$12$upgradedHash"));
+        when(jwtService.generateToken(validUser.getId())).thenReturn("token");
+
+        mockMvc.perform(post("/v1/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validLoginRequest)))
+                .andExpect(status().isOk());
+
+        verify(userService).updatePasswordHash("usr-1234567890", "{bcrypt}$2a$12$upgradedHash");
+    }
+
+    @Test
+    void loginUserWithCurrentHashDoesNotUpgradePasswordHash() throws Exception {
+        when(userService.findByEmail("test@example.com")).thenReturn(Optional.of(validUser));
+        when(passwordHasher.matches("validPassword123", validUser.getPasswordHash())).thenReturn(true);
+        when(passwordHasher.needsRehash(validUser.getPasswordHash())).thenReturn(false);
+        when(jwtService.generateToken(validUser.getId())).thenReturn("token");
+
+        mockMvc.perform(post("/v1/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validLoginRequest)))
+                .andExpect(status().isOk());
+
+        verify(passwordHasher, never()).encodeAsync(any());
+        verify(userService, never()).updatePasswordHash(any(), any());
+    }
+
+    @Test
+    void loginUserStillSucceedsWhenHashUpgradeCannotBeScheduled() throws Exception {
+        when(userService.findByEmail("test@example.com")).thenReturn(Optional.of(validUser));
+        when(passwordHasher.matches("validPassword123", validUser.getPasswordHash())).thenReturn(true);
+        when(passwordHasher.needsRehash(validUser.getPasswordHash())).thenReturn(true);
+        when(passwordHasher.encodeAsync("validPassword123"))
+                .thenThrow(new PasswordHashingUnavailableException("Password hashing queue is full", null));
+        when(jwtService.generateToken(validUser.getId())).thenReturn("token");
+
+        mockMvc.perform(post("/v1/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validLoginRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").value("token"));
+
+        verify(userService, never()).updatePasswordHash(any(), any());
+    }
+
+    @Test
+    void loginUserWhenHashingPoolIsSaturatedReturnsServiceUnavailable() throws Exception {
+        when(userService.findByEmail("test@example.com")).thenReturn(Optional.of(validUser));
+        when(passwordHasher.matches("validPassword123", validUser.getPasswordHash()))
+                .thenThrow(new PasswordHashingUnavailableException("Password hashing queue is full", null));
+
+        mockMvc.perform(post("/v1/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validLoginRequest)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.message").value("Too many concurrent sign-in requests, please retry shortly"));
+
+        verify(jwtService, never()).generateToken(any());
+    }
 }
@@ -1,10 +1,14 @@
 package org.example.controller;
 
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Path;
 import org.example.exception.*;
 import org.example.model.ErrorResponse;
 import org.example.model.BadRequestErrorResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -16,6 +20,7 @@ import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -79,6 +84,45 @@ class GlobalExceptionHandlerTest {
         assertEquals("Insufficient funds for withdrawal", response.getBody().getMessage());
     }
 
+    @Test
+    void handleConcurrencyFailureExceptionReturnsConflictWithRetryMessage() {
+        ConcurrencyFailureException exception = new ConcurrencyFailureException("Row was updated by another transaction");
+
+        ResponseEntity<ErrorResponse> response = globalExceptionHandler.handleConcurrencyFailureException(exception);
+
+        assertEquals(409, response.getStatusCode().value());
+        assertEquals("The account is being updated by another request, please retry", response.getBody().getMessage());
+    }
+
+    @Test
+    void handlePasswordHashingUnavailableExceptionReturnsServiceUnavailable() {
+        PasswordHashingUnavailableException exception =
+                new PasswordHashingUnavailableException("Password hashing queue is full", null);
+
+        ResponseEntity<ErrorResponse> response = globalExceptionHandler.handlePasswordHashingUnavailableException(exception);
+
+        assertEquals(503, response.getStatusCode().value());
+        assertEquals("Too many concurrent sign-in requests, please retry shortly", response.getBody().getMessage());
+    }
+
+    @Test
+    void handleConstraintViolationExceptionReturnsBadRequestWithParameterDetails() {
+        ConstraintViolation<?> violation = mock(ConstraintViolation.class);
+        Path path = mock(Path.class);
+        when(path.toString()).thenReturn("listAccountTransaction.limit");
+        when(violation.getPropertyPath()).thenReturn(path);
+        when(violation.getMessage()).thenReturn("must be less than or equal to 100");
+        ConstraintViolationException exception = new ConstraintViolationException(Set.of(violation));
+
+        ResponseEntity<BadRequestErrorResponse> response = globalExceptionHandler.handleConstraintViolationException(exception);
+
+        assertEquals(400, response.getStatusCode().value());
+        assertEquals("Invalid details supplied", response.getBody().getMessage());
+        assertEquals("limit", response.getBody().getDetails().get(0).getField());
+        assertEquals("must be less than or equal to 100", response.getBody().getDetails().get(0).getMessage());
+        assertEquals("VALIDATION_ERROR", response.getBody().getDetails().get(0).getType());
+    }
+
     @Test
     void handleAuthenticationExceptionReturnsUnauthorizedWithGenericMessage() {
         AuthenticationException exception = new AuthenticationException("Authentication failed") {};
@@ -0,0 +1,82 @@
+package org.example.entity;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    @Test
+    void fromDecimalConvertsTwoDecimalPlacesExactly() {
+        assertThat(Money.fromDecimal(10.99).minorUnits()).isEqualTo(1099);
+        assertThat(Money.fromDecimal(0.01).minorUnits()).isEqualTo(1);
+        assertThat(Money.fromDecimal(10000.00).minorUnits()).isEqualTo(1_000_000);
+        assertThat(Money.fromDecimal(-50.00).minorUnits()).isEqualTo(-5000);
+    }
+
+    @Test
+    void fromDecimalRejectsMoreThanTwoDecimalPlacesAndNonFiniteValues() {
+        assertThatThrownBy(() -> Money.fromDecimal(10.999))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("two decimal places");
+        assertThatThrownBy(() -> Money.fromDecimal(Double.NaN))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Money.fromDecimal(Double.POSITIVE_INFINITY))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void toDecimalRoundTripsToTheSameDouble() {
+        assertThat(Money.fromDecimal(2500.50).toDecimal()).isEqualTo(2500.50);
+        assertThat(Money.fromDecimal(333.33).toDecimal()).isEqualTo(333.33);
+        assertThat(Money.ZERO.toDecimal()).isEqualTo(0.00);
+    }
+
+    @Test
+    void repeatedPostingsDoNotDrift() {
+        Money balance = Money.ZERO;
+        double doubleBalance = 0.0;
+        for (int i = 0; i < 1000; i++) {
+            balance = balance.plus(Money.fromDecimal(0.10));
+            doubleBalance += 0.10;
+        }
+
+        assertThat(balance).isEqualTo(Money.fromDecimal(100.00));
+        assertThat(doubleBalance).isNotEqualTo(100.00);
+    }
+
+    @Test
+    void arithmeticAndComparisonsWorkOnMinorUnits() {
+        Money balance = Money.fromDecimal(100.00);
+        Money amount = Money.fromDecimal(100.01);
+
+        assertThat(balance.isLessThan(amount)).isTrue();
+        assertThat(amount.minus(balance)).isEqualTo(Money.ofMinor(1));
+        assertThat(balance.minus(balance).isZero()).isTrue();
+        assertThat(balance.compareTo(amount)).isNegative();
+        assertThat(Money.ofMinor(0)).isSameAs(Money.ZERO);
+    }
+
+    @Test
+    void arithmeticFailsOnOverflowInsteadOfWrapping() {
+        assertThatThrownBy(() -> Money.ofMinor(Long.MAX_VALUE).plus(Money.ofMinor(1)))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void toStringShowsTwoDecimalPlaces() {
+        assertThat(Money.fromDecimal(1100.00)).hasToString("1100.00");
+        assertThat(Money.ofMinor(5)).hasToString("0.05");
+    }
+
+    @Test
+    void converterStoresMinorUnitsAndHandlesNull() {
+        MoneyConverter converter = new MoneyConverter();
+
+        assertThat(converter.convertToDatabaseColumn(Money.fromDecimal(12.34))).isEqualTo(1234L);
+        assertThat(converter.convertToEntityAttribute(1234L)).isEqualTo(Money.fromDecimal(12.34));
+        assertThat(converter.convertToDatabaseColumn(null)).isNull();
+        assertThat(converter.convertToEntityAttribute(null)).isNull();
+    }
+}
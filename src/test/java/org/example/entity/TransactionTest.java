@@ -0,0 +1,32 @@
+package org.example.entity;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransactionTest {
+
+    @Test
+    void transactionWithAssignedIdIsNewUntilPersisted() {
+        Transaction transaction = new Transaction();
+        transaction.setId("tan-1a2b3c");
+
+        assertThat(transaction.isNew()).isTrue();
+
+        transaction.markPersisted();
+
+        assertThat(transaction.isNew()).isFalse();
+    }
+
+    @Test
+    void persistedFlagIsNotPartOfEquality() {
+        Transaction persisted = new Transaction();
+        persisted.setId("tan-1a2b3c");
+        persisted.markPersisted();
+
+        Transaction fresh = new Transaction();
+        fresh.setId("tan-1a2b3c");
+
+        assertThat(persisted).isEqualTo(fresh);
+    }
+}
@@ -2,9 +2,11 @@ package org.example.mapper;
 
 import org.example.entity.Account;
 import org.example.entity.User;
+import org.example.entity.Money;
 import org.example.model.BankAccountResponse;
 import org.example.model.CreateBankAccountRequest;
 import org.example.model.UpdateBankAccountRequest;
+import org.example.repository.AccountView;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mapstruct.factory.Mappers;
@@ -75,7 +77,7 @@ class AccountMapperTest {
         account.setAccountNumber("01234567");
         account.setName("Personal Current Account");
         account.setAccountType(Account.AccountType.PERSONAL);
-        account.setBalance(1500.75);
+        account.setBalance(Money.fromDecimal(1500.75));
         account.setCurrency(Account.Currency.GBP);
         account.setSortCode(Account.SortCode._10_10_10);
         account.setCreatedTimestamp(LocalDateTime.of(2025, 8, 29, 10, 30));
@@ -101,7 +103,7 @@ class AccountMapperTest {
         account.setAccountNumber("01000000");
         account.setName("Zero Balance Account");
         account.setAccountType(Account.AccountType.PERSONAL);
-        account.setBalance(0.00);
+        account.setBalance(Money.fromDecimal(0.00));
         account.setCurrency(Account.Currency.GBP);
         account.setSortCode(Account.SortCode._10_10_10);
         account.setCreatedTimestamp(LocalDateTime.now());
@@ -119,7 +121,7 @@ class AccountMapperTest {
         account.setAccountNumber("01999999");
         account.setName("Maximum Balance Account");
         account.setAccountType(Account.AccountType.PERSONAL);
-        account.setBalance(10000.00);
+        account.setBalance(Money.fromDecimal(10000.00));
         account.setCurrency(Account.Currency.GBP);
         account.setSortCode(Account.SortCode._10_10_10);
         account.setCreatedTimestamp(LocalDateTime.now());
@@ -137,7 +139,7 @@ class AccountMapperTest {
         account1.setAccountNumber("01111111");
         account1.setName("First Account");
         account1.setAccountType(Account.AccountType.PERSONAL);
-        account1.setBalance(1000.00);
+        account1.setBalance(Money.fromDecimal(1000.00));
         account1.setCurrency(Account.Currency.GBP);
         account1.setSortCode(Account.SortCode._10_10_10);
         account1.setCreatedTimestamp(LocalDateTime.of(2025, 8, 29, 9, 0));
@@ -147,7 +149,7 @@ class AccountMapperTest {
         account2.setAccountNumber("01222222");
         account2.setName("Second Account");
         account2.setAccountType(Account.AccountType.PERSONAL);
-        account2.setBalance(2500.50);
+        account2.setBalance(Money.fromDecimal(2500.50));
         account2.setCurrency(Account.Currency.GBP);
         account2.setSortCode(Account.SortCode._10_10_10);
         account2.setCreatedTimestamp(LocalDateTime.of(2025, 8, 29, 10, 0));
@@ -173,13 +175,46 @@ class AccountMapperTest {
         assertThat(responses).isEmpty();
     }
 
+    @Test
+    void fromViewMapsAccountProjectionCorrectly() {
+        AccountView view = new AccountView("01234567", Account.SortCode._10_10_10, "Personal Current Account",
+                Account.AccountType.PERSONAL, Money.fromDecimal(1500.75), Account.Currency.GBP,
+                LocalDateTime.of(2025, 8, 29, 10, 30), LocalDateTime.of(2025, 8, 29, 15, 45));
+
+        BankAccountResponse response = accountMapper.fromView(view);
+
+        assertThat(response.getAccountNumber()).isEqualTo("01234567");
+        assertThat(response.getName()).isEqualTo("Personal Current Account");
+        assertThat(response.getAccountType()).isEqualTo(BankAccountResponse.AccountTypeEnum.PERSONAL);
+        assertThat(response.getBalance()).isEqualTo(1500.75);
+        assertThat(response.getCurrency()).isEqualTo(BankAccountResponse.CurrencyEnum.GBP);
+        assertThat(response.getSortCode()).isEqualTo(BankAccountResponse.SortCodeEnum._10_10_10);
+        assertThat(response.getCreatedTimestamp()).isEqualTo(LocalDateTime.of(2025, 8, 29, 10, 30));
+        assertThat(response.getUpdatedTimestamp()).isEqualTo(LocalDateTime.of(2025, 8, 29, 15, 45));
+    }
+
+    @Test
+    void fromViewsMapsEveryProjectionInOrder() {
+        LocalDateTime now = LocalDateTime.now();
+        List<AccountView> views = List.of(
+                new AccountView("01234567", Account.SortCode._10_10_10, "First", Account.AccountType.PERSONAL,
+                        Money.ZERO, Account.Currency.GBP, now, now),
+                new AccountView("01765432", Account.SortCode._10_10_10, "Second", Account.AccountType.PERSONAL,
+                        Money.fromDecimal(10.00), Account.Currency.GBP, now, now));
+
+        List<BankAccountResponse> responses = accountMapper.fromViews(views);
+
+        assertThat(responses).extracting(BankAccountResponse::getAccountNumber).containsExactly("01234567", "01765432");
+        assertThat(responses).extracting(BankAccountResponse::getBalance).containsExactly(0.0, 10.00);
+    }
+
     @Test
     void updateEntityFromRequestUpdatesOnlyProvidedFields() {
         Account existingAccount = new Account();
         existingAccount.setAccountNumber("01333333");
         existingAccount.setName("Original Name");
         existingAccount.setAccountType(Account.AccountType.PERSONAL);
-        existingAccount.setBalance(5000.00);
+        existingAccount.setBalance(Money.fromDecimal(5000.00));
         existingAccount.setCurrency(Account.Currency.GBP);
         existingAccount.setSortCode(Account.SortCode._10_10_10);
         existingAccount.setCreatedTimestamp(LocalDateTime.of(2025, 8, 1, 12, 0));
@@ -192,7 +227,7 @@ class AccountMapperTest {
 
         assertThat(existingAccount.getName()).isEqualTo("Updated Account Name");
         assertThat(existingAccount.getAccountNumber()).isEqualTo("01333333");
-        assertThat(existingAccount.getBalance()).isEqualTo(5000.00);
+        assertThat(existingAccount.getBalance()).isEqualTo(Money.fromDecimal(5000.00));
         assertThat(existingAccount.getCurrency()).isEqualTo(Account.Currency.GBP);
         assertThat(existingAccount.getSortCode()).isEqualTo(Account.SortCode._10_10_10);
         assertThat(existingAccount.getCreatedTimestamp()).isEqualTo(LocalDateTime.of(2025, 8, 1, 12, 0));
@@ -205,7 +240,7 @@ class AccountMapperTest {
         existingAccount.setAccountNumber("01444444");
         existingAccount.setName("Type Update Test");
         existingAccount.setAccountType(Account.AccountType.PERSONAL);
-        existingAccount.setBalance(1000.00);
+        existingAccount.setBalance(Money.fromDecimal(1000.00));
 
         UpdateBankAccountRequest updateRequest = new UpdateBankAccountRequest()
                 .accountType(UpdateBankAccountRequest.AccountTypeEnum.PERSONAL);
@@ -215,7 +250,7 @@ class AccountMapperTest {
         assertThat(existingAccount.getAccountType()).isEqualTo(Account.AccountType.PERSONAL);
         assertThat(existingAccount.getName()).isEqualTo("Type Update Test");
         assertThat(existingAccount.getAccountNumber()).isEqualTo("01444444");
-        assertThat(existingAccount.getBalance()).isEqualTo(1000.00);
+        assertThat(existingAccount.getBalance()).isEqualTo(Money.fromDecimal(1000.00));
     }
 
     @Test
@@ -224,7 +259,7 @@ class AccountMapperTest {
         existingAccount.setAccountNumber("01555555");
         existingAccount.setName("System Fields Test");
         existingAccount.setAccountType(Account.AccountType.PERSONAL);
-        existingAccount.setBalance(3000.00);
+        existingAccount.setBalance(Money.fromDecimal(3000.00));
         existingAccount.setCurrency(Account.Currency.GBP);
         existingAccount.setSortCode(Account.SortCode._10_10_10);
         existingAccount.setCreatedTimestamp(LocalDateTime.of(2025, 7, 1, 10, 0));
@@ -237,7 +272,7 @@ class AccountMapperTest {
         accountMapper.updateEntityFromRequest(updateRequest, existingAccount);
 
         assertThat(existingAccount.getAccountNumber()).isEqualTo("01555555");
-        assertThat(existingAccount.getBalance()).isEqualTo(3000.00);
+        assertThat(existingAccount.getBalance()).isEqualTo(Money.fromDecimal(3000.00));
         assertThat(existingAccount.getCurrency()).isEqualTo(Account.Currency.GBP);
         assertThat(existingAccount.getSortCode()).isEqualTo(Account.SortCode._10_10_10);
         assertThat(existingAccount.getCreatedTimestamp()).isEqualTo(LocalDateTime.of(2025, 7, 1, 10, 0));
@@ -251,7 +286,7 @@ class AccountMapperTest {
         existingAccount.setAccountNumber("01666666");
         existingAccount.setName("Null Values Test");
         existingAccount.setAccountType(Account.AccountType.PERSONAL);
-        existingAccount.setBalance(2000.00);
+        existingAccount.setBalance(Money.fromDecimal(2000.00));
 
         UpdateBankAccountRequest updateRequest = new UpdateBankAccountRequest()
                 .name("Updated Name Only");
@@ -261,7 +296,7 @@ class AccountMapperTest {
         assertThat(existingAccount.getName()).isEqualTo("Updated Name Only");
         assertThat(existingAccount.getAccountType()).isEqualTo(Account.AccountType.PERSONAL);
         assertThat(existingAccount.getAccountNumber()).isEqualTo("01666666");
-        assertThat(existingAccount.getBalance()).isEqualTo(2000.00);
+        assertThat(existingAccount.getBalance()).isEqualTo(Money.fromDecimal(2000.00));
     }
 
     @Test
@@ -312,7 +347,7 @@ class AccountMapperTest {
         account.setAccountNumber("01123456");
         account.setName("Pattern Compliance Test");
         account.setAccountType(Account.AccountType.PERSONAL);
-        account.setBalance(500.00);
+        account.setBalance(Money.fromDecimal(500.00));
         account.setCurrency(Account.Currency.GBP);
         account.setSortCode(Account.SortCode._10_10_10);
         account.setCreatedTimestamp(LocalDateTime.now());
@@ -331,7 +366,7 @@ class AccountMapperTest {
         account.setAccountNumber("01000001");
         account.setName("Minimum Balance Test");
         account.setAccountType(Account.AccountType.PERSONAL);
-        account.setBalance(0.01);
+        account.setBalance(Money.fromDecimal(0.01));
         account.setCurrency(Account.Currency.GBP);
         account.setSortCode(Account.SortCode._10_10_10);
         account.setCreatedTimestamp(LocalDateTime.now());
@@ -3,8 +3,10 @@ package org.example.mapper;
 import org.example.entity.Account;
 import org.example.entity.Transaction;
 import org.example.entity.User;
+import org.example.entity.Money;
 import org.example.model.CreateTransactionRequest;
 import org.example.model.TransactionResponse;
+import org.example.repository.TransactionView;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mapstruct.factory.Mappers;
@@ -33,7 +35,7 @@ class TransactionMapperTest {
 
         Transaction transaction = transactionMapper.toEntity(request);
 
-        assertThat(transaction.getAmount()).isEqualTo(150.75);
+        assertThat(transaction.getAmount()).isEqualTo(Money.fromDecimal(150.75));
         assertThat(transaction.getCurrency()).isEqualTo(Transaction.Currency.GBP);
         assertThat(transaction.getType()).isEqualTo(Transaction.TransactionType.DEPOSIT);
         assertThat(transaction.getReference()).isEqualTo("Test deposit transaction");
@@ -63,7 +65,7 @@ class TransactionMapperTest {
 
         Transaction transaction = transactionMapper.toEntity(request);
 
-        assertThat(transaction.getAmount()).isEqualTo(99.99);
+        assertThat(transaction.getAmount()).isEqualTo(Money.fromDecimal(99.99));
         assertThat(transaction.getCurrency()).isEqualTo(Transaction.Currency.GBP);
         assertThat(transaction.getType()).isEqualTo(Transaction.TransactionType.DEPOSIT);
         assertThat(transaction.getReference()).isNull();
@@ -80,7 +82,7 @@ class TransactionMapperTest {
         Transaction transaction = transactionMapper.toEntity(request);
 
         assertThat(transaction.getType()).isEqualTo(Transaction.TransactionType.WITHDRAWAL);
-        assertThat(transaction.getAmount()).isEqualTo(500.00);
+        assertThat(transaction.getAmount()).isEqualTo(Money.fromDecimal(500.00));
         assertThat(transaction.getCurrency()).isEqualTo(Transaction.Currency.GBP);
     }
 
@@ -95,7 +97,7 @@ class TransactionMapperTest {
 
         Transaction transaction = new Transaction();
         transaction.setId("tan-987def654");
-        transaction.setAmount(250.50);
+        transaction.setAmount(Money.fromDecimal(250.50));
         transaction.setCurrency(Transaction.Currency.GBP);
         transaction.setType(Transaction.TransactionType.DEPOSIT);
         transaction.setReference("Response mapping test");
@@ -124,7 +126,7 @@ class TransactionMapperTest {
 
         Transaction transaction = new Transaction();
         transaction.setId("tan-321fed987");
-        transaction.setAmount(75.25);
+        transaction.setAmount(Money.fromDecimal(75.25));
         transaction.setCurrency(Transaction.Currency.GBP);
         transaction.setType(Transaction.TransactionType.WITHDRAWAL);
         transaction.setReference("ATM withdrawal");
@@ -149,7 +151,7 @@ class TransactionMapperTest {
 
         Transaction transaction = new Transaction();
         transaction.setId("tan-nullref456");
-        transaction.setAmount(100.00);
+        transaction.setAmount(Money.fromDecimal(100.00));
         transaction.setCurrency(Transaction.Currency.GBP);
         transaction.setType(Transaction.TransactionType.DEPOSIT);
         transaction.setReference(null);
@@ -174,7 +176,7 @@ class TransactionMapperTest {
 
         Transaction transaction1 = new Transaction();
         transaction1.setId("tan-first123");
-        transaction1.setAmount(100.00);
+        transaction1.setAmount(Money.fromDecimal(100.00));
         transaction1.setCurrency(Transaction.Currency.GBP);
         transaction1.setType(Transaction.TransactionType.DEPOSIT);
         transaction1.setReference("First transaction");
@@ -183,7 +185,7 @@ class TransactionMapperTest {
 
         Transaction transaction2 = new Transaction();
         transaction2.setId("tan-second456");
-        transaction2.setAmount(50.00);
+        transaction2.setAmount(Money.fromDecimal(50.00));
         transaction2.setCurrency(Transaction.Currency.GBP);
         transaction2.setType(Transaction.TransactionType.WITHDRAWAL);
         transaction2.setReference("Second transaction");
@@ -289,7 +291,7 @@ class TransactionMapperTest {
 
         Transaction transaction = new Transaction();
         transaction.setId("tan-AbC123dEf456GhI789");
-        transaction.setAmount(1000.00);
+        transaction.setAmount(Money.fromDecimal(1000.00));
         transaction.setCurrency(Transaction.Currency.GBP);
         transaction.setType(Transaction.TransactionType.DEPOSIT);
         transaction.setReference("Pattern compliance test");
@@ -313,7 +315,7 @@ class TransactionMapperTest {
 
         Transaction transaction = transactionMapper.toEntity(request);
 
-        assertThat(transaction.getAmount()).isEqualTo(0.01);
+        assertThat(transaction.getAmount()).isEqualTo(Money.fromDecimal(0.01));
         assertThat(transaction.getCurrency()).isEqualTo(Transaction.Currency.GBP);
     }
 
@@ -327,7 +329,7 @@ class TransactionMapperTest {
 
         Transaction transaction = transactionMapper.toEntity(request);
 
-        assertThat(transaction.getAmount()).isEqualTo(10000.00);
+        assertThat(transaction.getAmount()).isEqualTo(Money.fromDecimal(10000.00));
         assertThat(transaction.getType()).isEqualTo(Transaction.TransactionType.WITHDRAWAL);
     }
 
@@ -342,7 +344,7 @@ class TransactionMapperTest {
 
         Transaction transaction = new Transaction();
         transaction.setId("tan-relationship789");
-        transaction.setAmount(333.33);
+        transaction.setAmount(Money.fromDecimal(333.33));
         transaction.setCurrency(Transaction.Currency.GBP);
         transaction.setType(Transaction.TransactionType.DEPOSIT);
         transaction.setCreatedTimestamp(LocalDateTime.now());
@@ -352,4 +354,61 @@ class TransactionMapperTest {
 
         assertThat(response.getUserId()).isEqualTo("usr-relationship456");
     }
+
+    @Test
+    void toResponseWithUserIdUsesSuppliedOwnerInsteadOfAccount() {
+        Account reference = new Account(); // stands in for an uninitialized reference: no user loaded
+        reference.setAccountNumber("01999999");
+
+        Transaction transaction = new Transaction();
+        transaction.setId("tan-withdrawal789");
+        transaction.setAmount(Money.fromDecimal(12.34));
+        transaction.setCurrency(Transaction.Currency.GBP);
+        transaction.setType(Transaction.TransactionType.WITHDRAWAL);
+        transaction.setReference("Cash");
+        transaction.setCreatedTimestamp(LocalDateTime.of(2025, 8, 29, 12, 0));
+        transaction.setAccount(reference);
+
+        TransactionResponse response = transactionMapper.toResponse(transaction, "usr-owner123");
+
+        assertThat(response.getId()).isEqualTo("tan-withdrawal789");
+        assertThat(response.getAmount()).isEqualTo(12.34);
+        assertThat(response.getType()).isEqualTo(TransactionResponse.TypeEnum.WITHDRAWAL);
+        assertThat(response.getCurrency()).isEqualTo(TransactionResponse.CurrencyEnum.GBP);
+        assertThat(response.getReference()).isEqualTo("Cash");
+        assertThat(response.getUserId()).isEqualTo("usr-owner123");
+        assertThat(response.getCreatedTimestamp()).isEqualTo(LocalDateTime.of(2025, 8, 29, 12, 0));
+    }
+
+    @Test
+    void fromViewMapsTransactionProjectionAndSuppliedUserId() {
+        TransactionView view = new TransactionView("tan-view123", Money.fromDecimal(42.50),
+                Transaction.TransactionType.WITHDRAWAL, Transaction.Currency.GBP, "Rent",
+                LocalDateTime.of(2025, 8, 29, 12, 0));
+
+        TransactionResponse response = transactionMapper.fromView(view, "usr-owner123");
+
+        assertThat(response.getId()).isEqualTo("tan-view123");
+        assertThat(response.getAmount()).isEqualTo(42.50);
+        assertThat(response.getType()).isEqualTo(TransactionResponse.TypeEnum.WITHDRAWAL);
+        assertThat(response.getCurrency()).isEqualTo(TransactionResponse.CurrencyEnum.GBP);
+        assertThat(response.getReference()).isEqualTo("Rent");
+        assertThat(response.getUserId()).isEqualTo("usr-owner123");
+        assertThat(response.getCreatedTimestamp()).isEqualTo(LocalDateTime.of(2025, 8, 29, 12, 0));
+    }
+
+    @Test
+    void fromViewsMapsEveryProjectionInOrder() {
+        LocalDateTime now = LocalDateTime.now();
+        List<TransactionView> views = List.of(
+                new TransactionView("tan-first", Money.fromDecimal(1.00), Transaction.TransactionType.DEPOSIT,
+                        Transaction.Currency.GBP, null, now),
+                new TransactionView("tan-second", Money.fromDecimal(2.00), Transaction.TransactionType.WITHDRAWAL,
+                        Transaction.Currency.GBP, null, now));
+
+        List<TransactionResponse> responses = transactionMapper.fromViews(views, "usr-owner123");
+
+        assertThat(responses).extracting(TransactionResponse::getId).containsExactly("tan-first", "tan-second");
+        assertThat(responses).extracting(TransactionResponse::getUserId).containsOnly("usr-owner123");
+    }
 }
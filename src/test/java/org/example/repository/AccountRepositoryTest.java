@@ -3,6 +3,7 @@ package org.example.repository;
 import org.example.entity.Account;
 import org.example.entity.User;
 import org.example.entity.Address;
+import org.example.entity.Money;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,6 +13,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
@@ -66,7 +68,7 @@ class AccountRepositoryTest {
         account1.setAccountNumber("01123456");
         account1.setName("John's Personal Account");
         account1.setAccountType(Account.AccountType.PERSONAL);
-        account1.setBalance(1500.75);
+        account1.setBalance(Money.fromDecimal(1500.75));
         account1.setCurrency(Account.Currency.GBP);
         account1.setSortCode(Account.SortCode._10_10_10);
         account1.setUser(testUser1);
@@ -77,7 +79,7 @@ class AccountRepositoryTest {
         account2.setAccountNumber("01234567");
         account2.setName("John's Savings Account");
         account2.setAccountType(Account.AccountType.PERSONAL);
-        account2.setBalance(5000.00);
+        account2.setBalance(Money.fromDecimal(5000.00));
         account2.setCurrency(Account.Currency.GBP);
         account2.setSortCode(Account.SortCode._10_10_10);
         account2.setUser(testUser1);
@@ -88,7 +90,7 @@ class AccountRepositoryTest {
         account3.setAccountNumber("01345678");
         account3.setName("Jane's Personal Account");
         account3.setAccountType(Account.AccountType.PERSONAL);
-        account3.setBalance(2750.25);
+        account3.setBalance(Money.fromDecimal(2750.25));
         account3.setCurrency(Account.Currency.GBP);
         account3.setSortCode(Account.SortCode._10_10_10);
         account3.setUser(testUser2);
@@ -143,6 +145,21 @@ class AccountRepositoryTest {
         verify(accountRepository).findByUser_Id("usr-nonexistent");
     }
 
+    @Test
+    void findViewsByUserId_WithValidUserId_ReturnsAccountProjections() {
+        AccountView view = new AccountView(account3.getAccountNumber(), account3.getSortCode(), account3.getName(),
+                account3.getAccountType(), account3.getBalance(), account3.getCurrency(),
+                account3.getCreatedTimestamp(), account3.getUpdatedTimestamp());
+        when(accountRepository.findViewsByUserId("usr-789def012")).thenReturn(List.of(view));
+
+        List<AccountView> views = accountRepository.findViewsByUserId("usr-789def012");
+
+        assertThat(views).hasSize(1);
+        assertThat(views.get(0).accountNumber()).isEqualTo("01345678");
+        assertThat(views.get(0).balance()).isEqualTo(account3.getBalance());
+        verify(accountRepository).findViewsByUserId("usr-789def012");
+    }
+
     @Test
     void findByAccountNumber_WithValidAccountNumber_ReturnsAccount() {
         when(accountRepository.findByAccountNumber("01123456")).thenReturn(Optional.of(account1));
@@ -151,7 +168,7 @@ class AccountRepositoryTest {
 
         assertThat(result).isPresent();
         assertThat(result.get().getName()).isEqualTo("John's Personal Account");
-        assertThat(result.get().getBalance()).isEqualTo(1500.75);
+        assertThat(result.get().getBalance()).isEqualTo(Money.fromDecimal(1500.75));
         assertThat(result.get().getUser().getId()).isEqualTo("usr-123abc456");
         verify(accountRepository).findByAccountNumber("01123456");
     }
@@ -176,6 +193,36 @@ class AccountRepositoryTest {
         verify(accountRepository).existsByAccountNumber("01234567");
     }
 
+    @Test
+    void streamAllAccountNumbers_ReturnsEveryAccountNumber() {
+        when(accountRepository.streamAllAccountNumbers()).thenReturn(Stream.of("01234567", "01765432"));
+
+        try (Stream<String> accountNumbers = accountRepository.streamAllAccountNumbers()) {
+            assertThat(accountNumbers).containsExactly("01234567", "01765432");
+        }
+        verify(accountRepository).streamAllAccountNumbers();
+    }
+
+    @Test
+    void findOwnerIdByAccountNumber_WithExistingAccount_ReturnsOwnerId() {
+        when(accountRepository.findOwnerIdByAccountNumber("01234567")).thenReturn(Optional.of("usr-123abc456"));
+
+        Optional<String> ownerId = accountRepository.findOwnerIdByAccountNumber("01234567");
+
+        assertThat(ownerId).contains("usr-123abc456");
+        verify(accountRepository).findOwnerIdByAccountNumber("01234567");
+    }
+
+    @Test
+    void findOwnerIdByAccountNumber_WithNonExistentAccount_ReturnsEmpty() {
+        when(accountRepository.findOwnerIdByAccountNumber("01999999")).thenReturn(Optional.empty());
+
+        Optional<String> ownerId = accountRepository.findOwnerIdByAccountNumber("01999999");
+
+        assertThat(ownerId).isEmpty();
+        verify(accountRepository).findOwnerIdByAccountNumber("01999999");
+    }
+
     @Test
     void existsByAccountNumber_WithNonExistentAccountNumber_ReturnsFalse() {
         when(accountRepository.existsByAccountNumber("01999999")).thenReturn(false);
@@ -245,7 +292,7 @@ class AccountRepositoryTest {
         assertThat(result).isPresent();
         Account account = result.get();
         assertThat(account.getName()).isEqualTo("Jane's Personal Account");
-        assertThat(account.getBalance()).isEqualTo(2750.25);
+        assertThat(account.getBalance()).isEqualTo(Money.fromDecimal(2750.25));
 
         // Verify user is populated
         User user = account.getUser();
@@ -315,7 +362,7 @@ class AccountRepositoryTest {
         newAccount.setAccountNumber("01456789");
         newAccount.setName("New Test Account");
         newAccount.setAccountType(Account.AccountType.PERSONAL);
-        newAccount.setBalance(1000.00);
+        newAccount.setBalance(Money.fromDecimal(1000.00));
         newAccount.setCurrency(Account.Currency.GBP);
         newAccount.setSortCode(Account.SortCode._10_10_10);
         newAccount.setUser(testUser1);
@@ -324,7 +371,7 @@ class AccountRepositoryTest {
         savedAccount.setAccountNumber("01456789");
         savedAccount.setName("New Test Account");
         savedAccount.setAccountType(Account.AccountType.PERSONAL);
-        savedAccount.setBalance(1000.00);
+        savedAccount.setBalance(Money.fromDecimal(1000.00));
         savedAccount.setCurrency(Account.Currency.GBP);
         savedAccount.setSortCode(Account.SortCode._10_10_10);
         savedAccount.setUser(testUser1);
@@ -0,0 +1,176 @@
+package org.example.repository;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.entity.Account;
+import org.example.entity.Address;
+import org.example.entity.Money;
+import org.example.entity.User;
+import org.example.service.BalanceLedger;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies that User and Account reads by id are served from the second-level cache
+ * and that updates and deletes made through JPA invalidate the cached entries
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cachedb",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+        "logging.level.org.springframework.security=WARN",
+        "logging.level.org.example=WARN"
+})
+class SecondLevelCacheTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CacheManager secondLevelCacheManager;
+
+    @Autowired
+    private BalanceLedger balanceLedger;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void accountAndOwnerReadsByIdDoNotQueryTheDatabaseOnceCached() {
+        createAccount("usr-cache1", "01990001");
+        // warm up in case the inserts were not cached
+        accountRepository.findByAccountNumber("01990001");
+        userRepository.findById("usr-cache1");
+        statistics.clear();
+
+        String ownerId = new TransactionTemplate(transactionManager).execute(status ->
+                accountRepository.findByAccountNumber("01990001").orElseThrow().getUser().getId());
+        userRepository.findById("usr-cache1").orElseThrow();
+
+        assertThat(ownerId).isEqualTo("usr-cache1");
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getDomainDataRegionStatistics("accounts").getHitCount()).isEqualTo(1);
+        assertThat(statistics.getDomainDataRegionStatistics("users").getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void updateInvalidatesCachedAccount() {
+        createAccount("usr-cache2", "01990002");
+        Account account = accountRepository.findByAccountNumber("01990002").orElseThrow();
+
+        account.setName("Renamed Account");
+        accountRepository.save(account);
+
+        assertThat(accountRepository.findByAccountNumber("01990002").orElseThrow().getName()).isEqualTo("Renamed Account");
+    }
+
+    @Test
+    void committedBalanceChangeIsReadBackFromTheCache() {
+        createAccount("usr-cache4", "01990004");
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        transactionTemplate.executeWithoutResult(status -> accountRepository.findByAccountNumber("01990004")
+                .orElseThrow().setBalance(Money.fromDecimal(12.34)));
+        accountRepository.findByAccountNumber("01990004").orElseThrow();
+        statistics.clear();
+
+        Money balance = transactionTemplate.execute(status ->
+                accountRepository.findByAccountNumber("01990004").orElseThrow().getBalance());
+
+        assertThat(balance).isEqualTo(Money.fromDecimal(12.34));
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getDomainDataRegionStatistics("accounts").getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void withdrawalEvictsOnlyTheDebitedAccount() {
+        createAccount("usr-cache5", "01990005");
+        createAccount("usr-cache6", "01990006");
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> accountRepository.findByAccountNumber("01990005")
+                .orElseThrow().setBalance(Money.fromDecimal(10.00)));
+        accountRepository.findByAccountNumber("01990005").orElseThrow();
+        accountRepository.findByAccountNumber("01990006").orElseThrow();
+
+        balanceLedger.withdraw("01990005", Money.fromDecimal(4.00), account -> null);
+        statistics.clear();
+
+        transactionTemplate.executeWithoutResult(status -> accountRepository.findByAccountNumber("01990006").orElseThrow());
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(accountRepository.findByAccountNumber("01990005").orElseThrow().getBalance())
+                .isEqualTo(Money.fromDecimal(6.00));
+        assertThat(statistics.getDomainDataRegionStatistics("accounts").getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    void regionsLiveInACacheManagerOfThisContextConfiguredFromApplicationConf() {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+
+        assertThat(secondLevelCacheManager.getURI()).isNotEqualTo(provider.getDefaultURI());
+        assertThat(secondLevelCacheManager.getCache("accounts").getConfiguration(CaffeineConfiguration.class)
+                .getMaximumSize()).hasValue(50_000);
+    }
+
+    @Test
+    void deleteRemovesCachedUser() {
+        User user = saveUser("usr-cache3");
+        userRepository.findById("usr-cache3").orElseThrow();
+
+        userRepository.deleteById(user.getId());
+
+        assertThat(userRepository.findById("usr-cache3")).isEmpty();
+    }
+
+    private void createAccount(String userId, String accountNumber) {
+        Account account = new Account();
+        account.setAccountNumber(accountNumber);
+        account.setName("Cached Account");
+        account.setAccountType(Account.AccountType.PERSONAL);
+        account.setBalance(Money.ZERO);
+        account.setCurrency(Account.Currency.GBP);
+        account.setSortCode(Account.SortCode._10_10_10);
+        account.setUser(saveUser(userId));
+        accountRepository.save(account);
+    }
+
+    private User saveUser(String userId) {
+        User user = new User();
+        user.setId(userId);
+        user.setEmail(userId + "@example.com");
+        user.setName("Cache Test");
+        user.setPhoneNumber("+447123456789");
+        user.setPasswordHash("hashedPassword");
+        user.setAddress(new Address("1 Test Street", null, null, "London", "Greater London", "SW1A 1AA"));
+        return userRepository.save(user);
+    }
+}
@@ -4,11 +4,14 @@ import org.example.entity.Transaction;
 import org.example.entity.Account;
 import org.example.entity.User;
 import org.example.entity.Address;
+import org.example.entity.Money;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -52,7 +55,7 @@ class TransactionRepositoryTest {
         testAccount1.setAccountNumber("01123456");
         testAccount1.setName("Test Account");
         testAccount1.setAccountType(Account.AccountType.PERSONAL);
-        testAccount1.setBalance(1000.00);
+        testAccount1.setBalance(Money.fromDecimal(1000.00));
         testAccount1.setCurrency(Account.Currency.GBP);
         testAccount1.setSortCode(Account.SortCode._10_10_10);
         testAccount1.setUser(testUser);
@@ -61,14 +64,14 @@ class TransactionRepositoryTest {
         testAccount2.setAccountNumber("01234567");
         testAccount2.setName("Another Account");
         testAccount2.setAccountType(Account.AccountType.PERSONAL);
-        testAccount2.setBalance(500.00);
+        testAccount2.setBalance(Money.fromDecimal(500.00));
         testAccount2.setCurrency(Account.Currency.GBP);
         testAccount2.setSortCode(Account.SortCode._10_10_10);
         testAccount2.setUser(testUser);
 
         transaction1 = new Transaction();
         transaction1.setId("tan-deposit123");
-        transaction1.setAmount(100.00);
+        transaction1.setAmount(Money.fromDecimal(100.00));
         transaction1.setType(Transaction.TransactionType.DEPOSIT);
         transaction1.setCurrency(Transaction.Currency.GBP);
         transaction1.setReference("Salary deposit");
@@ -77,7 +80,7 @@ class TransactionRepositoryTest {
 
         transaction2 = new Transaction();
         transaction2.setId("tan-withdraw456");
-        transaction2.setAmount(50.00);
+        transaction2.setAmount(Money.fromDecimal(50.00));
         transaction2.setType(Transaction.TransactionType.WITHDRAWAL);
         transaction2.setCurrency(Transaction.Currency.GBP);
         transaction2.setReference("ATM withdrawal");
@@ -86,7 +89,7 @@ class TransactionRepositoryTest {
 
         transaction3 = new Transaction();
         transaction3.setId("tan-deposit789");
-        transaction3.setAmount(25.50);
+        transaction3.setAmount(Money.fromDecimal(25.50));
         transaction3.setType(Transaction.TransactionType.DEPOSIT);
         transaction3.setCurrency(Transaction.Currency.GBP);
         transaction3.setAccount(testAccount1);
@@ -142,11 +145,70 @@ class TransactionRepositoryTest {
 
         assertThat(result).hasSize(1);
         assertThat(result.get(0).getId()).isEqualTo("tan-deposit123");
-        assertThat(result.get(0).getAmount()).isEqualTo(100.00);
+        assertThat(result.get(0).getAmount()).isEqualTo(Money.fromDecimal(100.00));
         assertThat(result.get(0).getType()).isEqualTo(Transaction.TransactionType.DEPOSIT);
         verify(transactionRepository).findByAccount_AccountNumberOrderByCreatedTimestampDesc("01123456");
     }
 
+    @Test
+    void existsByAccount_AccountNumber_WithTransactions_ReturnsTrue() {
+        when(transactionRepository.existsByAccount_AccountNumber("01123456")).thenReturn(true);
+
+        boolean exists = transactionRepository.existsByAccount_AccountNumber("01123456");
+
+        assertThat(exists).isTrue();
+        verify(transactionRepository).existsByAccount_AccountNumber("01123456");
+    }
+
+    @Test
+    void existsByAccount_AccountNumber_WithoutTransactions_ReturnsFalse() {
+        when(transactionRepository.existsByAccount_AccountNumber("01999999")).thenReturn(false);
+
+        boolean exists = transactionRepository.existsByAccount_AccountNumber("01999999");
+
+        assertThat(exists).isFalse();
+        verify(transactionRepository).existsByAccount_AccountNumber("01999999");
+    }
+
+    @Test
+    void findViewPageByAccountNumber_WithPageSize_ReturnsNewestProjectionsFirst() {
+        Pageable page = PageRequest.of(0, 2);
+        when(transactionRepository.findViewPageByAccountNumber("01123456", page))
+                .thenReturn(List.of(view(transaction3), view(transaction2)));
+
+        List<TransactionView> result = transactionRepository.findViewPageByAccountNumber("01123456", page);
+
+        assertThat(result).extracting(TransactionView::id).containsExactly("tan-deposit789", "tan-withdraw456");
+        verify(transactionRepository).findViewPageByAccountNumber("01123456", page);
+    }
+
+    @Test
+    void findViewPageByAccountNumberAfter_WithKeysetPosition_ReturnsOlderProjections() {
+        Pageable page = PageRequest.of(0, 2);
+        when(transactionRepository.findViewPageByAccountNumberAfter("01123456",
+                transaction2.getCreatedTimestamp(), transaction2.getId(), page))
+                .thenReturn(List.of(view(transaction1)));
+
+        List<TransactionView> result = transactionRepository.findViewPageByAccountNumberAfter("01123456",
+                transaction2.getCreatedTimestamp(), transaction2.getId(), page);
+
+        assertThat(result).extracting(TransactionView::id).containsExactly("tan-deposit123");
+        assertThat(result.get(0).createdTimestamp()).isBefore(transaction2.getCreatedTimestamp());
+    }
+
+    @Test
+    void findViewByIdAndAccountNumber_WithValidTransactionIdAndAccountNumber_ReturnsProjection() {
+        when(transactionRepository.findViewByIdAndAccountNumber("tan-deposit123", "01123456"))
+                .thenReturn(Optional.of(view(transaction1)));
+
+        Optional<TransactionView> result = transactionRepository.findViewByIdAndAccountNumber("tan-deposit123", "01123456");
+
+        assertThat(result).isPresent();
+        assertThat(result.get().amount()).isEqualTo(Money.fromDecimal(100.00));
+        assertThat(result.get().reference()).isEqualTo("Salary deposit");
+        verify(transactionRepository).findViewByIdAndAccountNumber("tan-deposit123", "01123456");
+    }
+
     @Test
     void findByIdAndAccount_AccountNumber_WithValidTransactionIdAndAccountNumber_ReturnsTransaction() {
         when(transactionRepository.findByIdAndAccount_AccountNumber("tan-deposit123", "01123456"))
@@ -156,7 +218,7 @@ class TransactionRepositoryTest {
 
         assertThat(result).isPresent();
         assertThat(result.get().getId()).isEqualTo("tan-deposit123");
-        assertThat(result.get().getAmount()).isEqualTo(100.00);
+        assertThat(result.get().getAmount()).isEqualTo(Money.fromDecimal(100.00));
         assertThat(result.get().getType()).isEqualTo(Transaction.TransactionType.DEPOSIT);
         assertThat(result.get().getReference()).isEqualTo("Salary deposit");
         assertThat(result.get().getAccountNumber()).isEqualTo("01123456");
@@ -226,7 +288,7 @@ class TransactionRepositoryTest {
 
         assertThat(result).isPresent();
         assertThat(result.get().getId()).isEqualTo("tan-withdraw456");
-        assertThat(result.get().getAmount()).isEqualTo(50.00);
+        assertThat(result.get().getAmount()).isEqualTo(Money.fromDecimal(50.00));
         assertThat(result.get().getType()).isEqualTo(Transaction.TransactionType.WITHDRAWAL);
         verify(transactionRepository).findById("tan-withdraw456");
     }
@@ -245,7 +307,7 @@ class TransactionRepositoryTest {
     void save_NewTransaction_PersistsSuccessfully() {
         Transaction newTransaction = new Transaction();
         newTransaction.setId("tan-new123");
-        newTransaction.setAmount(75.25);
+        newTransaction.setAmount(Money.fromDecimal(75.25));
         newTransaction.setType(Transaction.TransactionType.DEPOSIT);
         newTransaction.setCurrency(Transaction.Currency.GBP);
         newTransaction.setReference("New deposit");
@@ -253,7 +315,7 @@ class TransactionRepositoryTest {
 
         Transaction savedTransaction = new Transaction();
         savedTransaction.setId("tan-new123");
-        savedTransaction.setAmount(75.25);
+        savedTransaction.setAmount(Money.fromDecimal(75.25));
         savedTransaction.setType(Transaction.TransactionType.DEPOSIT);
         savedTransaction.setCurrency(Transaction.Currency.GBP);
         savedTransaction.setReference("New deposit");
@@ -266,7 +328,7 @@ class TransactionRepositoryTest {
         Transaction result = transactionRepository.save(newTransaction);
 
         assertThat(result.getId()).isEqualTo("tan-new123");
-        assertThat(result.getAmount()).isEqualTo(75.25);
+        assertThat(result.getAmount()).isEqualTo(Money.fromDecimal(75.25));
         assertThat(result.getType()).isEqualTo(Transaction.TransactionType.DEPOSIT);
         assertThat(result.getCreatedTimestamp()).isNotNull();
 
@@ -337,9 +399,9 @@ class TransactionRepositoryTest {
     @Test
     void amountRangeCompliance_FollowsOpenApiSpec() {
         Transaction minAmountTransaction = new Transaction();
-        minAmountTransaction.setAmount(0.01);
+        minAmountTransaction.setAmount(Money.fromDecimal(0.01));
         Transaction maxAmountTransaction = new Transaction();
-        maxAmountTransaction.setAmount(10000.00);
+        maxAmountTransaction.setAmount(Money.fromDecimal(10000.00));
 
         when(transactionRepository.findById("tan-min")).thenReturn(Optional.of(minAmountTransaction));
         when(transactionRepository.findById("tan-max")).thenReturn(Optional.of(maxAmountTransaction));
@@ -348,9 +410,9 @@ class TransactionRepositoryTest {
         Optional<Transaction> maxResult = transactionRepository.findById("tan-max");
 
         assertThat(minResult).isPresent();
-        assertThat(minResult.get().getAmount()).isGreaterThanOrEqualTo(0.00);
+        assertThat(minResult.get().getAmount()).isGreaterThanOrEqualTo(Money.fromDecimal(0.00));
         assertThat(maxResult).isPresent();
-        assertThat(maxResult.get().getAmount()).isLessThanOrEqualTo(10000.00);
+        assertThat(maxResult.get().getAmount()).isLessThanOrEqualTo(Money.fromDecimal(10000.00));
         verify(transactionRepository).findById("tan-min");
         verify(transactionRepository).findById("tan-max");
     }
@@ -398,7 +460,7 @@ class TransactionRepositoryTest {
     void transactionWithOptionalReference_HandlesNullReference() {
         Transaction transactionWithoutReference = new Transaction();
         transactionWithoutReference.setId("tan-noref123");
-        transactionWithoutReference.setAmount(100.00);
+        transactionWithoutReference.setAmount(Money.fromDecimal(100.00));
         transactionWithoutReference.setType(Transaction.TransactionType.DEPOSIT);
         transactionWithoutReference.setCurrency(Transaction.Currency.GBP);
         transactionWithoutReference.setReference(null);
@@ -411,4 +473,9 @@ class TransactionRepositoryTest {
         assertThat(result.get().getReference()).isNull();
         verify(transactionRepository).findById("tan-noref123");
     }
+
+    private static TransactionView view(Transaction transaction) {
+        return new TransactionView(transaction.getId(), transaction.getAmount(), transaction.getType(),
+                transaction.getCurrency(), transaction.getReference(), transaction.getCreatedTimestamp());
+    }
 }
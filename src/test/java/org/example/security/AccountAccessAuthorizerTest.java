@@ -0,0 +1,96 @@
+package org.example.security;
+
+import org.example.exception.AccountNotFoundException;
+import org.example.repository.AccountRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccountAccessAuthorizerTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    private AccountAccessAuthorizer authorizer;
+
+    @BeforeEach
+    void setUp() {
+        authorizer = new AccountAccessAuthorizer(accountRepository, 100);
+    }
+
+    @Test
+    void verifyOwnerAllowsOwnerAndQueriesOnlyOnce() {
+        when(accountRepository.findOwnerIdByAccountNumber("01234567")).thenReturn(Optional.of("usr-123"));
+
+        authorizer.verifyOwner("01234567", "usr-123");
+        authorizer.verifyOwner("01234567", "usr-123");
+
+        verify(accountRepository, times(1)).findOwnerIdByAccountNumber("01234567");
+        verify(accountRepository, never()).findByAccountNumber(any());
+        assertThat(authorizer.cachedOwnerCount()).isEqualTo(1);
+    }
+
+    @Test
+    void verifyOwnerDeniesOtherUsersFromCachedOwner() {
+        when(accountRepository.findOwnerIdByAccountNumber("01234567")).thenReturn(Optional.of("usr-123"));
+        authorizer.verifyOwner("01234567", "usr-123");
+
+        assertThatThrownBy(() -> authorizer.verifyOwner("01234567", "usr-456"))
+                .isInstanceOf(AccessDeniedException.class)
+                .hasMessage("Access denied to account");
+        verify(accountRepository, times(1)).findOwnerIdByAccountNumber("01234567");
+    }
+
+    @Test
+    void verifyOwnerDoesNotCacheUnknownAccounts() {
+        when(accountRepository.findOwnerIdByAccountNumber("01999999")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> authorizer.verifyOwner("01999999", "usr-123"))
+                .isInstanceOf(AccountNotFoundException.class);
+        assertThatThrownBy(() -> authorizer.verifyOwner("01999999", "usr-123"))
+                .isInstanceOf(AccountNotFoundException.class);
+
+        verify(accountRepository, times(2)).findOwnerIdByAccountNumber("01999999");
+        assertThat(authorizer.cachedOwnerCount()).isZero();
+    }
+
+    @Test
+    void evictAfterCommitForgetsOwnerNowAndAfterCompletion() {
+        when(accountRepository.findOwnerIdByAccountNumber("01234567"))
+                .thenReturn(Optional.of("usr-123"))
+                .thenReturn(Optional.of("usr-123"))
+                .thenReturn(Optional.empty());
+        authorizer.verifyOwner("01234567", "usr-123");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            authorizer.evictAfterCommit("01234567");
+            assertThat(authorizer.cachedOwnerCount()).isZero();
+
+            // A concurrent check before the delete commits re-caches the owner
+            authorizer.verifyOwner("01234567", "usr-123");
+            assertThat(authorizer.cachedOwnerCount()).isEqualTo(1);
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            assertThat(authorizer.cachedOwnerCount()).isZero();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThatThrownBy(() -> authorizer.verifyOwner("01234567", "usr-123"))
+                .isInstanceOf(AccountNotFoundException.class);
+    }
+}
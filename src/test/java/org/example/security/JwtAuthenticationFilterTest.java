@@ -16,6 +16,8 @@ import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.io.IOException;
+import java.time.Instant;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
@@ -45,6 +47,7 @@ class JwtAuthenticationFilterTest {
     private static final String INVALID_JWT_TOKEN = "invalid.jwt.token";
     private static final String USER_ID = "usr-123456789";
     private static final String BEARER_TOKEN = "Bearer " + VALID_JWT_TOKEN;
+    private static final JwtPrincipal PRINCIPAL = new JwtPrincipal(USER_ID, Instant.now().plusSeconds(3600));
 
     @BeforeEach
     void setUp() {
@@ -56,8 +59,7 @@ class JwtAuthenticationFilterTest {
         when(request.getRequestURI()).thenReturn("/v1/accounts");
         when(request.getMethod()).thenReturn("GET");
         when(request.getHeader("Authorization")).thenReturn(BEARER_TOKEN);
-        when(jwtService.extractUserId(VALID_JWT_TOKEN)).thenReturn(USER_ID);
-        when(jwtService.isTokenValid(VALID_JWT_TOKEN, USER_ID)).thenReturn(true);
+        when(jwtService.validateToken(VALID_JWT_TOKEN)).thenReturn(Optional.of(PRINCIPAL));
         when(securityContext.getAuthentication()).thenReturn(null);
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -74,7 +76,7 @@ class JwtAuthenticationFilterTest {
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
-        verify(jwtService, never()).extractUserId(any());
+        verify(jwtService, never()).validateToken(any());
         verify(securityContext, never()).setAuthentication(any());
         verify(filterChain).doFilter(request, response);
     }
@@ -87,7 +89,7 @@ class JwtAuthenticationFilterTest {
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
-        verify(jwtService, never()).extractUserId(any());
+        verify(jwtService, never()).validateToken(any());
         verify(securityContext, never()).setAuthentication(any());
         verify(filterChain).doFilter(request, response);
     }
@@ -98,12 +100,11 @@ class JwtAuthenticationFilterTest {
         when(request.getRequestURI()).thenReturn("/v1/accounts");
         when(request.getMethod()).thenReturn("GET");
         when(request.getHeader("Authorization")).thenReturn(BEARER_TOKEN);
-        when(jwtService.extractUserId(VALID_JWT_TOKEN)).thenReturn(USER_ID);
         when(securityContext.getAuthentication()).thenReturn(existingAuth);
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
-        verify(jwtService, never()).isTokenValid(any(), any());
+        verify(jwtService, never()).validateToken(any());
         verify(securityContext, never()).setAuthentication(any());
         verify(filterChain).doFilter(request, response);
     }
@@ -113,8 +114,7 @@ class JwtAuthenticationFilterTest {
         when(request.getRequestURI()).thenReturn("/v1/accounts");
         when(request.getMethod()).thenReturn("GET");
         when(request.getHeader("Authorization")).thenReturn("Bearer " + INVALID_JWT_TOKEN);
-        when(jwtService.extractUserId(INVALID_JWT_TOKEN)).thenReturn(USER_ID);
-        when(jwtService.isTokenValid(INVALID_JWT_TOKEN, USER_ID)).thenReturn(false);
+        when(jwtService.validateToken(INVALID_JWT_TOKEN)).thenReturn(Optional.empty());
         when(securityContext.getAuthentication()).thenReturn(null);
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -124,15 +124,15 @@ class JwtAuthenticationFilterTest {
     }
 
     @Test
-    void skipsAuthenticationWhenUserIdIsNull() throws ServletException, IOException {
+    void skipsAuthenticationWhenTokenHasNoVerifiedPrincipal() throws ServletException, IOException {
         when(request.getRequestURI()).thenReturn("/v1/accounts");
         when(request.getMethod()).thenReturn("GET");
         when(request.getHeader("Authorization")).thenReturn(BEARER_TOKEN);
-        when(jwtService.extractUserId(VALID_JWT_TOKEN)).thenReturn(null);
+        when(jwtService.validateToken(VALID_JWT_TOKEN)).thenReturn(Optional.empty());
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
-        verify(jwtService, never()).isTokenValid(any(), any());
+        verify(jwtService).validateToken(VALID_JWT_TOKEN);
         verify(securityContext, never()).setAuthentication(any());
         verify(filterChain).doFilter(request, response);
     }
@@ -142,7 +142,7 @@ class JwtAuthenticationFilterTest {
         when(request.getRequestURI()).thenReturn("/v1/accounts");
         when(request.getMethod()).thenReturn("GET");
         when(request.getHeader("Authorization")).thenReturn(BEARER_TOKEN);
-        when(jwtService.extractUserId(VALID_JWT_TOKEN)).thenThrow(new RuntimeException("JWT parsing error"));
+        when(jwtService.validateToken(VALID_JWT_TOKEN)).thenThrow(new RuntimeException("JWT parsing error"));
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
@@ -157,7 +157,7 @@ class JwtAuthenticationFilterTest {
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
-        verify(jwtService, never()).extractUserId(any());
+        verify(jwtService, never()).validateToken(any());
         verify(securityContext, never()).setAuthentication(any());
         verify(filterChain).doFilter(request, response);
     }
@@ -169,7 +169,7 @@ class JwtAuthenticationFilterTest {
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
-        verify(jwtService, never()).extractUserId(any());
+        verify(jwtService, never()).validateToken(any());
         verify(securityContext, never()).setAuthentication(any());
         verify(filterChain).doFilter(request, response);
     }
@@ -181,7 +181,7 @@ class JwtAuthenticationFilterTest {
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
-        verify(jwtService, never()).extractUserId(any());
+        verify(jwtService, never()).validateToken(any());
         verify(securityContext, never()).setAuthentication(any());
         verify(filterChain).doFilter(request, response);
     }
@@ -193,7 +193,7 @@ class JwtAuthenticationFilterTest {
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
-        verify(jwtService, never()).extractUserId(any());
+        verify(jwtService, never()).validateToken(any());
         verify(securityContext, never()).setAuthentication(any());
         verify(filterChain).doFilter(request, response);
     }
@@ -205,7 +205,7 @@ class JwtAuthenticationFilterTest {
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
-        verify(jwtService, never()).extractUserId(any());
+        verify(jwtService, never()).validateToken(any());
         verify(securityContext, never()).setAuthentication(any());
         verify(filterChain).doFilter(request, response);
     }
@@ -215,8 +215,7 @@ class JwtAuthenticationFilterTest {
         when(request.getRequestURI()).thenReturn("/v1/users");
         when(request.getMethod()).thenReturn("GET");
         when(request.getHeader("Authorization")).thenReturn(BEARER_TOKEN);
-        when(jwtService.extractUserId(VALID_JWT_TOKEN)).thenReturn(USER_ID);
-        when(jwtService.isTokenValid(VALID_JWT_TOKEN, USER_ID)).thenReturn(true);
+        when(jwtService.validateToken(VALID_JWT_TOKEN)).thenReturn(Optional.of(PRINCIPAL));
         when(securityContext.getAuthentication()).thenReturn(null);
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -230,8 +229,7 @@ class JwtAuthenticationFilterTest {
         when(request.getRequestURI()).thenReturn("/v1/auth/login");
         when(request.getMethod()).thenReturn("GET");
         when(request.getHeader("Authorization")).thenReturn(BEARER_TOKEN);
-        when(jwtService.extractUserId(VALID_JWT_TOKEN)).thenReturn(USER_ID);
-        when(jwtService.isTokenValid(VALID_JWT_TOKEN, USER_ID)).thenReturn(true);
+        when(jwtService.validateToken(VALID_JWT_TOKEN)).thenReturn(Optional.of(PRINCIPAL));
         when(securityContext.getAuthentication()).thenReturn(null);
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -245,11 +243,11 @@ class JwtAuthenticationFilterTest {
         when(request.getRequestURI()).thenReturn("/v1/accounts");
         when(request.getMethod()).thenReturn("GET");
         when(request.getHeader("Authorization")).thenReturn("Bearer ");
-        when(jwtService.extractUserId("")).thenThrow(new RuntimeException("Invalid token format"));
+        when(jwtService.validateToken("")).thenThrow(new RuntimeException("Invalid token format"));
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
-        verify(jwtService).extractUserId("");
+        verify(jwtService).validateToken("");
         verify(securityContext, never()).setAuthentication(any());
         verify(filterChain).doFilter(request, response);
     }
@@ -259,7 +257,7 @@ class JwtAuthenticationFilterTest {
         when(request.getRequestURI()).thenReturn("/v1/accounts");
         when(request.getMethod()).thenReturn("GET");
         when(request.getHeader("Authorization")).thenReturn("Bearer    ");
-        when(jwtService.extractUserId("   ")).thenThrow(new RuntimeException("Invalid token format"));
+        when(jwtService.validateToken("   ")).thenThrow(new RuntimeException("Invalid token format"));
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
@@ -272,8 +270,7 @@ class JwtAuthenticationFilterTest {
         when(request.getRequestURI()).thenReturn("/v1/accounts");
         when(request.getMethod()).thenReturn("GET");
         when(request.getHeader("Authorization")).thenReturn(BEARER_TOKEN);
-        when(jwtService.extractUserId(VALID_JWT_TOKEN)).thenReturn(USER_ID);
-        when(jwtService.isTokenValid(VALID_JWT_TOKEN, USER_ID)).thenReturn(true);
+        when(jwtService.validateToken(VALID_JWT_TOKEN)).thenReturn(Optional.of(PRINCIPAL));
         when(securityContext.getAuthentication()).thenReturn(null);
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -293,8 +290,7 @@ class JwtAuthenticationFilterTest {
         when(request.getRequestURI()).thenReturn("/v1/accounts");
         when(request.getMethod()).thenReturn("GET");
         when(request.getHeader("Authorization")).thenReturn(BEARER_TOKEN);
-        when(jwtService.extractUserId(VALID_JWT_TOKEN)).thenReturn(USER_ID);
-        when(jwtService.isTokenValid(VALID_JWT_TOKEN, USER_ID)).thenReturn(true);
+        when(jwtService.validateToken(VALID_JWT_TOKEN)).thenReturn(Optional.of(PRINCIPAL));
         when(securityContext.getAuthentication()).thenReturn(null);
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -309,8 +305,7 @@ class JwtAuthenticationFilterTest {
         when(request.getRequestURI()).thenReturn("/v1/accounts");
         when(request.getMethod()).thenReturn("GET");
         when(request.getHeader("Authorization")).thenReturn("Bearer " + tokenWithSpecialChars);
-        when(jwtService.extractUserId(tokenWithSpecialChars)).thenReturn(USER_ID);
-        when(jwtService.isTokenValid(tokenWithSpecialChars, USER_ID)).thenReturn(true);
+        when(jwtService.validateToken(tokenWithSpecialChars)).thenReturn(Optional.of(PRINCIPAL));
         when(securityContext.getAuthentication()).thenReturn(null);
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -324,8 +319,7 @@ class JwtAuthenticationFilterTest {
         when(request.getRequestURI()).thenReturn("/v1/accounts");
         when(request.getMethod()).thenReturn("GET");
         when(request.getHeader("Authorization")).thenReturn(BEARER_TOKEN);
-        when(jwtService.extractUserId(VALID_JWT_TOKEN)).thenReturn(USER_ID);
-        when(jwtService.isTokenValid(VALID_JWT_TOKEN, USER_ID)).thenReturn(false);
+        when(jwtService.validateToken(VALID_JWT_TOKEN)).thenReturn(Optional.empty());
         when(securityContext.getAuthentication()).thenReturn(null);
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -5,20 +5,21 @@ import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.security.SecurityException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class JwtServiceTest {
 
+    private static final String SECRET = "mySecretKeyForTestingThatIsLongEnoughForHMACSHA256Algorithm";
+
     private JwtService jwtService;
 
     @BeforeEach
     void setUp() {
-        jwtService = new JwtService();
-        ReflectionTestUtils.setField(jwtService, "secretKey", "mySecretKeyForTestingThatIsLongEnoughForHMACSHA256Algorithm");
-        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 86400000L); // 24 hours
+        jwtService = new JwtService(SECRET, 86400000L, 100); // 24 hours
     }
 
     @Test
@@ -88,9 +89,7 @@ class JwtServiceTest {
 
     @Test
     void isTokenValidThrowsExceptionForExpiredToken() {
-        JwtService shortExpiryService = new JwtService();
-        ReflectionTestUtils.setField(shortExpiryService, "secretKey", "mySecretKeyForTestingThatIsLongEnoughForHMACSHA256Algorithm");
-        ReflectionTestUtils.setField(shortExpiryService, "jwtExpiration", 1L);
+        JwtService shortExpiryService = new JwtService(SECRET, 1L, 100);
 
         String userId = "usr-123abc456";
         String token = shortExpiryService.generateToken(userId);
@@ -117,9 +116,7 @@ class JwtServiceTest {
 
     @Test
     void isTokenExpiredReturnsTrueForExpiredToken() {
-        JwtService shortExpiryService = new JwtService();
-        ReflectionTestUtils.setField(shortExpiryService, "secretKey", "mySecretKeyForTestingThatIsLongEnoughForHMACSHA256Algorithm");
-        ReflectionTestUtils.setField(shortExpiryService, "jwtExpiration", 1L);
+        JwtService shortExpiryService = new JwtService(SECRET, 1L, 100);
 
         String userId = "usr-123abc456";
         String token = shortExpiryService.generateToken(userId);
@@ -144,9 +141,7 @@ class JwtServiceTest {
 
     @Test
     void extractUserIdThrowsExceptionForTokenWithInvalidSignature() {
-        JwtService differentSecretService = new JwtService();
-        ReflectionTestUtils.setField(differentSecretService, "secretKey", "aDifferentSecretKeyThatWillCauseSignatureValidationToFail");
-        ReflectionTestUtils.setField(differentSecretService, "jwtExpiration", 86400000L);
+        JwtService differentSecretService = new JwtService("aDifferentSecretKeyThatWillCauseSignatureValidationToFail", 86400000L, 100);
 
         String userId = "usr-123abc456";
         String token = jwtService.generateToken(userId);
@@ -270,4 +265,71 @@ class JwtServiceTest {
         String extractedUserId = jwtService.extractUserId(token);
         assertThat(extractedUserId).isNull();
     }
+
+    @Test
+    void validateTokenReturnsPrincipalWithUserIdAndExpiry() {
+        String token = jwtService.generateToken("usr-123abc456");
+
+        Optional<JwtPrincipal> principal = jwtService.validateToken(token);
+
+        assertThat(principal).isPresent();
+        assertThat(principal.get().userId()).isEqualTo("usr-123abc456");
+        assertThat(principal.get().isExpired()).isFalse();
+    }
+
+    @Test
+    void validateTokenCachesVerifiedTokensAndReturnsSamePrincipal() {
+        String token = jwtService.generateToken("usr-123abc456");
+
+        JwtPrincipal first = jwtService.validateToken(token).orElseThrow();
+        JwtPrincipal second = jwtService.validateToken(token).orElseThrow();
+
+        assertThat(second).isSameAs(first);
+        assertThat(jwtService.cachedTokenCount()).isEqualTo(1);
+    }
+
+    @Test
+    void validateTokenReturnsEmptyForMalformedTamperedBlankAndForeignTokens() {
+        JwtService differentSecretService = new JwtService("aDifferentSecretKeyThatWillCauseSignatureValidationToFail", 86400000L, 100);
+        String token = jwtService.generateToken("usr-123abc456");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThat(jwtService.validateToken("invalid.token.structure")).isEmpty();
+        assertThat(jwtService.validateToken(tampered)).isEmpty();
+        assertThat(jwtService.validateToken("")).isEmpty();
+        assertThat(jwtService.validateToken(null)).isEmpty();
+        assertThat(differentSecretService.validateToken(token)).isEmpty();
+        assertThat(jwtService.cachedTokenCount()).isZero();
+    }
+
+    @Test
+    void validateTokenReturnsEmptyForTokenWithoutSubject() {
+        String token = jwtService.generateToken(null);
+
+        assertThat(jwtService.validateToken(token)).isEmpty();
+    }
+
+    @Test
+    void validateTokenStopsAcceptingCachedTokenOnceItExpires() throws InterruptedException {
+        JwtService shortExpiryService = new JwtService(SECRET, 1000L, 100);
+        String token = shortExpiryService.generateToken("usr-123abc456");
+
+        assertThat(shortExpiryService.validateToken(token)).isPresent();
+
+        Thread.sleep(1100);
+
+        assertThat(shortExpiryService.validateToken(token)).isEmpty();
+        assertThat(shortExpiryService.cachedTokenCount()).isZero();
+    }
+
+    @Test
+    void validateTokenKeepsCacheWithinMaximumSize() {
+        JwtService smallCacheService = new JwtService(SECRET, 86400000L, 2);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(smallCacheService.validateToken(smallCacheService.generateToken("usr-" + i))).isPresent();
+        }
+
+        assertThat(smallCacheService.cachedTokenCount()).isLessThanOrEqualTo(2);
+    }
 }
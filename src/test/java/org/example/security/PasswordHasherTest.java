@@ -0,0 +1,113 @@
+package org.example.security;
+
+import org.example.exception.PasswordHashingUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class PasswordHasherTest {
+
+    private final PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private PasswordHasher passwordHasher;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        passwordHasher.shutdown();
+    }
+
+    @Test
+    void matchesDelegatesToPasswordEncoder() {
+        passwordHasher = new PasswordHasher(passwordEncoder, 1, 4, 5000);
+        when(passwordEncoder.matches("password", "hash")).thenReturn(true);
+
+        assertThat(passwordHasher.matches("password", "hash")).isTrue();
+        verify(passwordEncoder).matches("password", "hash");
+    }
+
+    @Test
+    void encodeDelegatesToPasswordEncoder() {
+        passwordHasher = new PasswordHasher(passwordEncoder, 1, 4, 5000);
+        when(passwordEncoder.encode("password")).thenReturn("{bcrypt}hash");
+
+        assertThat(passwordHasher.encode("password")).isEqualTo("{bcrypt}hash");
+    }
+
+    @Test
+    void encodeAsyncRunsOnHashingPool() throws Exception {
+        passwordHasher = new PasswordHasher(passwordEncoder, 1, 4, 5000);
+        when(passwordEncoder.encode("password")).thenAnswer(invocation -> Thread.currentThread().getName());
+
+        assertThat(passwordHasher.encodeAsync("password").get(5, TimeUnit.SECONDS)).startsWith("password-hasher-");
+    }
+
+    @Test
+    void needsRehashDelegatesToUpgradeEncoding() {
+        passwordHasher = new PasswordHasher(passwordEncoder, 1, 4, 5000);
+        when(passwordEncoder.upgradeEncoding("$2a$10$legacy")).thenReturn(true);
+
+        assertThat(passwordHasher.needsRehash("$2a$10$legacy")).isTrue();
+        assertThat(passwordHasher.needsRehash(null)).isFalse();
+    }
+
+    @Test
+    void encoderExceptionsArePropagated() {
+        passwordHasher = new PasswordHasher(passwordEncoder, 1, 4, 5000);
+        when(passwordEncoder.encode(null)).thenThrow(new IllegalArgumentException("rawPassword cannot be null"));
+
+        assertThatThrownBy(() -> passwordHasher.encode(null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("rawPassword cannot be null");
+    }
+
+    @Test
+    void rejectsWorkWhenQueueIsFull() throws Exception {
+        passwordHasher = new PasswordHasher(passwordEncoder, 1, 1, 5000);
+        CountDownLatch started = new CountDownLatch(1);
+        when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return "hash";
+        });
+
+        passwordHasher.encodeAsync("busy");     // occupies the only thread
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        passwordHasher.encodeAsync("queued");   // fills the queue
+
+        assertThatThrownBy(() -> passwordHasher.matches("password", "hash"))
+                .isInstanceOf(PasswordHashingUnavailableException.class)
+                .hasMessage("Password hashing queue is full");
+        verify(passwordEncoder, never()).matches(anyString(), anyString());
+    }
+
+    @Test
+    void timesOutWhenHashingTakesTooLong() {
+        passwordHasher = new PasswordHasher(passwordEncoder, 1, 4, 50);
+        when(passwordEncoder.matches("password", "hash")).thenAnswer(invocation -> {
+            release.await();
+            return true;
+        });
+
+        assertThatThrownBy(() -> passwordHasher.matches("password", "hash"))
+                .isInstanceOf(PasswordHashingUnavailableException.class)
+                .hasMessage("Password hashing timed out");
+    }
+
+    @Test
+    void rejectsNonPositiveQueueCapacity() {
+        passwordHasher = new PasswordHasher(passwordEncoder, 1, 4, 5000);
+
+        assertThatThrownBy(() -> new PasswordHasher(passwordEncoder, 1, 0, 5000))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
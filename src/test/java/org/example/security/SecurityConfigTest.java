@@ -2,6 +2,7 @@ package org.example.security;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -12,15 +13,15 @@ class SecurityConfigTest {
     private final SecurityConfig securityConfig = new SecurityConfig(null);
 
     @Test
-    void passwordEncoderCreatesBCryptPasswordEncoder() {
-        PasswordEncoder encoder = securityConfig.passwordEncoder();
+    void passwordEncoderCreatesDelegatingPasswordEncoder() {
+        PasswordEncoder encoder = securityConfig.passwordEncoder("bcrypt", 10);
 
-        assertThat(encoder).isInstanceOf(BCryptPasswordEncoder.class);
+        assertThat(encoder).isInstanceOf(DelegatingPasswordEncoder.class);
     }
 
     @Test
     void passwordEncoderEncodesPasswordsCorrectly() {
-        PasswordEncoder encoder = securityConfig.passwordEncoder();
+        PasswordEncoder encoder = securityConfig.passwordEncoder("bcrypt", 10);
         String rawPassword = "testPassword123";
 
         String encodedPassword = encoder.encode(rawPassword);
@@ -31,7 +32,7 @@ class SecurityConfigTest {
 
     @Test
     void passwordEncoderGeneratesDifferentHashesForSamePassword() {
-        PasswordEncoder encoder = securityConfig.passwordEncoder();
+        PasswordEncoder encoder = securityConfig.passwordEncoder("bcrypt", 10);
         String password = "samePassword";
 
         String hash1 = encoder.encode(password);
@@ -44,7 +45,7 @@ class SecurityConfigTest {
 
     @Test
     void passwordEncoderRejectsIncorrectPassword() {
-        PasswordEncoder encoder = securityConfig.passwordEncoder();
+        PasswordEncoder encoder = securityConfig.passwordEncoder("bcrypt", 10);
         String correctPassword = "correctPassword";
         String wrongPassword = "wrongPassword";
 
@@ -55,7 +56,7 @@ class SecurityConfigTest {
 
     @Test
     void passwordEncoderHandlesEmptyPassword() {
-        PasswordEncoder encoder = securityConfig.passwordEncoder();
+        PasswordEncoder encoder = securityConfig.passwordEncoder("bcrypt", 10);
         String emptyPassword = "";
 
         String encodedPassword = encoder.encode(emptyPassword);
@@ -66,7 +67,7 @@ class SecurityConfigTest {
 
     @Test
     void passwordEncoderHandlesSpecialCharacters() {
-        PasswordEncoder encoder = securityConfig.passwordEncoder();
+        PasswordEncoder encoder = securityConfig.passwordEncoder("bcrypt", 10);
         String passwordWithSpecialChars = "P@ssw0rd!@#$%^&*()";
 
         String encodedPassword = encoder.encode(passwordWithSpecialChars);
@@ -76,7 +77,7 @@ class SecurityConfigTest {
 
     @Test
     void passwordEncoderHandlesUnicodeCharacters() {
-        PasswordEncoder encoder = securityConfig.passwordEncoder();
+        PasswordEncoder encoder = securityConfig.passwordEncoder("bcrypt", 10);
         String unicodePassword = "пароль123密码";
 
         String encodedPassword = encoder.encode(unicodePassword);
@@ -86,7 +87,7 @@ class SecurityConfigTest {
 
     @Test
     void passwordEncoderHandlesLongPassword() {
-        PasswordEncoder encoder = securityConfig.passwordEncoder();
+        PasswordEncoder encoder = securityConfig.passwordEncoder("bcrypt", 10);
         String longPassword = "a".repeat(1000);
 
         String encodedPassword = encoder.encode(longPassword);
@@ -96,20 +97,19 @@ class SecurityConfigTest {
 
     @Test
     void passwordEncoderProducesConsistentBCryptFormat() {
-        PasswordEncoder encoder = securityConfig.passwordEncoder();
+        PasswordEncoder encoder = securityConfig.passwordEncoder("bcrypt", 10);
         String password = "testPassword";
 
         String encodedPassword = encoder.encode(password);
 
-        assertThat(encodedPassword).startsWith("$2a$");
+        assertThat(encodedPassword).startsWith("{bcrypt}$2a$");
         assertThat(encodedPassword.length()).isGreaterThan(50);
     }
 
     @Test
     void passwordEncoderThrowsExceptionForNullPassword() {
-        PasswordEncoder encoder = securityConfig.passwordEncoder();
+        PasswordEncoder encoder = securityConfig.passwordEncoder("bcrypt", 10);
 
-        assertThat(encoder).isInstanceOf(BCryptPasswordEncoder.class);
         assertThatThrownBy(() -> encoder.encode(null))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessage("rawPassword cannot be null");
@@ -117,22 +117,62 @@ class SecurityConfigTest {
 
     @Test
     void passwordEncoderValidatesStrongPassword() {
-        PasswordEncoder encoder = securityConfig.passwordEncoder();
+        PasswordEncoder encoder = securityConfig.passwordEncoder("bcrypt", 10);
         String strongPassword = "StrongP@ssw0rd123!";
 
         String encodedPassword = encoder.encode(strongPassword);
 
         assertThat(encoder.matches(strongPassword, encodedPassword)).isTrue();
-        assertThat(encodedPassword).startsWith("$2a$");
+        assertThat(encodedPassword).startsWith("{bcrypt}$2a$");
     }
 
     @Test
     void passwordEncoderHandlesMinimumLengthPassword() {
-        PasswordEncoder encoder = securityConfig.passwordEncoder();
+        PasswordEncoder encoder = securityConfig.passwordEncoder("bcrypt", 10);
         String minimumPassword = "Pass123!";
 
         String encodedPassword = encoder.encode(minimumPassword);
 
         assertThat(encoder.matches(minimumPassword, encodedPassword)).isTrue();
     }
+
+    @Test
+    void passwordEncoderMatchesLegacyUnprefixedBCryptHashAndFlagsItForUpgrade() {
+        PasswordEncoder encoder = securityConfig.passwordEncoder("bcrypt", 10);
+        String legacyHash = new BCryptPasswordEncoder(10).encode("legacyPassword");
+
+        assertThat(encoder.matches("legacyPassword", legacyHash)).isTrue();
+        assertThat(encoder.upgradeEncoding(legacyHash)).isTrue();
+    }
+
+    @Test
+    void passwordEncoderFlagsWeakerBCryptStrengthForUpgrade() {
+        PasswordEncoder weakEncoder = securityConfig.passwordEncoder("bcrypt", 4);
+        PasswordEncoder encoder = securityConfig.passwordEncoder("bcrypt", 10);
+        String weakHash = weakEncoder.encode("testPassword");
+
+        assertThat(encoder.matches("testPassword", weakHash)).isTrue();
+        assertThat(encoder.upgradeEncoding(weakHash)).isTrue();
+        assertThat(encoder.upgradeEncoding(encoder.encode("testPassword"))).isFalse();
+    }
+
+    @Test
+    void passwordEncoderCanBeSwitchedToPbkdf2AndStillMatchesBCryptHashes() {
+        PasswordEncoder bcrypt = securityConfig.passwordEncoder("bcrypt", 10);
+        PasswordEncoder pbkdf2 = securityConfig.passwordEncoder("pbkdf2", 10);
+        String bcryptHash = bcrypt.encode("testPassword");
+
+        String pbkdf2Hash = pbkdf2.encode("testPassword");
+
+        assertThat(pbkdf2Hash).startsWith("{pbkdf2}");
+        assertThat(pbkdf2.matches("testPassword", pbkdf2Hash)).isTrue();
+        assertThat(pbkdf2.matches("testPassword", bcryptHash)).isTrue();
+        assertThat(pbkdf2.upgradeEncoding(bcryptHash)).isTrue();
+    }
+
+    @Test
+    void passwordEncoderRejectsUnknownEncodingId() {
+        assertThatThrownBy(() -> securityConfig.passwordEncoder("md5", 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
 }
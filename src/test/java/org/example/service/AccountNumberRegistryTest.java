@@ -0,0 +1,128 @@
+package org.example.service;
+
+import org.example.repository.AccountRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccountNumberRegistryTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AccountNumberRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new AccountNumberRegistry(accountRepository, new SingleDatabaseShardRouter(), transactionManager);
+    }
+
+    @Test
+    void loadsExistingAccountNumbersAtStartup() {
+        when(accountRepository.streamAllAccountNumbers()).thenReturn(Stream.of("01000000", "01234567", "01999999"));
+
+        registry.afterSingletonsInstantiated();
+
+        assertThat(registry.occupiedCount()).isEqualTo(3);
+        assertThat(registry.isAllocated("01000000")).isTrue();
+        assertThat(registry.isAllocated("01234567")).isTrue();
+        assertThat(registry.isAllocated("01999999")).isTrue();
+        assertThat(registry.isAllocated("01234568")).isFalse();
+        assertThat(registry.occupancyRatio()).isEqualTo(3.0 / AccountNumberRegistry.CAPACITY);
+    }
+
+    @Test
+    void ignoresNumbersOutsideTheManagedSpace() {
+        when(accountRepository.streamAllAccountNumbers()).thenReturn(Stream.of("01ABCDEF", "02000000", "0100000"));
+
+        registry.afterSingletonsInstantiated();
+
+        assertThat(registry.occupiedCount()).isZero();
+        assertThat(registry.isAllocated("01ABCDEF")).isFalse();
+    }
+
+    @Test
+    void markAllocatedClaimsANumberOnlyOnce() {
+        assertThat(registry.markAllocated("01000063")).isTrue();
+        assertThat(registry.markAllocated("01000064")).isTrue();
+        assertThat(registry.markAllocated("01000063")).isFalse();
+
+        assertThat(registry.occupiedCount()).isEqualTo(2);
+    }
+
+    @Test
+    void claimFirstFreeSkipsTakenWordsAndStaysInRange() {
+        for (int i = 0; i < 130; i++) {
+            registry.markAllocated(String.format("01%06d", i));
+        }
+
+        assertThat(registry.claimFirstFree(0, 200)).isEqualTo(130);
+        assertThat(registry.claimFirstFree(0, 131)).isEqualTo(-1);
+        assertThat(registry.claimFirstFree(64, 140)).isEqualTo(131);
+        assertThat(registry.isAllocated("01000131")).isTrue();
+        assertThat(registry.occupiedCount()).isEqualTo(132);
+        assertThat(AccountNumberRegistry.accountNumberOf(131)).isEqualTo("01000131");
+    }
+
+    @Test
+    void releaseFreesANumberAndIsIdempotent() {
+        registry.markAllocated("01234567");
+
+        registry.release("01234567");
+        registry.release("01234567");
+
+        assertThat(registry.isAllocated("01234567")).isFalse();
+        assertThat(registry.occupiedCount()).isZero();
+    }
+
+    @Test
+    void concurrentClaimsOfTheSameWordNeverLoseABit() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger claimed = new AtomicInteger();
+        Set<String> winners = ConcurrentHashMap.newKeySet();
+        try {
+            for (int t = 0; t < 8; t++) {
+                executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 128; i++) {
+                        String accountNumber = String.format("01%06d", i);
+                        if (registry.markAllocated(accountNumber)) {
+                            claimed.incrementAndGet();
+                            winners.add(accountNumber);
+                        }
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            executor.shutdown();
+            assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(claimed).hasValue(128);
+        assertThat(winners).hasSize(128);
+        assertThat(registry.occupiedCount()).isEqualTo(128);
+    }
+}
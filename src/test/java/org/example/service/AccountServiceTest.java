@@ -1,8 +1,8 @@
 package org.example.service;
 
 import org.example.entity.Account;
-import org.example.entity.Transaction;
 import org.example.entity.User;
+import org.example.entity.Money;
 import org.example.exception.AccountNotFoundException;
 import org.example.exception.UserNotFoundException;
 import org.example.mapper.AccountMapper;
@@ -11,13 +11,19 @@ import org.example.model.CreateBankAccountRequest;
 import org.example.model.ListBankAccountsResponse;
 import org.example.model.UpdateBankAccountRequest;
 import org.example.repository.AccountRepository;
+import org.example.repository.AccountView;
+import org.example.repository.TransactionRepository;
 import org.example.repository.UserRepository;
+import org.example.security.AccountAccessAuthorizer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.security.access.AccessDeniedException;
 
 import java.time.LocalDateTime;
@@ -42,11 +48,24 @@ class AccountServiceTest {
     @Mock
     private AccountMapper accountMapper;
 
+    @Mock
+    private IdAllocator accountNumberAllocator;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private AccountAccessAuthorizer accountAccessAuthorizer;
+
+    @Spy
+    private ShardRouter shardRouter = new SingleDatabaseShardRouter();
+
     @InjectMocks
     private AccountService accountService;
 
     private User user;
     private Account account;
+    private AccountView accountView;
     private BankAccountResponse bankAccountResponse;
     private CreateBankAccountRequest createBankAccountRequest;
     private UpdateBankAccountRequest updateBankAccountRequest;
@@ -64,7 +83,7 @@ class AccountServiceTest {
         account.setAccountNumber("01234567");
         account.setName("Savings Account");
         account.setAccountType(Account.AccountType.PERSONAL);
-        account.setBalance(1000.00);
+        account.setBalance(Money.fromDecimal(1000.00));
         account.setCurrency(Account.Currency.GBP);
         account.setSortCode(Account.SortCode._10_10_10);
         account.setUser(user);
@@ -72,6 +91,10 @@ class AccountServiceTest {
         account.setCreatedTimestamp(LocalDateTime.now());
         account.setUpdatedTimestamp(LocalDateTime.now());
 
+        accountView = new AccountView(account.getAccountNumber(), account.getSortCode(), account.getName(),
+                account.getAccountType(), account.getBalance(), account.getCurrency(),
+                account.getCreatedTimestamp(), account.getUpdatedTimestamp());
+
         bankAccountResponse = new BankAccountResponse()
                 .accountNumber("01234567")
                 .name("Savings Account")
@@ -98,77 +121,78 @@ class AccountServiceTest {
     @Test
     void createAccountSuccessfullyForValidUser() {
         String userId = "usr-1234567890";
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.existsById(userId)).thenReturn(true);
+        when(userRepository.getReferenceById(userId)).thenReturn(user);
         when(accountMapper.toEntity(createBankAccountRequest)).thenReturn(account);
-        when(accountRepository.existsByAccountNumber(anyString())).thenReturn(false);
-        when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
-            User savedUser = invocation.getArgument(0);
-            savedUser.getAccounts().add(account);
-            return savedUser;
-        });
+        when(accountNumberAllocator.nextId()).thenReturn("01234567");
+        when(accountRepository.save(account)).thenReturn(account);
         when(accountMapper.toResponse(account)).thenReturn(bankAccountResponse);
 
         BankAccountResponse result = accountService.createAccount(userId, createBankAccountRequest);
 
         assertThat(result).isEqualTo(bankAccountResponse);
-        verify(userRepository).findById(userId);
+        verify(userRepository).existsById(userId);
         verify(accountMapper).toEntity(createBankAccountRequest);
-        verify(userRepository).save(any(User.class));
+        verify(accountRepository).save(any(Account.class));
+        verify(userRepository, never()).save(any());
         verify(accountMapper).toResponse(account);
     }
 
     @Test
     void createAccountThrowsUserNotFoundExceptionWhenUserDoesNotExist() {
         String userId = "usr-nonexistent";
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(userRepository.existsById(userId)).thenReturn(false);
 
         assertThatThrownBy(() -> accountService.createAccount(userId, createBankAccountRequest))
                 .isInstanceOf(UserNotFoundException.class)
                 .hasMessage("User not found with ID: usr-nonexistent");
 
-        verify(userRepository).findById(userId);
+        verify(userRepository).existsById(userId);
         verify(accountMapper, never()).toEntity(any());
-        verify(userRepository, never()).save(any());
+        verify(accountRepository, never()).save(any());
     }
 
     @Test
     void createAccountGeneratesUniqueAccountNumberWithCorrectFormat() {
         String userId = "usr-1234567890";
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.existsById(userId)).thenReturn(true);
+        when(userRepository.getReferenceById(userId)).thenReturn(user);
         when(accountMapper.toEntity(createBankAccountRequest)).thenReturn(account);
-        when(accountRepository.existsByAccountNumber(anyString())).thenReturn(false);
-        when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
-            User savedUser = invocation.getArgument(0);
-            Account savedAccount = savedUser.getAccounts().get(0);
+        when(accountNumberAllocator.nextId()).thenReturn("01234567");
+        when(accountRepository.save(any(Account.class))).thenAnswer(invocation -> {
+            Account savedAccount = invocation.getArgument(0);
             assertThat(savedAccount.getAccountNumber()).matches("^01\\d{6}$");
-            return savedUser;
+            return savedAccount;
         });
         when(accountMapper.toResponse(any(Account.class))).thenReturn(bankAccountResponse);
 
         accountService.createAccount(userId, createBankAccountRequest);
 
-        verify(userRepository).save(any(User.class));
+        verify(accountRepository).save(any(Account.class));
+        verify(userRepository, never()).save(any());
     }
 
     @Test
     void createAccountSetsSystemGeneratedFieldsCorrectly() {
         String userId = "usr-1234567890";
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.existsById(userId)).thenReturn(true);
+        when(userRepository.getReferenceById(userId)).thenReturn(user);
         when(accountMapper.toEntity(createBankAccountRequest)).thenReturn(account);
-        when(accountRepository.existsByAccountNumber(anyString())).thenReturn(false);
-        when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
-            User savedUser = invocation.getArgument(0);
-            Account savedAccount = savedUser.getAccounts().get(0);
-            assertThat(savedAccount.getBalance()).isEqualTo(0.0);
+        when(accountNumberAllocator.nextId()).thenReturn("01234567");
+        when(accountRepository.save(any(Account.class))).thenAnswer(invocation -> {
+            Account savedAccount = invocation.getArgument(0);
+            assertThat(savedAccount.getBalance()).isEqualTo(Money.fromDecimal(0.0));
             assertThat(savedAccount.getCurrency()).isEqualTo(Account.Currency.GBP);
             assertThat(savedAccount.getSortCode()).isEqualTo(Account.SortCode._10_10_10);
-            return savedUser;
+            assertThat(savedAccount.getUser()).isSameAs(user);
+            return savedAccount;
         });
         when(accountMapper.toResponse(any(Account.class))).thenReturn(bankAccountResponse);
 
         accountService.createAccount(userId, createBankAccountRequest);
 
-        verify(userRepository).save(any(User.class));
+        verify(accountRepository).save(any(Account.class));
+        verify(userRepository, never()).save(any());
     }
 
     // === FIND ACCOUNT BY ACCOUNT NUMBER TESTS ===
@@ -220,32 +244,32 @@ class AccountServiceTest {
     @Test
     void findAccountsByUserIdSuccessfullyReturnsUserAccounts() {
         String userId = "usr-1234567890";
-        List<Account> accounts = List.of(account);
+        List<AccountView> accounts = List.of(accountView);
         List<BankAccountResponse> accountResponses = List.of(bankAccountResponse);
-        when(accountRepository.findByUser_Id(userId)).thenReturn(accounts);
-        when(accountMapper.toResponseList(accounts)).thenReturn(accountResponses);
+        when(accountRepository.findViewsByUserId(userId)).thenReturn(accounts);
+        when(accountMapper.fromViews(accounts)).thenReturn(accountResponses);
 
         ListBankAccountsResponse result = accountService.findAccountsByUserId(userId);
 
         assertThat(result.getAccounts()).hasSize(1);
         assertThat(result.getAccounts().get(0)).isEqualTo(bankAccountResponse);
-        verify(accountRepository).findByUser_Id(userId);
-        verify(accountMapper).toResponseList(accounts);
+        verify(accountRepository).findViewsByUserId(userId);
+        verify(accountMapper).fromViews(accounts);
     }
 
     @Test
     void findAccountsByUserIdReturnsEmptyListWhenUserHasNoAccounts() {
         String userId = "usr-1234567890";
-        List<Account> emptyAccounts = List.of();
+        List<AccountView> emptyAccounts = List.of();
         List<BankAccountResponse> emptyResponses = List.of();
-        when(accountRepository.findByUser_Id(userId)).thenReturn(emptyAccounts);
-        when(accountMapper.toResponseList(emptyAccounts)).thenReturn(emptyResponses);
+        when(accountRepository.findViewsByUserId(userId)).thenReturn(emptyAccounts);
+        when(accountMapper.fromViews(emptyAccounts)).thenReturn(emptyResponses);
 
         ListBankAccountsResponse result = accountService.findAccountsByUserId(userId);
 
         assertThat(result.getAccounts()).isEmpty();
-        verify(accountRepository).findByUser_Id(userId);
-        verify(accountMapper).toResponseList(emptyAccounts);
+        verify(accountRepository).findViewsByUserId(userId);
+        verify(accountMapper).fromViews(emptyAccounts);
     }
 
     // === UPDATE ACCOUNT TESTS ===
@@ -303,16 +327,17 @@ class AccountServiceTest {
     void deleteAccountSuccessfullyWhenAccountHasZeroBalanceAndNoTransactions() {
         String accountNumber = "01234567";
         String userId = "usr-1234567890";
-        account.setBalance(0.0);
-        account.setTransactions(new ArrayList<>());
-        user.getAccounts().add(account);
+        account.setBalance(Money.fromDecimal(0.0));
         when(accountRepository.findByAccountNumber(accountNumber)).thenReturn(Optional.of(account));
-        when(userRepository.save(user)).thenReturn(user);
+        when(transactionRepository.existsByAccount_AccountNumber(accountNumber)).thenReturn(false);
 
         accountService.deleteAccount(accountNumber, userId);
 
         verify(accountRepository).findByAccountNumber(accountNumber);
-        verify(userRepository).save(user);
+        verify(transactionRepository).existsByAccount_AccountNumber(accountNumber);
+        verify(accountRepository).delete(account);
+        verify(userRepository, never()).save(any());
+        verify(accountAccessAuthorizer).evictAfterCommit(accountNumber);
     }
 
     @Test
@@ -326,7 +351,7 @@ class AccountServiceTest {
                 .hasMessage("Account not found with account number: 01999999");
 
         verify(accountRepository).findByAccountNumber(accountNumber);
-        verify(userRepository, never()).save(any());
+        verify(accountRepository, never()).delete(any());
     }
 
     @Test
@@ -340,31 +365,30 @@ class AccountServiceTest {
                 .hasMessage("Access denied to account");
 
         verify(accountRepository).findByAccountNumber(accountNumber);
-        verify(userRepository, never()).save(any());
+        verify(accountRepository, never()).delete(any());
     }
 
     @Test
     void deleteAccountThrowsIllegalStateExceptionWhenAccountHasTransactions() {
         String accountNumber = "01234567";
         String userId = "usr-1234567890";
-        account.setBalance(0.0);
-        Transaction transaction = new Transaction();
-        account.getTransactions().add(transaction);
+        account.setBalance(Money.fromDecimal(0.0));
         when(accountRepository.findByAccountNumber(accountNumber)).thenReturn(Optional.of(account));
+        when(transactionRepository.existsByAccount_AccountNumber(accountNumber)).thenReturn(true);
 
         assertThatThrownBy(() -> accountService.deleteAccount(accountNumber, userId))
                 .isInstanceOf(IllegalStateException.class)
                 .hasMessage("Cannot delete account with existing transactions");
 
         verify(accountRepository).findByAccountNumber(accountNumber);
-        verify(userRepository, never()).save(any());
+        verify(accountRepository, never()).delete(any());
     }
 
     @Test
     void deleteAccountThrowsIllegalStateExceptionWhenAccountHasNonZeroBalance() {
         String accountNumber = "01234567";
         String userId = "usr-1234567890";
-        account.setBalance(100.0);
+        account.setBalance(Money.fromDecimal(100.0));
         account.setTransactions(new ArrayList<>());
         when(accountRepository.findByAccountNumber(accountNumber)).thenReturn(Optional.of(account));
 
@@ -373,14 +397,14 @@ class AccountServiceTest {
                 .hasMessage("Cannot delete account with non-zero balance");
 
         verify(accountRepository).findByAccountNumber(accountNumber);
-        verify(userRepository, never()).save(any());
+        verify(accountRepository, never()).delete(any());
     }
 
     @Test
     void deleteAccountThrowsIllegalStateExceptionWhenAccountHasNegativeBalance() {
         String accountNumber = "01234567";
         String userId = "usr-1234567890";
-        account.setBalance(-50.0);
+        account.setBalance(Money.fromDecimal(-50.0));
         account.setTransactions(new ArrayList<>());
         when(accountRepository.findByAccountNumber(accountNumber)).thenReturn(Optional.of(account));
 
@@ -389,71 +413,91 @@ class AccountServiceTest {
                 .hasMessage("Cannot delete account with non-zero balance");
 
         verify(accountRepository).findByAccountNumber(accountNumber);
-        verify(userRepository, never()).save(any());
+        verify(accountRepository, never()).delete(any());
     }
 
     // === ADDITIONAL EDGE CASES AND SCENARIOS ===
 
     @Test
-    void createAccountGeneratesUniqueAccountNumberAfterCollisions() {
+    void createAccountUsesAllocatedAccountNumberWithoutExistenceCheck() {
         String userId = "usr-1234567890";
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.existsById(userId)).thenReturn(true);
+        when(userRepository.getReferenceById(userId)).thenReturn(user);
         when(accountMapper.toEntity(createBankAccountRequest)).thenReturn(account);
-        when(accountRepository.existsByAccountNumber(anyString()))
-                .thenReturn(true)  // First attempt collision
-                .thenReturn(true)  // Second attempt collision
-                .thenReturn(false); // Third attempt succeeds
-        when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
-            User savedUser = invocation.getArgument(0);
-            savedUser.getAccounts().add(account);
-            return savedUser;
+        when(accountNumberAllocator.nextId()).thenReturn("01000042");
+        when(accountRepository.save(any(Account.class))).thenAnswer(invocation -> {
+            Account savedAccount = invocation.getArgument(0);
+            assertThat(savedAccount.getAccountNumber()).isEqualTo("01000042");
+            return savedAccount;
         });
         when(accountMapper.toResponse(any(Account.class))).thenReturn(bankAccountResponse);
 
         accountService.createAccount(userId, createBankAccountRequest);
 
-        verify(accountRepository, times(3)).existsByAccountNumber(anyString());
-        verify(userRepository).save(any(User.class));
+        verify(accountNumberAllocator).nextId();
+        verify(accountRepository, never()).existsByAccountNumber(anyString());
     }
 
     @Test
-    void createAccountUsesUuidFallbackWhenMaxAttemptsReached() {
+    void createAccountPropagatesExhaustedAccountNumberSpace() {
         String userId = "usr-1234567890";
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.existsById(userId)).thenReturn(true);
         when(accountMapper.toEntity(createBankAccountRequest)).thenReturn(account);
-        when(accountRepository.existsByAccountNumber(anyString()))
-                .thenReturn(true);  // Always return true to force fallback
-        when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
-            User savedUser = invocation.getArgument(0);
-            Account savedAccount = savedUser.getAccounts().get(0);
-            assertThat(savedAccount.getAccountNumber()).startsWith("01");
-            assertThat(savedAccount.getAccountNumber()).hasSize(8);
-            return savedUser;
-        });
-        when(accountMapper.toResponse(any(Account.class))).thenReturn(bankAccountResponse);
+        when(accountNumberAllocator.nextId()).thenThrow(new IllegalStateException("ID space for account-number is exhausted"));
 
-        accountService.createAccount(userId, createBankAccountRequest);
+        assertThatThrownBy(() -> accountService.createAccount(userId, createBankAccountRequest))
+                .isInstanceOf(IllegalStateException.class);
+
+        verify(accountRepository, never()).save(any());
+    }
+
+    @Test
+    void createAccountReleasesTheAccountNumberWhenTheSaveFails() {
+        String userId = "usr-1234567890";
+        when(userRepository.existsById(userId)).thenReturn(true);
+        when(userRepository.getReferenceById(userId)).thenReturn(user);
+        when(accountMapper.toEntity(createBankAccountRequest)).thenReturn(account);
+        when(accountNumberAllocator.nextId()).thenReturn("01000042");
+        when(accountRepository.save(any(Account.class))).thenThrow(new QueryTimeoutException("Insert timed out"));
 
-        verify(accountRepository, times(99)).existsByAccountNumber(anyString());
-        verify(userRepository).save(any(User.class));
+        assertThatThrownBy(() -> accountService.createAccount(userId, createBankAccountRequest))
+                .isInstanceOf(QueryTimeoutException.class);
+
+        verify(shardRouter).unregisterAccount("01000042");
+        verify(accountNumberAllocator).release("01000042");
+    }
+
+    @Test
+    void createAccountKeepsAnAccountNumberThatIsAlreadyInUse() {
+        String userId = "usr-1234567890";
+        when(userRepository.existsById(userId)).thenReturn(true);
+        when(userRepository.getReferenceById(userId)).thenReturn(user);
+        when(accountMapper.toEntity(createBankAccountRequest)).thenReturn(account);
+        when(accountNumberAllocator.nextId()).thenReturn("01000042");
+        when(accountRepository.save(any(Account.class))).thenThrow(new DuplicateKeyException("Duplicate account number"));
+
+        assertThatThrownBy(() -> accountService.createAccount(userId, createBankAccountRequest))
+                .isInstanceOf(DuplicateKeyException.class);
+
+        verify(accountNumberAllocator, never()).release(any());
     }
 
     @Test
     void findAccountsByUserIdWithMultipleAccountsReturnsAllAccounts() {
         String userId = "usr-1234567890";
-        Account secondAccount = new Account();
-        secondAccount.setAccountNumber("01765432");
-        List<Account> accounts = List.of(account, secondAccount);
+        AccountView secondAccount = new AccountView("01765432", Account.SortCode._10_10_10, "Second Account",
+                Account.AccountType.PERSONAL, Money.ZERO, Account.Currency.GBP, LocalDateTime.now(), LocalDateTime.now());
+        List<AccountView> accounts = List.of(accountView, secondAccount);
         BankAccountResponse secondResponse = new BankAccountResponse().accountNumber("01765432");
         List<BankAccountResponse> accountResponses = List.of(bankAccountResponse, secondResponse);
-        when(accountRepository.findByUser_Id(userId)).thenReturn(accounts);
-        when(accountMapper.toResponseList(accounts)).thenReturn(accountResponses);
+        when(accountRepository.findViewsByUserId(userId)).thenReturn(accounts);
+        when(accountMapper.fromViews(accounts)).thenReturn(accountResponses);
 
         ListBankAccountsResponse result = accountService.findAccountsByUserId(userId);
 
         assertThat(result.getAccounts()).hasSize(2);
-        verify(accountRepository).findByUser_Id(userId);
-        verify(accountMapper).toResponseList(accounts);
+        verify(accountRepository).findViewsByUserId(userId);
+        verify(accountMapper).fromViews(accounts);
     }
 
     @Test
@@ -475,33 +519,31 @@ class AccountServiceTest {
     void deleteAccountVerifiesOwnershipBeforeCheckingBusinessRules() {
         String accountNumber = "01234567";
         String otherUserId = "usr-0987654321";
-        account.setBalance(100.0);  // Non-zero balance
+        account.setBalance(Money.fromDecimal(100.0));  // Non-zero balance
         when(accountRepository.findByAccountNumber(accountNumber)).thenReturn(Optional.of(account));
 
         assertThatThrownBy(() -> accountService.deleteAccount(accountNumber, otherUserId))
                 .isInstanceOf(AccessDeniedException.class);
 
         verify(accountRepository).findByAccountNumber(accountNumber);
-        verify(userRepository, never()).save(any());
+        verify(accountRepository, never()).delete(any());
     }
 
     @Test
     void createAccountSetsTimestampsAutomatically() {
         String userId = "usr-1234567890";
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.existsById(userId)).thenReturn(true);
+        when(userRepository.getReferenceById(userId)).thenReturn(user);
         when(accountMapper.toEntity(createBankAccountRequest)).thenReturn(account);
-        when(accountRepository.existsByAccountNumber(anyString())).thenReturn(false);
-        when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
-            User savedUser = invocation.getArgument(0);
-            savedUser.getAccounts().add(account);
-            return savedUser;
-        });
+        when(accountNumberAllocator.nextId()).thenReturn("01234567");
+        when(accountRepository.save(account)).thenReturn(account);
         when(accountMapper.toResponse(account)).thenReturn(bankAccountResponse);
 
         BankAccountResponse result = accountService.createAccount(userId, createBankAccountRequest);
 
         assertThat(result.getCreatedTimestamp()).isNotNull();
         assertThat(result.getUpdatedTimestamp()).isNotNull();
-        verify(userRepository).save(any(User.class));
+        verify(accountRepository).save(any(Account.class));
+        verify(userRepository, never()).save(any());
     }
 }
@@ -0,0 +1,256 @@
+package org.example.service;
+
+import org.example.entity.Account;
+import org.example.entity.Address;
+import org.example.entity.User;
+import org.example.entity.Money;
+import org.example.exception.InsufficientFundsException;
+import org.example.mapper.TransactionMapper;
+import org.example.model.CreateTransactionRequest;
+import org.example.repository.AccountRepository;
+import org.example.repository.TransactionRepository;
+import org.example.repository.TransactionView;
+import org.example.repository.UserRepository;
+import org.example.security.AccountAccessAuthorizer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Stress test firing thousands of parallel deposits and withdrawals at a single account
+ * Verifies that no balance update is lost and no overdraft happens in either locking mode,
+ * that conditional withdrawals racing for the same funds never overdraw the account,
+ * and that parallel retries sharing an idempotency key post once
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ledgerdb;LOCK_TIMEOUT=10000",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+        "logging.level.org.springframework.security=WARN",
+        "logging.level.org.example=WARN"
+})
+class BalanceLedgerConcurrencyTest {
+
+    private static final int POSTINGS = 2000;
+    private static final int THREADS = 16;
+    private static final double DEPOSIT_AMOUNT = 2.00;
+    private static final double WITHDRAWAL_AMOUNT = 1.00;
+    private static final Money FUNDED_BALANCE = Money.fromDecimal(250.00);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionMapper transactionMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private IdAllocator transactionIdAllocator;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @ParameterizedTest
+    @EnumSource(BalanceLedger.LockingMode.class)
+    void concurrentPostingsToOneAccountNeverLoseUpdates(BalanceLedger.LockingMode lockingMode) throws Exception {
+        String userId = "usr-ledger" + lockingMode.ordinal();
+        String accountNumber = "0190000" + lockingMode.ordinal();
+        createAccount(userId, accountNumber, Money.ZERO);
+
+        TransactionService transactionService = new TransactionService(transactionRepository, accountRepository, transactionMapper,
+                new BalanceLedger(accountRepository, transactionManager, lockingMode.name(), 50),
+                new AccountAccessAuthorizer(accountRepository, 100), transactionIdAllocator, idempotencyStore);
+
+        AtomicInteger deposits = new AtomicInteger();
+        AtomicInteger withdrawals = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < POSTINGS; i++) {
+                boolean deposit = i % 2 == 0;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        transactionService.createTransaction(accountNumber, request(deposit), userId);
+                        (deposit ? deposits : withdrawals).incrementAndGet();
+                    } catch (InsufficientFundsException e) {
+                        // Withdrawal raced ahead of the deposits, a legitimate rejection
+                    } catch (ConcurrencyFailureException e) {
+                        conflicts.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(120, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Account account = accountRepository.findById(accountNumber).orElseThrow();
+        Money expectedBalance = Money.ofMinor(deposits.get() * Money.toMinorUnits(DEPOSIT_AMOUNT)
+                - withdrawals.get() * Money.toMinorUnits(WITHDRAWAL_AMOUNT));
+
+        assertThat(account.getBalance()).isEqualTo(expectedBalance);
+        assertThat(account.getBalance()).isGreaterThanOrEqualTo(Money.ZERO);
+        assertThat(transactionRepository.findViewPageByAccountNumber(accountNumber, Pageable.unpaged()))
+                .hasSize(deposits.get() + withdrawals.get());
+        assertThat(deposits.get()).isGreaterThan(0);
+        if (lockingMode == BalanceLedger.LockingMode.PESSIMISTIC) {
+            assertThat(conflicts.get()).isZero();
+            assertThat(deposits.get()).isEqualTo(POSTINGS / 2);
+        }
+    }
+
+    @Test
+    void concurrentWithdrawalsNeverOverdrawTheAccount() throws Exception {
+        String userId = "usr-ledgerwithdrawals";
+        String accountNumber = "01900010";
+        createAccount(userId, accountNumber, FUNDED_BALANCE);
+
+        AtomicInteger withdrawals = new AtomicInteger();
+        AtomicInteger rejections = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < POSTINGS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        transactionService.createTransaction(accountNumber, request(false), userId);
+                        withdrawals.incrementAndGet();
+                    } catch (InsufficientFundsException e) {
+                        rejections.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(120, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Exactly the funded amount is withdrawn: every withdrawal beyond it is rejected, none conflicts
+        int affordable = (int) (FUNDED_BALANCE.minorUnits() / Money.toMinorUnits(WITHDRAWAL_AMOUNT));
+        Account account = accountRepository.findById(accountNumber).orElseThrow();
+        assertThat(withdrawals.get()).isEqualTo(affordable);
+        assertThat(rejections.get()).isEqualTo(POSTINGS - affordable);
+        assertThat(account.getBalance()).isEqualTo(Money.ZERO);
+        assertThat(transactionRepository.findViewPageByAccountNumber(accountNumber, Pageable.unpaged()))
+                .hasSize(withdrawals.get());
+    }
+
+    @Test
+    void concurrentRetriesWithOneIdempotencyKeyPostOnce() throws Exception {
+        String userId = "usr-ledgeridempotency";
+        String accountNumber = "01900020";
+        createAccount(userId, accountNumber, Money.ZERO);
+
+        Set<String> transactionIds = ConcurrentHashMap.newKeySet();
+        AtomicInteger conflicts = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < THREADS * 10; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        transactionIds.add(transactionService.createTransaction(accountNumber, request(true), userId,
+                                "gateway-retry-1").getId());
+                    } catch (ConcurrencyFailureException e) {
+                        conflicts.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(120, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Every retry that got an answer got the original transaction, and the deposit was posted once
+        Account account = accountRepository.findById(accountNumber).orElseThrow();
+        assertThat(transactionIds).hasSize(1);
+        assertThat(account.getBalance()).isEqualTo(Money.fromDecimal(DEPOSIT_AMOUNT));
+        assertThat(transactionRepository.findViewPageByAccountNumber(accountNumber, Pageable.unpaged()))
+                .extracting(TransactionView::id)
+                .containsExactlyElementsOf(transactionIds);
+        assertThat(conflicts.get()).isLessThan(THREADS * 10);
+    }
+
+    private void createAccount(String userId, String accountNumber, Money balance) {
+        User user = new User();
+        user.setId(userId);
+        user.setEmail(userId + "@example.com");
+        user.setName("Ledger Test");
+        user.setPhoneNumber("+447123456789");
+        user.setPasswordHash("hashedPassword");
+        user.setAddress(new Address("1 Test Street", null, null, "London", "Greater London", "SW1A 1AA"));
+        User savedUser = userRepository.save(user);
+
+        Account account = new Account();
+        account.setAccountNumber(accountNumber);
+        account.setName("Payroll Account");
+        account.setAccountType(Account.AccountType.PERSONAL);
+        account.setBalance(balance);
+        account.setCurrency(Account.Currency.GBP);
+        account.setSortCode(Account.SortCode._10_10_10);
+        account.setUser(savedUser);
+        accountRepository.save(account);
+    }
+
+    private CreateTransactionRequest request(boolean deposit) {
+        return new CreateTransactionRequest()
+                .amount(deposit ? DEPOSIT_AMOUNT : WITHDRAWAL_AMOUNT)
+                .currency(CreateTransactionRequest.CurrencyEnum.GBP)
+                .type(deposit ? CreateTransactionRequest.TypeEnum.DEPOSIT : CreateTransactionRequest.TypeEnum.WITHDRAWAL)
+                .reference("Stress test");
+    }
+}
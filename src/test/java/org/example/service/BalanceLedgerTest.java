@@ -0,0 +1,223 @@
+package org.example.service;
+
+import org.example.entity.Account;
+import org.example.entity.Money;
+import org.example.exception.AccountNotFoundException;
+import org.example.exception.InsufficientFundsException;
+import org.example.repository.AccountRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceLedgerTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private Account account;
+
+    @BeforeEach
+    void setUp() {
+        account = new Account();
+        account.setAccountNumber("01234567");
+        account.setBalance(Money.fromDecimal(100.00));
+    }
+
+    @Test
+    void postLoadsAccountWithUserInOptimisticMode() {
+        BalanceLedger ledger = new BalanceLedger(accountRepository, transactionManager, "optimistic", 3);
+        when(accountRepository.findByAccountNumber("01234567")).thenReturn(Optional.of(account));
+
+        Money result = ledger.post("01234567", Account::getBalance);
+
+        assertThat(result).isEqualTo(Money.fromDecimal(100.00));
+        assertThat(ledger.getLockingMode()).isEqualTo(BalanceLedger.LockingMode.OPTIMISTIC);
+        verify(accountRepository, never()).findByAccountNumberForUpdate(anyString());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void postLocksAccountRowInPessimisticMode() {
+        BalanceLedger ledger = new BalanceLedger(accountRepository, transactionManager, "PESSIMISTIC", 3);
+        when(accountRepository.findByAccountNumberForUpdate("01234567")).thenReturn(Optional.of(account));
+
+        Money result = ledger.post("01234567", Account::getBalance);
+
+        assertThat(result).isEqualTo(Money.fromDecimal(100.00));
+        verify(accountRepository, never()).findByAccountNumber(anyString());
+    }
+
+    @Test
+    void postRetriesAfterConcurrentUpdateConflict() {
+        BalanceLedger ledger = new BalanceLedger(accountRepository, transactionManager, "optimistic", 3);
+        when(accountRepository.findByAccountNumber("01234567")).thenReturn(Optional.of(account));
+        AtomicInteger attempts = new AtomicInteger();
+
+        Integer result = ledger.post("01234567", loaded -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new ObjectOptimisticLockingFailureException(Account.class, "01234567");
+            }
+            return attempts.get();
+        });
+
+        assertThat(result).isEqualTo(2);
+        verify(accountRepository, times(2)).findByAccountNumber("01234567");
+        verify(transactionManager).rollback(any());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void postGivesUpAfterMaxAttempts() {
+        BalanceLedger ledger = new BalanceLedger(accountRepository, transactionManager, "optimistic", 3);
+        when(accountRepository.findByAccountNumber("01234567")).thenReturn(Optional.of(account));
+
+        assertThatThrownBy(() -> ledger.post("01234567", loaded -> {
+            throw new ObjectOptimisticLockingFailureException(Account.class, "01234567");
+        })).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+
+        verify(accountRepository, times(3)).findByAccountNumber("01234567");
+        verify(transactionManager, never()).commit(any());
+    }
+
+    @Test
+    void postThrowsAccountNotFoundExceptionWithoutRetrying() {
+        BalanceLedger ledger = new BalanceLedger(accountRepository, transactionManager, "optimistic", 3);
+        when(accountRepository.findByAccountNumber("01999999")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> ledger.post("01999999", Account::getBalance))
+                .isInstanceOf(AccountNotFoundException.class);
+
+        verify(accountRepository, times(1)).findByAccountNumber("01999999");
+    }
+
+    @Test
+    void postAllLocksAccountsInAccountNumberOrderAndSkipsUnknownAccounts() {
+        BalanceLedger ledger = new BalanceLedger(accountRepository, transactionManager, "pessimistic", 3);
+        Account other = new Account();
+        other.setAccountNumber("01000001");
+        when(accountRepository.findByAccountNumberForUpdate("01000001")).thenReturn(Optional.of(other));
+        when(accountRepository.findByAccountNumberForUpdate("01234567")).thenReturn(Optional.of(account));
+        when(accountRepository.findByAccountNumberForUpdate("01999999")).thenReturn(Optional.empty());
+
+        Map<String, Account> result = ledger.postAll(List.of("01999999", "01234567", "01000001", "01234567"), accounts -> accounts);
+
+        assertThat(result).containsOnlyKeys("01000001", "01234567");
+        InOrder inOrder = inOrder(accountRepository);
+        inOrder.verify(accountRepository).findByAccountNumberForUpdate("01000001");
+        inOrder.verify(accountRepository).findByAccountNumberForUpdate("01234567");
+        inOrder.verify(accountRepository).findByAccountNumberForUpdate("01999999");
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void postAllRetriesTheWholeBatchAfterConcurrentUpdateConflict() {
+        BalanceLedger ledger = new BalanceLedger(accountRepository, transactionManager, "optimistic", 3);
+        when(accountRepository.findByAccountNumber("01234567")).thenReturn(Optional.of(account));
+        AtomicInteger attempts = new AtomicInteger();
+
+        Integer result = ledger.postAll(List.of("01234567"), accounts -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new ObjectOptimisticLockingFailureException(Account.class, "01234567");
+            }
+            return accounts.size();
+        });
+
+        assertThat(result).isEqualTo(1);
+        verify(accountRepository, times(2)).findByAccountNumber("01234567");
+        verify(transactionManager).rollback(any());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void withdrawDebitsWithConditionalUpdateWithoutLoadingAccount() {
+        BalanceLedger ledger = new BalanceLedger(accountRepository, transactionManager, "optimistic", 3);
+        when(accountRepository.debitIfSufficient("01234567", 2500L)).thenReturn(1);
+        when(accountRepository.getReferenceById("01234567")).thenReturn(account);
+
+        String result = ledger.withdraw("01234567", Money.fromDecimal(25.00), Account::getAccountNumber);
+
+        assertThat(result).isEqualTo("01234567");
+        verify(accountRepository).evictCachedAccount("01234567");
+        verify(accountRepository, never()).findByAccountNumber(anyString());
+        verify(accountRepository, never()).findByAccountNumberForUpdate(anyString());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void withdrawThrowsInsufficientFundsExceptionWhenNoRowIsDebited() {
+        BalanceLedger ledger = new BalanceLedger(accountRepository, transactionManager, "optimistic", 3);
+        when(accountRepository.debitIfSufficient("01234567", 15000L)).thenReturn(0);
+        when(accountRepository.findByAccountNumber("01234567")).thenReturn(Optional.of(account));
+
+        assertThatThrownBy(() -> ledger.withdraw("01234567", Money.fromDecimal(150.00), Account::getBalance))
+                .isInstanceOf(InsufficientFundsException.class)
+                .hasMessage("Insufficient funds in account 01234567. Requested: 150.00, Available: 100.00");
+
+        verify(accountRepository, never()).getReferenceById(anyString());
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+    }
+
+    @Test
+    void withdrawThrowsAccountNotFoundExceptionWhenAccountDoesNotExist() {
+        BalanceLedger ledger = new BalanceLedger(accountRepository, transactionManager, "optimistic", 3);
+        when(accountRepository.debitIfSufficient("01999999", 100L)).thenReturn(0);
+        when(accountRepository.findByAccountNumber("01999999")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> ledger.withdraw("01999999", Money.fromDecimal(1.00), Account::getBalance))
+                .isInstanceOf(AccountNotFoundException.class);
+    }
+
+    @Test
+    void withdrawRetriesWhenTheRowLockCannotBeTaken() {
+        BalanceLedger ledger = new BalanceLedger(accountRepository, transactionManager, "optimistic", 3);
+        when(accountRepository.debitIfSufficient("01234567", 100L))
+                .thenThrow(new PessimisticLockingFailureException("Lock timeout"))
+                .thenReturn(1);
+        when(accountRepository.getReferenceById("01234567")).thenReturn(account);
+
+        ledger.withdraw("01234567", Money.fromDecimal(1.00), Account::getBalance);
+
+        verify(accountRepository, times(2)).debitIfSufficient("01234567", 100L);
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void withdrawRejectsNegativeAmount() {
+        BalanceLedger ledger = new BalanceLedger(accountRepository, transactionManager, "optimistic", 3);
+
+        assertThatThrownBy(() -> ledger.withdraw("01234567", Money.ofMinor(-100), Account::getBalance))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        verifyNoInteractions(accountRepository);
+    }
+
+    @Test
+    void constructorRejectsUnknownLockingModeAndNonPositiveAttempts() {
+        assertThatThrownBy(() -> new BalanceLedger(accountRepository, transactionManager, "eventual", 3))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new BalanceLedger(accountRepository, transactionManager, "optimistic", 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
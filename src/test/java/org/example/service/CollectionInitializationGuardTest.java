@@ -0,0 +1,163 @@
+package org.example.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.entity.Address;
+import org.example.entity.User;
+import org.example.model.CreateBankAccountRequest;
+import org.example.model.CreateTransactionRequest;
+import org.example.model.UpdateBankAccountRequest;
+import org.example.model.UpdateUserRequest;
+import org.example.repository.UserRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Guard against service methods initializing lazy collections they do not need
+ * Each operation runs against a user with several accounts and an account with a transaction history,
+ * and fails if Hibernate statistics record any collection load or fetch while it runs
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:collectionguarddb",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+        "logging.level.org.springframework.security=WARN",
+        "logging.level.org.example=WARN"
+})
+class CollectionInitializationGuardTest {
+
+    private static final AtomicInteger USER_SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private String userId;
+    private String accountNumber;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        userId = saveUser().getId();
+        accountNumber = createAccount(userId);
+        createAccount(userId);
+        for (int i = 0; i < 5; i++) {
+            transactionService.createTransaction(accountNumber, deposit(10.00), userId);
+        }
+    }
+
+    @Test
+    void createAccountDoesNotLoadCollections() {
+        assertNoCollectionLoads("createAccount", () -> createAccount(userId));
+    }
+
+    @Test
+    void createTransactionInsertsWithoutLoadingTheAccountHistory() {
+        assertNoCollectionLoads("createTransaction (deposit)", () ->
+                transactionService.createTransaction(accountNumber, deposit(25.00), userId));
+        assertNoCollectionLoads("createTransaction (withdrawal)", () ->
+                transactionService.createTransaction(accountNumber, withdrawal(5.00), userId));
+
+        assertThat(accountService.findByAccountNumber(accountNumber, userId).getBalance()).isEqualTo(70.00);
+        assertThat(transactionService.findByAccountNumber(accountNumber, userId, null, null).getTransactions()).hasSize(7);
+    }
+
+    @Test
+    void updateAccountDoesNotLoadCollections() {
+        assertNoCollectionLoads("updateAccount", () ->
+                accountService.updateAccount(accountNumber, userId, new UpdateBankAccountRequest().name("Renamed")));
+    }
+
+    @Test
+    void deleteAccountChecksForTransactionsWithoutLoadingThem() {
+        assertNoCollectionLoads("deleteAccount (rejected)", () ->
+                assertThatThrownBy(() -> accountService.deleteAccount(accountNumber, userId))
+                        .isInstanceOf(IllegalStateException.class)
+                        .hasMessage("Cannot delete account with existing transactions"));
+
+        String emptyAccountNumber = createAccount(userId);
+        assertNoCollectionLoads("deleteAccount", () -> accountService.deleteAccount(emptyAccountNumber, userId));
+    }
+
+    @Test
+    void readPathsDoNotLoadCollections() {
+        assertNoCollectionLoads("findAccountsByUserId", () -> accountService.findAccountsByUserId(userId));
+        assertNoCollectionLoads("findByAccountNumber (account)", () -> accountService.findByAccountNumber(accountNumber, userId));
+        assertNoCollectionLoads("findByAccountNumber (transactions)", () ->
+                transactionService.findByAccountNumber(accountNumber, userId, null, null));
+    }
+
+    @Test
+    void userWritesDoNotLoadAccounts() {
+        assertNoCollectionLoads("updateUser", () -> userService.updateUser(userId, new UpdateUserRequest().name("Renamed")));
+
+        String userWithoutAccounts = saveUser().getId();
+        assertNoCollectionLoads("deleteUser", () -> userService.deleteUser(userWithoutAccounts));
+    }
+
+    private void assertNoCollectionLoads(String operation, Runnable action) {
+        statistics.clear();
+
+        action.run();
+
+        assertThat(statistics.getCollectionLoadCount()).as("collections loaded by %s", operation).isZero();
+        assertThat(statistics.getCollectionFetchCount()).as("collections fetched by %s", operation).isZero();
+    }
+
+    private String createAccount(String ownerId) {
+        return accountService.createAccount(ownerId, new CreateBankAccountRequest()
+                .name("Guarded Account")
+                .accountType(CreateBankAccountRequest.AccountTypeEnum.PERSONAL)).getAccountNumber();
+    }
+
+    private User saveUser() {
+        String id = "usr-guard" + USER_SEQUENCE.incrementAndGet();
+        User user = new User();
+        user.setId(id);
+        user.setEmail(id + "@example.com");
+        user.setName("Guard Test");
+        user.setPhoneNumber("+447123456789");
+        user.setPasswordHash("hashedPassword");
+        user.setAddress(new Address("1 Test Street", null, null, "London", "Greater London", "SW1A 1AA"));
+        return userRepository.save(user);
+    }
+
+    private static CreateTransactionRequest deposit(double amount) {
+        return new CreateTransactionRequest()
+                .amount(amount)
+                .currency(CreateTransactionRequest.CurrencyEnum.GBP)
+                .type(CreateTransactionRequest.TypeEnum.DEPOSIT);
+    }
+
+    private static CreateTransactionRequest withdrawal(double amount) {
+        return new CreateTransactionRequest()
+                .amount(amount)
+                .currency(CreateTransactionRequest.CurrencyEnum.GBP)
+                .type(CreateTransactionRequest.TypeEnum.WITHDRAWAL);
+    }
+}
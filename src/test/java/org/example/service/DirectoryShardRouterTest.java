@@ -0,0 +1,136 @@
+package org.example.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class DirectoryShardRouterTest {
+
+    private final ShardDirectory shardDirectory = mock(ShardDirectory.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final ExecutorService executor = Executors.newFixedThreadPool(3);
+    private final DirectoryShardRouter router = new DirectoryShardRouter(shardDirectory, transactionManager, executor);
+
+    @AfterEach
+    void tearDown() {
+        router.shutdown();
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void onEveryShardRunsTheWorkInATransactionOnEachShard() {
+        when(shardDirectory.shardCount()).thenReturn(3);
+
+        List<Integer> shards = router.onEveryShard(ShardContext::current);
+
+        assertThat(shards).containsExactly(0, 1, 2);
+        assertThat(ShardContext.current()).isNull();
+        verify(transactionManager, times(3)).getTransaction(any());
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    void onEveryShardQueriesTheShardsInParallel() {
+        when(shardDirectory.shardCount()).thenReturn(3);
+        CountDownLatch allShardsStarted = new CountDownLatch(3);
+
+        List<Boolean> results = router.onEveryShard(() -> {
+            allShardsStarted.countDown();
+            try {
+                return allShardsStarted.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        });
+
+        assertThat(results).containsExactly(true, true, true);
+    }
+
+    @Test
+    void onEveryShardRethrowsAShardFailureUnwrapped() {
+        when(shardDirectory.shardCount()).thenReturn(2);
+
+        assertThatThrownBy(() -> router.onEveryShard(() -> {
+            if (ShardContext.current() == 1) {
+                throw new IllegalStateException("shard 1 is down");
+            }
+            return 0;
+        })).isInstanceOf(IllegalStateException.class).hasMessage("shard 1 is down");
+    }
+
+    @Test
+    void onAccountShardBindsTheDirectoryShardAndRestoresThePreviousBinding() {
+        when(shardDirectory.shardOf("01000001")).thenReturn(2);
+
+        assertThat(router.onAccountShard("01000001", ShardContext::current)).isEqualTo(2);
+        assertThat(ShardContext.current()).isNull();
+    }
+
+    @Test
+    void onAccountShardRefusesToSwitchShardsInsideATransaction() {
+        when(shardDirectory.shardOf("01000001")).thenReturn(0);
+        when(shardDirectory.shardOf("01000002")).thenReturn(1);
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        assertThatThrownBy(() -> router.onAccountShard("01000001",
+                () -> router.onAccountShard("01000002", ShardContext::current)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Cannot use shard 1 inside a transaction on shard 0");
+        assertThat(router.onAccountShard("01000001", () -> router.onAccountShard("01000001", ShardContext::current)))
+                .isZero();
+        assertThat(ShardContext.current()).isNull();
+    }
+
+    @Test
+    void groupByShardKeepsEachShardsAccountsTogether() {
+        when(shardDirectory.shardOf("01000001")).thenReturn(1);
+        when(shardDirectory.shardOf("01000002")).thenReturn(0);
+        when(shardDirectory.shardOf("01000003")).thenReturn(1);
+
+        assertThat(router.groupByShard(List.of("01000001", "01000002", "01000003")))
+                .containsExactly(List.of("01000001", "01000003"), List.of("01000002"));
+    }
+
+    @Test
+    void registerAccountRecordsTheAccountInTheDirectory() {
+        router.registerAccount("01000001");
+
+        verify(shardDirectory).register("01000001");
+    }
+
+    @Test
+    void unregisterAccountWaitsForTheDeleteToCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            router.unregisterAccount("01000001");
+
+            verify(shardDirectory, never()).unregister(any());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(shardDirectory).unregister("01000001");
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void unregisterAccountRemovesTheEntryAtOnceWithoutATransaction() {
+        router.unregisterAccount("01000001");
+
+        verify(shardDirectory).unregister("01000001");
+    }
+}
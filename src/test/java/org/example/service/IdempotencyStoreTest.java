@@ -0,0 +1,215 @@
+package org.example.service;
+
+import org.example.entity.IdempotencyRecord;
+import org.example.entity.Money;
+import org.example.entity.Transaction;
+import org.example.exception.IdempotencyKeyReusedException;
+import org.example.mapper.TransactionMapper;
+import org.example.model.CreateTransactionRequest;
+import org.example.model.TransactionResponse;
+import org.example.repository.IdempotencyRecordRepository;
+import org.example.repository.TransactionRepository;
+import org.example.repository.TransactionView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyStoreTest {
+
+    private static final String USER_ID = "usr-1234567890";
+    private static final String ACCOUNT_NUMBER = "01234567";
+    private static final String KEY = "retry-key-1";
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private TransactionMapper transactionMapper;
+
+    private IdempotencyStore idempotencyStore;
+
+    private String fingerprint;
+    private TransactionResponse response;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyStore = new IdempotencyStore(idempotencyRecordRepository, transactionRepository, transactionMapper,
+                new SingleDatabaseShardRouter(), Duration.ofHours(24), 100);
+        fingerprint = IdempotencyStore.fingerprint(ACCOUNT_NUMBER, deposit(100.00));
+        response = new TransactionResponse().id("tan-1a2b3c").amount(100.00);
+    }
+
+    @Test
+    void fingerprintChangesWithAnyPartOfTheRequest() {
+        assertThat(IdempotencyStore.fingerprint(ACCOUNT_NUMBER, deposit(100.00))).isEqualTo(fingerprint);
+        assertThat(IdempotencyStore.fingerprint("01234568", deposit(100.00))).isNotEqualTo(fingerprint);
+        assertThat(IdempotencyStore.fingerprint(ACCOUNT_NUMBER, deposit(100.01))).isNotEqualTo(fingerprint);
+        assertThat(IdempotencyStore.fingerprint(ACCOUNT_NUMBER, deposit(100.00).reference("Rent"))).isNotEqualTo(fingerprint);
+        assertThat(IdempotencyStore.fingerprint(ACCOUNT_NUMBER,
+                deposit(100.00).type(CreateTransactionRequest.TypeEnum.WITHDRAWAL))).isNotEqualTo(fingerprint);
+    }
+
+    @Test
+    void recordStoresTheKeyScopedToTheUserAndAccountWithItsExpiry() {
+        idempotencyStore.record(USER_ID, ACCOUNT_NUMBER, KEY, fingerprint, "tan-1a2b3c");
+
+        ArgumentCaptor<IdempotencyRecord> saved = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(idempotencyRecordRepository).saveAndFlush(saved.capture());
+        IdempotencyRecord record = saved.getValue();
+        assertThat(record.getScopedKey()).isEqualTo("usr-1234567890:01234567:retry-key-1");
+        assertThat(record.getRequestFingerprint()).isEqualTo(fingerprint);
+        assertThat(record.getAccountNumber()).isEqualTo(ACCOUNT_NUMBER);
+        assertThat(record.getTransactionId()).isEqualTo("tan-1a2b3c");
+        assertThat(record.getExpiresAt()).isCloseTo(record.getCreatedTimestamp().plusHours(24), within(1, ChronoUnit.SECONDS));
+        assertThat(record.isNew()).isTrue();
+    }
+
+    @Test
+    void findReplayServesRememberedKeysFromMemory() {
+        idempotencyStore.remember(USER_ID, ACCOUNT_NUMBER, KEY, fingerprint, response);
+
+        assertThat(idempotencyStore.findReplay(USER_ID, ACCOUNT_NUMBER, KEY, fingerprint)).containsSame(response);
+
+        verifyNoInteractions(idempotencyRecordRepository, transactionRepository);
+    }
+
+    @Test
+    void findReplayKeepsKeysOfDifferentUsersApart() {
+        idempotencyStore.remember(USER_ID, ACCOUNT_NUMBER, KEY, fingerprint, response);
+        when(idempotencyRecordRepository.findById("usr-0987654321:01234567:retry-key-1")).thenReturn(Optional.empty());
+
+        assertThat(idempotencyStore.findReplay("usr-0987654321", ACCOUNT_NUMBER, KEY, fingerprint)).isEmpty();
+    }
+
+    @Test
+    void findReplayKeepsKeysOfDifferentAccountsApart() {
+        idempotencyStore.remember(USER_ID, ACCOUNT_NUMBER, KEY, fingerprint, response);
+        String otherAccountFingerprint = IdempotencyStore.fingerprint("01234568", deposit(100.00));
+        when(idempotencyRecordRepository.findById("usr-1234567890:01234568:retry-key-1")).thenReturn(Optional.empty());
+
+        assertThat(idempotencyStore.findReplay(USER_ID, "01234568", KEY, otherAccountFingerprint)).isEmpty();
+    }
+
+    @Test
+    void findReplayLoadsKnownKeyFromTableOnceAndThenServesItFromMemory() {
+        TransactionView view = new TransactionView("tan-1a2b3c", Money.fromDecimal(100.00), Transaction.TransactionType.DEPOSIT,
+                Transaction.Currency.GBP, null, LocalDateTime.now());
+        when(idempotencyRecordRepository.findById("usr-1234567890:01234567:retry-key-1"))
+                .thenReturn(Optional.of(storedRecord(LocalDateTime.now().plusHours(1))));
+        when(transactionRepository.findViewByIdAndAccountNumber("tan-1a2b3c", ACCOUNT_NUMBER)).thenReturn(Optional.of(view));
+        when(transactionMapper.fromView(view, USER_ID)).thenReturn(response);
+
+        assertThat(idempotencyStore.findReplay(USER_ID, ACCOUNT_NUMBER, KEY, fingerprint)).containsSame(response);
+        assertThat(idempotencyStore.findReplay(USER_ID, ACCOUNT_NUMBER, KEY, fingerprint)).containsSame(response);
+
+        verify(idempotencyRecordRepository, times(1)).findById("usr-1234567890:01234567:retry-key-1");
+        IdempotencyStoreStats stats = idempotencyStore.stats();
+        assertThat(stats.tableHits()).isEqualTo(1);
+        assertThat(stats.cacheHits()).isEqualTo(1);
+    }
+
+    @Test
+    void findReplayDeletesExpiredKeySoItCanBeUsedAgain() {
+        IdempotencyRecord expired = storedRecord(LocalDateTime.now().minusMinutes(1));
+        when(idempotencyRecordRepository.findById("usr-1234567890:01234567:retry-key-1")).thenReturn(Optional.of(expired));
+
+        assertThat(idempotencyStore.findReplay(USER_ID, ACCOUNT_NUMBER, KEY, fingerprint)).isEmpty();
+
+        verify(idempotencyRecordRepository).delete(expired);
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void findReplayRejectsKeyReusedForDifferentRequest() {
+        String otherFingerprint = IdempotencyStore.fingerprint(ACCOUNT_NUMBER, deposit(250.00));
+        idempotencyStore.remember(USER_ID, ACCOUNT_NUMBER, KEY, fingerprint, response);
+        when(idempotencyRecordRepository.findById("usr-1234567890:01234567:other-key"))
+                .thenReturn(Optional.of(storedRecord(LocalDateTime.now().plusHours(1))));
+
+        assertThatThrownBy(() -> idempotencyStore.findReplay(USER_ID, ACCOUNT_NUMBER, KEY, otherFingerprint))
+                .isInstanceOf(IdempotencyKeyReusedException.class)
+                .hasMessage("Idempotency key retry-key-1 was already used for a different request");
+        assertThatThrownBy(() -> idempotencyStore.findReplay(USER_ID, ACCOUNT_NUMBER, "other-key", otherFingerprint))
+                .isInstanceOf(IdempotencyKeyReusedException.class);
+
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void statsReportHitRateAndStoreSize() {
+        idempotencyStore.remember(USER_ID, ACCOUNT_NUMBER, KEY, fingerprint, response);
+        when(idempotencyRecordRepository.findById("usr-1234567890:01234567:new-key")).thenReturn(Optional.empty());
+        when(idempotencyRecordRepository.count()).thenReturn(42L);
+
+        idempotencyStore.findReplay(USER_ID, ACCOUNT_NUMBER, KEY, fingerprint);
+        idempotencyStore.findReplay(USER_ID, ACCOUNT_NUMBER, KEY, fingerprint);
+        idempotencyStore.findReplay(USER_ID, ACCOUNT_NUMBER, KEY, fingerprint);
+        idempotencyStore.findReplay(USER_ID, ACCOUNT_NUMBER, "new-key", fingerprint);
+
+        IdempotencyStoreStats stats = idempotencyStore.stats();
+        assertThat(stats.cacheHits()).isEqualTo(3);
+        assertThat(stats.tableHits()).isZero();
+        assertThat(stats.misses()).isEqualTo(1);
+        assertThat(stats.hitRate()).isEqualTo(0.75);
+        assertThat(stats.cachedKeys()).isEqualTo(1);
+        assertThat(stats.storedKeys()).isEqualTo(42);
+    }
+
+    @Test
+    void lookupStatsDoNotQueryTheTable() {
+        idempotencyStore.remember(USER_ID, ACCOUNT_NUMBER, KEY, fingerprint, response);
+        idempotencyStore.findReplay(USER_ID, ACCOUNT_NUMBER, KEY, fingerprint);
+
+        IdempotencyStoreStats stats = idempotencyStore.lookupStats();
+
+        assertThat(stats.cacheHits()).isEqualTo(1);
+        assertThat(stats.cachedKeys()).isEqualTo(1);
+        assertThat(stats.storedKeys()).isEqualTo(-1);
+        verify(idempotencyRecordRepository, never()).count();
+    }
+
+    @Test
+    void purgeExpiredDeletesExpiredKeysInOneStatement() {
+        when(idempotencyRecordRepository.deleteExpired(any(LocalDateTime.class))).thenReturn(3);
+
+        idempotencyStore.purgeExpired();
+
+        verify(idempotencyRecordRepository).deleteExpired(any(LocalDateTime.class));
+    }
+
+    private IdempotencyRecord storedRecord(LocalDateTime expiresAt) {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setScopedKey("usr-1234567890:01234567:retry-key-1");
+        record.setRequestFingerprint(fingerprint);
+        record.setAccountNumber(ACCOUNT_NUMBER);
+        record.setTransactionId("tan-1a2b3c");
+        record.setCreatedTimestamp(expiresAt.minusHours(24));
+        record.setExpiresAt(expiresAt);
+        return record;
+    }
+
+    private static CreateTransactionRequest deposit(double amount) {
+        return new CreateTransactionRequest()
+                .amount(amount)
+                .currency(CreateTransactionRequest.CurrencyEnum.GBP)
+                .type(CreateTransactionRequest.TypeEnum.DEPOSIT);
+    }
+}
@@ -0,0 +1,109 @@
+package org.example.service;
+
+import org.example.repository.AccountRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.support.incrementer.DataFieldMaxValueIncrementer;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class OccupancyCheckedIdAllocatorTest {
+
+    private final DataFieldMaxValueIncrementer blockSequence = mock(DataFieldMaxValueIncrementer.class);
+    private final AccountNumberRegistry registry = new AccountNumberRegistry(mock(AccountRepository.class),
+            new SingleDatabaseShardRouter(), mock(PlatformTransactionManager.class));
+
+    @Test
+    void skipsNumbersThatAreAlreadyTaken() {
+        when(blockSequence.nextLongValue()).thenReturn(0L);
+        registry.markAllocated("01000000");
+        registry.markAllocated("01000001");
+        OccupancyCheckedIdAllocator allocator = new OccupancyCheckedIdAllocator(blockSequence, 100, registry);
+
+        assertThat(allocator.nextId()).isEqualTo("01000002");
+        assertThat(allocator.nextId()).isEqualTo("01000003");
+        assertThat(registry.isAllocated("01000003")).isTrue();
+        verify(blockSequence).nextLongValue();
+    }
+
+    @Test
+    void fullBlockMovesOnToTheNextBlock() {
+        when(blockSequence.nextLongValue()).thenReturn(0L, 1L);
+        for (int i = 0; i < 100; i++) {
+            registry.markAllocated(String.format("01%06d", i));
+        }
+        OccupancyCheckedIdAllocator allocator = new OccupancyCheckedIdAllocator(blockSequence, 100, registry);
+
+        assertThat(allocator.nextId()).isEqualTo("01000100");
+        verify(blockSequence, times(2)).nextLongValue();
+    }
+
+    @Test
+    void numbersOfDeletedAccountsAreNotIssuedAgain() {
+        when(blockSequence.nextLongValue()).thenReturn(0L, 1L);
+        OccupancyCheckedIdAllocator allocator = new OccupancyCheckedIdAllocator(blockSequence, 100, registry);
+        List<String> firstBlock = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            firstBlock.add(allocator.nextId());
+        }
+        registry.release("01000042");
+
+        assertThat(firstBlock).startsWith("01000000").endsWith("01000099");
+        assertThat(allocator.nextId()).isEqualTo("01000100");
+    }
+
+    @Test
+    void releasedNumbersAreIssuedAgainBeforeTheBlockContinues() {
+        when(blockSequence.nextLongValue()).thenReturn(0L);
+        OccupancyCheckedIdAllocator allocator = new OccupancyCheckedIdAllocator(blockSequence, 100, registry);
+        allocator.nextId();
+        String unsaved = allocator.nextId();
+
+        allocator.release(unsaved);
+
+        assertThat(registry.isAllocated(unsaved)).isFalse();
+        assertThat(allocator.nextId()).isEqualTo(unsaved);
+        assertThat(registry.isAllocated(unsaved)).isTrue();
+        assertThat(allocator.nextId()).isEqualTo("01000002");
+    }
+
+    @Test
+    void reportsExhaustionOnceTheSequencePassesTheEndOfTheSpace() {
+        // 10,000 blocks of 100 cover the space, so sequence value 10,000 is past its end
+        when(blockSequence.nextLongValue()).thenReturn(9_999L, 10_000L);
+        OccupancyCheckedIdAllocator allocator = new OccupancyCheckedIdAllocator(blockSequence, 100, registry);
+        for (int i = 0; i < 100; i++) {
+            allocator.nextId();
+        }
+
+        assertThatThrownBy(allocator::nextId)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("exhausted");
+    }
+
+    @Test
+    void statsReportRefillsAndFreeNumbers() {
+        when(blockSequence.nextLongValue()).thenReturn(5L);
+        registry.markAllocated("01999999");
+        OccupancyCheckedIdAllocator allocator = new OccupancyCheckedIdAllocator(blockSequence, 100, registry);
+
+        allocator.nextId();
+        IdAllocatorStats stats = allocator.stats();
+
+        assertThat(stats.name()).isEqualTo("account-number");
+        assertThat(stats.blockRefills()).isEqualTo(1);
+        assertThat(stats.remainingInBlock()).isEqualTo(99);
+        assertThat(stats.remainingCapacity()).isEqualTo(AccountNumberRegistry.CAPACITY - 501);
+    }
+
+    @Test
+    void rejectsInvalidBlockSize() {
+        assertThatThrownBy(() -> new OccupancyCheckedIdAllocator(blockSequence, 0, registry))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
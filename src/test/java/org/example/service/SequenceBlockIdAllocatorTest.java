@@ -0,0 +1,135 @@
+package org.example.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.support.incrementer.DataFieldMaxValueIncrementer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class SequenceBlockIdAllocatorTest {
+
+    private final DataFieldMaxValueIncrementer blockSequence = mock(DataFieldMaxValueIncrementer.class);
+
+    @Test
+    void handsOutConsecutiveIdsFromOneBlockPerSequenceValue() {
+        when(blockSequence.nextLongValue()).thenReturn(0L, 1L);
+        SequenceBlockIdAllocator allocator = accountNumberAllocator(3);
+
+        List<String> ids = List.of(allocator.nextId(), allocator.nextId(), allocator.nextId(), allocator.nextId());
+
+        assertThat(ids).containsExactly("01000000", "01000001", "01000002", "01000003");
+        verify(blockSequence, times(2)).nextLongValue();
+    }
+
+    @Test
+    void blockNumberDeterminesFirstId() {
+        when(blockSequence.nextLongValue()).thenReturn(42L);
+        SequenceBlockIdAllocator allocator = accountNumberAllocator(100);
+
+        assertThat(allocator.nextId()).isEqualTo("01004200");
+    }
+
+    @Test
+    void formatsTransactionIdsToMatchApiPattern() {
+        when(blockSequence.nextLongValue()).thenReturn(7L);
+        SequenceBlockIdAllocator allocator = new SequenceBlockIdAllocator("transaction-id", blockSequence, 1000,
+                Long.MAX_VALUE, value -> "tan-" + Long.toString(value, Character.MAX_RADIX));
+
+        assertThat(allocator.nextId()).isEqualTo("tan-5eg").matches("^tan-[A-Za-z0-9]+$");
+    }
+
+    @Test
+    void lastBlockIsTruncatedAtTheLimitAndSpaceThenReportsExhaustion() {
+        when(blockSequence.nextLongValue()).thenReturn(3L, 4L);
+        SequenceBlockIdAllocator allocator = new SequenceBlockIdAllocator("small", blockSequence, 3, 10,
+                value -> Long.toString(value));
+
+        assertThat(allocator.nextId()).isEqualTo("9");
+        assertThatThrownBy(allocator::nextId)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("ID space for small is exhausted");
+    }
+
+    @Test
+    void lastAccountNumberIsIssuedBeforeSpaceIsExhausted() {
+        when(blockSequence.nextLongValue()).thenReturn(9_999L, 10_000L);
+        SequenceBlockIdAllocator allocator = accountNumberAllocator(100);
+
+        String last = null;
+        for (int i = 0; i < 100; i++) {
+            last = allocator.nextId();
+        }
+
+        assertThat(last).isEqualTo("01999999");
+        assertThatThrownBy(allocator::nextId).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void statsReportRefillsAndRemainingCapacity() {
+        when(blockSequence.nextLongValue()).thenReturn(0L);
+        SequenceBlockIdAllocator allocator = accountNumberAllocator(100);
+
+        assertThat(allocator.stats().blockRefills()).isZero();
+        assertThat(allocator.stats().remainingCapacity()).isEqualTo(1_000_000);
+
+        allocator.nextId();
+        allocator.nextId();
+        IdAllocatorStats stats = allocator.stats();
+
+        assertThat(stats.name()).isEqualTo("account-number");
+        assertThat(stats.blockSize()).isEqualTo(100);
+        assertThat(stats.blockRefills()).isEqualTo(1);
+        assertThat(stats.remainingInBlock()).isEqualTo(98);
+        assertThat(stats.remainingCapacity()).isEqualTo(999_998);
+        assertThat(stats.totalRefillNanos()).isGreaterThanOrEqualTo(stats.lastRefillNanos());
+    }
+
+    @Test
+    void concurrentCallersNeverReceiveTheSameId() throws Exception {
+        AtomicLong sequence = new AtomicLong();
+        when(blockSequence.nextLongValue()).thenAnswer(invocation -> sequence.getAndIncrement());
+        SequenceBlockIdAllocator allocator = accountNumberAllocator(10);
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        assertThat(ids.add(allocator.nextId())).isTrue();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(ids).hasSize(4_000);
+        assertThat(allocator.stats().blockRefills()).isEqualTo(400);
+    }
+
+    @Test
+    void rejectsNonPositiveBlockSize() {
+        assertThatThrownBy(() -> accountNumberAllocator(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private SequenceBlockIdAllocator accountNumberAllocator(int blockSize) {
+        return new SequenceBlockIdAllocator("account-number", blockSequence, blockSize, 1_000_000,
+                value -> String.format("01%06d", value));
+    }
+}
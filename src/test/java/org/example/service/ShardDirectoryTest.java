@@ -0,0 +1,103 @@
+package org.example.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ShardDirectoryTest {
+
+    private DataSource globalDataSource;
+    private JdbcTemplate global;
+
+    @BeforeEach
+    void setUp() {
+        globalDataSource = new DriverManagerDataSource("jdbc:h2:mem:shard-directory;DB_CLOSE_DELAY=-1", "sa", "");
+        global = new JdbcTemplate(globalDataSource);
+        global.execute("CREATE TABLE account_shards (account_number VARCHAR(255) PRIMARY KEY, shard_id INT NOT NULL)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        global.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void registerPlacesAccountsByHashAndRecordsThePlacement() {
+        ShardDirectory directory = new ShardDirectory(globalDataSource, 3, 100);
+
+        for (int number = 1_000_000; number < 1_000_030; number++) {
+            String accountNumber = "0" + number;
+            int shard = directory.register(accountNumber);
+
+            assertThat(shard).isBetween(0, 2).isEqualTo(directory.placement(accountNumber));
+            assertThat(directory.shardOf(accountNumber)).isEqualTo(shard);
+            assertThat(global.queryForObject("SELECT shard_id FROM account_shards WHERE account_number = ?",
+                    Integer.class, accountNumber)).isEqualTo(shard);
+        }
+        assertThat(global.queryForList("SELECT DISTINCT shard_id FROM account_shards", Integer.class))
+                .containsExactlyInAnyOrder(0, 1, 2);
+    }
+
+    @Test
+    void recordedShardWinsOverPlacementAfterShardsAreAdded() {
+        new ShardDirectory(globalDataSource, 2, 100).register("01000001");
+        int recorded = global.queryForObject("SELECT shard_id FROM account_shards WHERE account_number = ?",
+                Integer.class, "01000001");
+
+        ShardDirectory grown = new ShardDirectory(globalDataSource, 5, 100);
+
+        assertThat(grown.placement("01000001")).isNotEqualTo(recorded);
+        assertThat(grown.shardOf("01000001")).isEqualTo(recorded);
+    }
+
+    @Test
+    void unknownAccountsUsePlacementAndAreNotCached() {
+        ShardDirectory directory = new ShardDirectory(globalDataSource, 3, 100);
+        int placement = directory.placement("01000002");
+
+        assertThat(directory.shardOf("01000002")).isEqualTo(placement);
+
+        int elsewhere = (placement + 1) % 3;
+        global.update("INSERT INTO account_shards (account_number, shard_id) VALUES (?, ?)", "01000002", elsewhere);
+
+        assertThat(directory.shardOf("01000002")).isEqualTo(elsewhere);
+    }
+
+    @Test
+    void registerRejectsAnAccountNumberThatIsAlreadyPlaced() {
+        ShardDirectory directory = new ShardDirectory(globalDataSource, 3, 100);
+        global.update("INSERT INTO account_shards (account_number, shard_id) VALUES (?, ?)", "01000003", 7);
+
+        assertThatThrownBy(() -> directory.register("01000003"))
+                .isInstanceOf(DuplicateKeyException.class)
+                .hasMessageContaining("01000003");
+        assertThat(global.queryForObject("SELECT shard_id FROM account_shards WHERE account_number = ?",
+                Integer.class, "01000003")).isEqualTo(7);
+    }
+
+    @Test
+    void unregisterRemovesTheEntryAndItsCachedLookup() {
+        ShardDirectory directory = new ShardDirectory(globalDataSource, 3, 100);
+        int shard = directory.register("01000004");
+        int elsewhere = (shard + 1) % 3;
+
+        directory.unregister("01000004");
+        global.update("INSERT INTO account_shards (account_number, shard_id) VALUES (?, ?)", "01000004", elsewhere);
+
+        assertThat(directory.shardOf("01000004")).isEqualTo(elsewhere);
+    }
+
+    @Test
+    void rejectsAnEmptyShardList() {
+        assertThatThrownBy(() -> new ShardDirectory(globalDataSource, 0, 100))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
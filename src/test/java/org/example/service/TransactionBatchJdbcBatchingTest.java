@@ -0,0 +1,125 @@
+package org.example.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.entity.Account;
+import org.example.entity.Address;
+import org.example.entity.Money;
+import org.example.entity.User;
+import org.example.model.CreateTransactionRequest;
+import org.example.model.TransactionBatchItem;
+import org.example.model.TransactionBatchResponse;
+import org.example.model.TransactionBatchResult;
+import org.example.repository.AccountRepository;
+import org.example.repository.TransactionRepository;
+import org.example.repository.UserRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that a transaction batch is written with JDBC batching rather than one statement per item
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:transactionbatchdb",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+        "logging.level.org.springframework.security=WARN",
+        "logging.level.org.example=WARN"
+})
+class TransactionBatchJdbcBatchingTest {
+
+    private static final int ITEMS_PER_ACCOUNT = 100;
+
+    @Autowired
+    private TransactionBatchService transactionBatchService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void batchAcrossAccountsIsInsertedWithJdbcBatchesAndOneUpdatePerAccount() {
+        User user = saveUser("usr-batch1");
+        String userId = user.getId();
+        List<String> accountNumbers = List.of("01800001", "01800002", "01800003");
+        accountNumbers.forEach(accountNumber -> saveAccount(accountNumber, user));
+
+        List<TransactionBatchItem> items = new ArrayList<>();
+        for (int i = 0; i < ITEMS_PER_ACCOUNT; i++) {
+            for (String accountNumber : accountNumbers) {
+                items.add(item(accountNumber, i % 2 == 0 ? CreateTransactionRequest.TypeEnum.DEPOSIT
+                        : CreateTransactionRequest.TypeEnum.WITHDRAWAL));
+            }
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        TransactionBatchResponse response = transactionBatchService.createTransactions(items, userId);
+
+        assertThat(response.getResults()).hasSize(items.size());
+        assertThat(response.getResults()).extracting(TransactionBatchResult::getStatus).containsOnly(201);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(items.size());
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(accountNumbers.size());
+        // Without batching every insert would prepare its own statement
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(items.size() / 10);
+
+        for (String accountNumber : accountNumbers) {
+            Account account = accountRepository.findById(accountNumber).orElseThrow();
+            assertThat(account.getBalance()).isEqualTo(Money.fromDecimal(50.00));
+            assertThat(transactionRepository.findViewPageByAccountNumber(accountNumber, Pageable.unpaged()))
+                    .hasSize(ITEMS_PER_ACCOUNT);
+        }
+    }
+
+    private User saveUser(String id) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail(id + "@example.com");
+        user.setName("Batch Test");
+        user.setPhoneNumber("+447123456789");
+        user.setPasswordHash("hashedPassword");
+        user.setAddress(new Address("1 Test Street", null, null, "London", "Greater London", "SW1A 1AA"));
+        return userRepository.save(user);
+    }
+
+    private void saveAccount(String accountNumber, User user) {
+        Account account = new Account();
+        account.setAccountNumber(accountNumber);
+        account.setName("Batch Account");
+        account.setAccountType(Account.AccountType.PERSONAL);
+        account.setBalance(Money.ZERO);
+        account.setCurrency(Account.Currency.GBP);
+        account.setSortCode(Account.SortCode._10_10_10);
+        account.setUser(user);
+        accountRepository.save(account);
+    }
+
+    private static TransactionBatchItem item(String accountNumber, CreateTransactionRequest.TypeEnum type) {
+        return new TransactionBatchItem()
+                .accountNumber(accountNumber)
+                .transaction(new CreateTransactionRequest()
+                        .amount(type == CreateTransactionRequest.TypeEnum.DEPOSIT ? 2.00 : 1.00)
+                        .currency(CreateTransactionRequest.CurrencyEnum.GBP)
+                        .type(type));
+    }
+}
@@ -0,0 +1,213 @@
+package org.example.service;
+
+import org.example.entity.Account;
+import org.example.entity.Money;
+import org.example.entity.Transaction;
+import org.example.entity.User;
+import org.example.mapper.TransactionMapper;
+import org.example.model.CreateTransactionRequest;
+import org.example.model.TransactionBatchItem;
+import org.example.model.TransactionBatchResponse;
+import org.example.model.TransactionBatchResult;
+import org.example.model.TransactionResponse;
+import org.example.repository.AccountRepository;
+import org.example.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionBatchServiceTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private TransactionMapper transactionMapper;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private IdAllocator transactionIdAllocator;
+
+    private TransactionBatchService transactionBatchService;
+
+    private Account savings;
+    private Account current;
+
+    @BeforeEach
+    void setUp() {
+        transactionBatchService = new TransactionBatchService(transactionRepository, transactionMapper,
+                new BalanceLedger(accountRepository, transactionManager, "optimistic", 3), new SingleDatabaseShardRouter(),
+                transactionIdAllocator);
+
+        User user = new User();
+        user.setId("usr-1234567890");
+
+        savings = account("01234567", 100.00, user);
+        current = account("01234568", 0.00, user);
+    }
+
+    @Test
+    void createTransactionsRejectsEmptyAndOversizedBatches() {
+        TransactionBatchItem item = item("01234567", CreateTransactionRequest.TypeEnum.DEPOSIT, 1.00);
+
+        assertThatThrownBy(() -> transactionBatchService.createTransactions(List.of(), "usr-1234567890"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> transactionBatchService.createTransactions(
+                Collections.nCopies(TransactionBatchService.MAX_ITEMS + 1, item), "usr-1234567890"))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(accountRepository, transactionRepository);
+    }
+
+    @Test
+    void createTransactionsAppliesItemsPerAccountInRequestOrderAndFlushesOnce() {
+        stubAccounts(savings, current);
+        stubEntityMapping();
+
+        TransactionBatchResponse response = transactionBatchService.createTransactions(List.of(
+                item("01234567", CreateTransactionRequest.TypeEnum.WITHDRAWAL, 60.00),
+                item("01234568", CreateTransactionRequest.TypeEnum.DEPOSIT, 25.00),
+                item("01234567", CreateTransactionRequest.TypeEnum.DEPOSIT, 10.00),
+                item("01234567", CreateTransactionRequest.TypeEnum.WITHDRAWAL, 50.00)), "usr-1234567890");
+
+        assertThat(response.getResults()).extracting(TransactionBatchResult::getIndex).containsExactly(0, 1, 2, 3);
+        assertThat(response.getResults()).extracting(TransactionBatchResult::getStatus).containsOnly(201);
+        assertThat(response.getResults()).allSatisfy(result -> assertThat(result.getTransaction()).isNotNull());
+        assertThat(savings.getBalance()).isEqualTo(Money.ZERO);
+        assertThat(current.getBalance()).isEqualTo(Money.fromDecimal(25.00));
+        assertThat(savings.getTransactions()).isEmpty(); // inserted directly, the history is never touched
+
+        InOrder inOrder = inOrder(transactionRepository, transactionMapper);
+        inOrder.verify(transactionRepository, times(4)).save(any(Transaction.class));
+        inOrder.verify(transactionRepository).flush();
+        inOrder.verify(transactionMapper, times(4)).toResponse(any(Transaction.class));
+        verify(transactionManager).commit(any());
+        verify(accountRepository, never()).save(any());
+    }
+
+    @Test
+    void createTransactionsRejectsWithdrawalsTheRunningBalanceCannotCover() {
+        stubAccounts(savings);
+        stubEntityMapping();
+
+        TransactionBatchResponse response = transactionBatchService.createTransactions(List.of(
+                item("01234567", CreateTransactionRequest.TypeEnum.WITHDRAWAL, 80.00),
+                item("01234567", CreateTransactionRequest.TypeEnum.WITHDRAWAL, 30.00),
+                item("01234567", CreateTransactionRequest.TypeEnum.WITHDRAWAL, 20.00)), "usr-1234567890");
+
+        assertThat(response.getResults()).extracting(TransactionBatchResult::getStatus).containsExactly(201, 422, 201);
+        assertThat(response.getResults().get(1).getMessage())
+                .isEqualTo("Insufficient funds in account 01234567. Requested: 30.00, Available: 20.00");
+        assertThat(response.getResults().get(1).getTransaction()).isNull();
+        assertThat(savings.getBalance()).isEqualTo(Money.ZERO);
+        verify(transactionRepository, times(2)).save(any(Transaction.class));
+    }
+
+    @Test
+    void createTransactionsRejectsItemsForUnknownAndForeignAccountsWithoutFailingTheBatch() {
+        User otherUser = new User();
+        otherUser.setId("usr-0987654321");
+        Account foreign = account("01234569", 500.00, otherUser);
+        stubAccounts(savings, foreign);
+        when(accountRepository.findByAccountNumber("01999999")).thenReturn(Optional.empty());
+        stubEntityMapping();
+
+        TransactionBatchResponse response = transactionBatchService.createTransactions(List.of(
+                item("01999999", CreateTransactionRequest.TypeEnum.DEPOSIT, 10.00),
+                item("01234569", CreateTransactionRequest.TypeEnum.WITHDRAWAL, 10.00),
+                item("01234567", CreateTransactionRequest.TypeEnum.DEPOSIT, 10.00)), "usr-1234567890");
+
+        assertThat(response.getResults()).extracting(TransactionBatchResult::getStatus).containsExactly(404, 403, 201);
+        assertThat(response.getResults().get(0).getMessage()).isEqualTo("Account not found with account number: 01999999");
+        assertThat(response.getResults().get(1).getMessage()).isEqualTo("Access denied to account");
+        assertThat(foreign.getBalance()).isEqualTo(Money.fromDecimal(500.00));
+        assertThat(savings.getBalance()).isEqualTo(Money.fromDecimal(110.00));
+        verify(transactionRepository, times(1)).save(any(Transaction.class));
+    }
+
+    @Test
+    void createTransactionsLoadsEachAccountOnce() {
+        stubAccounts(savings);
+        stubEntityMapping();
+
+        transactionBatchService.createTransactions(List.of(
+                item("01234567", CreateTransactionRequest.TypeEnum.DEPOSIT, 1.00),
+                item("01234567", CreateTransactionRequest.TypeEnum.DEPOSIT, 2.00),
+                item("01234567", CreateTransactionRequest.TypeEnum.DEPOSIT, 3.00)), "usr-1234567890");
+
+        verify(accountRepository, times(1)).findByAccountNumber("01234567");
+        assertThat(savings.getBalance()).isEqualTo(Money.fromDecimal(106.00));
+    }
+
+    @Test
+    void createTransactionsRejectsBatchesThatSpanShardsBeforePostingAnything() {
+        ShardRouter shardRouter = mock(ShardRouter.class);
+        when(shardRouter.groupByShard(any())).thenReturn(List.of(List.of("01234567"), List.of("01234568")));
+        TransactionBatchService shardedBatchService = new TransactionBatchService(transactionRepository, transactionMapper,
+                new BalanceLedger(accountRepository, transactionManager, "optimistic", 3), shardRouter,
+                transactionIdAllocator);
+
+        assertThatThrownBy(() -> shardedBatchService.createTransactions(List.of(
+                item("01234567", CreateTransactionRequest.TypeEnum.DEPOSIT, 1.00),
+                item("01234568", CreateTransactionRequest.TypeEnum.DEPOSIT, 2.00)), "usr-1234567890"))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(shardRouter, never()).onAccountShard(any(), any());
+        verifyNoInteractions(accountRepository, transactionRepository);
+    }
+
+    private void stubAccounts(Account... accounts) {
+        for (Account account : accounts) {
+            when(accountRepository.findByAccountNumber(account.getAccountNumber())).thenReturn(Optional.of(account));
+        }
+    }
+
+    private void stubEntityMapping() {
+        AtomicInteger ids = new AtomicInteger();
+        when(transactionIdAllocator.nextId()).thenAnswer(invocation -> "tan-" + ids.incrementAndGet());
+        when(transactionMapper.toEntity(any(CreateTransactionRequest.class))).thenAnswer(invocation -> {
+            CreateTransactionRequest request = invocation.getArgument(0);
+            Transaction transaction = new Transaction();
+            transaction.setAmount(Money.fromDecimal(request.getAmount()));
+            return transaction;
+        });
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(transactionMapper.toResponse(any(Transaction.class)))
+                .thenAnswer(invocation -> new TransactionResponse().id(((Transaction) invocation.getArgument(0)).getId()));
+    }
+
+    private static Account account(String accountNumber, double balance, User user) {
+        Account account = new Account();
+        account.setAccountNumber(accountNumber);
+        account.setBalance(Money.fromDecimal(balance));
+        account.setUser(user);
+        return account;
+    }
+
+    private static TransactionBatchItem item(String accountNumber, CreateTransactionRequest.TypeEnum type, double amount) {
+        return new TransactionBatchItem()
+                .accountNumber(accountNumber)
+                .transaction(new CreateTransactionRequest()
+                        .amount(amount)
+                        .currency(CreateTransactionRequest.CurrencyEnum.GBP)
+                        .type(type));
+    }
+}
@@ -0,0 +1,169 @@
+package org.example.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.persistence.EntityManager;
+import org.example.entity.Account;
+import org.example.entity.Money;
+import org.example.entity.Transaction;
+import org.example.entity.User;
+import org.example.exception.AccountNotFoundException;
+import org.example.mapper.TransactionMapper;
+import org.example.model.TransactionResponse;
+import org.example.repository.AccountRepository;
+import org.example.repository.TransactionRepository;
+import org.example.security.AccountAccessAuthorizer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.access.AccessDeniedException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionExportServiceTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private TransactionMapper transactionMapper;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private ObjectMapper objectMapper;
+
+    private TransactionExportService transactionExportService;
+
+    private Account account;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        transactionExportService = new TransactionExportService(transactionRepository,
+                new AccountAccessAuthorizer(accountRepository, 100), transactionMapper, entityManager, objectMapper);
+
+        User user = new User();
+        user.setId("usr-1234567890");
+
+        account = new Account();
+        account.setAccountNumber("01234567");
+        account.setUser(user);
+    }
+
+    @Test
+    void validateExportAccessAllowsAccountOwner() {
+        when(accountRepository.findOwnerIdByAccountNumber("01234567")).thenReturn(Optional.of(account.getUser().getId()));
+
+        transactionExportService.validateExportAccess("01234567", "usr-1234567890");
+
+        verify(accountRepository).findOwnerIdByAccountNumber("01234567");
+    }
+
+    @Test
+    void validateExportAccessThrowsAccountNotFoundExceptionWhenAccountDoesNotExist() {
+        when(accountRepository.findOwnerIdByAccountNumber("01999999")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> transactionExportService.validateExportAccess("01999999", "usr-1234567890"))
+                .isInstanceOf(AccountNotFoundException.class);
+    }
+
+    @Test
+    void validateExportAccessThrowsAccessDeniedExceptionWhenUserDoesNotOwnAccount() {
+        when(accountRepository.findOwnerIdByAccountNumber("01234567")).thenReturn(Optional.of(account.getUser().getId()));
+
+        assertThatThrownBy(() -> transactionExportService.validateExportAccess("01234567", "usr-0987654321"))
+                .isInstanceOf(AccessDeniedException.class)
+                .hasMessage("Access denied to account");
+    }
+
+    @Test
+    void exportTransactionsWritesOneJsonObjectPerLineAndDetachesEachRow() throws Exception {
+        Transaction first = transaction("tan-first", 100.00);
+        Transaction second = transaction("tan-second", 25.50);
+        AtomicBoolean streamClosed = new AtomicBoolean();
+        when(transactionRepository.streamByAccountNumber("01234567"))
+                .thenReturn(Stream.of(first, second).onClose(() -> streamClosed.set(true)));
+        when(transactionMapper.toResponse(any(Transaction.class))).thenAnswer(invocation -> {
+            Transaction transaction = invocation.getArgument(0);
+            return new TransactionResponse()
+                    .id(transaction.getId())
+                    .amount(transaction.getAmount().toDecimal())
+                    .type(TransactionResponse.TypeEnum.DEPOSIT)
+                    .currency(TransactionResponse.CurrencyEnum.GBP)
+                    .createdTimestamp(LocalDateTime.of(2025, 8, 29, 12, 0));
+        });
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long written = transactionExportService.exportTransactions("01234567", output);
+
+        List<String> lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(written).isEqualTo(2);
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readValue(lines.get(0), TransactionResponse.class).getId()).isEqualTo("tan-first");
+        assertThat(objectMapper.readValue(lines.get(1), TransactionResponse.class).getAmount()).isEqualTo(25.50);
+        assertThat(output.toString(StandardCharsets.UTF_8)).endsWith("\n");
+        assertThat(streamClosed).isTrue();
+        verify(entityManager).detach(first);
+        verify(entityManager).detach(second);
+    }
+
+    @Test
+    void exportTransactionsWritesNothingForAccountWithoutTransactions() throws Exception {
+        when(transactionRepository.streamByAccountNumber("01234567")).thenReturn(Stream.empty());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long written = transactionExportService.exportTransactions("01234567", output);
+
+        assertThat(written).isZero();
+        assertThat(output.size()).isZero();
+        verify(transactionMapper, never()).toResponse(any());
+    }
+
+    @Test
+    void exportTransactionsDetachesEveryRowOfALongHistory() throws Exception {
+        int rows = TransactionExportService.FLUSH_INTERVAL * 3 + 7;
+        when(transactionRepository.streamByAccountNumber("01234567"))
+                .thenReturn(IntStream.range(0, rows).mapToObj(i -> transaction("tan-" + i, 1.00)));
+        when(transactionMapper.toResponse(any(Transaction.class)))
+                .thenAnswer(invocation -> new TransactionResponse().id(((Transaction) invocation.getArgument(0)).getId()));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long written = transactionExportService.exportTransactions("01234567", output);
+
+        assertThat(written).isEqualTo(rows);
+        assertThat(output.toString(StandardCharsets.UTF_8).lines().count()).isEqualTo(rows);
+        verify(entityManager, times(rows)).detach(any(Transaction.class));
+    }
+
+    private Transaction transaction(String id, double amount) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setAmount(Money.fromDecimal(amount));
+        transaction.setType(Transaction.TransactionType.DEPOSIT);
+        transaction.setCurrency(Transaction.Currency.GBP);
+        transaction.setAccount(account);
+        return transaction;
+    }
+}
@@ -0,0 +1,109 @@
+package org.example.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransactionSequencerTest {
+
+    @Test
+    void executeRunsWorkDirectlyWhenDisabled() {
+        TransactionSequencer sequencer = new TransactionSequencer(false, 4);
+
+        String result = sequencer.execute("01234567", () -> "done");
+
+        assertThat(result).isEqualTo("done");
+        assertThat(sequencer.isEnabled()).isFalse();
+        assertThat(sequencer.getStripeMetrics()).allSatisfy(metrics -> assertThat(metrics.acquisitions()).isZero());
+    }
+
+    @Test
+    void executeSerializesWritesToTheSameAccount() throws Exception {
+        TransactionSequencer sequencer = new TransactionSequencer(true, 16);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        Callable<Integer> write = () -> sequencer.execute("01234567", () -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.yield();
+            return inFlight.decrementAndGet();
+        });
+
+        try {
+            List<Future<Integer>> futures = executor.invokeAll(Collections.nCopies(200, write));
+            for (Future<Integer> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(maxInFlight.get()).isEqualTo(1);
+        TransactionSequencer.StripeMetrics metrics = sequencer.getStripeMetrics().get(sequencer.stripeIndex("01234567"));
+        assertThat(metrics.acquisitions()).isEqualTo(200);
+        assertThat(metrics.queueDepth()).isZero();
+        assertThat(metrics.maxWaitNanos()).isLessThanOrEqualTo(metrics.totalWaitNanos());
+    }
+
+    @Test
+    void executeLetsAccountsOnDifferentStripesProceedInParallel() throws Exception {
+        TransactionSequencer sequencer = new TransactionSequencer(true, 64);
+        String firstAccount = "01000001";
+        String secondAccount = firstAccount;
+        for (int i = 2; sequencer.stripeIndex(secondAccount) == sequencer.stripeIndex(firstAccount); i++) {
+            secondAccount = String.format("01%06d", i);
+        }
+        String otherAccount = secondAccount;
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<Boolean> first = executor.submit(() -> sequencer.execute(firstAccount, () -> awaitQuietly(bothRunning)));
+            Future<Boolean> second = executor.submit(() -> sequencer.execute(otherAccount, () -> awaitQuietly(bothRunning)));
+
+            assertThat(first.get(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(second.get(10, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void executeReleasesStripeWhenWorkFails() {
+        TransactionSequencer sequencer = new TransactionSequencer(true, 4);
+
+        assertThatThrownBy(() -> sequencer.execute("01234567", () -> {
+            throw new IllegalStateException("posting failed");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(sequencer.execute("01234567", () -> "next")).isEqualTo("next");
+    }
+
+    @Test
+    void constructorRejectsNonPositiveStripeCount() {
+        assertThatThrownBy(() -> new TransactionSequencer(true, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static boolean awaitQuietly(CountDownLatch latch) {
+        latch.countDown();
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package org.example.service;
 import org.example.entity.Account;
 import org.example.entity.Transaction;
 import org.example.entity.User;
+import org.example.entity.Money;
 import org.example.exception.AccountNotFoundException;
 import org.example.exception.InsufficientFundsException;
 import org.example.exception.TransactionNotFoundException;
@@ -12,13 +13,19 @@ import org.example.model.ListTransactionsResponse;
 import org.example.model.TransactionResponse;
 import org.example.repository.AccountRepository;
 import org.example.repository.TransactionRepository;
+import org.example.repository.TransactionView;
+import org.example.security.AccountAccessAuthorizer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -42,17 +49,30 @@ class TransactionServiceTest {
     @Mock
     private TransactionMapper transactionMapper;
 
-    @InjectMocks
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private IdAllocator transactionIdAllocator;
+
+    @Mock
+    private IdempotencyStore idempotencyStore;
+
     private TransactionService transactionService;
 
     private User user;
     private Account account;
     private Transaction transaction;
     private CreateTransactionRequest createTransactionRequest;
+    private TransactionView transactionView;
     private TransactionResponse transactionResponse;
 
     @BeforeEach
     void setUp() {
+        transactionService = new TransactionService(transactionRepository, accountRepository, transactionMapper,
+                new BalanceLedger(accountRepository, transactionManager, "optimistic", 3),
+                new AccountAccessAuthorizer(accountRepository, 100), transactionIdAllocator, idempotencyStore);
+
         user = new User();
         user.setId("usr-1234567890");
         user.setName("John Doe");
@@ -61,7 +81,7 @@ class TransactionServiceTest {
         account = new Account();
         account.setAccountNumber("01234567");
         account.setName("Savings Account");
-        account.setBalance(1000.00);
+        account.setBalance(Money.fromDecimal(1000.00));
         account.setCurrency(Account.Currency.GBP);
         account.setUser(user);
         account.setTransactions(new ArrayList<>());
@@ -70,13 +90,16 @@ class TransactionServiceTest {
 
         transaction = new Transaction();
         transaction.setId("tan-1234567890ab");
-        transaction.setAmount(100.00);
+        transaction.setAmount(Money.fromDecimal(100.00));
         transaction.setCurrency(Transaction.Currency.GBP);
         transaction.setType(Transaction.TransactionType.DEPOSIT);
         transaction.setReference("Test transaction");
         transaction.setAccount(account);
         transaction.setCreatedTimestamp(LocalDateTime.now());
 
+        transactionView = new TransactionView(transaction.getId(), transaction.getAmount(), transaction.getType(),
+                transaction.getCurrency(), transaction.getReference(), transaction.getCreatedTimestamp());
+
         createTransactionRequest = new CreateTransactionRequest()
                 .amount(100.00)
                 .currency(CreateTransactionRequest.CurrencyEnum.GBP)
@@ -98,24 +121,101 @@ class TransactionServiceTest {
     void createDepositTransactionSuccessfully() {
         String accountNumber = "01234567";
         String userId = "usr-1234567890";
-        when(accountRepository.findByAccountNumberWithUser(accountNumber)).thenReturn(Optional.of(account));
+        when(accountRepository.findByAccountNumber(accountNumber)).thenReturn(Optional.of(account));
         when(transactionMapper.toEntity(createTransactionRequest)).thenReturn(transaction);
-        when(transactionRepository.existsById(anyString())).thenReturn(false);
-        when(accountRepository.save(account)).thenAnswer(invocation -> {
-            Account savedAccount = invocation.getArgument(0);
-            savedAccount.getTransactions().add(transaction);
-            return savedAccount;
-        });
+        when(transactionIdAllocator.nextId()).thenReturn("tan-1a2b3c");
+        when(transactionRepository.save(transaction)).thenReturn(transaction);
         when(transactionMapper.toResponse(transaction)).thenReturn(transactionResponse);
 
         TransactionResponse result = transactionService.createTransaction(accountNumber, createTransactionRequest, userId);
 
         assertThat(result).isEqualTo(transactionResponse);
-        assertThat(account.getBalance()).isEqualTo(1100.00);
-        verify(accountRepository).findByAccountNumberWithUser(accountNumber);
+        assertThat(account.getBalance()).isEqualTo(Money.fromDecimal(1100.00));
+        assertThat(transaction.getAccount()).isSameAs(account);
+        assertThat(account.getTransactions()).isEmpty(); // Inserted directly, the account's history is never touched
+        verify(accountRepository).findByAccountNumber(accountNumber);
         verify(transactionMapper).toEntity(createTransactionRequest);
+        verify(transactionRepository).save(transaction);
         verify(accountRepository).save(account);
         verify(transactionMapper).toResponse(transaction);
+        verifyNoInteractions(idempotencyStore);
+    }
+
+    @Test
+    void createTransactionWithKnownIdempotencyKeyReplaysWithoutPosting() {
+        String accountNumber = "01234567";
+        String userId = "usr-1234567890";
+        String fingerprint = IdempotencyStore.fingerprint(accountNumber, createTransactionRequest);
+        when(idempotencyStore.findReplay(userId, accountNumber, "retry-key-1", fingerprint)).thenReturn(Optional.of(transactionResponse));
+
+        TransactionResponse result = transactionService.createTransaction(accountNumber, createTransactionRequest, userId, "retry-key-1");
+
+        assertThat(result).isSameAs(transactionResponse);
+        assertThat(account.getBalance()).isEqualTo(Money.fromDecimal(1000.00));
+        verifyNoInteractions(accountRepository, transactionRepository, transactionManager);
+        verify(idempotencyStore, never()).record(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void createTransactionWithNewIdempotencyKeyRecordsKeyBeforeSavingAndRemembersResponse() {
+        String accountNumber = "01234567";
+        String userId = "usr-1234567890";
+        String fingerprint = IdempotencyStore.fingerprint(accountNumber, createTransactionRequest);
+        when(idempotencyStore.findReplay(userId, accountNumber, "retry-key-1", fingerprint)).thenReturn(Optional.empty());
+        when(accountRepository.findByAccountNumber(accountNumber)).thenReturn(Optional.of(account));
+        when(transactionMapper.toEntity(createTransactionRequest)).thenReturn(transaction);
+        when(transactionIdAllocator.nextId()).thenReturn("tan-1a2b3c");
+        when(transactionRepository.save(transaction)).thenReturn(transaction);
+        when(transactionMapper.toResponse(transaction)).thenReturn(transactionResponse);
+
+        TransactionResponse result = transactionService.createTransaction(accountNumber, createTransactionRequest, userId, "retry-key-1");
+
+        assertThat(result).isEqualTo(transactionResponse);
+        assertThat(account.getBalance()).isEqualTo(Money.fromDecimal(1100.00));
+        InOrder inOrder = inOrder(idempotencyStore, transactionRepository, transactionManager);
+        inOrder.verify(idempotencyStore).record(userId, accountNumber, "retry-key-1", fingerprint, "tan-1a2b3c");
+        inOrder.verify(transactionRepository).save(transaction);
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(idempotencyStore).remember(userId, accountNumber, "retry-key-1", fingerprint, transactionResponse);
+    }
+
+    @Test
+    void createTransactionReplaysWhenConcurrentRequestRecordedTheSameIdempotencyKeyFirst() {
+        String accountNumber = "01234567";
+        String userId = "usr-1234567890";
+        String fingerprint = IdempotencyStore.fingerprint(accountNumber, createTransactionRequest);
+        when(idempotencyStore.findReplay(userId, accountNumber, "retry-key-1", fingerprint))
+                .thenReturn(Optional.empty(), Optional.of(transactionResponse));
+        when(accountRepository.findByAccountNumber(accountNumber)).thenReturn(Optional.of(account));
+        when(transactionMapper.toEntity(createTransactionRequest)).thenReturn(transaction);
+        when(transactionIdAllocator.nextId()).thenReturn("tan-1a2b3c");
+        doThrow(new DataIntegrityViolationException("Duplicate idempotency key"))
+                .when(idempotencyStore).record(userId, accountNumber, "retry-key-1", fingerprint, "tan-1a2b3c");
+
+        TransactionResponse result = transactionService.createTransaction(accountNumber, createTransactionRequest, userId, "retry-key-1");
+
+        assertThat(result).isSameAs(transactionResponse);
+        verify(transactionRepository, never()).save(any(Transaction.class));
+        verify(transactionManager).rollback(any());
+        verify(idempotencyStore, never()).remember(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void createTransactionRethrowsDuplicateKeyFailureWhenNoReplayIsFound() {
+        String accountNumber = "01234567";
+        String userId = "usr-1234567890";
+        String fingerprint = IdempotencyStore.fingerprint(accountNumber, createTransactionRequest);
+        DataIntegrityViolationException failure = new DataIntegrityViolationException("Duplicate idempotency key");
+        when(idempotencyStore.findReplay(userId, accountNumber, "retry-key-1", fingerprint)).thenReturn(Optional.empty());
+        when(accountRepository.findByAccountNumber(accountNumber)).thenReturn(Optional.of(account));
+        when(transactionMapper.toEntity(createTransactionRequest)).thenReturn(transaction);
+        when(transactionIdAllocator.nextId()).thenReturn("tan-1a2b3c");
+        doThrow(failure).when(idempotencyStore).record(userId, accountNumber, "retry-key-1", fingerprint, "tan-1a2b3c");
+
+        assertThatThrownBy(() -> transactionService.createTransaction(accountNumber, createTransactionRequest, userId, "retry-key-1"))
+                .isSameAs(failure);
+
+        verify(idempotencyStore, times(2)).findReplay(userId, accountNumber, "retry-key-1", fingerprint);
     }
 
     @Test
@@ -128,37 +228,35 @@ class TransactionServiceTest {
                 .type(CreateTransactionRequest.TypeEnum.WITHDRAWAL)
                 .reference("Test withdrawal");
 
-        when(accountRepository.findByAccountNumberWithUser(accountNumber)).thenReturn(Optional.of(account));
+        when(accountRepository.findOwnerIdByAccountNumber(accountNumber)).thenReturn(Optional.of(userId));
+        when(accountRepository.debitIfSufficient(accountNumber, 20000L)).thenReturn(1);
+        when(accountRepository.getReferenceById(accountNumber)).thenReturn(account);
         when(transactionMapper.toEntity(withdrawalRequest)).thenReturn(transaction);
-        when(transactionRepository.existsById(anyString())).thenReturn(false);
-        when(accountRepository.save(account)).thenAnswer(invocation -> {
-            Account savedAccount = invocation.getArgument(0);
-            savedAccount.getTransactions().add(transaction);
-            return savedAccount;
-        });
-        when(transactionMapper.toResponse(transaction)).thenReturn(transactionResponse);
+        when(transactionIdAllocator.nextId()).thenReturn("tan-1a2b3c");
+        when(transactionRepository.save(transaction)).thenReturn(transaction);
+        when(transactionMapper.toResponse(transaction, userId)).thenReturn(transactionResponse);
 
         TransactionResponse result = transactionService.createTransaction(accountNumber, withdrawalRequest, userId);
 
         assertThat(result).isEqualTo(transactionResponse);
-        assertThat(account.getBalance()).isEqualTo(800.00);
-        verify(accountRepository).findByAccountNumberWithUser(accountNumber);
         verify(transactionMapper).toEntity(withdrawalRequest);
-        verify(accountRepository).save(account);
-        verify(transactionMapper).toResponse(transaction);
+        verify(accountRepository).debitIfSufficient(accountNumber, 20000L);
+        verify(accountRepository, never()).findByAccountNumber(anyString());
+        verify(accountRepository, never()).save(any());
+        verify(transactionMapper).toResponse(transaction, userId);
     }
 
     @Test
     void createTransactionThrowsAccountNotFoundExceptionWhenAccountDoesNotExist() {
         String accountNumber = "01999999";
         String userId = "usr-1234567890";
-        when(accountRepository.findByAccountNumberWithUser(accountNumber)).thenReturn(Optional.empty());
+        when(accountRepository.findByAccountNumber(accountNumber)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> transactionService.createTransaction(accountNumber, createTransactionRequest, userId))
                 .isInstanceOf(AccountNotFoundException.class)
                 .hasMessage("Account not found with account number: 01999999");
 
-        verify(accountRepository).findByAccountNumberWithUser(accountNumber);
+        verify(accountRepository).findByAccountNumber(accountNumber);
         verify(transactionMapper, never()).toEntity(any());
         verify(accountRepository, never()).save(any());
     }
@@ -167,13 +265,13 @@ class TransactionServiceTest {
     void createTransactionThrowsAccessDeniedExceptionWhenUserDoesNotOwnAccount() {
         String accountNumber = "01234567";
         String otherUserId = "usr-0987654321";
-        when(accountRepository.findByAccountNumberWithUser(accountNumber)).thenReturn(Optional.of(account));
+        when(accountRepository.findByAccountNumber(accountNumber)).thenReturn(Optional.of(account));
 
         assertThatThrownBy(() -> transactionService.createTransaction(accountNumber, createTransactionRequest, otherUserId))
                 .isInstanceOf(AccessDeniedException.class)
                 .hasMessage("Access denied to account");
 
-        verify(accountRepository).findByAccountNumberWithUser(accountNumber);
+        verify(accountRepository).findByAccountNumber(accountNumber);
         verify(transactionMapper, never()).toEntity(any());
         verify(accountRepository, never()).save(any());
     }
@@ -188,100 +286,73 @@ class TransactionServiceTest {
                 .type(CreateTransactionRequest.TypeEnum.WITHDRAWAL)
                 .reference("Large withdrawal");
 
-        when(accountRepository.findByAccountNumberWithUser(accountNumber)).thenReturn(Optional.of(account));
+        when(accountRepository.findOwnerIdByAccountNumber(accountNumber)).thenReturn(Optional.of(userId));
+        when(accountRepository.debitIfSufficient(accountNumber, 200000L)).thenReturn(0);
+        when(accountRepository.findByAccountNumber(accountNumber)).thenReturn(Optional.of(account));
 
         assertThatThrownBy(() -> transactionService.createTransaction(accountNumber, largeWithdrawalRequest, userId))
-                .isInstanceOf(InsufficientFundsException.class);
+                .isInstanceOf(InsufficientFundsException.class)
+                .hasMessage("Insufficient funds in account 01234567. Requested: 2000.00, Available: 1000.00");
 
-        verify(accountRepository).findByAccountNumberWithUser(accountNumber);
+        verify(accountRepository).findByAccountNumber(accountNumber);
         verify(transactionMapper, never()).toEntity(any());
         verify(accountRepository, never()).save(any());
+        verify(accountRepository, never()).getReferenceById(anyString());
+        verify(transactionRepository, never()).save(any());
     }
 
     @Test
     void createTransactionGeneratesUniqueTransactionIdWithTanPrefix() {
         String accountNumber = "01234567";
         String userId = "usr-1234567890";
-        when(accountRepository.findByAccountNumberWithUser(accountNumber)).thenReturn(Optional.of(account));
+        when(accountRepository.findByAccountNumber(accountNumber)).thenReturn(Optional.of(account));
         when(transactionMapper.toEntity(createTransactionRequest)).thenReturn(transaction);
-        when(transactionRepository.existsById(anyString())).thenReturn(false);
-        when(accountRepository.save(account)).thenAnswer(invocation -> {
-            Account savedAccount = invocation.getArgument(0);
-            Transaction savedTransaction = savedAccount.getTransactions().get(0);
+        when(transactionIdAllocator.nextId()).thenReturn("tan-1a2b3c");
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> {
+            Transaction savedTransaction = invocation.getArgument(0);
             // Updated pattern to match OpenAPI specification: ^tan-[A-Za-z0-9]+$
             assertThat(savedTransaction.getId()).matches("^tan-[A-Za-z0-9]+$");
-            return savedAccount;
+            return savedTransaction;
         });
         when(transactionMapper.toResponse(any(Transaction.class))).thenReturn(transactionResponse);
 
         transactionService.createTransaction(accountNumber, createTransactionRequest, userId);
 
-        verify(accountRepository).save(account);
+        verify(transactionRepository).save(transaction);
     }
 
     @Test
-    void createTransactionGeneratesUniqueTransactionIdAfterCollisions() {
+    void createTransactionUsesAllocatedIdWithoutExistenceCheck() {
         String accountNumber = "01234567";
         String userId = "usr-1234567890";
-        when(accountRepository.findByAccountNumberWithUser(accountNumber)).thenReturn(Optional.of(account));
+        when(accountRepository.findByAccountNumber(accountNumber)).thenReturn(Optional.of(account));
         when(transactionMapper.toEntity(createTransactionRequest)).thenReturn(transaction);
-        when(transactionRepository.existsById(anyString()))
-                .thenReturn(true)
-                .thenReturn(true)
-                .thenReturn(false);
-        when(accountRepository.save(account)).thenAnswer(invocation -> {
-            Account savedAccount = invocation.getArgument(0);
-            savedAccount.getTransactions().add(transaction);
-            return savedAccount;
-        });
+        when(transactionIdAllocator.nextId()).thenReturn("tan-2s");
+        when(transactionRepository.save(transaction)).thenReturn(transaction);
         when(transactionMapper.toResponse(transaction)).thenReturn(transactionResponse);
 
         transactionService.createTransaction(accountNumber, createTransactionRequest, userId);
 
-        verify(transactionRepository, times(3)).existsById(anyString());
-        verify(accountRepository).save(account);
-    }
-
-    @Test
-    void createTransactionUsesTimestampFallbackWhenMaxAttemptsReached() {
-        String accountNumber = "01234567";
-        String userId = "usr-1234567890";
-        when(accountRepository.findByAccountNumberWithUser(accountNumber)).thenReturn(Optional.of(account));
-        when(transactionMapper.toEntity(createTransactionRequest)).thenReturn(transaction);
-        when(transactionRepository.existsById(anyString())).thenReturn(true);
-        when(accountRepository.save(account)).thenAnswer(invocation -> {
-            Account savedAccount = invocation.getArgument(0);
-            Transaction savedTransaction = savedAccount.getTransactions().get(0);
-            assertThat(savedTransaction.getId()).startsWith("tan-");
-            return savedAccount;
-        });
-        when(transactionMapper.toResponse(any(Transaction.class))).thenReturn(transactionResponse);
-
-        transactionService.createTransaction(accountNumber, createTransactionRequest, userId);
-
-        verify(transactionRepository, times(99)).existsById(anyString());
-        verify(accountRepository).save(account);
+        assertThat(transaction.getId()).isEqualTo("tan-2s");
+        verify(transactionIdAllocator).nextId();
+        verify(transactionRepository, never()).existsById(anyString());
     }
 
     @Test
     void createDepositTransactionWithZeroBalanceAccountSuccessfully() {
         String accountNumber = "01234567";
         String userId = "usr-1234567890";
-        account.setBalance(0.00);
-        when(accountRepository.findByAccountNumberWithUser(accountNumber)).thenReturn(Optional.of(account));
+        account.setBalance(Money.fromDecimal(0.00));
+        when(accountRepository.findByAccountNumber(accountNumber)).thenReturn(Optional.of(account));
         when(transactionMapper.toEntity(createTransactionRequest)).thenReturn(transaction);
-        when(transactionRepository.existsById(anyString())).thenReturn(false);
-        when(accountRepository.save(account)).thenAnswer(invocation -> {
-            Account savedAccount = invocation.getArgument(0);
-            savedAccount.getTransactions().add(transaction);
-            return savedAccount;
-        });
+        when(transactionIdAllocator.nextId()).thenReturn("tan-1a2b3c");
+        when(transactionRepository.save(transaction)).thenReturn(transaction);
         when(transactionMapper.toResponse(transaction)).thenReturn(transactionResponse);
 
         TransactionResponse result = transactionService.createTransaction(accountNumber, createTransactionRequest, userId);
 
         assertThat(result).isEqualTo(transactionResponse);
-        assertThat(account.getBalance()).isEqualTo(100.00);
+        assertThat(account.getBalance()).isEqualTo(Money.fromDecimal(100.00));
         verify(accountRepository).save(account);
     }
 
@@ -295,21 +366,20 @@ class TransactionServiceTest {
                 .type(CreateTransactionRequest.TypeEnum.WITHDRAWAL)
                 .reference("Exact balance withdrawal");
 
-        when(accountRepository.findByAccountNumberWithUser(accountNumber)).thenReturn(Optional.of(account));
+        when(accountRepository.findOwnerIdByAccountNumber(accountNumber)).thenReturn(Optional.of(userId));
+        when(accountRepository.debitIfSufficient(accountNumber, 100000L)).thenReturn(1);
+        when(accountRepository.getReferenceById(accountNumber)).thenReturn(account);
         when(transactionMapper.toEntity(exactBalanceWithdrawal)).thenReturn(transaction);
-        when(transactionRepository.existsById(anyString())).thenReturn(false);
-        when(accountRepository.save(account)).thenAnswer(invocation -> {
-            Account savedAccount = invocation.getArgument(0);
-            savedAccount.getTransactions().add(transaction);
-            return savedAccount;
-        });
-        when(transactionMapper.toResponse(transaction)).thenReturn(transactionResponse);
+        when(transactionIdAllocator.nextId()).thenReturn("tan-1a2b3c");
+        when(transactionRepository.save(transaction)).thenReturn(transaction);
+        when(transactionMapper.toResponse(transaction, userId)).thenReturn(transactionResponse);
 
         TransactionResponse result = transactionService.createTransaction(accountNumber, exactBalanceWithdrawal, userId);
 
         assertThat(result).isEqualTo(transactionResponse);
-        assertThat(account.getBalance()).isEqualTo(0.00);
-        verify(accountRepository).save(account);
+        verify(accountRepository).debitIfSufficient(accountNumber, 100000L);
+        verify(accountRepository, never()).findByAccountNumber(anyString());
+        verify(accountRepository, never()).save(any());
     }
 
     // === FIND TRANSACTIONS BY ACCOUNT NUMBER TESTS ===
@@ -318,94 +388,153 @@ class TransactionServiceTest {
     void findByAccountNumberSuccessfullyReturnsTransactions() {
         String accountNumber = "01234567";
         String userId = "usr-1234567890";
-        List<Transaction> transactions = List.of(transaction);
+        List<TransactionView> transactions = List.of(transactionView);
         List<TransactionResponse> transactionResponses = List.of(transactionResponse);
 
-        when(accountRepository.findByAccountNumberWithUser(accountNumber)).thenReturn(Optional.of(account));
-        when(transactionRepository.findByAccount_AccountNumberOrderByCreatedTimestampDesc(accountNumber))
+        when(accountRepository.findOwnerIdByAccountNumber(accountNumber)).thenReturn(Optional.of(account.getUser().getId()));
+        when(transactionRepository.findViewPageByAccountNumber(eq(accountNumber), any(Pageable.class)))
                 .thenReturn(transactions);
-        when(transactionMapper.toResponseList(transactions)).thenReturn(transactionResponses);
+        when(transactionMapper.fromViews(transactions, userId)).thenReturn(transactionResponses);
 
-        ListTransactionsResponse result = transactionService.findByAccountNumber(accountNumber, userId);
+        ListTransactionsResponse result = transactionService.findByAccountNumber(accountNumber, userId, null, null);
 
         assertThat(result.getTransactions()).hasSize(1);
         assertThat(result.getTransactions().get(0)).isEqualTo(transactionResponse);
-        verify(accountRepository).findByAccountNumberWithUser(accountNumber);
-        verify(transactionRepository).findByAccount_AccountNumberOrderByCreatedTimestampDesc(accountNumber);
-        verify(transactionMapper).toResponseList(transactions);
+        verify(accountRepository).findOwnerIdByAccountNumber(accountNumber);
+        verify(transactionRepository).findViewPageByAccountNumber(eq(accountNumber), any(Pageable.class));
+        verify(transactionMapper).fromViews(transactions, userId);
     }
 
     @Test
     void findByAccountNumberReturnsEmptyListWhenNoTransactionsExist() {
         String accountNumber = "01234567";
         String userId = "usr-1234567890";
-        List<Transaction> emptyTransactions = List.of();
+        List<TransactionView> emptyTransactions = List.of();
         List<TransactionResponse> emptyResponses = List.of();
 
-        when(accountRepository.findByAccountNumberWithUser(accountNumber)).thenReturn(Optional.of(account));
-        when(transactionRepository.findByAccount_AccountNumberOrderByCreatedTimestampDesc(accountNumber))
+        when(accountRepository.findOwnerIdByAccountNumber(accountNumber)).thenReturn(Optional.of(account.getUser().getId()));
+        when(transactionRepository.findViewPageByAccountNumber(eq(accountNumber), any(Pageable.class)))
                 .thenReturn(emptyTransactions);
-        when(transactionMapper.toResponseList(emptyTransactions)).thenReturn(emptyResponses);
+        when(transactionMapper.fromViews(emptyTransactions, userId)).thenReturn(emptyResponses);
 
-        ListTransactionsResponse result = transactionService.findByAccountNumber(accountNumber, userId);
+        ListTransactionsResponse result = transactionService.findByAccountNumber(accountNumber, userId, null, null);
 
         assertThat(result.getTransactions()).isEmpty();
-        verify(accountRepository).findByAccountNumberWithUser(accountNumber);
-        verify(transactionRepository).findByAccount_AccountNumberOrderByCreatedTimestampDesc(accountNumber);
-        verify(transactionMapper).toResponseList(emptyTransactions);
+        verify(accountRepository).findOwnerIdByAccountNumber(accountNumber);
+        verify(transactionRepository).findViewPageByAccountNumber(eq(accountNumber), any(Pageable.class));
+        verify(transactionMapper).fromViews(emptyTransactions, userId);
     }
 
     @Test
     void findByAccountNumberThrowsAccountNotFoundExceptionWhenAccountDoesNotExist() {
         String accountNumber = "01999999";
         String userId = "usr-1234567890";
-        when(accountRepository.findByAccountNumberWithUser(accountNumber)).thenReturn(Optional.empty());
+        when(accountRepository.findOwnerIdByAccountNumber(accountNumber)).thenReturn(Optional.empty());
 
-        assertThatThrownBy(() -> transactionService.findByAccountNumber(accountNumber, userId))
+        assertThatThrownBy(() -> transactionService.findByAccountNumber(accountNumber, userId, null, null))
                 .isInstanceOf(AccountNotFoundException.class)
                 .hasMessage("Account not found with account number: 01999999");
 
-        verify(accountRepository).findByAccountNumberWithUser(accountNumber);
-        verify(transactionRepository, never()).findByAccount_AccountNumberOrderByCreatedTimestampDesc(any());
-        verify(transactionMapper, never()).toResponseList(any());
+        verify(accountRepository).findOwnerIdByAccountNumber(accountNumber);
+        verify(transactionRepository, never()).findViewPageByAccountNumber(any(), any());
+        verify(transactionMapper, never()).fromViews(any(), any());
     }
 
     @Test
     void findByAccountNumberThrowsAccessDeniedExceptionWhenUserDoesNotOwnAccount() {
         String accountNumber = "01234567";
         String otherUserId = "usr-0987654321";
-        when(accountRepository.findByAccountNumberWithUser(accountNumber)).thenReturn(Optional.of(account));
+        when(accountRepository.findOwnerIdByAccountNumber(accountNumber)).thenReturn(Optional.of(account.getUser().getId()));
 
-        assertThatThrownBy(() -> transactionService.findByAccountNumber(accountNumber, otherUserId))
+        assertThatThrownBy(() -> transactionService.findByAccountNumber(accountNumber, otherUserId, null, null))
                 .isInstanceOf(AccessDeniedException.class)
                 .hasMessage("Access denied to account");
 
-        verify(accountRepository).findByAccountNumberWithUser(accountNumber);
-        verify(transactionRepository, never()).findByAccount_AccountNumberOrderByCreatedTimestampDesc(any());
-        verify(transactionMapper, never()).toResponseList(any());
+        verify(accountRepository).findOwnerIdByAccountNumber(accountNumber);
+        verify(transactionRepository, never()).findViewPageByAccountNumber(any(), any());
+        verify(transactionMapper, never()).fromViews(any(), any());
     }
 
     @Test
     void findByAccountNumberWithMultipleTransactionsReturnsAllTransactions() {
         String accountNumber = "01234567";
         String userId = "usr-1234567890";
-        Transaction secondTransaction = new Transaction();
-        secondTransaction.setId("tan-0987654321bc");
-        List<Transaction> transactions = List.of(transaction, secondTransaction);
+        TransactionView secondTransaction = view("tan-0987654321bc", LocalDateTime.now());
+        List<TransactionView> transactions = List.of(transactionView, secondTransaction);
         TransactionResponse secondResponse = new TransactionResponse().id("tan-0987654321bc");
         List<TransactionResponse> transactionResponses = List.of(transactionResponse, secondResponse);
 
-        when(accountRepository.findByAccountNumberWithUser(accountNumber)).thenReturn(Optional.of(account));
-        when(transactionRepository.findByAccount_AccountNumberOrderByCreatedTimestampDesc(accountNumber))
+        when(accountRepository.findOwnerIdByAccountNumber(accountNumber)).thenReturn(Optional.of(account.getUser().getId()));
+        when(transactionRepository.findViewPageByAccountNumber(eq(accountNumber), any(Pageable.class)))
                 .thenReturn(transactions);
-        when(transactionMapper.toResponseList(transactions)).thenReturn(transactionResponses);
+        when(transactionMapper.fromViews(transactions, userId)).thenReturn(transactionResponses);
 
-        ListTransactionsResponse result = transactionService.findByAccountNumber(accountNumber, userId);
+        ListTransactionsResponse result = transactionService.findByAccountNumber(accountNumber, userId, null, null);
 
         assertThat(result.getTransactions()).hasSize(2);
-        verify(accountRepository).findByAccountNumberWithUser(accountNumber);
-        verify(transactionRepository).findByAccount_AccountNumberOrderByCreatedTimestampDesc(accountNumber);
-        verify(transactionMapper).toResponseList(transactions);
+        verify(accountRepository).findOwnerIdByAccountNumber(accountNumber);
+        verify(transactionRepository).findViewPageByAccountNumber(eq(accountNumber), any(Pageable.class));
+        verify(transactionMapper).fromViews(transactions, userId);
+    }
+
+    @Test
+    void findByAccountNumberReturnsNextCursorWhenMoreTransactionsExist() {
+        String accountNumber = "01234567";
+        String userId = "usr-1234567890";
+        TransactionView newerTransaction = view("tan-1234567890ab", LocalDateTime.of(2025, 8, 29, 12, 0));
+        TransactionView olderTransaction = view("tan-0987654321bc", LocalDateTime.of(2025, 8, 28, 12, 0));
+
+        when(accountRepository.findOwnerIdByAccountNumber(accountNumber)).thenReturn(Optional.of(account.getUser().getId()));
+        when(transactionRepository.findViewPageByAccountNumber(accountNumber, PageRequest.of(0, 2)))
+                .thenReturn(List.of(newerTransaction, olderTransaction));
+        when(transactionMapper.fromViews(List.of(newerTransaction), userId)).thenReturn(List.of(transactionResponse));
+
+        ListTransactionsResponse result = transactionService.findByAccountNumber(accountNumber, userId, 1, null);
+
+        assertThat(result.getTransactions()).containsExactly(transactionResponse);
+        assertThat(result.getNextCursor()).isNotNull();
+        TransactionCursor cursor = TransactionCursor.decode(result.getNextCursor());
+        assertThat(cursor.createdTimestamp()).isEqualTo(newerTransaction.createdTimestamp());
+        assertThat(cursor.id()).isEqualTo(newerTransaction.id());
+    }
+
+    @Test
+    void findByAccountNumberSeeksPastCursorAndOmitsNextCursorOnLastPage() {
+        String accountNumber = "01234567";
+        String userId = "usr-1234567890";
+        LocalDateTime createdTimestamp = LocalDateTime.of(2025, 8, 29, 12, 0);
+        String cursor = new TransactionCursor(createdTimestamp, "tan-newer456").encode();
+
+        when(accountRepository.findOwnerIdByAccountNumber(accountNumber)).thenReturn(Optional.of(account.getUser().getId()));
+        when(transactionRepository.findViewPageByAccountNumberAfter(accountNumber, createdTimestamp, "tan-newer456",
+                PageRequest.of(0, 11))).thenReturn(List.of(transactionView));
+        when(transactionMapper.fromViews(List.of(transactionView), userId)).thenReturn(List.of(transactionResponse));
+
+        ListTransactionsResponse result = transactionService.findByAccountNumber(accountNumber, userId, 10, cursor);
+
+        assertThat(result.getTransactions()).containsExactly(transactionResponse);
+        assertThat(result.getNextCursor()).isNull();
+        verify(transactionRepository, never()).findViewPageByAccountNumber(any(), any());
+    }
+
+    @Test
+    void findByAccountNumberRejectsLimitOutsideAllowedRange() {
+        assertThatThrownBy(() -> transactionService.findByAccountNumber("01234567", "usr-1234567890", 0, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> transactionService.findByAccountNumber("01234567", "usr-1234567890",
+                TransactionService.MAX_PAGE_SIZE + 1, null))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        verify(accountRepository, never()).findOwnerIdByAccountNumber(any());
+    }
+
+    @Test
+    void findByAccountNumberRejectsMalformedCursor() {
+        assertThatThrownBy(() -> transactionService.findByAccountNumber("01234567", "usr-1234567890", null, "not-a-cursor!"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+
+        verify(transactionRepository, never()).findViewPageByAccountNumberAfter(any(), any(), any(), any());
     }
 
     // === FIND TRANSACTION BY ID AND ACCOUNT NUMBER TESTS ===
@@ -416,17 +545,17 @@ class TransactionServiceTest {
         String accountNumber = "01234567";
         String userId = "usr-1234567890";
 
-        when(accountRepository.findByAccountNumberWithUser(accountNumber)).thenReturn(Optional.of(account));
-        when(transactionRepository.findByIdAndAccount_AccountNumber(transactionId, accountNumber))
-                .thenReturn(Optional.of(transaction));
-        when(transactionMapper.toResponse(transaction)).thenReturn(transactionResponse);
+        when(accountRepository.findOwnerIdByAccountNumber(accountNumber)).thenReturn(Optional.of(account.getUser().getId()));
+        when(transactionRepository.findViewByIdAndAccountNumber(transactionId, accountNumber))
+                .thenReturn(Optional.of(transactionView));
+        when(transactionMapper.fromView(transactionView, userId)).thenReturn(transactionResponse);
 
         TransactionResponse result = transactionService.findByIdAndAccountNumber(transactionId, accountNumber, userId);
 
         assertThat(result).isEqualTo(transactionResponse);
-        verify(accountRepository).findByAccountNumberWithUser(accountNumber);
-        verify(transactionRepository).findByIdAndAccount_AccountNumber(transactionId, accountNumber);
-        verify(transactionMapper).toResponse(transaction);
+        verify(accountRepository).findOwnerIdByAccountNumber(accountNumber);
+        verify(transactionRepository).findViewByIdAndAccountNumber(transactionId, accountNumber);
+        verify(transactionMapper).fromView(transactionView, userId);
     }
 
     @Test
@@ -434,15 +563,15 @@ class TransactionServiceTest {
         String transactionId = "tan-1234567890ab";
         String accountNumber = "01999999";
         String userId = "usr-1234567890";
-        when(accountRepository.findByAccountNumberWithUser(accountNumber)).thenReturn(Optional.empty());
+        when(accountRepository.findOwnerIdByAccountNumber(accountNumber)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> transactionService.findByIdAndAccountNumber(transactionId, accountNumber, userId))
                 .isInstanceOf(AccountNotFoundException.class)
                 .hasMessage("Account not found with account number: 01999999");
 
-        verify(accountRepository).findByAccountNumberWithUser(accountNumber);
-        verify(transactionRepository, never()).findByIdAndAccount_AccountNumber(any(), any());
-        verify(transactionMapper, never()).toResponse(any());
+        verify(accountRepository).findOwnerIdByAccountNumber(accountNumber);
+        verify(transactionRepository, never()).findViewByIdAndAccountNumber(any(), any());
+        verify(transactionMapper, never()).fromView(any(), any());
     }
 
     @Test
@@ -450,15 +579,15 @@ class TransactionServiceTest {
         String transactionId = "tan-1234567890ab";
         String accountNumber = "01234567";
         String otherUserId = "usr-0987654321";
-        when(accountRepository.findByAccountNumberWithUser(accountNumber)).thenReturn(Optional.of(account));
+        when(accountRepository.findOwnerIdByAccountNumber(accountNumber)).thenReturn(Optional.of(account.getUser().getId()));
 
         assertThatThrownBy(() -> transactionService.findByIdAndAccountNumber(transactionId, accountNumber, otherUserId))
                 .isInstanceOf(AccessDeniedException.class)
                 .hasMessage("Access denied to account");
 
-        verify(accountRepository).findByAccountNumberWithUser(accountNumber);
-        verify(transactionRepository, never()).findByIdAndAccount_AccountNumber(any(), any());
-        verify(transactionMapper, never()).toResponse(any());
+        verify(accountRepository).findOwnerIdByAccountNumber(accountNumber);
+        verify(transactionRepository, never()).findViewByIdAndAccountNumber(any(), any());
+        verify(transactionMapper, never()).fromView(any(), any());
     }
 
     @Test
@@ -467,17 +596,17 @@ class TransactionServiceTest {
         String accountNumber = "01234567";
         String userId = "usr-1234567890";
 
-        when(accountRepository.findByAccountNumberWithUser(accountNumber)).thenReturn(Optional.of(account));
-        when(transactionRepository.findByIdAndAccount_AccountNumber(transactionId, accountNumber))
+        when(accountRepository.findOwnerIdByAccountNumber(accountNumber)).thenReturn(Optional.of(account.getUser().getId()));
+        when(transactionRepository.findViewByIdAndAccountNumber(transactionId, accountNumber))
                 .thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> transactionService.findByIdAndAccountNumber(transactionId, accountNumber, userId))
                 .isInstanceOf(TransactionNotFoundException.class)
                 .hasMessage("Transaction with ID tan-nonexistent not found on account 01234567");
 
-        verify(accountRepository).findByAccountNumberWithUser(accountNumber);
-        verify(transactionRepository).findByIdAndAccount_AccountNumber(transactionId, accountNumber);
-        verify(transactionMapper, never()).toResponse(any());
+        verify(accountRepository).findOwnerIdByAccountNumber(accountNumber);
+        verify(transactionRepository).findViewByIdAndAccountNumber(transactionId, accountNumber);
+        verify(transactionMapper, never()).fromView(any(), any());
     }
 
     @Test
@@ -489,17 +618,17 @@ class TransactionServiceTest {
         wrongAccount.setAccountNumber(wrongAccountNumber);
         wrongAccount.setUser(user);
 
-        when(accountRepository.findByAccountNumberWithUser(wrongAccountNumber)).thenReturn(Optional.of(wrongAccount));
-        when(transactionRepository.findByIdAndAccount_AccountNumber(transactionId, wrongAccountNumber))
+        when(accountRepository.findOwnerIdByAccountNumber(wrongAccountNumber)).thenReturn(Optional.of(wrongAccount.getUser().getId()));
+        when(transactionRepository.findViewByIdAndAccountNumber(transactionId, wrongAccountNumber))
                 .thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> transactionService.findByIdAndAccountNumber(transactionId, wrongAccountNumber, userId))
                 .isInstanceOf(TransactionNotFoundException.class)
                 .hasMessage("Transaction with ID tan-1234567890ab not found on account 01765432");
 
-        verify(accountRepository).findByAccountNumberWithUser(wrongAccountNumber);
-        verify(transactionRepository).findByIdAndAccount_AccountNumber(transactionId, wrongAccountNumber);
-        verify(transactionMapper, never()).toResponse(any());
+        verify(accountRepository).findOwnerIdByAccountNumber(wrongAccountNumber);
+        verify(transactionRepository).findViewByIdAndAccountNumber(transactionId, wrongAccountNumber);
+        verify(transactionMapper, never()).fromView(any(), any());
     }
 
     // === ADDITIONAL EDGE CASES AND SCENARIOS ===
@@ -508,33 +637,32 @@ class TransactionServiceTest {
     void createTransactionSetsSystemGeneratedFieldsCorrectly() {
         String accountNumber = "01234567";
         String userId = "usr-1234567890";
-        when(accountRepository.findByAccountNumberWithUser(accountNumber)).thenReturn(Optional.of(account));
+        when(accountRepository.findByAccountNumber(accountNumber)).thenReturn(Optional.of(account));
         when(transactionMapper.toEntity(createTransactionRequest)).thenReturn(transaction);
-        when(transactionRepository.existsById(anyString())).thenReturn(false);
-        when(accountRepository.save(account)).thenAnswer(invocation -> {
-            Account savedAccount = invocation.getArgument(0);
-            Transaction savedTransaction = savedAccount.getTransactions().get(0);
+        when(transactionIdAllocator.nextId()).thenReturn("tan-1a2b3c");
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> {
+            Transaction savedTransaction = invocation.getArgument(0);
             assertThat(savedTransaction.getCurrency()).isEqualTo(Transaction.Currency.GBP);
             assertThat(savedTransaction.getId()).isNotNull();
-            return savedAccount;
+            return savedTransaction;
         });
         when(transactionMapper.toResponse(any(Transaction.class))).thenReturn(transactionResponse);
 
         transactionService.createTransaction(accountNumber, createTransactionRequest, userId);
 
-        verify(accountRepository).save(account);
+        verify(transactionRepository).save(transaction);
     }
 
     @Test
     void createTransactionValidatesAccountOwnershipBeforeProcessing() {
         String accountNumber = "01234567";
         String otherUserId = "usr-0987654321";
-        when(accountRepository.findByAccountNumberWithUser(accountNumber)).thenReturn(Optional.of(account));
+        when(accountRepository.findByAccountNumber(accountNumber)).thenReturn(Optional.of(account));
 
         assertThatThrownBy(() -> transactionService.createTransaction(accountNumber, createTransactionRequest, otherUserId))
                 .isInstanceOf(AccessDeniedException.class);
 
-        verify(accountRepository).findByAccountNumberWithUser(accountNumber);
+        verify(accountRepository).findByAccountNumber(accountNumber);
         verify(transactionMapper, never()).toEntity(any());
         verify(accountRepository, never()).save(any());
     }
@@ -549,28 +677,31 @@ class TransactionServiceTest {
                 .type(CreateTransactionRequest.TypeEnum.WITHDRAWAL)
                 .reference("Slightly over balance");
 
-        when(accountRepository.findByAccountNumberWithUser(accountNumber)).thenReturn(Optional.of(account));
+        when(accountRepository.findOwnerIdByAccountNumber(accountNumber)).thenReturn(Optional.of(userId));
+        when(accountRepository.debitIfSufficient(accountNumber, 100001L)).thenReturn(0);
+        when(accountRepository.findByAccountNumber(accountNumber)).thenReturn(Optional.of(account));
 
         assertThatThrownBy(() -> transactionService.createTransaction(accountNumber, slightlyOverBalanceWithdrawal, userId))
                 .isInstanceOf(InsufficientFundsException.class);
 
-        verify(accountRepository).findByAccountNumberWithUser(accountNumber);
+        verify(accountRepository).findByAccountNumber(accountNumber);
         verify(transactionMapper, never()).toEntity(any());
         verify(accountRepository, never()).save(any());
+        verify(accountRepository, never()).getReferenceById(anyString());
     }
 
     @Test
     void findByAccountNumberVerifiesOwnershipBeforeRetrievingTransactions() {
         String accountNumber = "01234567";
         String otherUserId = "usr-0987654321";
-        when(accountRepository.findByAccountNumberWithUser(accountNumber)).thenReturn(Optional.of(account));
+        when(accountRepository.findOwnerIdByAccountNumber(accountNumber)).thenReturn(Optional.of(account.getUser().getId()));
 
-        assertThatThrownBy(() -> transactionService.findByAccountNumber(accountNumber, otherUserId))
+        assertThatThrownBy(() -> transactionService.findByAccountNumber(accountNumber, otherUserId, null, null))
                 .isInstanceOf(AccessDeniedException.class);
 
-        verify(accountRepository).findByAccountNumberWithUser(accountNumber);
-        verify(transactionRepository, never()).findByAccount_AccountNumberOrderByCreatedTimestampDesc(any());
-        verify(transactionMapper, never()).toResponseList(any());
+        verify(accountRepository).findOwnerIdByAccountNumber(accountNumber);
+        verify(transactionRepository, never()).findViewPageByAccountNumber(any(), any());
+        verify(transactionMapper, never()).fromViews(any(), any());
     }
 
     @Test
@@ -578,32 +709,32 @@ class TransactionServiceTest {
         String transactionId = "tan-1234567890ab";
         String accountNumber = "01234567";
         String otherUserId = "usr-0987654321";
-        when(accountRepository.findByAccountNumberWithUser(accountNumber)).thenReturn(Optional.of(account));
+        when(accountRepository.findOwnerIdByAccountNumber(accountNumber)).thenReturn(Optional.of(account.getUser().getId()));
 
         assertThatThrownBy(() -> transactionService.findByIdAndAccountNumber(transactionId, accountNumber, otherUserId))
                 .isInstanceOf(AccessDeniedException.class);
 
-        verify(accountRepository).findByAccountNumberWithUser(accountNumber);
-        verify(transactionRepository, never()).findByIdAndAccount_AccountNumber(any(), any());
-        verify(transactionMapper, never()).toResponse(any());
+        verify(accountRepository).findOwnerIdByAccountNumber(accountNumber);
+        verify(transactionRepository, never()).findViewByIdAndAccountNumber(any(), any());
+        verify(transactionMapper, never()).fromView(any(), any());
     }
 
     @Test
     void createTransactionUpdatesAccountBalanceCorrectlyForDeposit() {
         String accountNumber = "01234567";
         String userId = "usr-1234567890";
-        double originalBalance = account.getBalance();
-        double depositAmount = createTransactionRequest.getAmount();
+        Money originalBalance = account.getBalance();
+        Money depositAmount = Money.fromDecimal(createTransactionRequest.getAmount());
 
-        when(accountRepository.findByAccountNumberWithUser(accountNumber)).thenReturn(Optional.of(account));
+        when(accountRepository.findByAccountNumber(accountNumber)).thenReturn(Optional.of(account));
         when(transactionMapper.toEntity(createTransactionRequest)).thenReturn(transaction);
-        when(transactionRepository.existsById(anyString())).thenReturn(false);
+        when(transactionIdAllocator.nextId()).thenReturn("tan-1a2b3c");
         when(accountRepository.save(account)).thenAnswer(invocation -> {
             Account savedAccount = invocation.getArgument(0);
-            assertThat(savedAccount.getBalance()).isEqualTo(originalBalance + depositAmount);
-            savedAccount.getTransactions().add(transaction);
+            assertThat(savedAccount.getBalance()).isEqualTo(originalBalance.plus(depositAmount));
             return savedAccount;
         });
+        when(transactionRepository.save(transaction)).thenReturn(transaction);
         when(transactionMapper.toResponse(transaction)).thenReturn(transactionResponse);
 
         transactionService.createTransaction(accountNumber, createTransactionRequest, userId);
@@ -615,27 +746,46 @@ class TransactionServiceTest {
     void createTransactionUpdatesAccountBalanceCorrectlyForWithdrawal() {
         String accountNumber = "01234567";
         String userId = "usr-1234567890";
-        double originalBalance = account.getBalance();
+        Money originalBalance = account.getBalance();
         CreateTransactionRequest withdrawalRequest = new CreateTransactionRequest()
                 .amount(150.00)
                 .currency(CreateTransactionRequest.CurrencyEnum.GBP)
                 .type(CreateTransactionRequest.TypeEnum.WITHDRAWAL)
                 .reference("Test withdrawal");
 
-        when(accountRepository.findByAccountNumberWithUser(accountNumber)).thenReturn(Optional.of(account));
+        when(accountRepository.findOwnerIdByAccountNumber(accountNumber)).thenReturn(Optional.of(userId));
+        when(accountRepository.debitIfSufficient(accountNumber, 15000L)).thenReturn(1);
+        when(accountRepository.getReferenceById(accountNumber)).thenReturn(account);
         when(transactionMapper.toEntity(withdrawalRequest)).thenReturn(transaction);
-        when(transactionRepository.existsById(anyString())).thenReturn(false);
-        when(accountRepository.save(account)).thenAnswer(invocation -> {
-            Account savedAccount = invocation.getArgument(0);
-            assertThat(savedAccount.getBalance()).isEqualTo(originalBalance - 150.00);
-            savedAccount.getTransactions().add(transaction);
-            return savedAccount;
-        });
-        when(transactionMapper.toResponse(transaction)).thenReturn(transactionResponse);
+        when(transactionIdAllocator.nextId()).thenReturn("tan-1a2b3c");
+        when(transactionRepository.save(transaction)).thenReturn(transaction);
+        when(transactionMapper.toResponse(transaction, userId)).thenReturn(transactionResponse);
 
         transactionService.createTransaction(accountNumber, withdrawalRequest, userId);
 
-        verify(accountRepository).save(account);
+        // The balance is debited by the conditional UPDATE in the database, not on the entity
+        verify(accountRepository).debitIfSufficient(accountNumber, 15000L);
+        assertThat(account.getBalance()).isEqualTo(originalBalance);
+        assertThat(transaction.getAccount()).isSameAs(account);
+    }
+
+    @Test
+    void createWithdrawalTransactionThrowsAccessDeniedExceptionWithoutDebitingWhenUserDoesNotOwnAccount() {
+        String accountNumber = "01234567";
+        String otherUserId = "usr-0987654321";
+        CreateTransactionRequest withdrawalRequest = new CreateTransactionRequest()
+                .amount(150.00)
+                .currency(CreateTransactionRequest.CurrencyEnum.GBP)
+                .type(CreateTransactionRequest.TypeEnum.WITHDRAWAL);
+
+        when(accountRepository.findOwnerIdByAccountNumber(accountNumber)).thenReturn(Optional.of("usr-1234567890"));
+
+        assertThatThrownBy(() -> transactionService.createTransaction(accountNumber, withdrawalRequest, otherUserId))
+                .isInstanceOf(AccessDeniedException.class)
+                .hasMessage("Access denied to account");
+
+        verify(accountRepository, never()).debitIfSufficient(anyString(), anyLong());
+        verify(transactionRepository, never()).save(any());
     }
 
     // === ADDITIONAL VALIDATION AND EDGE CASE TESTS ===
@@ -650,14 +800,10 @@ class TransactionServiceTest {
                 .type(CreateTransactionRequest.TypeEnum.DEPOSIT)
                 .reference("Minimum amount deposit");
 
-        when(accountRepository.findByAccountNumberWithUser(accountNumber)).thenReturn(Optional.of(account));
+        when(accountRepository.findByAccountNumber(accountNumber)).thenReturn(Optional.of(account));
         when(transactionMapper.toEntity(minAmountRequest)).thenReturn(transaction);
-        when(transactionRepository.existsById(anyString())).thenReturn(false);
-        when(accountRepository.save(account)).thenAnswer(invocation -> {
-            Account savedAccount = invocation.getArgument(0);
-            savedAccount.getTransactions().add(transaction);
-            return savedAccount;
-        });
+        when(transactionIdAllocator.nextId()).thenReturn("tan-1a2b3c");
+        when(transactionRepository.save(transaction)).thenReturn(transaction);
         when(transactionMapper.toResponse(transaction)).thenReturn(transactionResponse);
 
         TransactionResponse result = transactionService.createTransaction(accountNumber, minAmountRequest, userId);
@@ -670,28 +816,27 @@ class TransactionServiceTest {
     void createTransactionWithMaximumValidAmount() {
         String accountNumber = "01234567";
         String userId = "usr-1234567890";
-        account.setBalance(10000.00); // Set high balance to allow max withdrawal
+        account.setBalance(Money.fromDecimal(10000.00)); // Set high balance to allow max withdrawal
         CreateTransactionRequest maxAmountRequest = new CreateTransactionRequest()
                 .amount(10000.00)
                 .currency(CreateTransactionRequest.CurrencyEnum.GBP)
                 .type(CreateTransactionRequest.TypeEnum.WITHDRAWAL)
                 .reference("Maximum amount withdrawal");
 
-        when(accountRepository.findByAccountNumberWithUser(accountNumber)).thenReturn(Optional.of(account));
+        when(accountRepository.findOwnerIdByAccountNumber(accountNumber)).thenReturn(Optional.of(userId));
+        when(accountRepository.debitIfSufficient(accountNumber, 1000000L)).thenReturn(1);
+        when(accountRepository.getReferenceById(accountNumber)).thenReturn(account);
         when(transactionMapper.toEntity(maxAmountRequest)).thenReturn(transaction);
-        when(transactionRepository.existsById(anyString())).thenReturn(false);
-        when(accountRepository.save(account)).thenAnswer(invocation -> {
-            Account savedAccount = invocation.getArgument(0);
-            savedAccount.getTransactions().add(transaction);
-            return savedAccount;
-        });
-        when(transactionMapper.toResponse(transaction)).thenReturn(transactionResponse);
+        when(transactionIdAllocator.nextId()).thenReturn("tan-1a2b3c");
+        when(transactionRepository.save(transaction)).thenReturn(transaction);
+        when(transactionMapper.toResponse(transaction, userId)).thenReturn(transactionResponse);
 
         TransactionResponse result = transactionService.createTransaction(accountNumber, maxAmountRequest, userId);
 
         assertThat(result).isEqualTo(transactionResponse);
-        assertThat(account.getBalance()).isEqualTo(0.00);
-        verify(accountRepository).save(account);
+        verify(accountRepository).debitIfSufficient(accountNumber, 1000000L);
+        verify(accountRepository, never()).findByAccountNumber(anyString());
+        verify(accountRepository, never()).save(any());
     }
 
     @Test
@@ -704,14 +849,10 @@ class TransactionServiceTest {
                 .type(CreateTransactionRequest.TypeEnum.DEPOSIT);
         // Note: reference is optional according to OpenAPI spec
 
-        when(accountRepository.findByAccountNumberWithUser(accountNumber)).thenReturn(Optional.of(account));
+        when(accountRepository.findByAccountNumber(accountNumber)).thenReturn(Optional.of(account));
         when(transactionMapper.toEntity(requestWithoutReference)).thenReturn(transaction);
-        when(transactionRepository.existsById(anyString())).thenReturn(false);
-        when(accountRepository.save(account)).thenAnswer(invocation -> {
-            Account savedAccount = invocation.getArgument(0);
-            savedAccount.getTransactions().add(transaction);
-            return savedAccount;
-        });
+        when(transactionIdAllocator.nextId()).thenReturn("tan-1a2b3c");
+        when(transactionRepository.save(transaction)).thenReturn(transaction);
         when(transactionMapper.toResponse(transaction)).thenReturn(transactionResponse);
 
         TransactionResponse result = transactionService.createTransaction(accountNumber, requestWithoutReference, userId);
@@ -726,86 +867,49 @@ class TransactionServiceTest {
         String userId = "usr-1234567890";
 
         // Create multiple transactions with different timestamps
-        Transaction olderTransaction = new Transaction();
-        olderTransaction.setId("tan-older123");
-        olderTransaction.setCreatedTimestamp(LocalDateTime.now().minusDays(1));
-
-        Transaction newerTransaction = new Transaction();
-        newerTransaction.setId("tan-newer456");
-        newerTransaction.setCreatedTimestamp(LocalDateTime.now());
+        TransactionView olderTransaction = view("tan-older123", LocalDateTime.now().minusDays(1));
+        TransactionView newerTransaction = view("tan-newer456", LocalDateTime.now());
 
-        List<Transaction> orderedTransactions = List.of(newerTransaction, olderTransaction); // Newest first
+        List<TransactionView> orderedTransactions = List.of(newerTransaction, olderTransaction); // Newest first
         List<TransactionResponse> orderedResponses = List.of(
             new TransactionResponse().id("tan-newer456"),
             new TransactionResponse().id("tan-older123")
         );
 
-        when(accountRepository.findByAccountNumberWithUser(accountNumber)).thenReturn(Optional.of(account));
-        when(transactionRepository.findByAccount_AccountNumberOrderByCreatedTimestampDesc(accountNumber))
+        when(accountRepository.findOwnerIdByAccountNumber(accountNumber)).thenReturn(Optional.of(account.getUser().getId()));
+        when(transactionRepository.findViewPageByAccountNumber(eq(accountNumber), any(Pageable.class)))
                 .thenReturn(orderedTransactions);
-        when(transactionMapper.toResponseList(orderedTransactions)).thenReturn(orderedResponses);
+        when(transactionMapper.fromViews(orderedTransactions, userId)).thenReturn(orderedResponses);
 
-        ListTransactionsResponse result = transactionService.findByAccountNumber(accountNumber, userId);
+        ListTransactionsResponse result = transactionService.findByAccountNumber(accountNumber, userId, null, null);
 
         assertThat(result.getTransactions()).hasSize(2);
         assertThat(result.getTransactions().get(0).getId()).isEqualTo("tan-newer456");
         assertThat(result.getTransactions().get(1).getId()).isEqualTo("tan-older123");
-        verify(transactionRepository).findByAccount_AccountNumberOrderByCreatedTimestampDesc(accountNumber);
-    }
-
-    @Test
-    void createTransactionHandlesUniqueIdGenerationWithMultipleCollisions() {
-        String accountNumber = "01234567";
-        String userId = "usr-1234567890";
-        when(accountRepository.findByAccountNumberWithUser(accountNumber)).thenReturn(Optional.of(account));
-        when(transactionMapper.toEntity(createTransactionRequest)).thenReturn(transaction);
-
-        // Simulate multiple collisions before finding unique ID
-        when(transactionRepository.existsById(anyString()))
-                .thenReturn(true)   // 1st attempt - collision
-                .thenReturn(true)   // 2nd attempt - collision
-                .thenReturn(true)   // 3rd attempt - collision
-                .thenReturn(true)   // 4th attempt - collision
-                .thenReturn(false); // 5th attempt - success
-
-        when(accountRepository.save(account)).thenAnswer(invocation -> {
-            Account savedAccount = invocation.getArgument(0);
-            savedAccount.getTransactions().add(transaction);
-            return savedAccount;
-        });
-        when(transactionMapper.toResponse(transaction)).thenReturn(transactionResponse);
-
-        transactionService.createTransaction(accountNumber, createTransactionRequest, userId);
-
-        verify(transactionRepository, times(5)).existsById(anyString());
-        verify(accountRepository).save(account);
+        verify(transactionRepository).findViewPageByAccountNumber(eq(accountNumber), any(Pageable.class));
     }
 
     @Test
     void createDepositTransactionWithLargeAccountBalance() {
         String accountNumber = "01234567";
         String userId = "usr-1234567890";
-        account.setBalance(9999.99); // Near maximum balance
+        account.setBalance(Money.fromDecimal(9999.99)); // Near maximum balance
         CreateTransactionRequest smallDepositRequest = new CreateTransactionRequest()
                 .amount(0.01)
                 .currency(CreateTransactionRequest.CurrencyEnum.GBP)
                 .type(CreateTransactionRequest.TypeEnum.DEPOSIT)
                 .reference("Small deposit to large balance");
 
-        when(accountRepository.findByAccountNumberWithUser(accountNumber)).thenReturn(Optional.of(account));
+        when(accountRepository.findByAccountNumber(accountNumber)).thenReturn(Optional.of(account));
         when(transactionMapper.toEntity(smallDepositRequest)).thenReturn(transaction);
-        when(transactionRepository.existsById(anyString())).thenReturn(false);
-        when(accountRepository.save(account)).thenAnswer(invocation -> {
-            Account savedAccount = invocation.getArgument(0);
-            savedAccount.getTransactions().add(transaction);
-            return savedAccount;
-        });
+        when(transactionIdAllocator.nextId()).thenReturn("tan-1a2b3c");
+        when(transactionRepository.save(transaction)).thenReturn(transaction);
         when(transactionMapper.toResponse(transaction)).thenReturn(transactionResponse);
 
         TransactionResponse result = transactionService.createTransaction(accountNumber, smallDepositRequest, userId);
 
         assertThat(result).isEqualTo(transactionResponse);
-        assertThat(account.getBalance()).isEqualTo(10000.00); // Reaches maximum allowed balance
+        assertThat(account.getBalance()).isEqualTo(Money.fromDecimal(10000.00)); // Reaches maximum allowed balance
         verify(accountRepository).save(account);
     }
 
@@ -813,28 +917,27 @@ class TransactionServiceTest {
     void createWithdrawalTransactionLeavingAccountWithZeroBalance() {
         String accountNumber = "01234567";
         String userId = "usr-1234567890";
-        account.setBalance(50.00);
+        account.setBalance(Money.fromDecimal(50.00));
         CreateTransactionRequest fullWithdrawalRequest = new CreateTransactionRequest()
                 .amount(50.00)
                 .currency(CreateTransactionRequest.CurrencyEnum.GBP)
                 .type(CreateTransactionRequest.TypeEnum.WITHDRAWAL)
                 .reference("Full balance withdrawal");
 
-        when(accountRepository.findByAccountNumberWithUser(accountNumber)).thenReturn(Optional.of(account));
+        when(accountRepository.findOwnerIdByAccountNumber(accountNumber)).thenReturn(Optional.of(userId));
+        when(accountRepository.debitIfSufficient(accountNumber, 5000L)).thenReturn(1);
+        when(accountRepository.getReferenceById(accountNumber)).thenReturn(account);
         when(transactionMapper.toEntity(fullWithdrawalRequest)).thenReturn(transaction);
-        when(transactionRepository.existsById(anyString())).thenReturn(false);
-        when(accountRepository.save(account)).thenAnswer(invocation -> {
-            Account savedAccount = invocation.getArgument(0);
-            savedAccount.getTransactions().add(transaction);
-            return savedAccount;
-        });
-        when(transactionMapper.toResponse(transaction)).thenReturn(transactionResponse);
+        when(transactionIdAllocator.nextId()).thenReturn("tan-1a2b3c");
+        when(transactionRepository.save(transaction)).thenReturn(transaction);
+        when(transactionMapper.toResponse(transaction, userId)).thenReturn(transactionResponse);
 
         TransactionResponse result = transactionService.createTransaction(accountNumber, fullWithdrawalRequest, userId);
 
         assertThat(result).isEqualTo(transactionResponse);
-        assertThat(account.getBalance()).isEqualTo(0.00);
-        verify(accountRepository).save(account);
+        verify(accountRepository).debitIfSufficient(accountNumber, 5000L);
+        verify(accountRepository, never()).findByAccountNumber(anyString());
+        verify(accountRepository, never()).save(any());
     }
 
     @Test
@@ -843,14 +946,19 @@ class TransactionServiceTest {
         String accountNumber = "01234567";
         String userId = "usr-1234567890";
 
-        when(accountRepository.findByAccountNumberWithUser(accountNumber)).thenReturn(Optional.of(account));
-        when(transactionRepository.findByIdAndAccount_AccountNumber(transactionId, accountNumber))
-                .thenReturn(Optional.of(transaction));
-        when(transactionMapper.toResponse(transaction)).thenReturn(transactionResponse);
+        when(accountRepository.findOwnerIdByAccountNumber(accountNumber)).thenReturn(Optional.of(account.getUser().getId()));
+        when(transactionRepository.findViewByIdAndAccountNumber(transactionId, accountNumber))
+                .thenReturn(Optional.of(transactionView));
+        when(transactionMapper.fromView(transactionView, userId)).thenReturn(transactionResponse);
 
         TransactionResponse result = transactionService.findByIdAndAccountNumber(transactionId, accountNumber, userId);
 
         assertThat(result).isEqualTo(transactionResponse);
-        verify(transactionRepository).findByIdAndAccount_AccountNumber(transactionId, accountNumber);
+        verify(transactionRepository).findViewByIdAndAccountNumber(transactionId, accountNumber);
+    }
+
+    private static TransactionView view(String id, LocalDateTime createdTimestamp) {
+        return new TransactionView(id, Money.fromDecimal(1.00), Transaction.TransactionType.DEPOSIT,
+                Transaction.Currency.GBP, null, createdTimestamp);
     }
 }
@@ -0,0 +1,66 @@
+package org.example.service;
+
+import org.example.model.CreateUserRequest;
+import org.example.model.CreateUserRequestAddress;
+import org.example.repository.UserRepository;
+import org.example.security.PasswordHasher;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Checks that sign-up hashes the password before any transaction, so no connection is held while it waits
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:userhashingdb",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+        "logging.level.org.springframework.security=WARN",
+        "logging.level.org.example=WARN"
+})
+class UserServiceHashingTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @SpyBean
+    private PasswordHasher passwordHasher;
+
+    @Test
+    void createUserHashesOutsideAnyTransactionAndThenSaves() {
+        AtomicBoolean hashedInTransaction = new AtomicBoolean(true);
+        doAnswer(invocation -> {
+            hashedInTransaction.set(TransactionSynchronizationManager.isActualTransactionActive());
+            return invocation.callRealMethod();
+        }).when(passwordHasher).encode(anyString());
+
+        String userId = userService.createUser(new CreateUserRequest()
+                .name("Hashing Test")
+                .email("hashing@example.com")
+                .password("Passw0rd!")
+                .phoneNumber("+447123456789")
+                .address(new CreateUserRequestAddress()
+                        .line1("1 Test Street")
+                        .town("London")
+                        .county("Greater London")
+                        .postcode("SW1A 1AA"))).getId();
+
+        assertThat(hashedInTransaction).isFalse();
+        assertThat(userRepository.findById(userId)).hasValueSatisfying(user ->
+                assertThat(passwordHasher.matches("Passw0rd!", user.getPasswordHash())).isTrue());
+    }
+}
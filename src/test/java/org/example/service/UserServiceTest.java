@@ -10,13 +10,14 @@ import org.example.model.UpdateUserRequest;
 import org.example.model.UserResponse;
 import org.example.repository.AccountRepository;
 import org.example.repository.UserRepository;
+import org.example.security.PasswordHasher;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
@@ -39,7 +40,10 @@ class UserServiceTest {
     private UserMapper userMapper;
 
     @Mock
-    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
+
+    @Spy
+    private ShardRouter shardRouter = new SingleDatabaseShardRouter();
 
     @InjectMocks
     private UserService userService;
@@ -163,7 +167,7 @@ class UserServiceTest {
     void createUserSuccessfully() {
         // Given
         when(userMapper.toEntity(createUserRequest)).thenReturn(user);
-        when(passwordEncoder.encode("password123")).thenReturn("hashedPassword");
+        when(passwordHasher.encode("password123")).thenReturn("hashedPassword");
         when(userRepository.save(any(User.class))).thenReturn(user);
         when(userMapper.toResponse(user)).thenReturn(userResponse);
 
@@ -173,7 +177,7 @@ class UserServiceTest {
         // Then
         assertThat(result).isEqualTo(userResponse);
         verify(userMapper).toEntity(createUserRequest);
-        verify(passwordEncoder).encode("password123");
+        verify(passwordHasher).encode("password123");
         verify(userRepository).save(any(User.class));
         verify(userMapper).toResponse(user);
     }
@@ -291,7 +295,7 @@ class UserServiceTest {
     @Test
     void createUserGeneratesUniqueUserIdWithUsrPrefix() {
         when(userMapper.toEntity(createUserRequest)).thenReturn(user);
-        when(passwordEncoder.encode("password123")).thenReturn("hashedPassword");
+        when(passwordHasher.encode("password123")).thenReturn("hashedPassword");
         when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
             User savedUser = invocation.getArgument(0);
             assertThat(savedUser.getId()).matches("^usr-[a-z0-9]{10}$");
@@ -307,7 +311,7 @@ class UserServiceTest {
     @Test
     void createUserHashesPasswordBeforeSaving() {
         when(userMapper.toEntity(createUserRequest)).thenReturn(user);
-        when(passwordEncoder.encode("password123")).thenReturn("hashedPassword123");
+        when(passwordHasher.encode("password123")).thenReturn("hashedPassword123");
         when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
             User savedUser = invocation.getArgument(0);
             assertThat(savedUser.getPasswordHash()).isEqualTo("hashedPassword123");
@@ -317,7 +321,7 @@ class UserServiceTest {
 
         userService.createUser(createUserRequest);
 
-        verify(passwordEncoder).encode("password123");
+        verify(passwordHasher).encode("password123");
         verify(userRepository).save(any(User.class));
     }
 
@@ -372,13 +376,13 @@ class UserServiceTest {
         );
 
         when(userMapper.toEntity(requestWithComplexPassword)).thenReturn(user);
-        when(passwordEncoder.encode(complexPassword)).thenReturn("hashedComplexPassword");
+        when(passwordHasher.encode(complexPassword)).thenReturn("hashedComplexPassword");
         when(userRepository.save(any(User.class))).thenReturn(user);
         when(userMapper.toResponse(user)).thenReturn(userResponse);
 
         userService.createUser(requestWithComplexPassword);
 
-        verify(passwordEncoder).encode(complexPassword);
+        verify(passwordHasher).encode(complexPassword);
     }
 
     @Test
@@ -416,4 +420,24 @@ class UserServiceTest {
         verify(accountRepository).existsByUserId(userId);
         verify(userRepository, never()).deleteById(any());
     }
+
+    @Test
+    void updatePasswordHashSavesNewHash() {
+        when(userRepository.findById("usr-1234567890")).thenReturn(Optional.of(user));
+
+        userService.updatePasswordHash("usr-1234567890", "{bcrypt}newHash");
+
+        assertThat(user.getPasswordHash()).isEqualTo("{bcrypt}newHash");
+        verify(userRepository).save(user);
+    }
+
+    @Test
+    void updatePasswordHashThrowsUserNotFoundExceptionWhenUserDoesNotExist() {
+        when(userRepository.findById("usr-nonexistent")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> userService.updatePasswordHash("usr-nonexistent", "{bcrypt}newHash"))
+                .isInstanceOf(UserNotFoundException.class);
+
+        verify(userRepository, never()).save(any());
+    }
 }